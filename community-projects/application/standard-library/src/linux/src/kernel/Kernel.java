@@ -12,5 +12,6 @@ public class Kernel
 	{
 		System._system = new LinSystem();
 		AppEntry.start(System._system.getCommandLineArgs());
+		System.out.flush();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package kernel.linux;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams a file in large blocks through one reusable buffer, so files of any size are read in constant memory
+ */
+public class LinFileInputStream extends InputStream
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final byte[] buffer;
+	private int fd;
+	private int position;
+	private int limit;
+	
+	public LinFileInputStream(String path) throws IOException
+	{
+		fd = Linux.open(path, Linux.O_RDONLY | Linux.O_LARGEFILE, 0);
+		
+		if (Linux.isError(fd))
+			throw new IOException(new StringBuilder("Unable to open file: ").append(path));
+		
+		buffer = new byte[BUFFER_SIZE];
+	}
+	
+	@Override
+	public int read() throws IOException
+	{
+		if (position >= limit && !fill())
+			return -1;
+		
+		return buffer[position++] & 0xFF;
+	}
+	
+	@Override
+	public int read(byte[] dest, int destPos, int length) throws IOException
+	{
+		if (length <= 0)
+			return 0;
+		
+		if (position >= limit)
+		{
+			//large requests bypass the buffer and go directly to the kernel
+			if (length >= BUFFER_SIZE)
+				return check(Linux.read(fd, dest, destPos, length), true);
+			
+			if (!fill())
+				return -1;
+		}
+		
+		int bytesRead = Math.min(length, limit - position);
+		Arrays.copy(buffer, position, dest, destPos, bytesRead);
+		position += bytesRead;
+		return bytesRead;
+	}
+	
+	@Override
+	public long skip(long n) throws IOException
+	{
+		if (n <= 0)
+			return 0;
+		
+		long buffered = Math.min(n, limit - position);
+		position += (int) buffered;
+		n -= buffered;
+		
+		if (n == 0)
+			return buffered;
+		
+		//seek over the rest without reading it, but not beyond the end of the file
+		int current = check(Linux.lseek(fd, 0, Linux.SEEK_CUR), false);
+		int end = check(Linux.lseek(fd, 0, Linux.SEEK_END), false);
+		int skipped = (int) Math.min(n, end - current);
+		check(Linux.lseek(fd, current + skipped, Linux.SEEK_SET), false);
+		return buffered + skipped;
+	}
+	
+	@Override
+	public int available() throws IOException
+	{
+		return limit - position;
+	}
+	
+	@Override
+	public void mark(int readlimit)
+	{
+	}
+	
+	@Override
+	public void reset() throws IOException
+	{
+		throw new IOException("mark/reset not supported");
+	}
+	
+	@Override
+	public boolean markSupported()
+	{
+		return false;
+	}
+	
+	@Override
+	public void close() throws IOException
+	{
+		if (fd < 0)
+			return;
+		
+		Linux.close(fd);
+		fd = -1;
+	}
+	
+	private boolean fill() throws IOException
+	{
+		int bytesRead = check(Linux.read(fd, buffer, 0, BUFFER_SIZE), true);
+		
+		if (bytesRead <= 0)
+			return false;
+		
+		position = 0;
+		limit = bytesRead;
+		return true;
+	}
+	
+	private int check(int res, boolean endOfFile) throws IOException
+	{
+		if (fd < 0)
+			throw new IOException("Stream closed");
+		
+		if (Linux.isError(res))
+			throw new IOException(new StringBuilder("Read failed with error ").append(-res));
+		
+		//a read of 0 bytes marks the end of the file
+		if (endOfFile && res == 0)
+			return -1;
+		
+		return res;
+	}
+}
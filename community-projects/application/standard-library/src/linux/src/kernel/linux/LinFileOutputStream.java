@@ -0,0 +1,97 @@
+package kernel.linux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Collects written bytes in one reusable buffer and hands them to the kernel in large blocks
+ */
+public class LinFileOutputStream extends OutputStream
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private byte[] buffer;
+	private int fd;
+	private int count;
+	
+	public LinFileOutputStream(String path, boolean append) throws IOException
+	{
+		this(openFile(path, append));
+	}
+	
+	/**
+	 * Creates a stream for an already opened file, the stream takes ownership of the file descriptor
+	 */
+	public LinFileOutputStream(int fd)
+	{
+		this.fd = fd;
+		buffer = new byte[BUFFER_SIZE];
+	}
+	
+	@Override
+	public void write(int b) throws IOException
+	{
+		if (count == BUFFER_SIZE)
+			flush();
+		
+		buffer[count++] = (byte) b;
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		if (len > BUFFER_SIZE - count)
+			flush();
+		
+		//large blocks bypass the buffer and go directly to the kernel
+		if (len >= BUFFER_SIZE)
+		{
+			writeFully(b, off, len);
+			return;
+		}
+		
+		Arrays.copy(b, off, buffer, count, len);
+		count += len;
+	}
+	
+	@Override
+	public void flush() throws IOException
+	{
+		if (count == 0)
+			return;
+		
+		writeFully(buffer, 0, count);
+		count = 0;
+	}
+	
+	@Override
+	public void close() throws IOException
+	{
+		if (fd < 0)
+			return;
+		
+		flush();
+		Linux.close(fd);
+		fd = -1;
+	}
+	
+	private void writeFully(byte[] b, int off, int len) throws IOException
+	{
+		if (fd < 0)
+			throw new IOException("Stream closed");
+		
+		if (!Linux.writeFully(fd, b, off, len))
+			throw new IOException("Write failed");
+	}
+	
+	private static int openFile(String path, boolean append) throws IOException
+	{
+		int flags = Linux.O_WRONLY | Linux.O_CREAT | Linux.O_LARGEFILE | (append ? Linux.O_APPEND : Linux.O_TRUNC);
+		int fd = Linux.open(path, flags, 0x1A4); //rw-r--r--
+		
+		if (Linux.isError(fd))
+			throw new IOException(new StringBuilder("Unable to open file: ").append(path));
+		
+		return fd;
+	}
+}
@@ -0,0 +1,132 @@
+package kernel.linux;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a file through a read-only memory mapping, avoids copying big inputs through the kernel in blocks
+ */
+public class LinMappedInputStream extends InputStream
+{
+	private int address;
+	private final int size;
+	private int position;
+	private int markPosition;
+	
+	public LinMappedInputStream(String path) throws IOException
+	{
+		int fd = Linux.open(path, Linux.O_RDONLY | Linux.O_LARGEFILE, 0);
+		
+		if (Linux.isError(fd))
+			throw new IOException(new StringBuilder("Unable to open file: ").append(path));
+		
+		byte[] stat = new byte[Linux.STAT_SIZE];
+		long fileSize = Linux.isError(Linux.fstat(fd, stat)) ? -1 : Linux.getStatSize(stat);
+		
+		if (fileSize < 0 || fileSize > 0x7FFFFFFF)
+		{
+			Linux.close(fd);
+			throw new IOException(new StringBuilder("Unable to map file: ").append(path));
+		}
+		
+		size = (int) fileSize;
+		
+		//empty files can not be mapped, they are read as an empty stream
+		if (size > 0)
+			address = Linux.mmap(fd, size);
+		
+		//the mapping stays valid after the file is closed
+		Linux.close(fd);
+		
+		if (Linux.isError(address))
+			throw new IOException(new StringBuilder("Unable to map file: ").append(path));
+	}
+	
+	@Override
+	public int read() throws IOException
+	{
+		if (position >= size)
+			return -1;
+		
+		return MAGIC.rMem8(address + position++) & 0xFF;
+	}
+	
+	@Override
+	public int read(byte[] dest, int destPos, int length) throws IOException
+	{
+		if (length <= 0)
+			return 0;
+		
+		if (position >= size)
+			return -1;
+		
+		int bytesRead = Math.min(length, size - position);
+		
+		if (destPos < 0 || destPos + bytesRead > dest.length)
+			throw new IndexOutOfBoundsException(new StringBuilder("Index Out Of Bounds: start=")
+					.append(destPos).append(", length=")
+					.append(bytesRead));
+		
+		int src = address + position;
+		int dst = MAGIC.addr(dest[destPos]);
+		int i;
+		
+		//copy words first, the rest byte by byte
+		for (i = 0; i + 4 <= bytesRead; i += 4)
+			MAGIC.wMem32(dst + i, MAGIC.rMem32(src + i));
+		
+		while (i < bytesRead)
+		{
+			MAGIC.wMem8(dst + i, MAGIC.rMem8(src + i));
+			i++;
+		}
+		
+		position += bytesRead;
+		return bytesRead;
+	}
+	
+	@Override
+	public long skip(long n) throws IOException
+	{
+		if (n <= 0)
+			return 0;
+		
+		long skipped = Math.min(n, size - position);
+		position += (int) skipped;
+		return skipped;
+	}
+	
+	@Override
+	public int available() throws IOException
+	{
+		return size - position;
+	}
+	
+	@Override
+	public void mark(int readlimit)
+	{
+		markPosition = position;
+	}
+	
+	@Override
+	public void reset() throws IOException
+	{
+		position = markPosition;
+	}
+	
+	@Override
+	public boolean markSupported()
+	{
+		return true;
+	}
+	
+	@Override
+	public void close() throws IOException
+	{
+		if (address != 0)
+			Linux.munmap(address, size);
+		
+		address = 0;
+		position = size;
+	}
+}
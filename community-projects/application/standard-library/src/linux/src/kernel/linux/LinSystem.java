@@ -1,5 +1,7 @@
 package kernel.linux;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -9,6 +11,20 @@ import java.io.OutputStream;
  */
 public class LinSystem extends System
 {
+	/**
+	 * Files of at least this size are read through a memory mapping
+	 */
+	private static final int MAP_THRESHOLD = 1024 * 1024;
+	
+	/**
+	 * Size of the buffer reused to copy file contents and read directory entries
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private static byte[] buffer;
+	
+	private static final byte[] stat = new byte[Linux.STAT_SIZE];
+	
 	public LinSystem()
 	{
 		super("Linux");
@@ -17,16 +33,11 @@ public class LinSystem extends System
 	@Override
 	public String[] getCommandLineArgs()
 	{
-		int argc = 0;
-		int argv = 0;
-		
-		// Get the address of the argv array
-		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, x86.MODRM_RM | x86.REG_EBP, x86.EBP_PLUS_8);      // mov eax, [ebp+8]
-		MAGIC.inline(x86.PUSH, x86.MODRM_RM | x86.REG_OPCODE_PUSH | x86.REG_EBP, x86.EBP_MINUS_12); // push dword [ebp-12 => address of path
-		
-		// Get the value of argc
-		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, x86.MODRM_RM | x86.REG_EBP, x86.EBP_PLUS_12);     // mov eax, [ebp+12]
-		MAGIC.inline(x86.PUSH, x86.MODRM_RM | x86.REG_OPCODE_PUSH | x86.REG_EBP, x86.EBP_MINUS_12); // push dword [ebp-12 => address of path
+		//the startup code saved the initial stack pointer right before the image,
+		//it points to argc followed by the argv array
+		int sp = MAGIC.rMem32(MAGIC.imageBase - 4);
+		int argc = MAGIC.rMem32(sp);
+		int argv = sp + 4;
 		
 		String[] args = new String[argc];
 		
@@ -51,55 +62,186 @@ public class LinSystem extends System
 	@Override
 	public boolean isDirectory(String path)
 	{
-		return false;
+		return (getMode(path) & Linux.S_IFMT) == Linux.S_IFDIR;
 	}
 	
 	@Override
 	public boolean doesExist(String path)
 	{
-		return false;
+		return Linux.access(path, Linux.F_OK) == 0;
 	}
 	
 	@Override
 	public boolean delete(String path)
 	{
-		return false;
+		return Linux.unlink(path) == 0 || Linux.rmdir(path) == 0;
 	}
 	
 	@Override
 	public boolean createDirectory(String path)
 	{
-		return false;
+		return Linux.mkdir(path, 0x1ED) == 0; //rwxr-xr-x
 	}
 	
 	@Override
 	public boolean rename(String oldPath, String newPath)
 	{
-		return false;
+		return Linux.rename(oldPath, newPath) == 0;
 	}
 	
 	@Override
 	public long getSize(String path)
 	{
-		return 0;
+		int fd = Linux.open(path, Linux.O_RDONLY | Linux.O_LARGEFILE, 0);
+		
+		if (Linux.isError(fd))
+			return 0;
+		
+		long size = Linux.isError(Linux.fstat(fd, stat)) ? 0 : Linux.getStatSize(stat);
+		Linux.close(fd);
+		return size;
 	}
 	
 	@Override
 	public String[] listDirectory(String path)
 	{
-		return null;
+		int fd = Linux.open(path, Linux.O_RDONLY | Linux.O_DIRECTORY | Linux.O_LARGEFILE, 0);
+		
+		if (Linux.isError(fd))
+			return null;
+		
+		if (buffer == null)
+			buffer = new byte[BUFFER_SIZE];
+		
+		String[] names = new String[16];
+		int count = 0;
+		int length;
+		
+		while ((length = Linux.getdents(fd, buffer)) > 0)
+		{
+			//struct linux_dirent: d_ino, d_off, d_reclen (16 bit), zero terminated d_name
+			for (int entry = 0; entry < length; entry += (buffer[entry + 8] & 0xFF) | ((buffer[entry + 9] & 0xFF) << 8))
+			{
+				StringBuilder sb = new StringBuilder();
+				
+				for (int i = entry + 10; buffer[i] != 0; i++)
+					sb.append((char) (buffer[i] & 0xFF));
+				
+				String name = sb.toString();
+				
+				if (name.equals(".") || name.equals(".."))
+					continue;
+				
+				if (count == names.length)
+				{
+					String[] newNames = new String[count * 2];
+					Arrays.copy(names, 0, newNames, 0, count);
+					names = newNames;
+				}
+				
+				names[count++] = name;
+			}
+		}
+		
+		Linux.close(fd);
+		
+		String[] result = new String[count];
+		Arrays.copy(names, 0, result, 0, count);
+		return result;
+	}
+	
+	@Override
+	public OutputStream read(String path) throws IOException
+	{
+		long size = getSize(path);
+		
+		//big inputs are mapped instead of being copied through the kernel block by block
+		InputStream in = size >= MAP_THRESHOLD ? openMappedInputStream(path) : openInputStream(path);
+		ByteArrayOutputStream out = new ByteArrayOutputStream((int) size + 1);
+		
+		if (buffer == null)
+			buffer = new byte[BUFFER_SIZE];
+		
+		int length;
+		
+		while ((length = in.read(buffer, 0, BUFFER_SIZE)) > 0)
+			out.write(buffer, 0, length);
+		
+		in.close();
+		return out;
+	}
+	
+	@Override
+	public void write(String path, int offset, InputStream stream, boolean append) throws IOException
+	{
+		int flags = Linux.O_WRONLY | Linux.O_CREAT | Linux.O_LARGEFILE;
+		
+		if (append)
+			flags |= Linux.O_APPEND;
+		else if (offset == 0)
+			flags |= Linux.O_TRUNC;
+		
+		int fd = Linux.open(path, flags, 0x1A4); //rw-r--r--
+		
+		if (Linux.isError(fd))
+			throw new IOException(new StringBuilder("Unable to open file: ").append(path));
+		
+		if (!append && offset > 0 && Linux.isError(Linux.lseek(fd, offset, Linux.SEEK_SET)))
+		{
+			Linux.close(fd);
+			throw new IOException(new StringBuilder("Unable to seek in file: ").append(path));
+		}
+		
+		if (buffer == null)
+			buffer = new byte[BUFFER_SIZE];
+		
+		int length;
+		
+		while ((length = stream.read(buffer, 0, BUFFER_SIZE)) > 0)
+		{
+			if (!Linux.writeFully(fd, buffer, 0, length))
+			{
+				Linux.close(fd);
+				throw new IOException(new StringBuilder("Unable to write file: ").append(path));
+			}
+		}
+		
+		Linux.close(fd);
 	}
 	
 	@Override
-	public OutputStream read(String path)
+	public InputStream openInputStream(String path) throws IOException
 	{
-		return null;
+		return new LinFileInputStream(path);
+	}
+	
+	/**
+	 * Opens a file through a read-only memory mapping, preferable for big inputs
+	 *
+	 * @param path the file to read
+	 * @return a stream reading the mapped file
+	 */
+	public InputStream openMappedInputStream(String path) throws IOException
+	{
+		return new LinMappedInputStream(path);
 	}
 	
 	@Override
-	public void write(String path, int offset, InputStream stream, boolean append)
+	public OutputStream openOutputStream(String path, boolean append) throws IOException
 	{
+		return new LinFileOutputStream(path, append);
+	}
 	
+	private int getMode(String path)
+	{
+		int fd = Linux.open(path, Linux.O_RDONLY | Linux.O_LARGEFILE, 0);
+		
+		if (Linux.isError(fd))
+			return 0;
+		
+		int mode = Linux.isError(Linux.fstat(fd, stat)) ? 0 : Linux.getStatMode(stat);
+		Linux.close(fd);
+		return mode;
 	}
 	
 	@Override
@@ -115,4 +257,10 @@ public class LinSystem extends System
 		//MAGIC.inline(x86.MOV_EBX_IMMEDIATE, 0x01, 0x00, 0x00, 0x00);              //mov ebx,1 (handle for std-out)
 		//MAGIC.inline(x86.SYSCALL, 0x80);                                          //call kernel
 	}
+	
+	@Override
+	public void print(byte[] buffer, int offset, int length)
+	{
+		Linux.writeFully(1, buffer, offset, length);
+	}
 }
\ No newline at end of file
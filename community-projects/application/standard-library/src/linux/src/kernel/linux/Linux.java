@@ -0,0 +1,206 @@
+package kernel.linux;
+
+/**
+ * Wrappers for the Linux system calls of the 32 bit ABI (int 0x80).
+ * All methods return the raw result of the kernel, errors are returned as negative error codes.
+ */
+public class Linux
+{
+	public static final int O_RDONLY = 0x0000;
+	public static final int O_WRONLY = 0x0001;
+	public static final int O_CREAT = 0x0040;
+	public static final int O_TRUNC = 0x0200;
+	public static final int O_APPEND = 0x0400;
+	public static final int O_LARGEFILE = 0x8000;
+	public static final int O_DIRECTORY = 0x10000;
+	
+	public static final int SEEK_SET = 0;
+	public static final int SEEK_CUR = 1;
+	public static final int SEEK_END = 2;
+	
+	public static final int F_OK = 0;
+	
+	public static final int S_IFMT = 0xF000;
+	public static final int S_IFDIR = 0x4000;
+	
+	public static final int PROT_READ = 0x1;
+	public static final int MAP_PRIVATE = 0x02;
+	
+	/**
+	 * Size of struct stat64 filled by fstat
+	 */
+	public static final int STAT_SIZE = 96;
+	
+	private static final int SYS_READ = 3;
+	private static final int SYS_WRITE = 4;
+	private static final int SYS_OPEN = 5;
+	private static final int SYS_CLOSE = 6;
+	private static final int SYS_UNLINK = 10;
+	private static final int SYS_LSEEK = 19;
+	private static final int SYS_ACCESS = 33;
+	private static final int SYS_RENAME = 38;
+	private static final int SYS_MKDIR = 39;
+	private static final int SYS_RMDIR = 40;
+	private static final int SYS_MMAP = 90;
+	private static final int SYS_MUNMAP = 91;
+	private static final int SYS_GETDENTS = 141;
+	private static final int SYS_FSTAT64 = 197;
+	
+	public static boolean isError(int res)
+	{
+		//addresses returned by mmap may be negative, error codes are in -4095..-1
+		return res < 0 && res >= -4095;
+	}
+	
+	public static int open(String path, int flags, int mode)
+	{
+		byte[] name = toCString(path);
+		return syscall(SYS_OPEN, MAGIC.addr(name[0]), flags, mode);
+	}
+	
+	public static int close(int fd)
+	{
+		return syscall(SYS_CLOSE, fd, 0, 0);
+	}
+	
+	public static int read(int fd, byte[] buffer, int offset, int length)
+	{
+		if (length <= 0)
+			return 0;
+		
+		return syscall(SYS_READ, fd, MAGIC.addr(buffer[offset]), length);
+	}
+	
+	public static int write(int fd, byte[] buffer, int offset, int length)
+	{
+		if (length <= 0)
+			return 0;
+		
+		return syscall(SYS_WRITE, fd, MAGIC.addr(buffer[offset]), length);
+	}
+	
+	/**
+	 * Writes the whole span, the kernel may write less than requested for a single call
+	 *
+	 * @return true if all bytes were written
+	 */
+	public static boolean writeFully(int fd, byte[] buffer, int offset, int length)
+	{
+		int written;
+		
+		while (length > 0)
+		{
+			if ((written = write(fd, buffer, offset, length)) <= 0)
+				return false;
+			
+			offset += written;
+			length -= written;
+		}
+		
+		return true;
+	}
+	
+	public static int lseek(int fd, int offset, int whence)
+	{
+		return syscall(SYS_LSEEK, fd, offset, whence);
+	}
+	
+	public static int getdents(int fd, byte[] buffer)
+	{
+		return syscall(SYS_GETDENTS, fd, MAGIC.addr(buffer[0]), buffer.length);
+	}
+	
+	/**
+	 * Fills the given buffer of STAT_SIZE bytes with the struct stat64 of an open file
+	 */
+	public static int fstat(int fd, byte[] stat)
+	{
+		return syscall(SYS_FSTAT64, fd, MAGIC.addr(stat[0]), 0);
+	}
+	
+	public static int getStatMode(byte[] stat)
+	{
+		return MAGIC.rMem32(MAGIC.addr(stat[16]));
+	}
+	
+	public static long getStatSize(byte[] stat)
+	{
+		return MAGIC.rMem64(MAGIC.addr(stat[44]));
+	}
+	
+	public static int access(String path, int mode)
+	{
+		byte[] name = toCString(path);
+		return syscall(SYS_ACCESS, MAGIC.addr(name[0]), mode, 0);
+	}
+	
+	public static int unlink(String path)
+	{
+		byte[] name = toCString(path);
+		return syscall(SYS_UNLINK, MAGIC.addr(name[0]), 0, 0);
+	}
+	
+	public static int mkdir(String path, int mode)
+	{
+		byte[] name = toCString(path);
+		return syscall(SYS_MKDIR, MAGIC.addr(name[0]), mode, 0);
+	}
+	
+	public static int rmdir(String path)
+	{
+		byte[] name = toCString(path);
+		return syscall(SYS_RMDIR, MAGIC.addr(name[0]), 0, 0);
+	}
+	
+	public static int rename(String oldPath, String newPath)
+	{
+		byte[] oldName = toCString(oldPath);
+		byte[] newName = toCString(newPath);
+		return syscall(SYS_RENAME, MAGIC.addr(oldName[0]), MAGIC.addr(newName[0]), 0);
+	}
+	
+	/**
+	 * Maps a whole file read-only into memory
+	 *
+	 * @param fd     the open file
+	 * @param length the number of bytes to map
+	 * @return the address of the mapping or a negative error code, see isError
+	 */
+	public static int mmap(int fd, int length)
+	{
+		//old_mmap takes its six parameters in memory, this keeps ebp untouched
+		int[] args = new int[6];
+		args[1] = length;
+		args[2] = PROT_READ;
+		args[3] = MAP_PRIVATE;
+		args[4] = fd;
+		return syscall(SYS_MMAP, MAGIC.addr(args[0]), 0, 0);
+	}
+	
+	public static int munmap(int address, int length)
+	{
+		return syscall(SYS_MUNMAP, address, length, 0);
+	}
+	
+	private static byte[] toCString(String s)
+	{
+		byte[] res = new byte[s.length() + 1];
+		
+		for (int i = 0; i < s.length(); i++)
+			res[i] = (byte) s.value[i];
+		
+		return res;
+	}
+	
+	private static int syscall(int number, int arg1, int arg2, int arg3)
+	{
+		int res = 0; /*ebp-4*/
+		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x45, x86.EBP_PLUS_20);   //mov eax,[ebp+20] (number)
+		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x5D, x86.EBP_PLUS_16);   //mov ebx,[ebp+16] (arg1)
+		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x4D, x86.EBP_PLUS_12);   //mov ecx,[ebp+12] (arg2)
+		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x55, x86.EBP_PLUS_8);    //mov edx,[ebp+8] (arg3)
+		MAGIC.inline(x86.SYSCALL, 0x80);                                    //call kernel
+		MAGIC.inline(x86.MOVE_REGISTER_TO_REGISTER, 0x45, x86.EBP_MINUS_4); //mov [ebp-4],eax
+		return res;
+	}
+}
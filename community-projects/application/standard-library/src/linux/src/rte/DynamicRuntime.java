@@ -10,6 +10,12 @@ public class DynamicRuntime
 	private final static int MEMBLOCK = 1024 * 1024; //1 MB per block
 	private final static int BLOCKMAX = 64 * 1024;   //allocate objects up to 64 KB in memblock
 	private static int nextFreeAddr, memFree;
+	
+	/**
+	 * Set to true to build with the size class allocator and mark-sweep collector of GarbageCollector,
+	 * otherwise objects are bump allocated and never freed
+	 */
+	public final static boolean USE_GC = false;
 
 	public static int currentThrowFrame;
 	
@@ -18,6 +24,9 @@ public class DynamicRuntime
 		int addr, rs, size;
 		Object me;
 		
+		if (USE_GC)
+			return GarbageCollector.newInstance(scalarSize, relocEntries, type);
+		
 		//get informations
 		rs = relocEntries * MAGIC.ptrSize;
 		scalarSize = (scalarSize + MAGIC.ptrSize - 1) & ~(MAGIC.ptrSize - 1);
@@ -58,8 +67,14 @@ public class DynamicRuntime
 		return result;
 	}
 	
-	private static void setMem32(int addr, int cnt, int val)
+	static void setMem32(int addr, int cnt, int val)
 	{
+		if (val == 0)
+		{
+			MAGIC.fillMem(addr, (byte) 0, cnt << 2);
+			return;
+		}
+		
 		MAGIC.inline(x86.PUSH_REGISTER);                 //push edi
 		MAGIC.inline(x86.CLEAR_DIRECTION_FLAG);                      //cld
 		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x7D, 0x10);  //mov edi,[ebp+16]
@@ -120,13 +135,10 @@ public class DynamicRuntime
 				return true; //null matches all
 			return false; //null is not an instance
 		}
+		//the display contains the ancestor of each depth, so dest has to be at its own depth
 		check = o._r_type;
-		while (check != null)
-		{
-			if (check == dest)
-				return true;
-			check = check.parent;
-		}
+		if (check.depth >= dest.depth && check.display[dest.depth] == dest)
+			return true;
 		if (asCast)
 			rtError();
 		return false;
@@ -134,7 +146,17 @@ public class DynamicRuntime
 	
 	public static rte.SIntfMap isImplementation(Object o, rte.SIntfDesc dest, boolean asCast)
 	{
-		rtError();
+		rte.SIntfMap[] maps;
+		
+		if (o == null)
+			return null; //null matches all, but has no map
+		
+		maps = o._r_type.intfMaps;
+		if (maps != null && dest.id < maps.length && maps[dest.id] != null)
+			return maps[dest.id];
+		
+		if (asCast)
+			rtError();
 		return null;
 	}
 	
@@ -211,6 +233,7 @@ public class DynamicRuntime
 	{
 		System.out.print(new StringBuilder("Exception thrown-message: ").append(t.detailMessage));
 		System.out.print(new StringBuilder("Exception thrown-frame: ").append(currentThrowFrame));
+		System.out.flush();
 	}
 	
 	public static void rtError()
@@ -221,12 +244,13 @@ public class DynamicRuntime
 	
 	public static void exit(int status)
 	{
+		System.out.flush();
 		MAGIC.inline(x86.IMMEDIATE_DWORD, 0x01, 0x00, 0x00, 0x00);  //mov eax,1 (terminate process)
 		MAGIC.inline(x86.MOVE_MEMORY_TO_REGISTER, 0x5D, 0x08);                  //mov ebx,[ebp+8] (exit code)
 		MAGIC.inline(x86.SYSCALL, 0x80);                            //call kernel
 	}
 	
-	private static int brk(int newEnd)
+	static int brk(int newEnd)
 	{
 		int tmp = 0;
 		MAGIC.inline(x86.IMMEDIATE_DWORD, 0x2D, 0x00, 0x00, 0x00);  //mov eax,45 (brk)
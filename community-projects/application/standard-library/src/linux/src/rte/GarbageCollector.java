@@ -0,0 +1,431 @@
+package rte;
+
+/**
+ * Allocator with segregated size classes and a stop-the-world mark-sweep collector.
+ * The heap is taken from brk in chunks, each chunk holds cells of one size class or a part of one large object.
+ * Every cell starts with two header words (cell size with flags, number of reloc entries),
+ * followed by the reloc entries and the scalars of the object.
+ * Roots are found conservatively in the image (static fields) and on the stack,
+ * objects on the heap are scanned precisely through their reloc entries.
+ */
+public class GarbageCollector
+{
+	private final static int CHUNK_BITS = 15;
+	private final static int CHUNK_SIZE = 1 << CHUNK_BITS;      //32 KB per chunk
+	private final static int MAX_CHUNKS = 16 * 1024;            //512 MB heap
+	private final static int HEADER_SIZE = 8;
+	private final static int CLASS_COUNT = 17;                  //16, 24, 32, 48, ... 3072, 4096
+	private final static int MAX_SMALL_SIZE = 4096;             //bigger objects get a run of chunks
+	private final static int MIN_COLLECT_BYTES = 4 * 1024 * 1024;
+	private final static int MARK_STACK_SIZE = 1024;
+	
+	private final static int FLAG_USED = 1;
+	private final static int FLAG_MARKED = 2;
+	private final static int SIZE_MASK = ~3;
+	
+	//chunk states, chunks holding small cells store their size class + 1
+	private final static int CHUNK_FREE = 0;
+	private final static int CHUNK_LARGE = 100;
+	private final static int CHUNK_CONTINUED = 101;
+	
+	private final static int CLASS_TABLE_SIZE = MAX_SMALL_SIZE / 8 + 1;
+	
+	//the chunk table (one byte per chunk), the mark stack, the size class lookup (one byte per 8 bytes of size)
+	//and the free lists (first free cell of each size class) are placed in front of the heap, not in the image
+	private static int chunkTable, markStack, classTable, freeCells;
+	private static int heapStart, chunkCount;
+	private static int allocatedBytes, collectBytes;
+	private static int markCount;
+	private static boolean markOverflow, collecting;
+	
+	/**
+	 * Number of collections and bytes in live cells after the last collection
+	 */
+	public static int collections, liveBytes;
+	
+	public static Object newInstance(int scalarSize, int relocEntries, SClassDesc type)
+	{
+		int rs, size, cell, cellSize;
+		Object me;
+		
+		if (heapStart == 0)
+			init();
+		
+		rs = relocEntries * MAGIC.ptrSize;
+		size = HEADER_SIZE + rs + ((scalarSize + MAGIC.ptrSize - 1) & ~(MAGIC.ptrSize - 1));
+		
+		if (allocatedBytes >= collectBytes)
+			collect();
+		
+		if (size <= MAX_SMALL_SIZE)
+		{
+			cellSize = classSize(getSizeClass(size));
+			cell = allocSmall(getSizeClass(size));
+		}
+		else
+		{
+			cellSize = ((size + CHUNK_SIZE - 1) >> CHUNK_BITS) << CHUNK_BITS;
+			cell = allocLarge(cellSize >> CHUNK_BITS);
+		}
+		allocatedBytes += cellSize;
+		
+		//prepare object
+		DynamicRuntime.setMem32(cell, size >> 2, 0); //clear memory
+		MAGIC.wMem32(cell, cellSize | FLAG_USED);
+		MAGIC.wMem32(cell + 4, relocEntries);
+		me = MAGIC.cast2Obj(cell + HEADER_SIZE + rs); //place object
+		me._r_type = type; //set type
+		DynamicRuntime.objCnt++;
+		return me;
+	}
+	
+	/**
+	 * Frees all objects that are not reachable from static fields or the stack
+	 */
+	public static void collect()
+	{
+		int sp = 0; /*ebp-4*/
+		
+		//callers may hold references only in registers, so they are pushed to be found on the stack
+		MAGIC.inline(x86.PUSH_ALL);                                         //pushad
+		MAGIC.inline(x86.MOVE_REGISTER_TO_REGISTER, 0x65, x86.EBP_MINUS_4); //mov [ebp-4],esp
+		collect(sp);
+		MAGIC.inline(x86.POP_ALL);                                          //popad
+	}
+	
+	private static void collect(int sp)
+	{
+		int chunk, info, base, size, cell;
+		
+		if (heapStart == 0 || collecting)
+			return;
+		collecting = true;
+		
+		//the startup code saved the initial stack pointer right before the image
+		markRange(sp, MAGIC.rMem32(MAGIC.imageBase - 4));
+		//static fields are placed in the image
+		markRange(MAGIC.imageBase, MAGIC.imageBase + MAGIC.rMem32(MAGIC.imageBase + 4));
+		drain();
+		
+		//objects marked while the mark stack was full still have to be scanned
+		while (markOverflow)
+		{
+			markOverflow = false;
+			for (chunk = 0; chunk < chunkCount; chunk++)
+			{
+				info = getChunk(chunk);
+				if (info == CHUNK_FREE || info == CHUNK_CONTINUED)
+					continue;
+				base = heapStart + (chunk << CHUNK_BITS);
+				size = info == CHUNK_LARGE ? CHUNK_SIZE : classSize(info - 1);
+				for (cell = base; cell + size <= base + CHUNK_SIZE; cell += size)
+				{
+					if ((MAGIC.rMem32(cell) & FLAG_MARKED) != 0)
+					{
+						scan(cell);
+						drain();
+					}
+				}
+			}
+		}
+		
+		sweep();
+		collectBytes = liveBytes > MIN_COLLECT_BYTES ? liveBytes : MIN_COLLECT_BYTES;
+		allocatedBytes = 0;
+		collections++;
+		collecting = false;
+	}
+	
+	/**
+	 * @return the number of bytes currently taken from the system
+	 */
+	public static int heapSize()
+	{
+		return chunkCount << CHUNK_BITS;
+	}
+	
+	private static void init()
+	{
+		int start, size, sizeClass;
+		
+		start = DynamicRuntime.brk(0);
+		if (start <= 0)
+			outOfMemory();
+		chunkTable = start;
+		markStack = chunkTable + MAX_CHUNKS;
+		classTable = markStack + MARK_STACK_SIZE * MAGIC.ptrSize;
+		freeCells = (classTable + CLASS_TABLE_SIZE + 3) & ~3;
+		heapStart = (freeCells + CLASS_COUNT * 4 + CHUNK_SIZE - 1) & ~(CHUNK_SIZE - 1);
+		if (DynamicRuntime.brk(heapStart) < heapStart)
+			outOfMemory();
+		collectBytes = MIN_COLLECT_BYTES;
+		
+		//lookup from size in 8 byte steps to the smallest fitting size class
+		sizeClass = 0;
+		for (size = 0; size < CLASS_TABLE_SIZE; size++)
+		{
+			while (classSize(sizeClass) < size << 3)
+				sizeClass++;
+			MAGIC.wMem8(classTable + size, (byte) sizeClass);
+		}
+	}
+	
+	private static int classSize(int sizeClass)
+	{
+		//every power of two and the size halfway to the next one
+		return ((sizeClass & 1) == 0 ? 16 : 24) << (sizeClass >> 1);
+	}
+	
+	private static int allocSmall(int sizeClass)
+	{
+		int cell, base, size, next;
+		
+		if ((cell = getFreeCell(sizeClass)) == 0)
+		{ //split a new chunk into cells, linked in ascending order
+			base = heapStart + (findChunks(1) << CHUNK_BITS);
+			setChunk((base - heapStart) >> CHUNK_BITS, sizeClass + 1);
+			size = classSize(sizeClass);
+			next = 0;
+			for (cell = base + (CHUNK_SIZE / size - 1) * size; cell >= base; cell -= size)
+			{
+				MAGIC.wMem32(cell, size);
+				MAGIC.wMem32(cell + 4, next);
+				next = cell;
+			}
+			cell = next;
+		}
+		setFreeCell(sizeClass, MAGIC.rMem32(cell + 4));
+		return cell;
+	}
+	
+	private static int allocLarge(int chunks)
+	{
+		int first, i;
+		
+		first = findChunks(chunks);
+		setChunk(first, CHUNK_LARGE);
+		for (i = 1; i < chunks; i++)
+			setChunk(first + i, CHUNK_CONTINUED);
+		return heapStart + (first << CHUNK_BITS);
+	}
+	
+	/**
+	 * Finds a run of free chunks, the heap is grown if there is none
+	 *
+	 * @return the index of the first chunk
+	 */
+	private static int findChunks(int count)
+	{
+		int first = 0, i, end;
+		
+		for (i = 0; i < chunkCount; i++)
+		{
+			if (getChunk(i) != CHUNK_FREE)
+				first = i + 1;
+			else if (i + 1 - first == count)
+				return first;
+		}
+		
+		//reuse free chunks at the end of the heap and grow the rest
+		end = first + count;
+		if (end > MAX_CHUNKS || DynamicRuntime.brk(heapStart + (end << CHUNK_BITS)) < heapStart + (end << CHUNK_BITS))
+		{
+			if (collecting)
+				outOfMemory();
+			collect();
+			return findChunksAfterCollect(count);
+		}
+		chunkCount = end;
+		return first;
+	}
+	
+	private static int findChunksAfterCollect(int count)
+	{
+		int res;
+		
+		//a second failure inside the collector ends with out of memory
+		collecting = true;
+		res = findChunks(count);
+		collecting = false;
+		return res;
+	}
+	
+	private static void markRange(int from, int to)
+	{
+		while (from < to)
+		{
+			mark(MAGIC.rMem32(from));
+			from += MAGIC.ptrSize;
+		}
+	}
+	
+	private static void mark(int addr)
+	{
+		int cell, header;
+		
+		if ((cell = findCell(addr)) == 0)
+			return;
+		header = MAGIC.rMem32(cell);
+		if ((header & FLAG_MARKED) != 0)
+			return;
+		MAGIC.wMem32(cell, header | FLAG_MARKED);
+		if (markCount == MARK_STACK_SIZE)
+			markOverflow = true;
+		else
+			MAGIC.wMem32(markStack + (markCount++ << 2), cell);
+	}
+	
+	private static void drain()
+	{
+		int cell;
+		
+		while (markCount > 0)
+		{
+			cell = MAGIC.rMem32(markStack + (--markCount << 2));
+			scan(cell);
+		}
+	}
+	
+	private static void scan(int cell)
+	{
+		int addr, end;
+		
+		//reloc entries are placed between header and object, the last one is _r_type which points into the image
+		addr = cell + HEADER_SIZE;
+		end = addr + (MAGIC.rMem32(cell + 4) - 1) * MAGIC.ptrSize;
+		while (addr < end)
+		{
+			mark(MAGIC.rMem32(addr));
+			addr += MAGIC.ptrSize;
+		}
+	}
+	
+	/**
+	 * Finds the used cell containing an address, interior pointers keep the whole object alive
+	 *
+	 * @return the address of the cell or 0 if the address is not inside a used cell
+	 */
+	private static int findCell(int addr)
+	{
+		int chunk, info, base, size, cell;
+		
+		if (addr < heapStart || addr >= heapStart + (chunkCount << CHUNK_BITS))
+			return 0;
+		chunk = (addr - heapStart) >> CHUNK_BITS;
+		info = getChunk(chunk);
+		if (info == CHUNK_FREE)
+			return 0;
+		if (info == CHUNK_LARGE || info == CHUNK_CONTINUED)
+		{
+			while (getChunk(chunk) == CHUNK_CONTINUED)
+				chunk--;
+			cell = heapStart + (chunk << CHUNK_BITS);
+		}
+		else
+		{
+			base = heapStart + (chunk << CHUNK_BITS);
+			size = classSize(info - 1);
+			cell = base + (addr - base) / size * size;
+			if (cell + size > base + CHUNK_SIZE)
+				return 0; //unused end of the chunk
+		}
+		return (MAGIC.rMem32(cell) & FLAG_USED) != 0 ? cell : 0;
+	}
+	
+	private static void sweep()
+	{
+		int chunk, info, base, size, cell, header, live, first, i;
+		
+		for (i = 0; i < CLASS_COUNT; i++)
+			setFreeCell(i, 0);
+		liveBytes = 0;
+		
+		//walk backwards so the rebuilt free lists are in ascending order
+		for (chunk = chunkCount - 1; chunk >= 0; chunk--)
+		{
+			info = getChunk(chunk);
+			base = heapStart + (chunk << CHUNK_BITS);
+			if (info == CHUNK_FREE || info == CHUNK_CONTINUED)
+				continue;
+			if (info == CHUNK_LARGE)
+			{
+				header = MAGIC.rMem32(base);
+				if ((header & FLAG_MARKED) != 0)
+				{
+					MAGIC.wMem32(base, header & ~FLAG_MARKED);
+					liveBytes += header & SIZE_MASK;
+				}
+				else
+				{ //release all chunks of the object
+					for (i = (header & SIZE_MASK) >> CHUNK_BITS; i > 0; i--)
+						setChunk(chunk + i - 1, CHUNK_FREE);
+					DynamicRuntime.objCnt--;
+				}
+				continue;
+			}
+			size = classSize(info - 1);
+			first = getFreeCell(info - 1);
+			live = 0;
+			for (cell = base + (CHUNK_SIZE / size - 1) * size; cell >= base; cell -= size)
+			{
+				header = MAGIC.rMem32(cell);
+				if ((header & FLAG_MARKED) != 0)
+				{
+					MAGIC.wMem32(cell, header & ~FLAG_MARKED);
+					live++;
+				}
+				else
+				{
+					if ((header & FLAG_USED) != 0)
+						DynamicRuntime.objCnt--;
+					MAGIC.wMem32(cell, size);
+					MAGIC.wMem32(cell + 4, getFreeCell(info - 1));
+					setFreeCell(info - 1, cell);
+				}
+			}
+			if (live == 0)
+			{ //chunk is completely unused, it can take any size class later
+				setFreeCell(info - 1, first);
+				setChunk(chunk, CHUNK_FREE);
+			}
+			else
+				liveBytes += live * size;
+		}
+		
+		//give free chunks at the end of the heap back to the system
+		while (chunkCount > 0 && getChunk(chunkCount - 1) == CHUNK_FREE)
+			chunkCount--;
+		DynamicRuntime.brk(heapStart + (chunkCount << CHUNK_BITS));
+	}
+	
+	private static int getSizeClass(int size)
+	{
+		return (int) MAGIC.rMem8(classTable + ((size + 7) >> 3));
+	}
+	
+	private static int getFreeCell(int sizeClass)
+	{
+		return MAGIC.rMem32(freeCells + (sizeClass << 2));
+	}
+	
+	private static void setFreeCell(int sizeClass, int cell)
+	{
+		MAGIC.wMem32(freeCells + (sizeClass << 2), cell);
+	}
+	
+	private static int getChunk(int chunk)
+	{
+		return MAGIC.rMem8(chunkTable + chunk) & 0xFF;
+	}
+	
+	private static void setChunk(int chunk, int info)
+	{
+		MAGIC.wMem8(chunkTable + chunk, (byte) info);
+	}
+	
+	private static void outOfMemory()
+	{
+		System.out.print("Error allocating memory");
+		DynamicRuntime.exit(-1);
+	}
+}
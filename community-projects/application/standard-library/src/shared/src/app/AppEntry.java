@@ -6,6 +6,9 @@ package app;
  */
 public class AppEntry
 {
+	//set to true to run the garbage collector stress test, needs rte.DynamicRuntime.USE_GC
+	private final static boolean RUN_GC_TEST = false;
+	
 	public static void start(String[] args)
 	{
 		for(String s : args)
@@ -15,5 +18,9 @@ public class AppEntry
 		
 		//run test api
 		TestSystemAPI.testFileSystem();
+		
+		//run allocation test on request
+		if (RUN_GC_TEST)
+			TestGarbageCollector.testAllocation();
 	}
 }
\ No newline at end of file
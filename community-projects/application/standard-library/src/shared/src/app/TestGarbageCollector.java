@@ -0,0 +1,42 @@
+package app;
+
+/**
+ * Keeps a large array of objects alive while allocating garbage,
+ * with rte.DynamicRuntime.USE_GC enabled this runs several collections that must not free the live objects
+ */
+public class TestGarbageCollector
+{
+	private final static int LIVE_NODES = 30000;
+	private final static int GARBAGE_ROUNDS = 40;
+	
+	public static void testAllocation()
+	{
+		Node[] live = new Node[LIVE_NODES];
+		int i, round, sum = 0, expected = 0;
+		
+		for (i = 0; i < LIVE_NODES; i++)
+			live[i] = new Node(i);
+		for (round = 0; round < GARBAGE_ROUNDS; round++)
+			for (i = 0; i < LIVE_NODES; i++)
+				new Node(round);
+		for (i = 0; i < LIVE_NODES; i++)
+		{
+			sum += live[i].value + live[i].data[0] + live[i].data.length;
+			expected += i + i + 4;
+		}
+		System.out.println(sum == expected ? "GC test passed" : "GC test failed");
+	}
+	
+	private static class Node
+	{
+		private final int value;
+		private final int[] data;
+		
+		private Node(int value)
+		{
+			this.value = value;
+			data = new int[4];
+			data[0] = value;
+		}
+	}
+}
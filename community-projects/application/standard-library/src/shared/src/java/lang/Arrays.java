@@ -250,8 +250,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length);
 	}
 	
 	public static void copy(byte[] src, int srcPos, byte[] dest, int destPos, int length)
@@ -264,8 +270,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length);
 	}
 	
 	public static void copy(short[] src, int srcPos, short[] dest, int destPos, int length)
@@ -278,8 +290,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 1);
 	}
 	
 	public static void copy(char[] src, int srcPos, char[] dest, int destPos, int length)
@@ -292,8 +310,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 1);
 	}
 	
 	public static void copy(int[] src, int srcPos, int[] dest, int destPos, int length)
@@ -306,8 +330,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 2);
 	}
 	
 	public static void copy(long[] src, int srcPos, long[] dest, int destPos, int length)
@@ -320,8 +350,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 3);
 	}
 	
 	public static void copy(double[] src, int srcPos, double[] dest, int destPos, int length)
@@ -334,8 +370,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 3);
 	}
 	
 	public static void copy(float[] src, int srcPos, float[] dest, int destPos, int length)
@@ -348,8 +390,14 @@ public class Arrays
 					.append(srcPos).append(", end=")
 					.append(destPos));
 		
-		for (int i = 0; i < length; i++)
-			dest[destPos + i] = src[srcPos + i];
+		if (src == dest && destPos > srcPos)
+		{
+			//overlapping ranges are copied backwards
+			for (int i = length - 1; i >= 0; i--)
+				dest[destPos + i] = src[srcPos + i];
+		}
+		else if (length > 0)
+			MAGIC.copyMem(MAGIC.addr(dest[destPos]), MAGIC.addr(src[srcPos]), length << 2);
 	}
 	
 	public static void copy(Object[] src, int srcPos, Object[] dest, int destPos, int length)
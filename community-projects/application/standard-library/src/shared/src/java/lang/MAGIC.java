@@ -156,6 +156,14 @@ public class MAGIC
 		return (byte) 0;
 	}
 	
+	public static void copyMem(int dst, int src, int bytes)
+	{
+	}
+	
+	public static void fillMem(int dst, byte v, int bytes)
+	{
+	}
+	
 	public static void wIOs64(int addr, long v)
 	{
 	}
@@ -186,9 +186,7 @@ public class String
 					.append(srcBegin).append(", end=")
 					.append(srcEnd));
 		
-		int dstIndex = dstBegin;
-		for (int i = srcBegin; i < srcEnd; i++)
-			dst[dstIndex++] = value[i];
+		Arrays.copy(value, srcBegin, dst, dstBegin, srcEnd - srcBegin);
 	}
 	
 	public static String valueOf(boolean value)
@@ -44,13 +44,80 @@ public abstract class System
 	
 	public abstract void write(String path, int offset, InputStream stream, boolean append) throws IOException;
 	
+	/**
+	 * Opens a file for streaming reads, platforms should override this to read in large blocks
+	 *
+	 * @param path the file to read
+	 * @return a stream reading the file
+	 */
+	public InputStream openInputStream(String path) throws IOException
+	{
+		throw new IOException(new StringBuilder("File streams are not supported on ").append(platform));
+	}
+	
+	/**
+	 * Opens a file for streaming writes, platforms should override this to write in large blocks
+	 *
+	 * @param path   the file to write
+	 * @param append true to append to an existing file, false to replace it
+	 * @return a stream writing the file
+	 */
+	public OutputStream openOutputStream(String path, boolean append) throws IOException
+	{
+		throw new IOException(new StringBuilder("File streams are not supported on ").append(platform));
+	}
+	
 	public abstract void print(int c);
 	
+	/**
+	 * Writes a span of bytes to the standard output, platforms should override this to use a single system call
+	 *
+	 * @param buffer the bytes to write
+	 * @param offset the index of the first byte to write
+	 * @param length the number of bytes to write
+	 */
+	public void print(byte[] buffer, int offset, int length)
+	{
+		int i;
+		
+		for (i = 0; i < length; i++)
+			print(buffer[offset + i]);
+	}
+	
+	/**
+	 * Buffered standard output, characters are collected and written as one span on flush
+	 */
 	public static class Out
 	{
+		private static final int BUFFER_SIZE = 4096;
+		
+		//allocated in the image so printing never needs to allocate, not even on out of memory errors
+		private static final byte[] buffer = new byte[BUFFER_SIZE];
+		private static int count;
+		
+		/**
+		 * If set, the buffer is only flushed if full or on explicit flush, otherwise also after each completed line
+		 */
+		public boolean fullyBuffered;
+		
 		public void printChar(int c)
 		{
-			_system.print(c);
+			buffer[count++] = (byte) c;
+			
+			if (count == BUFFER_SIZE || (c == 10 && !fullyBuffered))
+				flush();
+		}
+		
+		/**
+		 * Writes all buffered characters to the standard output
+		 */
+		public void flush()
+		{
+			if (count == 0)
+				return;
+			
+			_system.print(buffer, 0, count);
+			count = 0;
 		}
 		
 		public void print(int i)
@@ -117,10 +184,23 @@ public abstract class System
 		
 		public void print(String s)
 		{
-			int i;
+			int i, c;
+			boolean newline = false;
 			
+			//append the whole string before flushing, so a line is written with one call
 			for (i = 0; i < s.count; i++)
-				printChar(s.value[i]);
+			{
+				if ((c = s.value[i]) == 10)
+					newline = true;
+				
+				buffer[count++] = (byte) c;
+				
+				if (count == BUFFER_SIZE)
+					flush();
+			}
+			
+			if (newline && !fullyBuffered)
+				flush();
 		}
 		
 		public void print(StringBuilder s)
@@ -93,6 +93,8 @@ public class x86
 	public static final int MOVE_REGISTER_TO_REGISTER = 0x89;
 	public static final int MOVE_MEMORY_TO_REGISTER = 0x8B;
 	public static final int MOVE_IMMEDIATE_TO_REGISTER = 0xBB;
+	public static final int PUSH_ALL = 0x60;
+	public static final int POP_ALL = 0x61;
 	
 	//System call instructions
 	public static final int SYSCALL = 0xCD;
@@ -7,4 +7,9 @@ public class SClassDesc
 {
 	public SClassDesc parent;
 	public SIntfMap implementations;
-}
\ No newline at end of file
+	
+	//filled by the compiler for constant-time type checks
+	public int depth; //number of ancestors
+	public SClassDesc[] display; //ancestor at each depth, the class itself at depth
+	public SIntfMap[] intfMaps; //interface maps indexed by SIntfDesc.id, null if no interface is implemented
+}
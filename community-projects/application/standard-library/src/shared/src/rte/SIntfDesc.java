@@ -5,5 +5,5 @@ package rte;
  */
 public class SIntfDesc
 {
-
+	public int id; //index in SClassDesc.intfMaps, 0 if no class implements this interface
 }
@@ -13,5 +13,6 @@ public class Kernel
 	{
 		System._system = new WinSystem();
 		AppEntry.start(System._system.getCommandLineArgs());
+		System.out.flush();
 	}
 }
\ No newline at end of file
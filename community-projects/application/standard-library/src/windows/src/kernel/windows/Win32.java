@@ -191,6 +191,31 @@ public class Win32
 		MAGIC.inline(x86.PUSH, 0x15); MAGIC.inline32(rte.DynamicRuntime._Kernel_WriteFile);
 	}
 	
+	/**
+	 * Method to write a span of bytes to the standard output with a single WriteFile call
+	 *
+	 * @param buffer the bytes to write
+	 * @param offset the index of the first byte to write
+	 * @param length the number of bytes to write
+	 */
+	public static void print(byte[] buffer, int offset, int length)
+	{
+		int written = 0; /*ebp-4*/
+		int addr = MAGIC.addr(buffer[offset]); /*ebp-8*/
+		
+		MAGIC.inline(x86.PUSH_IMMEDIATE_BYTE, 0x00);                                                // push byte 0 (no overlap)
+		MAGIC.inline(x86.LOAD_EFFECTIVE_ADDRESS, x86.MODRM_RM | x86.REG_EBP, x86.EBP_MINUS_4);      // lea eax,[ebp-4] (address of result)
+		MAGIC.inline(x86.PUSH_REGISTER_EAX);                                                        // push eax
+		MAGIC.inline(x86.PUSH, x86.MODRM_RM | x86.REG_OPCODE_PUSH | x86.REG_EBP, x86.EBP_PLUS_8);   // push dword [ebp+8] (length)
+		MAGIC.inline(x86.PUSH, x86.MODRM_RM | x86.REG_OPCODE_PUSH | x86.REG_EBP, x86.EBP_MINUS_8);  // push dword [ebp-8] (address of buffer)
+		
+		//Push handle for standard output
+		MAGIC.inline(x86.PUSH, 0x35); MAGIC.inline32(rte.DynamicRuntime._hndStdOut);
+		
+		//Call WriteFile function
+		MAGIC.inline(x86.PUSH, 0x15); MAGIC.inline32(rte.DynamicRuntime._Kernel_WriteFile);
+	}
+	
 	public static boolean createDirectory(String path)
 	{
 		int kernel32Handle = loadLibrary("kernel32.dll"); /*-4*/
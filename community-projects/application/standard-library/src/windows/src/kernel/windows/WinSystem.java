@@ -89,4 +89,10 @@ public class WinSystem extends System
 	{
 		Win32.print(c);
 	}
+	
+	@Override
+	public void print(byte[] buffer, int offset, int length)
+	{
+		Win32.print(buffer, offset, length);
+	}
 }
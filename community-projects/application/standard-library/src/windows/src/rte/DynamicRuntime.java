@@ -136,13 +136,11 @@ public class DynamicRuntime
 			//null is not an instance
 		}
 		
+		//the display contains the ancestor of each depth, so dest has to be at its own depth
 		check = o._r_type;
-		while (check != null)
-		{
-			if (check == dest)
-				return true;
-			check = check.parent;
-		}
+		if (check.depth >= dest.depth && check.display[dest.depth] == dest)
+			return true;
+		
 		if (asCast)
 			rtError();
 		
@@ -151,7 +149,18 @@ public class DynamicRuntime
 	
 	public static SIntfMap isImplementation(Object o, SIntfDesc dest, boolean asCast)
 	{
-		rtError();
+		SIntfMap[] maps;
+		
+		if (o == null)
+			return null; //null matches all, but has no map
+		
+		maps = o._r_type.intfMaps;
+		if (maps != null && dest.id < maps.length && maps[dest.id] != null)
+			return maps[dest.id];
+		
+		if (asCast)
+			rtError();
+		
 		return null;
 	}
 	
@@ -227,10 +236,12 @@ public class DynamicRuntime
 	{
 		System.out.print(new StringBuilder("Exception thrown-message: ").append(t.detailMessage));
 		System.out.print(new StringBuilder("Exception thrown-frame: ").append(currentThrowFrame));
+		System.out.flush();
 	}
 	
 	public static void rtError()
 	{
+		System.out.flush();
 		MAGIC.inline(x86.PUSH_IMMEDIATE_BYTE, 0xFF);         //push byte -1 (error code)
 		MAGIC.inline(x86.PUSH, 0x15);
 		MAGIC.inline32(_Kernel_ExitProcess);                //call
@@ -1,6 +1,7 @@
 package jaxon;
 
 import jaxon.build.BuildUtil;
+import jaxon.daemon.DaemonUtil;
 import jaxon.installer.Installer;
 import jaxon.jdk.JDKUtil;
 import jaxon.sjc.SJCUtil;
@@ -33,7 +34,13 @@ public class Jaxon
 			else if (command.equalsIgnoreCase("sjc-env") && args.length >= 4)
 				SJCUtil.sjcJaxonEnvironment(args);
 			else if (command.equalsIgnoreCase("build") && args.length >= 2)
-				BuildUtil.buildCLI(args);
+			{
+				//hand the build to a running daemon, otherwise build in this process
+				if (!DaemonUtil.forwardBuild(args))
+					BuildUtil.buildCLI(args);
+			}
+			else if (command.equalsIgnoreCase("daemon"))
+				DaemonUtil.daemonCLI(args);
 			else if (command.equalsIgnoreCase("package") && args.length >= 2)
 				PackageManager.preformCLI(args);
 			else if (command.equalsIgnoreCase("zip") && args.length >= 2)
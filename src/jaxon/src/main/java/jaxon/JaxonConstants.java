@@ -20,6 +20,8 @@ public class JaxonConstants
 	public static final File JAXON_JDK_DIR = new File(JAXON_ROOT_DIR, "JDK");
 	public static final File JAXON_BINARY_FILE = new File(JAXON_BIN_DIR, IS_WINDOWS ? "jaxon.exe" : "jaxon");
 	public static final File API_TOKEN_FILE = new File(JAXON_ROOT_DIR, "API.token");
+	public static final File DAEMON_FILE = new File(JAXON_ROOT_DIR, "daemon.port");
+	public static final File JAXON_CACHE_DIR = new File(System.getProperty("jaxon.cache", new File(JAXON_ROOT_DIR, "cache").getPath()));
 	public static final boolean API_TOKEN_EXISTS = API_TOKEN_FILE.exists();
 	public static String API_TOKEN;
 	
@@ -3,11 +3,15 @@ package jaxon;
 import sjc.compbase.StringList;
 import sjc.osio.BinWriter;
 import sjc.osio.OsIO;
+import sjc.osio.ParallelTask;
 import sjc.osio.TextPrinter;
 import sjc.osio.sun.FileBinWriter;
 import sjc.osio.sun.StreamTextPrinter;
+import sjc.osio.sun.ThreadedTasks;
 
 import java.io.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Konloch
@@ -16,37 +20,80 @@ import java.io.*;
 
 public class JaxonIO extends OsIO
 {
+	/**
+	 * If set, source files are kept in memory and only read again if changed, used by the daemon
+	 */
+	public static boolean cacheSources;
+	private static final Map<String, CachedFile> sourceCache = new ConcurrentHashMap<>();
+	
 	private StringList result;
 	private final OutputStream stdOut;
+	private final File baseDir;
+	private final ThreadedTasks tasks = new ThreadedTasks();
 	
 	public JaxonIO(OutputStream streamAsStdOut)
+	{
+		this(streamAsStdOut, null);
+	}
+	
+	/**
+	 * @param streamAsStdOut the stream to print the compiler output to
+	 * @param baseDir        the directory relative file names are resolved against, null for the working directory
+	 */
+	public JaxonIO(OutputStream streamAsStdOut, File baseDir)
 	{
 		stdOut = streamAsStdOut;
+		this.baseDir = baseDir;
 	}
 	
 	public BinWriter getNewBinWriter()
 	{
-		return new FileBinWriter();
+		return new FileBinWriter()
+		{
+			public boolean open(String fname)
+			{
+				return super.open(resolve(fname).getPath());
+			}
+		};
 	}
 	
 	public TextPrinter getNewFilePrinter(String filename)
 	{
-		return new StreamTextPrinter(filename == null ? filename : new File(filename).getAbsolutePath(), stdOut);
+		return new StreamTextPrinter(filename == null ? filename : resolve(filename).getPath(), stdOut);
 	}
 	
 	public boolean isDir(String name)
 	{
-		return (new File(name).getAbsoluteFile()).isDirectory();
+		return resolve(name).isDirectory();
 	}
 	
 	public StringList listDir(String name, boolean recurse)
 	{
 		result = null;
-		appendDir(new File(name).getAbsoluteFile(), recurse);
+		appendDir(resolve(name), recurse);
 		return result;
 	}
 	
 	public byte[] readFile(String fname)
+	{
+		File file = resolve(fname);
+		CachedFile cached;
+		byte[] data;
+		
+		if (!cacheSources || !fname.endsWith(".java"))
+			return readFile(file);
+		
+		//the cache is validated by size and modification time, so unchanged files are not read again
+		cached = sourceCache.get(file.getPath());
+		if (cached != null && cached.length == file.length() && cached.lastModified == file.lastModified())
+			return cached.data;
+		
+		if ((data = readFile(file)) != null)
+			sourceCache.put(file.getPath(), new CachedFile(file, data));
+		return data;
+	}
+	
+	private byte[] readFile(File file)
 	{
 		InputStream is;
 		int cnt;
@@ -54,7 +101,7 @@ public class JaxonIO extends OsIO
 		
 		try
 		{
-			is = new FileInputStream(new File(fname).getAbsolutePath());
+			is = new FileInputStream(file);
 			cnt = is.available();
 			data = new byte[cnt];
 			if (is.read(data, 0, cnt) != cnt)
@@ -78,6 +125,34 @@ public class JaxonIO extends OsIO
 		return System.nanoTime();
 	}
 	
+	public boolean supportsParallelTasks()
+	{
+		return true;
+	}
+	
+	public void runParallel(ParallelTask[] parallelTasks, int count)
+	{
+		tasks.runParallel(parallelTasks, count);
+	}
+	
+	public void enterExclusive()
+	{
+		tasks.enterExclusive();
+	}
+	
+	public void leaveExclusive()
+	{
+		tasks.leaveExclusive();
+	}
+	
+	private File resolve(String name)
+	{
+		File file = new File(name);
+		if (baseDir == null || file.isAbsolute())
+			return file.getAbsoluteFile();
+		return new File(baseDir, name);
+	}
+	
 	private void appendDir(File dir, boolean recurse)
 	{
 		File[] entries;
@@ -109,4 +184,17 @@ public class JaxonIO extends OsIO
 			}
 		}
 	}
+	
+	private static class CachedFile
+	{
+		private final long length, lastModified;
+		private final byte[] data;
+		
+		private CachedFile(File file, byte[] data)
+		{
+			length = file.length();
+			lastModified = file.lastModified();
+			this.data = data;
+		}
+	}
 }
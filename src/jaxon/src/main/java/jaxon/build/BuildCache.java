@@ -0,0 +1,292 @@
+package jaxon.build;
+
+import jaxon.version.VersionUtil;
+import sjc.compbase.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content hash based build cache, a build is skipped if the same inputs were built successfully before.
+ * Inputs are the compiler, its arguments and all source files. The last MAX_ENTRIES builds of a profile are kept,
+ * so undoing an edit or switching back to another branch restores the matching build without compiling.
+ */
+public class BuildCache
+{
+	private static final String OUTPUT_PREFIX = "output ";
+	private static final String MANIFEST = "manifest.txt";
+	private static final int MAX_ENTRIES = 8;
+	private static final int HASH_LENGTH = 64; //hex digits of a SHA-256 hash
+	
+	private static String compilerHash; //the compiler does not change while a process runs, so it is hashed once
+	
+	private final File baseDir;
+	private final File profileDir;
+	private final File cacheDir;
+	private final File manifestFile;
+	private final List<String> inputs = new ArrayList<>();
+	
+	public BuildCache(String buildScript, String[] compilerArgs, String[] dirs) throws IOException
+	{
+		baseDir = BuildUtil.projectDir;
+		profileDir = new File(baseDir, "build/.cache/" + buildScript.toLowerCase() + "-" + BuildUtil.buildName);
+		
+		inputs.add("jaxon " + VersionUtil.version);
+		inputs.add("compiler " + compilerHash());
+		inputs.add("script " + buildScript.toLowerCase());
+		inputs.add("name " + BuildUtil.buildName);
+		for (String arg : compilerArgs)
+			inputs.add("arg " + arg);
+		
+		File localBootConf = new File(baseDir, "bootconf.txt");
+		if (localBootConf.exists())
+			inputs.add(hash(localBootConf.toPath()) + " " + localBootConf.getAbsolutePath());
+		
+		for (String dir : dirs)
+			hashInputs(new File(dir).toPath());
+		
+		//each set of inputs has its own entry
+		cacheDir = new File(profileDir, hash(String.join("\n", inputs).getBytes(StandardCharsets.UTF_8)));
+		manifestFile = new File(cacheDir, MANIFEST);
+	}
+	
+	/**
+	 * Restores the outputs of an earlier build with the same input hashes
+	 *
+	 * @return true if the compilation can be skipped
+	 */
+	public boolean restore() throws IOException
+	{
+		if (!manifestFile.exists())
+		{
+			File last = lastEntry();
+			if (last != null)
+				System.out.println("Build cache: " + describeChanges(readInputs(new File(last, MANIFEST))) + ", rebuilding");
+			return false;
+		}
+		
+		List<String> storedOutputs = new ArrayList<>();
+		for (String line : Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8))
+			if (line.startsWith(OUTPUT_PREFIX))
+				storedOutputs.add(line.substring(OUTPUT_PREFIX.length()));
+		
+		//the entry is named by the hash of the inputs, compare anyway to be safe against collisions
+		if (!readInputs(manifestFile).equals(inputs))
+			return false;
+		
+		for (int i = 0; i < storedOutputs.size(); i++)
+			if (!new File(cacheDir, "out" + i).exists())
+				return false;
+		
+		for (int i = 0; i < storedOutputs.size(); i++)
+		{
+			File output = new File(baseDir, storedOutputs.get(i));
+			File parent = output.getParentFile();
+			if (!parent.exists())
+				parent.mkdirs();
+			Files.copy(new File(cacheDir, "out" + i).toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		
+		cacheDir.setLastModified(System.currentTimeMillis()); //most recently used entry
+		System.out.println("Build cache: no input changed, using cached build");
+		return true;
+	}
+	
+	/**
+	 * Stores the outputs of a successful build together with the hashes of its inputs
+	 */
+	public void store(List<String> outputs) throws IOException
+	{
+		if (!cacheDir.exists())
+			cacheDir.mkdirs();
+		
+		List<String> manifest = new ArrayList<>(inputs);
+		for (int i = 0; i < outputs.size(); i++)
+		{
+			File output = new File(baseDir, outputs.get(i));
+			if (!output.exists())
+				continue;
+			
+			Files.copy(output.toPath(), new File(cacheDir, "out" + (manifest.size() - inputs.size())).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			manifest.add(OUTPUT_PREFIX + outputs.get(i));
+		}
+		
+		Files.write(manifestFile.toPath(), manifest, StandardCharsets.UTF_8);
+		cacheDir.setLastModified(System.currentTimeMillis());
+		dropOldEntries();
+	}
+	
+	private File[] entries()
+	{
+		File[] entries = profileDir.listFiles(File::isDirectory);
+		if (entries == null)
+			return new File[0];
+		
+		//most recently used first
+		Arrays.sort(entries, Comparator.comparingLong(File::lastModified).reversed());
+		return entries;
+	}
+	
+	private File lastEntry()
+	{
+		for (File entry : entries())
+			if (new File(entry, MANIFEST).exists())
+				return entry;
+		
+		return null;
+	}
+	
+	private void dropOldEntries() throws IOException
+	{
+		File[] entries = entries();
+		for (int i = MAX_ENTRIES; i < entries.length; i++)
+		{
+			try (Stream<Path> stream = Files.walk(entries[i].toPath()))
+			{
+				//delete the files before their directory
+				for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+					Files.delete(path);
+			}
+		}
+	}
+	
+	private static List<String> readInputs(File manifest) throws IOException
+	{
+		List<String> storedInputs = new ArrayList<>();
+		for (String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8))
+			if (!line.startsWith(OUTPUT_PREFIX))
+				storedInputs.add(line);
+		
+		return storedInputs;
+	}
+	
+	private void hashInputs(Path root) throws IOException
+	{
+		if (!Files.exists(root))
+			return;
+		
+		Path buildDir = new File(baseDir, "build").toPath();
+		for (Path file : listFiles(root, buildDir))
+			inputs.add(hash(file) + " " + file.toAbsolutePath());
+	}
+	
+	private String describeChanges(List<String> storedInputs)
+	{
+		//everything but the file hashes describes the compiler and its options
+		List<String> settings = inputs.stream().filter(line -> !isFile(line)).collect(Collectors.toList());
+		if (!storedInputs.stream().filter(line -> !isFile(line)).collect(Collectors.toList()).equals(settings))
+			return "compiler or options changed";
+		
+		Map<String, String> stored = new HashMap<>();
+		for (String line : storedInputs)
+			if (isFile(line))
+				stored.put(line.substring(HASH_LENGTH + 1), line);
+		
+		int changed = 0;
+		for (String line : inputs)
+			if (isFile(line) && !line.equals(stored.remove(line.substring(HASH_LENGTH + 1))))
+				changed++;
+		
+		//whatever is left got removed since the last build
+		return (changed + stored.size()) + " input file(s) changed";
+	}
+	
+	private static boolean isFile(String line)
+	{
+		return line.indexOf(' ') == HASH_LENGTH;
+	}
+	
+	/**
+	 * Hashes the classes of the compiler and of Jaxon, which also contain the environment files.
+	 * A jar is hashed as a whole, a class directory file by file.
+	 */
+	private static synchronized String compilerHash() throws IOException
+	{
+		if (compilerHash != null)
+			return compilerHash;
+		
+		Set<Path> locations = new LinkedHashSet<>();
+		for (Class<?> c : new Class<?>[]{Context.class, BuildCache.class})
+		{
+			CodeSource source = c.getProtectionDomain().getCodeSource();
+			if (source == null || source.getLocation() == null)
+				continue;
+			
+			try
+			{
+				locations.add(Paths.get(source.getLocation().toURI()));
+			}
+			catch (URISyntaxException e)
+			{
+				throw new IOException("Invalid location of " + c.getName(), e);
+			}
+		}
+		
+		StringBuilder sb = new StringBuilder();
+		for (Path location : locations)
+		{
+			if (Files.isDirectory(location))
+			{
+				for (Path file : listFiles(location, null))
+					sb.append(hash(file)).append(' ').append(location.relativize(file)).append('\n');
+			}
+			else if (Files.exists(location))
+				sb.append(hash(location)).append('\n');
+		}
+		
+		return compilerHash = hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static List<Path> listFiles(Path root, Path excludedDir) throws IOException
+	{
+		try (Stream<Path> stream = Files.walk(root))
+		{
+			//sort to get the same manifest independent of the file system order
+			return stream.filter(Files::isRegularFile)
+					.filter(path -> excludedDir == null || !path.toAbsolutePath().startsWith(excludedDir))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+	
+	private static String hash(Path file) throws IOException
+	{
+		return hash(Files.readAllBytes(file));
+	}
+	
+	private static String hash(byte[] data) throws IOException
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(data);
+			StringBuilder sb = new StringBuilder();
+			for (byte b : hash)
+				sb.append(String.format("%02x", b));
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException("SHA-256 not available", e);
+		}
+	}
+}
@@ -6,6 +6,9 @@ import jaxon.sjc.SJCUtil;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Konloch
@@ -14,110 +17,155 @@ import java.nio.file.Files;
 public class BuildUtil
 {
 	public static String buildName = "build";
+	public static File projectDir = new File("").getAbsoluteFile(); //builds are relative to this, the client directory if run by the daemon
+	public static File envDir; //temporary directory holding the environment files and the compiler output
+	public static final String SYMBOLS_OPTION = "-symbols"; //adds the ELF symbol table and the perf map to Linux builds
+	private static final List<String> exportedBuilds = new ArrayList<>();
 	
-	public static void buildCLI(String[] args) throws IOException
+	public static int buildCLI(String[] args) throws IOException
 	{
 		//TODO read for -out= and consider that the buildName
 		
 		String buildScript = args[1];
-		String[] dirs = new String[args.length - 2];
+		boolean symbols = false;
+		List<String> dirList = new ArrayList<>();
 		for (int i = 2; i < args.length; i++)
-			dirs[i - 2] = new File(args[i]).getAbsolutePath();
+		{
+			if (args[i].equalsIgnoreCase(SYMBOLS_OPTION))
+				symbols = true;
+			else
+				dirList.add(resolve(args[i]).getAbsolutePath());
+		}
+		String[] dirs = dirList.toArray(new String[0]);
 		
+		//the environment, the compiler arguments and the files exported as pairs of compiler output and build file
+		String environment;
+		String[] sjcArgs;
+		String[][] exports;
 		if (buildScript.equalsIgnoreCase("win-exe"))
 		{
-			setupEnv("native");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "native";
+			sjcArgs = new String[]{
 					"-s", "512k",
 					"-a", "4198912",
 					"-o", "boot",
 					"-O", "#exe",
-					"-l"}, dirs));
-			exportBuild("OUT_WIN.EXE", "build/windows/build.exe");
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-l"};
+			exports = new String[][]{
+					{"OUT_WIN.EXE", "build/windows/build.exe"},
+					{"syminfo.txt", "build/build_sym_info.txt"}};
 		}
 		else if (buildScript.equalsIgnoreCase("win-app"))
 		{
-			setupEnv("native");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "native";
+			sjcArgs = new String[]{
 					"-s", "512k",
 					"-a", "4198912",
 					"-o", "boot",
 					"-O", "#win",
-					"-l"}, dirs));
-			exportBuild("OUT_WIN.EXE", "build/windows/" + buildName + ".exe");
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-l"};
+			exports = new String[][]{
+					{"OUT_WIN.EXE", "build/windows/" + buildName + ".exe"},
+					{"syminfo.txt", "build/build_sym_info.txt"}};
 		}
 		else if (buildScript.equalsIgnoreCase("lin"))
 		{
-			setupEnv("native");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "native";
+			sjcArgs = merge(new String[]{
 					"-s", "512k",
 					"-a", "1049008",
 					"-o", "boot",
 					"-O", "#lin",
-					"-l"}, dirs));
-			exportBuild("OUT_LIN.O", "build/linux/" + buildName);
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-D", "sym", "syminfo.txt",
+					"-l"}, symbolArgs(symbols));
+			exports = new String[][]{
+					{"OUT_LIN.O", "build/linux/" + buildName},
+					{"syminfo.txt", "build/build_sym_info.txt"},
+					{"perf.map", "build/build_perf.map"}}; //also removes the map of an earlier build with symbols
 		}
 		else if (buildScript.equalsIgnoreCase("llb"))
 		{
-			setupEnv("native");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "native";
+			sjcArgs = merge(new String[]{
 					"-s", "512k",
 					"-a", "1049008",
 					"-o", "boot",
 					"-O", "#llb",
-					"-l"}, dirs));
-			exportBuild("OUT_LIN.O", "build/linux/" + buildName);
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-D", "sym", "syminfo.txt",
+					"-l"}, symbolArgs(symbols));
+			exports = new String[][]{
+					{"OUT_LIN.O", "build/linux/" + buildName},
+					{"syminfo.txt", "build/build_sym_info.txt"},
+					{"perf.map", "build/build_perf.map"}}; //also removes the map of an earlier build with symbols
 		}
 		else if (buildScript.equalsIgnoreCase("atmega"))
 		{
-			setupEnv("atmega");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "atmega";
+			sjcArgs = new String[]{
 					"-t", "atmega",
 					"-P", "batmel32.bin",
 					"-e", "0x60",
 					"-o", "boot",
 					"-a", "0",
-					"-y", "-L", "-E", "-B", "-C", "-k"}, dirs));
-			exportBuild("BOOT_ATM.HEX", "build/atmega/" + buildName + ".hex");
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-y", "-L", "-E", "-B", "-C", "-k"};
+			exports = new String[][]{
+					{"BOOT_ATM.HEX", "build/atmega/" + buildName + ".hex"},
+					{"syminfo.txt", "build/build_sym_info.txt"}};
 		}
 		else if (buildScript.equalsIgnoreCase("os-32"))
 		{
-			setupEnv("operating-system");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "operating-system";
+			sjcArgs = new String[]{
 					"-t", "ia32",
 					"-o", "boot",
-					"-O", "#floppy32"}, dirs));
-			exportBuild("BOOT_FLP.IMG", "build/operating-system/" + buildName + ".img");
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-O", "#floppy32"};
+			exports = new String[][]{
+					{"BOOT_FLP.IMG", "build/operating-system/" + buildName + ".img"},
+					{"syminfo.txt", "build/build_sym_info.txt"}};
 		}
 		else if (buildScript.equalsIgnoreCase("os-64"))
 		{
-			setupEnv("operating-system");
-			SJCUtil.sjcCLI(merge(new String[]{
+			environment = "operating-system";
+			sjcArgs = new String[]{
 					"-t", "amd64",
 					"-o", "boot",
-					"-O", "#floppy64"}, dirs));
-			exportBuild("BOOT_FLP.IMG", "build/operating-system/" + buildName + ".img");
-			exportBuild("syminfo.txt", "build/build_sym_info.txt");
+					"-O", "#floppy64"};
+			exports = new String[][]{
+					{"BOOT_FLP.IMG", "build/operating-system/" + buildName + ".img"},
+					{"syminfo.txt", "build/build_sym_info.txt"}};
 		}
 		else
+		{
 			System.out.println(JaxonConstants.INCORRECT_USAGE);
+			return 1;
+		}
+		
+		//skip the compilation if no input changed since the last successful build
+		BuildCache cache = new BuildCache(buildScript, sjcArgs, dirs);
+		if (cache.restore())
+			return 0;
+		
+		exportedBuilds.clear();
+		setupEnv(environment);
+		int res = SJCUtil.sjcCLI(merge(sjcArgs, dirs));
+		for (String[] export : exports)
+			exportBuild(export[0], export[1]);
+		
+		cleanupEnv();
+		if (res == 0)
+			cache.store(exportedBuilds);
+		
+		return res;
 	}
 	
 	public static void setupEnv(String environment)
 	{
-		File tempDir = new File("");
-		File localBootConf = new File("bootconf.txt");
+		File localBootConf = new File(projectDir, "bootconf.txt");
 		
 		try
 		{
-			tempDir = Files.createTempDirectory("jaxon").toFile();
-			System.setProperty("user.dir", tempDir.getAbsolutePath());
+			envDir = Files.createTempDirectory("jaxon").toFile();
+			envDir.deleteOnExit(); //registered before the files, so it is deleted after them
 		}
 		catch (Exception e)
 		{
@@ -153,13 +201,49 @@ public class BuildUtil
 		}
 		else
 			System.out.println(JaxonConstants.INCORRECT_USAGE);
+	}
+	
+	/**
+	 * Deletes the environment of the last build, required if multiple builds are run by one process
+	 */
+	public static void cleanupEnv()
+	{
+		File[] files;
+		
+		if (envDir == null)
+			return;
 		
-		tempDir.deleteOnExit();
+		if ((files = envDir.listFiles()) != null)
+			for (File file : files)
+				file.delete();
+		
+		envDir.delete();
+		envDir = null;
+	}
+	
+	/**
+	 * Resolves a path given by the user against the project directory
+	 */
+	public static File resolve(String path)
+	{
+		File file = new File(path);
+		return file.isAbsolute() ? file : new File(projectDir, path);
+	}
+	
+	/**
+	 * Resolves a file read or written by the compiler, these are placed in the environment directory if there is one
+	 */
+	public static File resolveEnv(String path)
+	{
+		File file = new File(path);
+		if (file.isAbsolute())
+			return file;
+		return new File(envDir != null ? envDir : projectDir, path);
 	}
 	
 	public static void setupEnvFile(String localPath, String envPath)
 	{
-		File exportPath = new File(envPath).getAbsoluteFile();
+		File exportPath = resolveEnv(envPath);
 		export(localPath, exportPath);
 		exportPath.deleteOnExit();
 	}
@@ -186,7 +270,7 @@ public class BuildUtil
 	
 	public static void copy(File originalFile, String newFileName)
 	{
-		File newFile = new File(newFileName).getAbsoluteFile();
+		File newFile = resolveEnv(newFileName);
 		
 		try
 		{
@@ -200,12 +284,11 @@ public class BuildUtil
 	
 	public static void exportBuild(String currentOutputBinary, String newOutputBinary) throws IOException
 	{
-		File buildOut = new File("build"); //referencing original user.dir location
-		File outputBinary = new File(currentOutputBinary).getAbsoluteFile(); //referencing new user.dir location
-		File newOutputBinaryFile = new File(newOutputBinary); //referencing new user.dir location
-		File newOutputBinaryFileParent = newOutputBinaryFile.getParentFile(); //referencing original user.dir location
+		File buildOut = new File(projectDir, "build");
+		File outputBinary = resolveEnv(currentOutputBinary);
+		File newOutputBinaryFile = resolve(newOutputBinary);
+		File newOutputBinaryFileParent = newOutputBinaryFile.getParentFile();
 		
-		//required to fix a bug since we're abusing the "user.dir" system property
 		if(!buildOut.exists())
 			buildOut.mkdirs();
 		
@@ -217,8 +300,25 @@ public class BuildUtil
 			Files.delete(newOutputBinaryFile.toPath());
 		}
 		
+		//the environment may be on another file system, so move instead of rename
 		if (outputBinary.exists())
-			outputBinary.renameTo(newOutputBinaryFile);
+		{
+			Files.move(outputBinary.toPath(), newOutputBinaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			exportedBuilds.add(newOutputBinary);
+		}
+	}
+	
+	/**
+	 * Debug writers for the ELF symbol table used by perf and gdb and for the perf map, only passed on request
+	 */
+	private static String[] symbolArgs(boolean symbols)
+	{
+		if (!symbols)
+			return new String[0];
+		
+		return new String[]{
+				"-D", "elf", "OUT_LIN.O",
+				"-D", "perf", "perf.map"};
 	}
 	
 	private static String[] merge(String[] partA, String[] partB)
@@ -0,0 +1,198 @@
+package jaxon.daemon;
+
+import jaxon.JaxonConstants;
+import jaxon.JaxonIO;
+import jaxon.build.BuildUtil;
+import sjc.frontend.SScanner;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Resident compile server, keeps a warm JVM and the unchanged sources with their scanned symbols in memory between builds
+ */
+public class DaemonServer
+{
+	private static final int REQUEST_TIMEOUT = 5000;
+	
+	private final ServerSocket server;
+	private final String token;
+	private final Object buildLock = new Object();
+	private final PrintStream log = System.err;
+	private volatile boolean running = true;
+	
+	public DaemonServer() throws IOException
+	{
+		byte[] random = new byte[16];
+		StringBuilder sb = new StringBuilder();
+		
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		
+		new SecureRandom().nextBytes(random);
+		for (byte b : random)
+			sb.append(String.format("%02x", b));
+		token = sb.toString();
+	}
+	
+	/**
+	 * Serves builds until stopped, each client is handled by its own thread so a slow client can not hold up others,
+	 * builds are still run one after another as they share the build state
+	 */
+	public void serve() throws IOException
+	{
+		DaemonUtil.writeDaemonFile(server.getLocalPort(), token);
+		JaxonIO.cacheSources = true;
+		SScanner.symbolCache = new ScanCache();
+		System.out.println("Jaxon daemon listening on port " + server.getLocalPort());
+		
+		try
+		{
+			while (running)
+			{
+				Socket socket;
+				try
+				{
+					socket = server.accept();
+				}
+				catch (IOException e)
+				{
+					//a stop request closes the server socket
+					if (running)
+						log.println("Jaxon daemon: " + e.getMessage());
+					continue;
+				}
+				
+				new Thread(() -> serveClient(socket), "Jaxon daemon client").start();
+			}
+		}
+		finally
+		{
+			JaxonConstants.DAEMON_FILE.delete();
+			server.close();
+		}
+	}
+	
+	private void serveClient(Socket socket)
+	{
+		try (Socket s = socket)
+		{
+			handle(s);
+		}
+		catch (EOFException | SocketTimeoutException e)
+		{
+			//the client did not send a complete request
+		}
+		catch (IOException e)
+		{
+			log.println("Jaxon daemon: " + e.getMessage());
+		}
+	}
+	
+	private void handle(Socket socket) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		
+		//the whole request is sent right after connecting, an idle client is dropped
+		socket.setSoTimeout(REQUEST_TIMEOUT);
+		
+		if (!MessageDigest.isEqual(in.readUTF().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8)))
+			return;
+		
+		String request = in.readUTF();
+		File workingDir = new File(in.readUTF());
+		String[] args = new String[in.readInt()];
+		for (int i = 0; i < args.length; i++)
+			args[i] = in.readUTF();
+		
+		int res = 0;
+		if (request.equals(DaemonUtil.REQUEST_STOP))
+		{
+			running = false;
+			server.close();
+		}
+		else if (request.equals(DaemonUtil.REQUEST_BUILD))
+		{
+			synchronized (buildLock)
+			{
+				res = build(workingDir, args, out);
+			}
+		}
+		
+		out.writeInt(DaemonUtil.END_OF_OUTPUT);
+		out.writeInt(res);
+		out.flush();
+	}
+	
+	private int build(File workingDir, String[] args, DataOutputStream out)
+	{
+		PrintStream oldOut = System.out, oldErr = System.err;
+		PrintStream clientOut = new PrintStream(new FrameOutputStream(out), true);
+		File oldProjectDir = BuildUtil.projectDir;
+		
+		System.setOut(clientOut);
+		System.setErr(clientOut);
+		BuildUtil.projectDir = workingDir;
+		try
+		{
+			return BuildUtil.buildCLI(args);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			System.err.println(e.getMessage());
+			return 1;
+		}
+		finally
+		{
+			clientOut.flush();
+			System.setOut(oldOut);
+			System.setErr(oldErr);
+			BuildUtil.projectDir = oldProjectDir;
+			BuildUtil.cleanupEnv();
+		}
+	}
+	
+	/**
+	 * Sends everything written as length prefixed frames, so the client can tell output and result apart
+	 */
+	private static class FrameOutputStream extends OutputStream
+	{
+		private final DataOutputStream out;
+		
+		private FrameOutputStream(DataOutputStream out)
+		{
+			this.out = out;
+		}
+		
+		public void write(int b) throws IOException
+		{
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+		
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (len <= 0)
+				return;
+			
+			synchronized (out)
+			{
+				out.writeInt(len);
+				out.write(b, off, len);
+			}
+		}
+		
+		public void flush() throws IOException
+		{
+			synchronized (out)
+			{
+				out.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package jaxon.daemon;
+
+import jaxon.JaxonConstants;
+import jaxon.version.VersionUtil;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Thin client of the Jaxon daemon, builds are sent over a local socket and the output is streamed back
+ */
+public class DaemonUtil
+{
+	static final String REQUEST_BUILD = "build";
+	static final String REQUEST_STOP = "stop";
+	static final int END_OF_OUTPUT = -1;
+	private static final int CONNECT_TIMEOUT = 1000;
+	
+	public static void daemonCLI(String[] args) throws IOException
+	{
+		if (args.length >= 2 && args[1].equalsIgnoreCase("stop"))
+		{
+			if (send(REQUEST_STOP, new String[0]) == null)
+				System.out.println("No Jaxon daemon is running");
+			else
+				System.out.println("Jaxon daemon stopped");
+		}
+		else if (args.length >= 2 && args[1].equalsIgnoreCase("status"))
+		{
+			DaemonInfo info = readDaemonFile();
+			System.out.println(info == null ? "No Jaxon daemon is running" : "Jaxon daemon is running on port " + info.port);
+		}
+		else
+			new DaemonServer().serve();
+	}
+	
+	/**
+	 * Forwards a build to the running daemon
+	 *
+	 * @return true if the daemon did the build, false if the build has to be done by this process
+	 */
+	public static boolean forwardBuild(String[] args) throws IOException
+	{
+		return send(REQUEST_BUILD, args) != null;
+	}
+	
+	private static Integer send(String request, String[] args) throws IOException
+	{
+		DaemonInfo info = readDaemonFile();
+		if (info == null)
+			return null;
+		
+		try (Socket socket = new Socket())
+		{
+			try
+			{
+				socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), info.port), CONNECT_TIMEOUT);
+			}
+			catch (IOException e)
+			{
+				//the daemon is gone without cleaning up
+				JaxonConstants.DAEMON_FILE.delete();
+				return null;
+			}
+			
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF(info.token);
+			out.writeUTF(request);
+			out.writeUTF(new File("").getAbsolutePath());
+			out.writeInt(args.length);
+			for (String arg : args)
+				out.writeUTF(arg);
+			out.flush();
+			
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			byte[] buffer = new byte[4096];
+			int length;
+			while ((length = in.readInt()) != END_OF_OUTPUT)
+			{
+				if (length > buffer.length)
+					buffer = new byte[length];
+				in.readFully(buffer, 0, length);
+				System.out.write(buffer, 0, length);
+			}
+			System.out.flush();
+			
+			return in.readInt();
+		}
+	}
+	
+	static void writeDaemonFile(int port, String token) throws IOException
+	{
+		File file = JaxonConstants.DAEMON_FILE;
+		File parent = file.getParentFile();
+		if (!parent.exists())
+			parent.mkdirs();
+		
+		//the token is the only protection against other local users, so it is never readable by them,
+		//the file is written under another name and moved in place so clients never see it half written
+		Path path = file.toPath();
+		Path tmp = new File(parent, file.getName() + ".tmp").toPath();
+		Files.deleteIfExists(tmp);
+		try
+		{
+			Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		}
+		catch (UnsupportedOperationException e)
+		{
+			//no POSIX permissions, the file stays in the user profile
+			Files.createFile(tmp);
+			tmp.toFile().setReadable(false, false);
+			tmp.toFile().setReadable(true, true);
+		}
+		
+		Files.write(tmp, Arrays.asList(String.valueOf(port), token, VersionUtil.version), StandardCharsets.UTF_8);
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		file.deleteOnExit();
+	}
+	
+	private static DaemonInfo readDaemonFile() throws IOException
+	{
+		if (!JaxonConstants.DAEMON_FILE.exists())
+			return null;
+		
+		List<String> lines = Files.readAllLines(JaxonConstants.DAEMON_FILE.toPath(), StandardCharsets.UTF_8);
+		
+		//a daemon of another version would build with another compiler
+		if (lines.size() < 3 || !lines.get(2).equals(VersionUtil.version))
+			return null;
+		
+		try
+		{
+			return new DaemonInfo(Integer.parseInt(lines.get(0)), lines.get(1));
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+	
+	private static class DaemonInfo
+	{
+		private final int port;
+		private final String token;
+		
+		private DaemonInfo(int port, String token)
+		{
+			this.port = port;
+			this.token = token;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package jaxon.daemon;
+
+import sjc.frontend.SScanCache;
+import sjc.frontend.SScanRecord;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the scanned symbols of source files between daemon builds.
+ * JaxonIO hands out the same array as long as a file is unchanged, so the array itself is the key,
+ * an edited file gets a new array and its old symbols are dropped together with the old contents.
+ */
+public class ScanCache extends SScanCache
+{
+	private final Map<byte[], SScanRecord> records = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	public SScanRecord get(byte[] data)
+	{
+		return records.get(data);
+	}
+	
+	public void put(byte[] data, SScanRecord rec)
+	{
+		records.put(data, rec);
+	}
+}
@@ -2,14 +2,22 @@ package jaxon.packages;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jaxon.zip.ZipUtil;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static jaxon.JaxonConstants.API_TOKEN;
 import static jaxon.JaxonConstants.API_TOKEN_EXISTS;
@@ -20,6 +28,11 @@ import static jaxon.JaxonConstants.API_TOKEN_EXISTS;
  */
 public class GitHubAPICloneRepo
 {
+	//the endpoints can be redirected with system properties, e.g. to a local server for testing
+	private static final String API_URL = System.getProperty("jaxon.github.api", "https://api.github.com");
+	private static final String ARCHIVE_URL = System.getProperty("jaxon.github.archive", "https://codeload.github.com");
+	private static final int DOWNLOAD_THREADS = 8;
+	
 	public static boolean RATE_LIMITED = false;
 	public static String FAIL_REASON = null;
 	
@@ -31,28 +44,128 @@ public class GitHubAPICloneRepo
 		String commitHash = parts[6];
 		String path = String.join("/", Arrays.copyOfRange(parts, 7, parts.length));
 		
-		repoDir.mkdirs();
+		//a commit never changes, so a complete tree in the cache can always be used
+		File cachedTree = PackageCache.getTree(owner, repo, commitHash, path);
+		if (cachedTree.isDirectory())
+			System.out.println("Using cached: " + path + " at " + commitHash);
+		else
+		{
+			File partialTree = PackageCache.createPartial(cachedTree);
+			
+			if (!downloadArchive(partialTree, owner, repo, path, commitHash) && !downloadFiles(partialTree, owner, repo, path, commitHash))
+			{
+				PackageCache.delete(partialTree);
+				return false;
+			}
+			
+			PackageCache.commit(partialTree, cachedTree);
+		}
 		
-		return downloadContents(repoDir, owner, repo, path, commitHash);
+		PackageCache.copyTree(cachedTree, repoDir);
+		return true;
 	}
 	
-	private static boolean downloadContents(File currentDir, String owner, String repo, String path, String ref) throws IOException
+	/**
+	 * Fetches the whole repository as one archive and extracts the path, the archive is kept for other paths of the commit
+	 */
+	private static boolean downloadArchive(File repoDir, String owner, String repo, String path, String ref)
 	{
-		URL url = new URL("https://api.github.com/repos/" + owner + "/" + repo + "/contents/" + path + "?ref=" + ref);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestMethod("GET");
+		File archive = PackageCache.getArchive(owner, repo, ref);
 		
-		if(API_TOKEN_EXISTS)
+		if (!archive.isFile())
 		{
-			connection.setRequestProperty("Authorization", "Bearer " + API_TOKEN);
-			connection.setRequestProperty("Accept", "application/vnd.github+json");
+			File partialArchive = PackageCache.createPartial(archive);
+			System.out.print("Downloading: " + owner + "/" + repo + " at " + ref + "...");
+			
+			try
+			{
+				HttpURLConnection connection = openConnection(ARCHIVE_URL + "/" + owner + "/" + repo + "/zip/" + ref, false);
+				if (connection.getResponseCode() != 200)
+				{
+					System.out.println("Not available, downloading single files");
+					discard(connection);
+					return false;
+				}
+				
+				try (InputStream in = connection.getInputStream())
+				{
+					Files.copy(in, partialArchive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				
+				PackageCache.commit(partialArchive, archive);
+				System.out.println("Finished");
+			}
+			catch (IOException e)
+			{
+				System.out.println("Failed, downloading single files");
+				partialArchive.delete();
+				return false;
+			}
 		}
 		
+		try
+		{
+			//archives contain a single root directory named after repository and commit
+			return ZipUtil.unzipPath(archive, path, repoDir) > 0;
+		}
+		catch (IOException e)
+		{
+			//a broken archive is fetched again next time
+			archive.delete();
+			return false;
+		}
+	}
+	
+	/**
+	 * Fetches the files of the path one by one, the downloads run concurrently on a bounded pool
+	 */
+	private static boolean downloadFiles(File repoDir, String owner, String repo, String path, String ref) throws IOException
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(DOWNLOAD_THREADS);
+		List<Future<?>> downloads = new ArrayList<>();
+		
+		repoDir.mkdirs();
+		
+		try
+		{
+			if (!downloadContents(repoDir, owner, repo, path, ref, pool, downloads))
+				return false;
+			
+			for (Future<?> download : downloads)
+				download.get();
+			
+			return true;
+		}
+		catch (ExecutionException e)
+		{
+			FAIL_REASON = "GitHub repo clone failed to download a file: " + e.getCause().getMessage();
+			return false;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			FAIL_REASON = "GitHub repo clone was interrupted";
+			return false;
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+	
+	private static boolean downloadContents(File currentDir, String owner, String repo, String path, String ref, ExecutorService pool, List<Future<?>> downloads) throws IOException
+	{
+		HttpURLConnection connection = openConnection(API_URL + "/repos/" + owner + "/" + repo + "/contents/" + path + "?ref=" + ref, true);
+		
 		int responseCode = connection.getResponseCode();
 		if (responseCode == 200)
 		{
 			ObjectMapper mapper = new ObjectMapper();
-			JsonNode jsonNode = mapper.readTree(connection.getInputStream());
+			JsonNode jsonNode;
+			try (InputStream in = connection.getInputStream())
+			{
+				jsonNode = mapper.readTree(in);
+			}
 			
 			if (jsonNode.isArray())
 			{
@@ -64,14 +177,19 @@ public class GitHubAPICloneRepo
 					String dirPath = node.get("path").asText();
 					
 					if ("file".equals(type))
-						downloadFile(currentDir, name, downloadUrl);
+						downloads.add(pool.submit(() ->
+						{
+							downloadFile(new File(currentDir, name), dirPath, downloadUrl);
+							return null;
+						}));
 					else if ("dir".equals(type))
 					{
 						File newDir = new File(currentDir, name);
 						newDir.mkdir();
 						
 						//String treeUrl = node.get("_links").get("self").asText(); //optional method of obtaining the URL
-						downloadContents(newDir, owner, repo, dirPath, ref);
+						if (!downloadContents(newDir, owner, repo, dirPath, ref, pool, downloads))
+							return false;
 					}
 				}
 				
@@ -84,6 +202,7 @@ public class GitHubAPICloneRepo
 		else
 		{
 			String response = connection.getResponseMessage();
+			discard(connection);
 			
 			FAIL_REASON = "GitHub repo clone failed to fetch contents: " + response;
 			if(response.toLowerCase().contains("rate limit"))
@@ -93,34 +212,59 @@ public class GitHubAPICloneRepo
 		}
 	}
 	
-	private static void downloadFile(File currentDir, String name, String downloadUrl) throws IOException
+	private static void downloadFile(File file, String repoPath, String downloadUrl) throws IOException
 	{
-		File file = new File(currentDir, name);
-		System.out.print("Downloading: " + file.getPath() + "...");
-		
-		URL url = new URL(downloadUrl);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestMethod("GET");
+		HttpURLConnection connection = openConnection(downloadUrl, false);
 		
 		int responseCode = connection.getResponseCode();
 		if (responseCode == 200)
 		{
-			try (InputStream in = connection.getInputStream(); FileOutputStream out = new FileOutputStream(file))
+			try (InputStream in = connection.getInputStream())
 			{
-				
-				byte[] buffer = new byte[4096];
-				int bytesRead;
-				while ((bytesRead = in.read(buffer)) != -1)
-				{
-					out.write(buffer, 0, bytesRead);
-				}
+				Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
 			}
 			
-			System.out.println("Finished");
+			System.out.println("Downloaded: " + repoPath);
 		}
 		else
 		{
-			System.err.println("Failed to download file: " + connection.getResponseMessage());
+			String response = connection.getResponseMessage();
+			discard(connection);
+			throw new IOException(repoPath + ": " + response);
+		}
+	}
+	
+	private static HttpURLConnection openConnection(String url, boolean api) throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod("GET");
+		
+		if(api && API_TOKEN_EXISTS)
+		{
+			connection.setRequestProperty("Authorization", "Bearer " + API_TOKEN);
+			connection.setRequestProperty("Accept", "application/vnd.github+json");
+		}
+		
+		return connection;
+	}
+	
+	/**
+	 * Reads the rest of a response, only fully read and closed connections are reused for later requests
+	 */
+	private static void discard(HttpURLConnection connection)
+	{
+		try (InputStream in = connection.getErrorStream())
+		{
+			byte[] buffer = new byte[1024];
+			if (in != null)
+				while (in.read(buffer) != -1)
+				{
+					//nothing to do with the content
+				}
+		}
+		catch (IOException e)
+		{
+			connection.disconnect();
 		}
 	}
 }
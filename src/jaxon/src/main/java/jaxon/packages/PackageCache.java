@@ -0,0 +1,106 @@
+package jaxon.packages;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static jaxon.JaxonConstants.JAXON_CACHE_DIR;
+
+/**
+ * Local package store, entries are keyed by commit hash and path so they never change once complete
+ */
+public class PackageCache
+{
+	private static final String PARTIAL_SUFFIX = ".part";
+	
+	/**
+	 * @return the cached tree of the path at the commit, it only exists if it was completely fetched
+	 */
+	public static File getTree(String owner, String repo, String commitHash, String path)
+	{
+		//the path is encoded as a single name, so the tree of a sub path can not end up inside the tree of its parent
+		return new File(getRepoDir(owner, repo), commitHash + File.separator + encode(path));
+	}
+	
+	/**
+	 * @return the cached archive of the whole repository at the commit
+	 */
+	public static File getArchive(String owner, String repo, String commitHash)
+	{
+		return new File(getRepoDir(owner, repo), commitHash + ".zip");
+	}
+	
+	public static File getPackageList()
+	{
+		return new File(JAXON_CACHE_DIR, "package.list");
+	}
+	
+	/**
+	 * @return an empty directory or file next to the entry that is filled before it is committed
+	 */
+	public static File createPartial(File entry)
+	{
+		File partial = new File(entry.getPath() + PARTIAL_SUFFIX);
+		delete(partial);
+		partial.getParentFile().mkdirs();
+		return partial;
+	}
+	
+	/**
+	 * Moves a completely fetched partial entry to its final location
+	 */
+	public static void commit(File partial, File entry) throws IOException
+	{
+		delete(entry);
+		Files.move(partial.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	public static void copyTree(File from, File to) throws IOException
+	{
+		File[] files = from.listFiles();
+		
+		to.mkdirs();
+		if (files == null)
+			return;
+		
+		for (File file : files)
+		{
+			File target = new File(to, file.getName());
+			if (file.isDirectory())
+				copyTree(file, target);
+			else
+				Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	public static void delete(File file)
+	{
+		File[] files = file.listFiles();
+		
+		if (files != null)
+			for (File child : files)
+				delete(child);
+		
+		file.delete();
+	}
+	
+	private static File getRepoDir(String owner, String repo)
+	{
+		return new File(JAXON_CACHE_DIR, encode(owner) + File.separator + encode(repo));
+	}
+	
+	private static String encode(String name)
+	{
+		try
+		{
+			return URLEncoder.encode(name, "UTF-8");
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -21,6 +21,9 @@ import static jaxon.JaxonConstants.API_TOKEN_FILE;
  */
 public class PackageManager
 {
+	//the package list can be redirected with a system property, e.g. to a local server for testing
+	private static final String PACKAGE_LIST_URL = System.getProperty("jaxon.package.list", "https://raw.githubusercontent.com/Konloch/Jaxon/master/community-projects/package.list");
+	
 	protected static final Map<String, List<JaxonPackage>> packages = new HashMap<>();
 	
 	public static void init(String[] args) throws IOException
@@ -239,11 +242,32 @@ public class PackageManager
 	
 	private static String[] readPackageList() throws IOException
 	{
-		URL url = new URL("https://raw.githubusercontent.com/Konloch/Jaxon/master/community-projects/package.list");
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		return new BufferedReader(new InputStreamReader(connection.getInputStream()))
-				.lines()
-				.toArray(String[]::new);
+		File cachedList = PackageCache.getPackageList();
+		String[] packageList;
+		
+		try
+		{
+			URL url = new URL(PACKAGE_LIST_URL);
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)))
+			{
+				packageList = reader.lines().toArray(String[]::new);
+			}
+		}
+		catch (IOException e)
+		{
+			//work offline with the list of the last successful fetch, the packages are resolved from the cache
+			if (!cachedList.exists())
+				throw e;
+			
+			System.out.println("Unable to fetch the package list, using the cached one (" + e.getMessage() + ")");
+			System.out.println();
+			return Files.readAllLines(cachedList.toPath(), StandardCharsets.UTF_8).toArray(new String[0]);
+		}
+		
+		cachedList.getParentFile().mkdirs();
+		Files.write(cachedList.toPath(), Arrays.asList(packageList), StandardCharsets.UTF_8);
+		return packageList;
 	}
 	
 	public static void createAPIFile(String[] args) throws IOException
@@ -43,16 +43,18 @@ public class SJCUtil
 		BuildUtil.exportBuild("syminfo.txt", "build/build_sym_info.txt");
 	}
 	
-	public static void sjcCLI(String[] args)
+	public static int sjcCLI(String[] args)
 	{
 		int res;
-		Context ctx = new Context(new JaxonIO(System.out));
+		Context ctx = new Context(new JaxonIO(System.out, BuildUtil.envDir != null ? BuildUtil.envDir : BuildUtil.projectDir));
 		SymbolFactory.preparedReflectionSymbols = new ReflectionSymbols();
 		if ((res = ctx.compile(args, "vJRE")) == 0)
 			ctx.writeSymInfo();
 		
 		if (res != 0)
 			System.out.println("Results: " + res);
+		
+		return res;
 	}
 	
 	public static String[] convertToAbsoluteFilePath(String[] args)
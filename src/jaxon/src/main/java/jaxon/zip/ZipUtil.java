@@ -3,7 +3,12 @@ package jaxon.zip;
 import jaxon.Jaxon;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -79,11 +84,7 @@ public class ZipUtil
 			ZipEntry zipEntry;
 			while ((zipEntry = zis.getNextEntry()) != null)
 			{
-				File file = new File(outputPath, zipEntry.getName());
-				
-				//prevent zip-slip
-				if (!file.getAbsolutePath().startsWith(parentFolder.getAbsolutePath()))
-					continue;
+				File file = resolveEntry(parentFolder, zipEntry.getName());
 				
 				file.getParentFile().mkdirs();
 				
@@ -111,4 +112,62 @@ public class ZipUtil
 		
 		return noErrors;
 	}
+	
+	/**
+	 * Extracts a directory of an archive that has a single root directory, like the archives of GitHub
+	 *
+	 * @param zipFile   the archive
+	 * @param path      the directory inside the root directory of the archive
+	 * @param outputDir the directory receiving the contents of the path
+	 * @return the number of extracted files
+	 */
+	public static int unzipPath(File zipFile, String path, File outputDir) throws IOException
+	{
+		String prefix = path.isEmpty() ? "" : path + "/";
+		int count = 0;
+		
+		try (ZipFile zip = new ZipFile(zipFile))
+		{
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements())
+			{
+				ZipEntry zipEntry = entries.nextElement();
+				String name = zipEntry.getName();
+				int rootEnd = name.indexOf('/');
+				
+				if (rootEnd < 0 || zipEntry.isDirectory() || !name.startsWith(prefix, rootEnd + 1))
+					continue;
+				
+				File file = resolveEntry(outputDir, name.substring(rootEnd + 1 + prefix.length()));
+				
+				file.getParentFile().mkdirs();
+				try (InputStream in = zip.getInputStream(zipEntry))
+				{
+					Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Resolves the name of an archive entry inside the output directory
+	 *
+	 * @param outputDir the directory receiving the contents of the archive
+	 * @param name      the name of the entry
+	 * @return the file to write the entry to
+	 * @throws IOException if the entry would be written outside of the output directory (zip-slip)
+	 */
+	private static File resolveEntry(File outputDir, String name) throws IOException
+	{
+		Path dir = outputDir.toPath().toAbsolutePath().normalize();
+		Path file = dir.resolve(name).normalize();
+		
+		if (!file.startsWith(dir))
+			throw new IOException("Archive entry outside of the output directory: " + name);
+		
+		return file.toFile();
+	}
 }
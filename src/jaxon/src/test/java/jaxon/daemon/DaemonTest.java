@@ -0,0 +1,118 @@
+package jaxon.daemon;
+
+import jaxon.JaxonConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DaemonTest
+{
+	@Test
+	public void daemonFileIsOnlyReadableByOwner() throws IOException
+	{
+		assumeTrue(!JaxonConstants.IS_WINDOWS);
+		
+		DaemonUtil.writeDaemonFile(1234, "secret");
+		try
+		{
+			assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(JaxonConstants.DAEMON_FILE.toPath())));
+			assertEquals("secret", Files.readAllLines(JaxonConstants.DAEMON_FILE.toPath()).get(1));
+		}
+		finally
+		{
+			JaxonConstants.DAEMON_FILE.delete();
+		}
+	}
+	
+	@Test
+	@Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+	public void idleClientDoesNotBlockOtherClients() throws Exception
+	{
+		Thread daemon = startDaemon();
+		
+		try (Socket idle = connect())
+		{
+			//the idle client sends nothing, the stop request has to be served anyway
+			DaemonUtil.daemonCLI(new String[]{"daemon", "stop"});
+			daemon.join(TimeUnit.SECONDS.toMillis(3));
+			assertFalse(daemon.isAlive());
+		}
+		finally
+		{
+			stopDaemon(daemon);
+		}
+	}
+	
+	@Test
+	public void wrongTokenIsRejected() throws Exception
+	{
+		Thread daemon = startDaemon();
+		
+		try (Socket socket = connect())
+		{
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF("wrong");
+			out.writeUTF(DaemonUtil.REQUEST_STOP);
+			out.writeUTF("");
+			out.writeInt(0);
+			out.flush();
+			
+			assertThrows(EOFException.class, () -> new DataInputStream(socket.getInputStream()).readInt());
+			assertTrue(daemon.isAlive());
+		}
+		finally
+		{
+			stopDaemon(daemon);
+		}
+	}
+	
+	private static Thread startDaemon() throws Exception
+	{
+		DaemonServer server = new DaemonServer();
+		JaxonConstants.DAEMON_FILE.delete();
+		Thread daemon = new Thread(() ->
+		{
+			try
+			{
+				server.serve();
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+		daemon.start();
+		
+		for (int i = 0; i < 100 && !JaxonConstants.DAEMON_FILE.exists(); i++)
+			Thread.sleep(50);
+		assertTrue(JaxonConstants.DAEMON_FILE.exists());
+		return daemon;
+	}
+	
+	private static Socket connect() throws IOException
+	{
+		List<String> lines = Files.readAllLines(JaxonConstants.DAEMON_FILE.toPath());
+		return new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(lines.get(0)));
+	}
+	
+	private static void stopDaemon(Thread daemon) throws Exception
+	{
+		if (daemon.isAlive())
+			DaemonUtil.daemonCLI(new String[]{"daemon", "stop"});
+		daemon.join(TimeUnit.SECONDS.toMillis(10));
+	}
+}
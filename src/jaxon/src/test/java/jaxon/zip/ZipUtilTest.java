@@ -0,0 +1,89 @@
+package jaxon.zip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipUtilTest
+{
+	@TempDir
+	File tempDir;
+	
+	@Test
+	public void unzipPathExtractsDirectory() throws IOException
+	{
+		File zip = createZip("repo-main/README.md", "repo-main/src/A.java", "repo-main/src/b/B.java");
+		File out = new File(tempDir, "out");
+		
+		assertEquals(2, ZipUtil.unzipPath(zip, "src", out));
+		assertEquals("repo-main/src/A.java", read(new File(out, "A.java")));
+		assertEquals("repo-main/src/b/B.java", read(new File(out, "b/B.java")));
+		assertFalse(new File(out, "README.md").exists());
+	}
+	
+	@Test
+	public void unzipPathRejectsParentDirectory() throws IOException
+	{
+		File zip = createZip("repo-main/src/../../evil.txt");
+		File out = new File(tempDir, "out");
+		
+		assertTrue(out.mkdirs());
+		assertThrows(IOException.class, () -> ZipUtil.unzipPath(zip, "src", out));
+		assertFalse(new File(tempDir, "evil.txt").exists());
+	}
+	
+	@Test
+	public void unzipPathRejectsSiblingWithSamePrefix() throws IOException
+	{
+		//a plain prefix check on the path string accepts "out-evil" for the output directory "out"
+		File zip = createZip("repo-main/../out-evil/evil.txt");
+		File out = new File(tempDir, "out");
+		
+		assertTrue(out.mkdirs());
+		assertThrows(IOException.class, () -> ZipUtil.unzipPath(zip, "", out));
+		assertFalse(new File(tempDir, "out-evil/evil.txt").exists());
+	}
+	
+	@Test
+	public void unzipPathRejectsAbsolutePath() throws IOException
+	{
+		File target = new File(tempDir, "evil.txt");
+		File zip = createZip("repo-main/" + target.getAbsolutePath());
+		File out = new File(tempDir, "out");
+		
+		assertTrue(out.mkdirs());
+		assertThrows(IOException.class, () -> ZipUtil.unzipPath(zip, "", out));
+		assertFalse(target.exists());
+	}
+	
+	private File createZip(String... names) throws IOException
+	{
+		File zip = new File(tempDir, "test.zip");
+		
+		try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip)))
+		{
+			for (String name : names)
+			{
+				zos.putNextEntry(new ZipEntry(name));
+				zos.write(name.getBytes(StandardCharsets.UTF_8));
+				zos.closeEntry();
+			}
+		}
+		
+		return zip;
+	}
+	
+	private static String read(File file) throws IOException
+	{
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
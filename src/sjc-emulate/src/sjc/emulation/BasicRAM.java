@@ -22,7 +22,8 @@ package sjc.emulation;
  * Class representing a basic RAM memory block including byte order handling
  *
  * @author Patrick Schmidt
- * @version 090207 added copyright notice
+ * @version 261018 direct array access for long values, fixed sign extension for big endian int
+ * version 090207 added copyright notice
  * version 060608 initial version
  */
 public class BasicRAM extends AddressRange
@@ -104,16 +105,19 @@ public class BasicRAM extends AddressRange
 	 */
 	public void write64(int address, long l)
 	{
+		int cnt;
 		if (byteOrder)
-		{
-			write32(address, (int) l);
-			write32(address + 4, (int) (l >>> 32));
-		}
+			for (cnt = 0; cnt < 8; cnt++)
+			{
+				mem[address + cnt] = (byte) l;
+				l = l >>> 8;
+			}
 		else
-		{
-			write32(address, (int) (l >>> 32));
-			write32(address + 4, (int) l);
-		}
+			for (cnt = 7; cnt >= 0; cnt--)
+			{
+				mem[address + cnt] = (byte) l;
+				l = l >>> 8;
+			}
 	}
 	
 	/**
@@ -141,7 +145,7 @@ public class BasicRAM extends AddressRange
 	{
 		if (byteOrder)
 			return ((int) mem[address] & 0xFF) + (((int) mem[address + 1] & 0xFF) << 8) + (((int) mem[address + 2] & 0xFF) << 16) + (((int) mem[address + 3] & 0xFF) << 24);
-		return (((int) mem[address] & 0xFF) << 24) + (((int) mem[address + 1] & 0xFF) << 16) + (((int) mem[address + 2]) << 8) + ((int) mem[address + 3]);
+		return (((int) mem[address] & 0xFF) << 24) + (((int) mem[address + 1] & 0xFF) << 16) + (((int) mem[address + 2] & 0xFF) << 8) + ((int) mem[address + 3] & 0xFF);
 	}
 	
 	/**
@@ -149,11 +153,15 @@ public class BasicRAM extends AddressRange
 	 */
 	public long read64(int address)
 	{
+		long res = 0l;
+		int cnt;
 		if (byteOrder)
-		{
-			return ((long) read32(address) & 0xFFFFFFFFl) + ((long) (read32(address + 4)) << 32);
-		}
-		return ((long) read32(address) << 32) + ((long) read32(address + 4) & 0xFFFFFFFFl);
+			for (cnt = 7; cnt >= 0; cnt--)
+				res = (res << 8) | ((long) mem[address + cnt] & 0xFFl);
+		else
+			for (cnt = 0; cnt < 8; cnt++)
+				res = (res << 8) | ((long) mem[address + cnt] & 0xFFl);
+		return res;
 	}
 	
 	/**
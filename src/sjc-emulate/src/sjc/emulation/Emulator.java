@@ -24,7 +24,8 @@ import sjc.osio.TextPrinter;
  * Abstract declaration of an emulator
  *
  * @author Patrick Schmidt, S. Frenz
- * @version 090207 added copyright notice
+ * @version 261018 added run, page tables for memory blocks, last step information
+ * version 090207 added copyright notice
  * version 060608 initial version
  */
 public abstract class Emulator
@@ -140,6 +141,14 @@ public abstract class Emulator
 	 */
 	private AddressRange firstBlock;
 	
+	/**
+	 * Page tables for RAM and IO with directory and page level, entries are
+	 * null if the page is not completely covered by the topmost block
+	 */
+	private final static int PAGE_BITS = 12, DIR_BITS = 10, DIR_MASK = (1 << DIR_BITS) - 1;
+	private AddressRange[][] ramPages = new AddressRange[1 << (32 - PAGE_BITS - DIR_BITS)][];
+	private AddressRange[][] ioPages = new AddressRange[1 << (32 - PAGE_BITS - DIR_BITS)][];
+	
 	/**
 	 * Viewer to print debug information to
 	 */
@@ -165,6 +174,23 @@ public abstract class Emulator
 	 */
 	public Condition stepOverC;
 	
+	/**
+	 * Flag set if the listener was informed about a break, stops run
+	 */
+	protected boolean breakRun;
+	
+	/**
+	 * Number of instructions executed in the last call to run
+	 */
+	public int lastRunSteps;
+	
+	/**
+	 * Address of the instruction performed in the last step and the address
+	 * directly behind it, the current instruction pointer differs from the
+	 * latter if the instruction transferred control
+	 */
+	public int lastStepIP, lastStepNextIP;
+	
 	/**
 	 * Method checking whether a registered breakpoint matches a memory access
 	 *
@@ -179,7 +205,10 @@ public abstract class Emulator
 		while (temp != null)
 		{
 			if (temp.hit(address, size, type, read))
+			{
 				listener.breakPointOccurred(temp);
+				breakRun = true;
+			}
 			temp = temp.next;
 		}
 	}
@@ -193,7 +222,10 @@ public abstract class Emulator
 		while (temp != null)
 		{
 			if (temp.hit(this))
+			{
 				listener.breakPointOccurred(temp);
+				breakRun = true;
+			}
 			temp = temp.next;
 		}
 	}
@@ -205,6 +237,10 @@ public abstract class Emulator
 	 */
 	public void registerBlock(AddressRange block)
 	{
+		AddressRange[][] pages = block.type ? ioPages : ramPages;
+		long start = (long) block.startAddr & 0xFFFFFFFFl, end = start + block.length, pageStart;
+		int page, dir;
+		
 		if (firstBlock == null)
 		{
 			firstBlock = block;
@@ -214,6 +250,42 @@ public abstract class Emulator
 			block.nextBlock = firstBlock;
 			firstBlock = block;
 		}
+		// enter block in all pages it touches, the new block hides older ones
+		for (pageStart = start & ~((1l << PAGE_BITS) - 1); pageStart < end && pageStart <= 0xFFFFFFFFl; pageStart += 1 << PAGE_BITS)
+		{
+			page = (int) (pageStart >>> PAGE_BITS);
+			dir = page >>> DIR_BITS;
+			if (pages[dir] == null)
+				pages[dir] = new AddressRange[1 << DIR_BITS];
+			if (start <= pageStart && end >= pageStart + (1 << PAGE_BITS))
+				pages[dir][page & DIR_MASK] = block;
+			else
+				pages[dir][page & DIR_MASK] = null; //partially covered page, search list on access
+		}
+	}
+	
+	/**
+	 * Method to find the memory block responsible for an address
+	 *
+	 * @param type    the type of the required memory block
+	 * @param address the address to look up
+	 * @return the block containing the address or null if there is none
+	 */
+	private AddressRange getBlock(boolean type, int address)
+	{
+		AddressRange[] dir;
+		AddressRange tempBlock;
+		if ((dir = (type ? ioPages : ramPages)[address >>> (PAGE_BITS + DIR_BITS)]) != null && (tempBlock = dir[(address >>> PAGE_BITS) & DIR_MASK]) != null)
+			return tempBlock;
+		// page not completely covered by one block, search list
+		tempBlock = firstBlock;
+		while (tempBlock != null)
+		{
+			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
+				return tempBlock;
+			tempBlock = tempBlock.nextBlock;
+		}
+		return null;
 	}
 	
 	/**
@@ -225,18 +297,11 @@ public abstract class Emulator
 	 */
 	public void write8(boolean type, int address, byte b)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 1, type, false);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				tempBlock.write8(address, b);
-				return;
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			tempBlock.write8(address, b);
 	}
 	
 	/**
@@ -248,18 +313,11 @@ public abstract class Emulator
 	 */
 	public void write16(boolean type, int address, short s)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 2, type, false);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				tempBlock.write16(address, s);
-				return;
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			tempBlock.write16(address, s);
 	}
 	
 	/**
@@ -271,18 +329,11 @@ public abstract class Emulator
 	 */
 	public void write32(boolean type, int address, int i)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 4, type, false);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				tempBlock.write32(address, i);
-				return;
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			tempBlock.write32(address, i);
 	}
 	
 	/**
@@ -294,18 +345,11 @@ public abstract class Emulator
 	 */
 	public void write64(boolean type, int address, long l)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 8, type, false);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				tempBlock.write64(address, l);
-				return;
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			tempBlock.write64(address, l);
 	}
 	
 	/**
@@ -317,17 +361,11 @@ public abstract class Emulator
 	 */
 	public byte read8(boolean type, int address)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 1, type, true);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				return tempBlock.read8(address);
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			return tempBlock.read8(address);
 		return (byte) 0;
 	}
 	
@@ -340,17 +378,11 @@ public abstract class Emulator
 	 */
 	public short read16(boolean type, int address)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 2, type, true);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				return tempBlock.read16(address);
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			return tempBlock.read16(address);
 		return (short) 0;
 	}
 	
@@ -363,17 +395,11 @@ public abstract class Emulator
 	 */
 	public int read32(boolean type, int address)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 4, type, true);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				return tempBlock.read32(address);
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			return tempBlock.read32(address);
 		return 0;
 	}
 	
@@ -386,17 +412,11 @@ public abstract class Emulator
 	 */
 	public long read64(boolean type, int address)
 	{
-		AddressRange tempBlock = firstBlock;
+		AddressRange tempBlock;
 		if (firstMemC != null)
 			memCondCheck(address, 8, type, true);
-		while (tempBlock != null)
-		{
-			if ((tempBlock.type == type) && (tempBlock.startAddr <= address) && (tempBlock.startAddr + tempBlock.length > address))
-			{
-				return tempBlock.read64(address);
-			}
-			tempBlock = tempBlock.nextBlock;
-		}
+		if ((tempBlock = getBlock(type, address)) != null)
+			return tempBlock.read64(address);
 		return 0;
 	}
 	
@@ -432,7 +452,10 @@ public abstract class Emulator
 		}
 		buf = new char[19];
 		// set first memory block
-		firstBlock = ram;
+		firstBlock = null;
+		ramPages = new AddressRange[1 << (32 - PAGE_BITS - DIR_BITS)][];
+		ioPages = new AddressRange[1 << (32 - PAGE_BITS - DIR_BITS)][];
+		registerBlock(ram);
 		// read the address where to write the image
 		ram.write8(0, raw[0]);
 		ram.write8(1, raw[1]);
@@ -466,6 +489,30 @@ public abstract class Emulator
 	 */
 	public abstract boolean step(boolean into);
 	
+	/**
+	 * Method to perform up to maxSteps steps into methods, stops early if an
+	 * error occurs or the listener is informed about a break
+	 *
+	 * @param maxSteps maximum number of steps to perform
+	 * @return false if an error occurred, true otherwise
+	 */
+	public boolean run(int maxSteps)
+	{
+		int steps = 0;
+		breakRun = false;
+		while (steps < maxSteps && !breakRun)
+		{
+			if (!step(true))
+			{
+				lastRunSteps = steps;
+				return false;
+			}
+			steps++;
+		}
+		lastRunSteps = steps;
+		return true;
+	}
+	
 	/**
 	 * Method to obtain the current instruction pointer
 	 *
@@ -0,0 +1,566 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.emulation;
+
+import sjc.osio.TextPrinter;
+
+/**
+ * Profiler counting executions of basic blocks and branch edges and
+ * attributing executed instructions to call stacks
+ *
+ * @version 261018 initial version
+ */
+public class Profiler
+{
+	
+	/**
+	 * Statistics of a method
+	 */
+	public static class Method
+	{
+		/**
+		 * First and last instruction of the method
+		 */
+		public int firstIP, lastIP;
+		
+		/**
+		 * Number of calls, exclusive and inclusive number of executed instructions
+		 */
+		public long calls, exclIns, inclIns;
+		
+		/**
+		 * Source information if available, may be null
+		 */
+		public SourceMap.MthdInfo info;
+		
+		private boolean onPath;
+	}
+	
+	/**
+	 * Statistics of a basic block, a block starts at the destination of a
+	 * control transfer and ends at the next control transfer or block start
+	 */
+	public static class Block
+	{
+		/**
+		 * First and last executed instruction of this block
+		 */
+		public int firstIP, lastIP;
+		
+		/**
+		 * Number of executions of this block and instructions executed in it
+		 */
+		public long count, execIns;
+		
+		/**
+		 * Method containing this block
+		 */
+		public Method mthd;
+		
+		/**
+		 * First outgoing edge
+		 */
+		public Edge firstEdge;
+		
+		private Block nextHashed;
+	}
+	
+	/**
+	 * Statistics of an edge between two basic blocks
+	 */
+	public static class Edge
+	{
+		/**
+		 * Destination of this edge
+		 */
+		public Block dest;
+		
+		/**
+		 * Number of transitions along this edge
+		 */
+		public long count;
+		
+		/**
+		 * Next edge of the same source block
+		 */
+		public Edge next;
+	}
+	
+	/**
+	 * Node of the call tree
+	 */
+	public static class CallNode
+	{
+		/**
+		 * Called method
+		 */
+		public Method mthd;
+		
+		/**
+		 * Number of calls and instructions executed directly in this node
+		 */
+		public long calls, selfIns;
+		
+		/**
+		 * Stack pointer before the first instruction of the called method
+		 */
+		private int callSP;
+		
+		public CallNode parent, firstChild, nextSibling;
+	}
+	
+	private final static int BLOCK_HASH_SIZE = 4096; //has to be a power of two
+	
+	private final Emulator emul;
+	private final SourceMap map;
+	
+	/**
+	 * Known methods sorted by first instruction
+	 */
+	private Method[] mthds;
+	private int mthdCount;
+	
+	private Block[] blockHash;
+	private int blockCount;
+	
+	private CallNode root, curNode;
+	private Block curBlock;
+	private Method curMthd;
+	private int expectedIP;
+	
+	/**
+	 * Total number of profiled instructions
+	 */
+	public long totalIns;
+	
+	/**
+	 * Standard constructor
+	 *
+	 * @param ie  the emulator to profile
+	 * @param sm  map to source information, may be null
+	 */
+	public Profiler(Emulator ie, SourceMap sm)
+	{
+		emul = ie;
+		map = sm;
+		reset();
+	}
+	
+	/**
+	 * Method to reset all statistics
+	 */
+	public void reset()
+	{
+		mthds = new Method[64];
+		mthdCount = 0;
+		blockHash = new Block[BLOCK_HASH_SIZE];
+		blockCount = 0;
+		root = curNode = new CallNode();
+		curBlock = null;
+		curMthd = null;
+		totalIns = 0l;
+	}
+	
+	/**
+	 * Method to perform up to maxSteps steps into methods and record them,
+	 * stops early if an error occurs or the listener is informed about a break
+	 *
+	 * @param maxSteps maximum number of steps to perform
+	 * @return false if an error occurred, true otherwise
+	 */
+	public boolean run(long maxSteps)
+	{
+		long steps = 0l;
+		int sp;
+		emul.breakRun = false;
+		while (steps < maxSteps && !emul.breakRun)
+		{
+			sp = emul.getCurrentSP();
+			if (!emul.step(true))
+				return false;
+			record(sp);
+			steps++;
+		}
+		return true;
+	}
+	
+	/**
+	 * Method to record the last step of the emulator
+	 *
+	 * @param sp the stack pointer before the last step
+	 */
+	private void record(int sp)
+	{
+		int ip = emul.lastStepIP;
+		boolean transfer = curBlock == null || ip != expectedIP;
+		Block block;
+		
+		totalIns++;
+		if (transfer)
+		{ //leave all calls whose frame is already removed from the stack
+			while (curNode != root && curNode.callSP < sp)
+				curNode = curNode.parent;
+		}
+		if (curMthd == null || ip < curMthd.firstIP || ip > curMthd.lastIP)
+			enterMthd(ip, sp);
+		else if (ip == curMthd.firstIP)
+			enterCall(curMthd, sp); //recursive call
+		if (transfer || ip == curMthd.firstIP)
+			block = enterBlock(ip);
+		else if ((block = getBlock(ip)) == null)
+			block = curBlock; //sequential flow inside block
+		else
+			block = enterBlock(ip); //fall through into known block start
+		if (ip > block.lastIP)
+			block.lastIP = ip;
+		block.execIns++;
+		curNode.selfIns++;
+		curMthd.exclIns++;
+		expectedIP = emul.lastStepNextIP;
+	}
+	
+	/**
+	 * Method to write the recorded call stacks in the folded format used by
+	 * flame graph tools, one line per stack with its exclusive instruction count
+	 *
+	 * @param out the printer to write to
+	 */
+	public void writeFoldedStacks(TextPrinter out)
+	{
+		CallNode node = root.firstChild;
+		while (node != null)
+		{
+			writeFoldedStacks(out, node);
+			node = node.nextSibling;
+		}
+	}
+	
+	/**
+	 * Method to write a report of the hottest methods, blocks and edges
+	 *
+	 * @param out   the printer to write to
+	 * @param limit maximum number of entries in each list
+	 */
+	public void writeReport(TextPrinter out, int limit)
+	{
+		Method[] hotMthds = new Method[limit];
+		Block[] hotBlocks = new Block[limit];
+		Block block;
+		Edge edge;
+		int i, j, cnt = 0;
+		
+		// methods sorted by exclusive instructions
+		for (i = 0; i < mthdCount; i++)
+		{
+			mthds[i].inclIns = 0l;
+			j = cnt < limit ? cnt++ : limit;
+			while (j > 0 && hotMthds[j - 1].exclIns < mthds[i].exclIns)
+			{
+				if (j < limit)
+					hotMthds[j] = hotMthds[j - 1];
+				j--;
+			}
+			if (j < limit)
+				hotMthds[j] = mthds[i];
+		}
+		calcInclusive(root.firstChild);
+		out.print("executed instructions: ");
+		printDec(out, totalIns);
+		out.print(" in ");
+		out.print(blockCount);
+		out.print(" blocks of ");
+		out.print(mthdCount);
+		out.println(" methods");
+		out.println();
+		out.println("hot methods (exclusive, inclusive, calls):");
+		for (i = 0; i < cnt; i++)
+		{
+			printPercent(out, hotMthds[i].exclIns);
+			out.print(' ');
+			printDec(out, hotMthds[i].exclIns);
+			out.print(' ');
+			printDec(out, hotMthds[i].inclIns);
+			out.print(' ');
+			printDec(out, hotMthds[i].calls);
+			out.print(' ');
+			printMthd(out, hotMthds[i]);
+			out.println();
+		}
+		// blocks sorted by executed instructions
+		cnt = 0;
+		for (i = 0; i < BLOCK_HASH_SIZE; i++)
+			for (block = blockHash[i]; block != null; block = block.nextHashed)
+			{
+				j = cnt < limit ? cnt++ : limit;
+				while (j > 0 && hotBlocks[j - 1].execIns < block.execIns)
+				{
+					if (j < limit)
+						hotBlocks[j] = hotBlocks[j - 1];
+					j--;
+				}
+				if (j < limit)
+					hotBlocks[j] = block;
+			}
+		out.println();
+		out.println("hot blocks (instructions, executions, range, source):");
+		for (i = 0; i < cnt; i++)
+		{
+			block = hotBlocks[i];
+			printPercent(out, block.execIns);
+			out.print(' ');
+			printDec(out, block.execIns);
+			out.print(' ');
+			printDec(out, block.count);
+			out.print(" 0x");
+			out.printHexFix(block.firstIP, 8);
+			out.print("-0x");
+			out.printHexFix(block.lastIP, 8);
+			out.print(' ');
+			printMthd(out, block.mthd);
+			if (block.mthd.info != null)
+			{
+				out.print(" (");
+				out.print(block.mthd.info.file);
+				out.print(':');
+				out.print(SourceMap.getLine(block.mthd.info, block.firstIP));
+				out.print(')');
+			}
+			out.println();
+			for (edge = block.firstEdge; edge != null; edge = edge.next)
+			{
+				out.print("    -> 0x");
+				out.printHexFix(edge.dest.firstIP, 8);
+				out.print(' ');
+				printDec(out, edge.count);
+				if (edge.dest.mthd.info != null)
+				{
+					out.print(" (line ");
+					out.print(SourceMap.getLine(edge.dest.mthd.info, edge.dest.firstIP));
+					out.print(')');
+				}
+				out.println();
+			}
+		}
+	}
+	
+	private void enterMthd(int ip, int sp)
+	{
+		Method mthd;
+		int low = 0, high = mthdCount - 1, mid;
+		
+		// search known methods
+		mthd = null;
+		while (low <= high)
+		{
+			mid = (low + high) >>> 1;
+			if (mthds[mid].lastIP < ip)
+				low = mid + 1;
+			else if (mthds[mid].firstIP > ip)
+				high = mid - 1;
+			else
+			{
+				mthd = mthds[mid];
+				break;
+			}
+		}
+		if (mthd == null)
+			mthd = addMthd(ip);
+		curMthd = mthd;
+		if (ip == mthd.firstIP)
+			enterCall(mthd, sp);
+		else
+		{ //return or exception, leave frames up to the one of the current method
+			while (curNode != root && curNode.mthd != mthd)
+				curNode = curNode.parent;
+			if (curNode == root)
+				enterCall(mthd, sp); //method entered without seen call, treat as root
+		}
+	}
+	
+	private Method addMthd(int ip)
+	{
+		Method mthd = new Method(), tmp[];
+		int i;
+		
+		mthd.firstIP = emul.getStartOfMethod(ip);
+		mthd.lastIP = emul.getEndOfMethod(ip);
+		if (map != null)
+			mthd.info = map.getMthd(mthd.firstIP);
+		if (mthdCount == mthds.length)
+		{
+			tmp = new Method[mthdCount * 2];
+			for (i = 0; i < mthdCount; i++)
+				tmp[i] = mthds[i];
+			mthds = tmp;
+		}
+		for (i = mthdCount++; i > 0 && mthds[i - 1].firstIP > mthd.firstIP; i--)
+			mthds[i] = mthds[i - 1];
+		mthds[i] = mthd;
+		return mthd;
+	}
+	
+	private void enterCall(Method mthd, int sp)
+	{
+		CallNode node;
+		
+		for (node = curNode.firstChild; node != null; node = node.nextSibling)
+			if (node.mthd == mthd)
+				break;
+		if (node == null)
+		{
+			node = new CallNode();
+			node.mthd = mthd;
+			node.parent = curNode;
+			node.nextSibling = curNode.firstChild;
+			curNode.firstChild = node;
+		}
+		node.callSP = sp;
+		node.calls++;
+		mthd.calls++;
+		curNode = node;
+	}
+	
+	private Block getBlock(int ip)
+	{
+		Block block = blockHash[ip & (BLOCK_HASH_SIZE - 1)];
+		while (block != null && block.firstIP != ip)
+			block = block.nextHashed;
+		return block;
+	}
+	
+	private Block enterBlock(int ip)
+	{
+		Block block;
+		Edge edge;
+		int index;
+		
+		if ((block = getBlock(ip)) == null)
+		{
+			block = new Block();
+			block.firstIP = block.lastIP = ip;
+			block.mthd = curMthd;
+			index = ip & (BLOCK_HASH_SIZE - 1);
+			block.nextHashed = blockHash[index];
+			blockHash[index] = block;
+			blockCount++;
+		}
+		block.count++;
+		if (curBlock != null)
+		{
+			for (edge = curBlock.firstEdge; edge != null; edge = edge.next)
+				if (edge.dest == block)
+					break;
+			if (edge == null)
+			{
+				edge = new Edge();
+				edge.dest = block;
+				edge.next = curBlock.firstEdge;
+				curBlock.firstEdge = edge;
+			}
+			edge.count++;
+		}
+		return curBlock = block;
+	}
+	
+	private long calcInclusive(CallNode node)
+	{
+		long sum = 0l, incl;
+		boolean recursive;
+		
+		while (node != null)
+		{
+			recursive = node.mthd.onPath;
+			node.mthd.onPath = true;
+			incl = node.selfIns + calcInclusive(node.firstChild);
+			if (!recursive)
+			{ //count inclusive instructions only once for recursive methods
+				node.mthd.onPath = false;
+				node.mthd.inclIns += incl;
+			}
+			sum += incl;
+			node = node.nextSibling;
+		}
+		return sum;
+	}
+	
+	private void writeFoldedStacks(TextPrinter out, CallNode node)
+	{
+		CallNode child;
+		if (node.selfIns > 0l)
+		{
+			printStack(out, node);
+			out.print(' ');
+			printDec(out, node.selfIns);
+			out.println();
+		}
+		for (child = node.firstChild; child != null; child = child.nextSibling)
+			writeFoldedStacks(out, child);
+	}
+	
+	private void printStack(TextPrinter out, CallNode node)
+	{
+		if (node.parent != root)
+		{
+			printStack(out, node.parent);
+			out.print(';');
+		}
+		printMthd(out, node.mthd);
+	}
+	
+	private void printMthd(TextPrinter out, Method mthd)
+	{
+		String name;
+		int i;
+		
+		if (mthd.info == null || (name = mthd.info.name) == null)
+		{
+			out.print("0x");
+			out.printHexFix(mthd.firstIP, 8);
+			return;
+		}
+		// skip return type, no spaces in frames of folded stacks
+		if ((i = name.indexOf(' ')) >= 0)
+			name = name.substring(i + 1);
+		out.print(name);
+	}
+	
+	private static void printDec(TextPrinter out, long value)
+	{
+		char[] digits = new char[20];
+		int cnt = 0;
+		
+		do
+		{
+			digits[cnt++] = (char) ('0' + (int) (value % 10l));
+			value = value / 10l;
+		} while (value > 0l);
+		while (cnt > 0)
+			out.print(digits[--cnt]);
+	}
+	
+	private void printPercent(TextPrinter out, long value)
+	{
+		int permill = totalIns > 0l ? (int) (value * 1000l / totalIns) : 0;
+		if (permill < 100)
+			out.print(' ');
+		out.print(permill / 10);
+		out.print('.');
+		out.print(permill % 10);
+		out.print('%');
+	}
+}
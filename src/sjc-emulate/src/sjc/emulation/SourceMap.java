@@ -0,0 +1,275 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.emulation;
+
+/**
+ * Map from code addresses to methods and source lines read from the output
+ * of the code info writer (debug writer "code")
+ *
+ * @version 261018 initial version
+ */
+public class SourceMap
+{
+	
+	/**
+	 * Information about a single method
+	 */
+	public static class MthdInfo
+	{
+		/**
+		 * Address of the first and the last byte of code
+		 */
+		public int start, end;
+		
+		/**
+		 * Name of the method including return type and parameters
+		 */
+		public String name;
+		
+		/**
+		 * Name of the source file
+		 */
+		public String file;
+		
+		/**
+		 * Line of the method declaration
+		 */
+		public int line;
+		
+		/**
+		 * Source line hints as pairs of offset relative to start and line, may be null
+		 */
+		public int[] lineInCodeOffset;
+		
+		private MthdInfo next;
+	}
+	
+	/**
+	 * Known methods sorted by start address
+	 */
+	private MthdInfo[] mthds;
+	
+	/**
+	 * Number of known methods
+	 */
+	private int count;
+	
+	private byte[] data;
+	private int pos;
+	private char[] buf;
+	
+	/**
+	 * Method to read the output of the code info writer
+	 *
+	 * @param codeInfo content of the file written by the code info writer
+	 * @return true if the content could be parsed, false otherwise
+	 */
+	public boolean init(byte[] codeInfo)
+	{
+		MthdInfo first = null, last = null, cur = null;
+		String key;
+		int[] tmp, grown;
+		int i, len, start, value;
+		
+		data = codeInfo;
+		pos = 0;
+		buf = new char[256];
+		count = 0;
+		while (pos < data.length)
+		{
+			if ((key = readKey()) == null)
+			{ //empty line
+				skipLine();
+				continue;
+			}
+			if (key.equals("code"))
+			{
+				cur = new MthdInfo();
+				cur.start = readInt();
+				readInt(); //size
+				cur.end = readInt();
+				if (last == null)
+					first = cur;
+				else
+					last.next = cur;
+				last = cur;
+				count++;
+			}
+			else if (cur == null)
+				return false;
+			else if (key.equals("mthd"))
+				cur.name = readRest();
+			else if (key.equals("file"))
+				cur.file = readRest();
+			else if (key.equals("line"))
+				cur.line = readInt();
+			else if (key.equals("slhi"))
+			{
+				tmp = new int[16];
+				len = 0;
+				while (true)
+				{
+					while (pos < data.length && (data[pos] == (byte) ' ' || data[pos] == (byte) '\r'))
+						pos++;
+					if (pos + 1 < data.length && data[pos] == (byte) '\n' && data[pos + 1] == (byte) ' ')
+						pos++; //hints are continued on lines starting with a space
+					start = pos;
+					value = readInt();
+					if (pos == start)
+						break;
+					if (len == tmp.length)
+					{
+						grown = new int[len * 2];
+						for (i = 0; i < len; i++)
+							grown[i] = tmp[i];
+						tmp = grown;
+					}
+					tmp[len++] = value;
+				}
+				cur.lineInCodeOffset = new int[len];
+				for (i = 0; i < len; i++)
+					cur.lineInCodeOffset[i] = tmp[i];
+			}
+			skipLine();
+		}
+		// build array sorted by start address
+		mthds = new MthdInfo[count];
+		for (i = 0; first != null; first = first.next)
+		{
+			len = i++;
+			while (len > 0 && mthds[len - 1].start > first.start)
+			{
+				mthds[len] = mthds[len - 1];
+				len--;
+			}
+			mthds[len] = first;
+		}
+		data = null;
+		buf = null;
+		return true;
+	}
+	
+	/**
+	 * Method to find the method containing an address
+	 *
+	 * @param address the address of an instruction
+	 * @return the method containing the address or null if there is none
+	 */
+	public MthdInfo getMthd(int address)
+	{
+		int low = 0, high = count - 1, mid;
+		
+		while (low <= high)
+		{
+			mid = (low + high) >>> 1;
+			if (mthds[mid].end < address)
+				low = mid + 1;
+			else if (mthds[mid].start > address)
+				high = mid - 1;
+			else
+				return mthds[mid];
+		}
+		return null;
+	}
+	
+	/**
+	 * Method to determine the source line of an address
+	 *
+	 * @param mthd    the method containing the address
+	 * @param address the address of an instruction
+	 * @return the source line, the line of the method declaration if there are no hints
+	 */
+	public static int getLine(MthdInfo mthd, int address)
+	{
+		int i, line = mthd.line, offset = address - mthd.start;
+		
+		if (mthd.lineInCodeOffset != null)
+			for (i = 0; i < mthd.lineInCodeOffset.length && mthd.lineInCodeOffset[i] <= offset; i += 2)
+				line = mthd.lineInCodeOffset[i + 1];
+		return line;
+	}
+	
+	private String readKey()
+	{
+		int len = 0;
+		
+		while (pos < data.length && data[pos] != (byte) ':' && data[pos] != (byte) '\n' && len < buf.length)
+			buf[len++] = (char) data[pos++];
+		if (pos >= data.length || data[pos] != (byte) ':')
+			return null;
+		pos++;
+		return new String(buf, 0, len);
+	}
+	
+	private String readRest()
+	{
+		int start, len = 0;
+		char[] rest;
+		
+		while (pos < data.length && data[pos] == (byte) ' ')
+			pos++;
+		start = pos;
+		while (pos < data.length && data[pos] != (byte) '\n' && data[pos] != (byte) '\r')
+			pos++;
+		rest = new char[pos - start];
+		while (start < pos)
+			rest[len++] = (char) ((int) data[start++] & 0xFF);
+		return new String(rest, 0, len);
+	}
+	
+	private int readInt()
+	{
+		int res = 0, digit;
+		boolean hex = false, neg = false;
+		
+		while (pos < data.length && data[pos] == (byte) ' ')
+			pos++;
+		if (pos < data.length && data[pos] == (byte) '-')
+		{
+			neg = true;
+			pos++;
+		}
+		if (pos + 1 < data.length && data[pos] == (byte) '0' && data[pos + 1] == (byte) 'x')
+		{
+			hex = true;
+			pos += 2;
+		}
+		while (pos < data.length)
+		{
+			digit = data[pos];
+			if (digit >= '0' && digit <= '9')
+				digit -= '0';
+			else if (hex && digit >= 'A' && digit <= 'F')
+				digit -= 'A' - 10;
+			else if (hex && digit >= 'a' && digit <= 'f')
+				digit -= 'a' - 10;
+			else
+				break;
+			res = hex ? (res << 4) | digit : res * 10 + digit;
+			pos++;
+		}
+		return neg ? -res : res;
+	}
+	
+	private void skipLine()
+	{
+		while (pos < data.length && data[pos] != (byte) '\n')
+			pos++;
+		pos++;
+	}
+}
@@ -29,7 +29,8 @@ import sjc.real.Real;
  * Class representing the SSA emulator
  *
  * @author Patrick Schmidt, Stefan Frenz
- * @version 101101 adopted changed I_DEREF
+ * @version 261018 added I_JMPTAB, cache for decoded instructions and last step information
+ * version 101101 adopted changed I_DEREF
  * version 100927 fixed unsignedness of chars
  * version 100412 added killRegOnJmp2 to support two registers to be killed on jump
  * version 090717 added stack extreme check instruction I_STKCHK
@@ -61,6 +62,10 @@ public class SSAEmul extends Emulator
 	
 	private final static int INIT_STACK_VALUE = 0x9BFF8;
 	
+	private final static int DECODE_CACHE_SIZE = 16384; //has to be a power of two
+	private final static int DECODE_CACHE_MASK = DECODE_CACHE_SIZE - 1;
+	private final static int MAX_INS_LENGTH = 30; //param, opcode, three registers, im_i, para, im_l
+	
 	private final Real real;
 	
 	/**
@@ -204,6 +209,17 @@ public class SSAEmul extends Emulator
 	 */
 	private int globalThrowFrameVariable;
 	
+	/**
+	 * Cache of decoded instructions indexed by the lower bits of the instruction pointer
+	 */
+	private int[] decIP, decNextIP, decParam, decOpcode, decReg0, decReg1, decReg2, decIPar1, decIPar2;
+	private long[] decLPar;
+	
+	/**
+	 * Range of instructions contained in the decode cache
+	 */
+	private int decLowIP, decHighIP;
+	
 	/**
 	 * @see Emulator#initArchitecture(int, int, int, int)
 	 */
@@ -232,6 +248,21 @@ public class SSAEmul extends Emulator
 		// initialize instance variables
 		paramOffsetNormal = 2 * ((relocBytes + stackClearBits) & ~stackClearBits);
 		paramOffsetInline = (relocBytes + stackClearBits) & ~stackClearBits;
+		// initialize empty decode cache
+		decIP = new int[DECODE_CACHE_SIZE];
+		decNextIP = new int[DECODE_CACHE_SIZE];
+		decParam = new int[DECODE_CACHE_SIZE];
+		decOpcode = new int[DECODE_CACHE_SIZE];
+		decReg0 = new int[DECODE_CACHE_SIZE];
+		decReg1 = new int[DECODE_CACHE_SIZE];
+		decReg2 = new int[DECODE_CACHE_SIZE];
+		decIPar1 = new int[DECODE_CACHE_SIZE];
+		decIPar2 = new int[DECODE_CACHE_SIZE];
+		decLPar = new long[DECODE_CACHE_SIZE];
+		for (cnt = 0; cnt < DECODE_CACHE_SIZE; cnt++)
+			decIP[cnt] = -1;
+		decLowIP = Integer.MAX_VALUE;
+		decHighIP = Integer.MIN_VALUE;
 		// everything ok
 		return true;
 	}
@@ -2045,7 +2076,10 @@ public class SSAEmul extends Emulator
 		{
 			case SSADef.CC_AL:
 				if (listener != null && endlessLoopHint == currentIP)
+				{
 					listener.endlessLoopDetected();
+					breakRun = true;
+				}
 				jump = true;
 				break;
 			case SSADef.CC_EQ:
@@ -2384,6 +2418,30 @@ public class SSAEmul extends Emulator
 		return true;
 	}
 	
+	/**
+	 * Method to emulate an indexed jump, the table of jumps follows directly
+	 *
+	 * @param reg0   register containing the value to switch on
+	 * @param minVal value corresponding to the first jump in the table
+	 * @param count  number of jumps in the table (not counting the default jump)
+	 * @return true if the operation succeeds, false otherwise
+	 */
+	private boolean insJmpTable(int reg0, int minVal, int count)
+	{
+		Register r0;
+		int index;
+		if ((r0 = getRegister(reg0, 0, false)) == null)
+		{
+			out.println("in insJmpTable");
+			return false;
+		}
+		index = r0.value32 - minVal;
+		if (index < 0 || index >= count)
+			index = count; //default jump behind table
+		currentIP += index * 7; //each I_JUMP is coded with 7 bytes
+		return true;
+	}
+	
 	/**
 	 * Method to emulate the doThrow method usually implemented in the runtime system
 	 *
@@ -2408,6 +2466,63 @@ public class SSAEmul extends Emulator
 		return true;
 	}
 	
+	/**
+	 * Method to invalidate decoded instructions overlapping a written memory range
+	 *
+	 * @param address the written address
+	 * @param size    the number of bytes written
+	 */
+	private void invalidateDecoded(int address, int size)
+	{
+		int ip, index;
+		for (ip = address - MAX_INS_LENGTH + 1; ip < address + size; ip++)
+		{
+			index = ip & DECODE_CACHE_MASK;
+			if (decIP[index] == ip && decNextIP[index] > address)
+				decIP[index] = -1;
+		}
+	}
+	
+	/**
+	 * @see Emulator#write8(boolean, int, byte)
+	 */
+	public void write8(boolean type, int address, byte b)
+	{
+		super.write8(type, address, b);
+		if (!type && address + 1 > decLowIP && address < decHighIP)
+			invalidateDecoded(address, 1);
+	}
+	
+	/**
+	 * @see Emulator#write16(boolean, int, short)
+	 */
+	public void write16(boolean type, int address, short s)
+	{
+		super.write16(type, address, s);
+		if (!type && address + 2 > decLowIP && address < decHighIP)
+			invalidateDecoded(address, 2);
+	}
+	
+	/**
+	 * @see Emulator#write32(boolean, int, int)
+	 */
+	public void write32(boolean type, int address, int i)
+	{
+		super.write32(type, address, i);
+		if (!type && address + 4 > decLowIP && address < decHighIP)
+			invalidateDecoded(address, 4);
+	}
+	
+	/**
+	 * @see Emulator#write64(boolean, int, long)
+	 */
+	public void write64(boolean type, int address, long l)
+	{
+		super.write64(type, address, l);
+		if (!type && address + 8 > decLowIP && address < decHighIP)
+			invalidateDecoded(address, 8);
+	}
+	
 	/**
 	 * Method to read a byte from where the instruction pointer currently points
 	 * at
@@ -2455,40 +2570,58 @@ public class SSAEmul extends Emulator
 	 */
 	public boolean step(boolean into)
 	{
-		int param = 0, opcode = 0, reg0 = 0, reg1 = 0, reg2 = 0, iPar1 = 0, iPar2 = 0;
+		int param = 0, opcode = 0, reg0 = 0, reg1 = 0, reg2 = 0, iPar1 = 0, iPar2 = 0, index, startIP;
 		boolean success = true;
 		long lPar = 0l;
-		//get type and parameter
-		param = readByte();
-		opcode = readByte();
-		//check for jump-destination
-		if ((param & SSADef.IPJMPDEST) != 0)
-		{
-			param &= ~SSADef.IPJMPDEST;
-      /*for (i=SSADef.R_GPRS; i<usage.length; i++) {
-        if ((usage[i]&(R_ALLOCED|R_KILLED))==R_ALLOCED) printErr("jumpDest: register in use", i);
-      }*/
-		}
-		if (opcode == (0xFF & SSADef.I_INLINE))
-		{ //MAGIC.inline
-			out.print("Skipping inline code ");
-			while (param-- > 0)
-			{
-				out.print(readByte() & 0xFF); //skip bytes
-				out.print(' ');
-			}
-			out.println();
-			endlessLoopHint = currentIP;
+		index = currentIP & DECODE_CACHE_MASK;
+		if (decIP[index] == currentIP && firstMemC == null)
+		{ //instruction already decoded, no need to read it again
+			param = decParam[index];
+			opcode = decOpcode[index];
+			reg0 = decReg0[index];
+			reg1 = decReg1[index];
+			reg2 = decReg2[index];
+			iPar1 = decIPar1[index];
+			iPar2 = decIPar2[index];
+			lPar = decLPar[index];
+			lastStepIP = currentIP;
+			lastStepNextIP = currentIP = decNextIP[index];
 		}
 		else
 		{
+			startIP = currentIP;
+			//get type and parameter
+			param = readByte();
+			opcode = readByte();
+			//check for jump-destination
+			if ((param & SSADef.IPJMPDEST) != 0)
+			{
+				param &= ~SSADef.IPJMPDEST;
+        /*for (i=SSADef.R_GPRS; i<usage.length; i++) {
+          if ((usage[i]&(R_ALLOCED|R_KILLED))==R_ALLOCED) printErr("jumpDest: register in use", i);
+        }*/
+			}
+			if (opcode == (0xFF & SSADef.I_INLINE))
+			{ //MAGIC.inline, not cached as it is just skipped
+				out.print("Skipping inline code ");
+				while (param-- > 0)
+				{
+					out.print(readByte() & 0xFF); //skip bytes
+					out.print(' ');
+				}
+				out.println();
+				endlessLoopHint = currentIP;
+				lastStepIP = startIP;
+				lastStepNextIP = currentIP;
+				// check for standard break conditions
+				if (firstBreakPointC != null)
+					breakCondCheck();
+				return true;
+			}
 			if (opcode == (0xFF & SSADef.I_JUMP))
 			{
 				iPar1 = readByte();
 				iPar2 = readInt();
-				param = currentIP; //remember currentIP for endlessLoopHint
-				success = insJump(iPar1, iPar2);
-				endlessLoopHint = param; //assignment has to be done after insJump, but currentIP might have changed
 			}
 			else
 			{
@@ -2508,238 +2641,271 @@ public class SSAEmul extends Emulator
 					iPar2 = readInt();
 				if ((param & SSADef.IP_im_l) != 0)
 					lPar = readLong();
-				// process instruction
-				if (opcode == (0xFF & SSADef.I_FLOWHINT))
-				{
-					//special handling for flow hint: don't set realInstructionHint
-					if (iPar2 == SSADef.F_DOTHROW)
-						success = insDoThrow(); //emulate doThrow-method
-					else
-						success = true; //nothing to do
-				}
+			}
+			lastStepIP = startIP;
+			lastStepNextIP = currentIP;
+			//remember decoded instruction if reading it did not have to be checked
+			if (firstMemC == null)
+			{
+				decIP[index] = startIP;
+				decNextIP[index] = currentIP;
+				decParam[index] = param;
+				decOpcode[index] = opcode;
+				decReg0[index] = reg0;
+				decReg1[index] = reg1;
+				decReg2[index] = reg2;
+				decIPar1[index] = iPar1;
+				decIPar2[index] = iPar2;
+				decLPar[index] = lPar;
+				if (startIP < decLowIP)
+					decLowIP = startIP;
+				if (currentIP > decHighIP)
+					decHighIP = currentIP;
+			}
+		}
+		if (opcode == (0xFF & SSADef.I_JUMP))
+		{
+			param = currentIP; //remember currentIP for endlessLoopHint
+			success = insJump(iPar1, iPar2);
+			endlessLoopHint = param; //assignment has to be done after insJump, but currentIP might have changed
+		}
+		else
+		{
+			// process instruction
+			if (opcode == (0xFF & SSADef.I_FLOWHINT))
+			{
+				//special handling for flow hint: don't set realInstructionHint
+				if (iPar2 == SSADef.F_DOTHROW)
+					success = insDoThrow(); //emulate doThrow-method
 				else
-				{
-					switch (opcode)
-					{
-						case 0xFF & SSADef.I_MARKER:
-							success = insMarker(iPar1);
-							break;
-						case 0xFF & SSADef.I_ENTER:
-							success = insEnter(iPar1, iPar2, false);
-							break;
-						case 0xFF & SSADef.I_ENTERINL:
-							success = insEnter(iPar1, iPar2, true);
-							break;
-						case 0xFF & SSADef.I_NFREG:
-							success = insNFReg(iPar1);
-							break;
-						case 0xFF & SSADef.I_LEAVE:
-							success = insLeave(iPar1, iPar2, false);
-							// check for step over condition
-							if (stepOverC != null && stepOverC.hit(this))
-							{
-								listener.breakPointOccurred(stepOverC);
-								stepOverC = null;
-							}
-							break;
-						case 0xFF & SSADef.I_LEAVEINL:
-							success = insLeave(iPar1, iPar2, true);
-							break;
-						case 0xFF & SSADef.I_LOADim_i:
-							success = insLoadImI(reg0, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_LOADim_l:
-							success = insLoadImL(reg0, iPar1, lPar);
-							break;
-						case 0xFF & SSADef.I_LOADim_p:
-							success = insLoadImP(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_LOADnp:
-							success = insLoadNP(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_LOADaddr:
-							success = insLoadAddr(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_LOADval:
-							success = insLoadVal(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_CONV:
-							success = insConv(reg0, reg1, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_COPY:
-							success = insCopy(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_PUSHim_i:
-							success = insPushImI(iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_PUSHim_l:
-							success = insPushImL(lPar);
-							break;
-						case 0xFF & SSADef.I_PUSHnp:
-							success = insPushNP();
-							break;
-						case 0xFF & SSADef.I_PUSH:
-							success = insPush(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_POP:
-							success = insPop(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_SAVE:
-							success = insSave(reg0, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_REST:
-							success = insRest(reg0, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_ASSIGN:
-							success = insAssign(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_AND:
-							success = insAnd(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_XOR:
-							success = insXor(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_OR:
-							success = insOr(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_ADD:
-							success = insAdd(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_SUB:
-							success = insSub(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_MUL:
-							success = insMul(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_DIV:
-							success = insDiv(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_MOD:
-							success = insMod(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_SHL:
-							success = insShL(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_SHRL:
-							success = insShRL(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_SHRA:
-							success = insShRA(reg0, reg1, reg2, iPar1);
-							break;
-						case 0xFF & SSADef.I_NOT:
-							success = insNot(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_NEG:
-							success = insNeg(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_BINV:
-							success = insBinV(reg0, reg1);
-							break;
-						case 0xFF & SSADef.I_INCmem:
-							success = insIncMem(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_DECmem:
-							success = insDecMem(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_CALL:
-							if (!into)
-							{
-								// create a breakpoint for the return from the call
-								stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
-								// register the condition
-								listener.proceedAfterStep();
-							}
-							success = insCall(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_CALLind:
-							if (!into)
-							{
-								// create a breakpoint for the return from the call
-								stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
-								// register the condition
-								listener.proceedAfterStep();
-							}
-							success = insCallInd(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_CALLim_p:
-							if (!into)
-							{
-								// create a breakpoint for the return from the call
-								stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
-								// register the condition
-								listener.proceedAfterStep();
-							}
-							success = insCallImP(iPar1);
-							break;
-						case 0xFF & SSADef.I_CMP:
-							success = insCmp(reg0, reg1, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_OUT:
-							success = insOut(reg0, reg1, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_IN:
-							success = insIn(reg0, reg1, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_BOUND:
-							success = insBound(reg0, reg1, iPar1);
-							break;
-						case 0xFF & SSADef.I_DEREF:
-							success = insDeref(reg0, reg1, reg2, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_MOVEMAP:
-							success = insMovemap(reg0);
-							break;
-						case 0xFF & SSADef.I_ALLOCREG:
-							success = insAllocReg(reg0, iPar1, false);
-							break;
-						case 0xFF & SSADef.I_KILLREG:
-							success = insKillReg(reg0);
-							break;
-						case 0xFF & SSADef.I_KILLOJMP:
-							success = insKillOJmp(reg0);
-							break;
-						case 0xFF & SSADef.I_REGRANGE:
-							success = insRegrange(reg0, reg1);
-							break;
-						case 0xFF & SSADef.I_EXCEPT:
-							success = insException(iPar1);
-							break;
-						case 0xFF & SSADef.I_IVOF:
-							out.println("Skipping inline var offset");
-							break;
-						case 0xFF & SSADef.I_TFBUILD:
-							success = insThrowFrameBuild(reg0, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_TFUPD1:
-							success = insThrowFrameUpdate(false, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_TFUPD2:
-							success = insThrowFrameUpdate(true, iPar1, iPar2);
-							break;
-						case 0xFF & SSADef.I_TFRESET:
-							success = insThrowFrameReset(reg0, iPar1);
-							break;
-						case 0xFF & SSADef.I_STKCHK:
-							success = insStackExtremeCheck(reg0);
-							break;
-						default:
-							out.print("unknown opcode: ");
-							out.println(opcode);
-							success = false;
-					}
-					endlessLoopHint = currentIP;
-				}
+					success = true; //nothing to do
 			}
-			if (!success)
+			else
 			{
-				out.println("Error during opcode emulation");
-				out.print("Opcode was ");
-				out.print(opcode);
-				out.print(", next instruction would be at ");
-				out.println(toHexString(currentIP));
-				return false;
+				switch (opcode)
+				{
+					case 0xFF & SSADef.I_MARKER:
+						success = insMarker(iPar1);
+						break;
+					case 0xFF & SSADef.I_ENTER:
+						success = insEnter(iPar1, iPar2, false);
+						break;
+					case 0xFF & SSADef.I_ENTERINL:
+						success = insEnter(iPar1, iPar2, true);
+						break;
+					case 0xFF & SSADef.I_NFREG:
+						success = insNFReg(iPar1);
+						break;
+					case 0xFF & SSADef.I_LEAVE:
+						success = insLeave(iPar1, iPar2, false);
+						// check for step over condition
+						if (stepOverC != null && stepOverC.hit(this))
+						{
+							listener.breakPointOccurred(stepOverC);
+							breakRun = true;
+							stepOverC = null;
+						}
+						break;
+					case 0xFF & SSADef.I_LEAVEINL:
+						success = insLeave(iPar1, iPar2, true);
+						break;
+					case 0xFF & SSADef.I_LOADim_i:
+						success = insLoadImI(reg0, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_LOADim_l:
+						success = insLoadImL(reg0, iPar1, lPar);
+						break;
+					case 0xFF & SSADef.I_LOADim_p:
+						success = insLoadImP(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_LOADnp:
+						success = insLoadNP(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_LOADaddr:
+						success = insLoadAddr(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_LOADval:
+						success = insLoadVal(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_CONV:
+						success = insConv(reg0, reg1, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_COPY:
+						success = insCopy(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_PUSHim_i:
+						success = insPushImI(iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_PUSHim_l:
+						success = insPushImL(lPar);
+						break;
+					case 0xFF & SSADef.I_PUSHnp:
+						success = insPushNP();
+						break;
+					case 0xFF & SSADef.I_PUSH:
+						success = insPush(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_POP:
+						success = insPop(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_SAVE:
+						success = insSave(reg0, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_REST:
+						success = insRest(reg0, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_ASSIGN:
+						success = insAssign(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_AND:
+						success = insAnd(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_XOR:
+						success = insXor(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_OR:
+						success = insOr(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_ADD:
+						success = insAdd(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_SUB:
+						success = insSub(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_MUL:
+						success = insMul(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_DIV:
+						success = insDiv(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_MOD:
+						success = insMod(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_SHL:
+						success = insShL(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_SHRL:
+						success = insShRL(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_SHRA:
+						success = insShRA(reg0, reg1, reg2, iPar1);
+						break;
+					case 0xFF & SSADef.I_NOT:
+						success = insNot(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_NEG:
+						success = insNeg(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_BINV:
+						success = insBinV(reg0, reg1);
+						break;
+					case 0xFF & SSADef.I_INCmem:
+						success = insIncMem(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_DECmem:
+						success = insDecMem(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_CALL:
+						if (!into)
+						{
+							// create a breakpoint for the return from the call
+							stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
+							// register the condition
+							listener.proceedAfterStep();
+						}
+						success = insCall(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_CALLind:
+						if (!into)
+						{
+							// create a breakpoint for the return from the call
+							stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
+							// register the condition
+							listener.proceedAfterStep();
+						}
+						success = insCallInd(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_CALLim_p:
+						if (!into)
+						{
+							// create a breakpoint for the return from the call
+							stepOverC = new StackCond(sReg[SSADef.R_STCK].ptr);
+							// register the condition
+							listener.proceedAfterStep();
+						}
+						success = insCallImP(iPar1);
+						break;
+					case 0xFF & SSADef.I_CMP:
+						success = insCmp(reg0, reg1, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_OUT:
+						success = insOut(reg0, reg1, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_IN:
+						success = insIn(reg0, reg1, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_BOUND:
+						success = insBound(reg0, reg1, iPar1);
+						break;
+					case 0xFF & SSADef.I_DEREF:
+						success = insDeref(reg0, reg1, reg2, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_MOVEMAP:
+						success = insMovemap(reg0);
+						break;
+					case 0xFF & SSADef.I_ALLOCREG:
+						success = insAllocReg(reg0, iPar1, false);
+						break;
+					case 0xFF & SSADef.I_KILLREG:
+						success = insKillReg(reg0);
+						break;
+					case 0xFF & SSADef.I_KILLOJMP:
+						success = insKillOJmp(reg0);
+						break;
+					case 0xFF & SSADef.I_REGRANGE:
+						success = insRegrange(reg0, reg1);
+						break;
+					case 0xFF & SSADef.I_EXCEPT:
+						success = insException(iPar1);
+						break;
+					case 0xFF & SSADef.I_IVOF:
+						out.println("Skipping inline var offset");
+						break;
+					case 0xFF & SSADef.I_TFBUILD:
+						success = insThrowFrameBuild(reg0, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_TFUPD1:
+						success = insThrowFrameUpdate(false, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_TFUPD2:
+						success = insThrowFrameUpdate(true, iPar1, iPar2);
+						break;
+					case 0xFF & SSADef.I_TFRESET:
+						success = insThrowFrameReset(reg0, iPar1);
+						break;
+					case 0xFF & SSADef.I_STKCHK:
+						success = insStackExtremeCheck(reg0);
+						break;
+					case 0xFF & SSADef.I_JMPTAB:
+						success = insJmpTable(reg0, iPar1, iPar2);
+						break;
+					default:
+						out.print("unknown opcode: ");
+						out.println(opcode);
+						success = false;
+				}
+				endlessLoopHint = currentIP;
 			}
 		}
+		if (!success)
+		{
+			out.println("Error during opcode emulation");
+			out.print("Opcode was ");
+			out.print(opcode);
+			out.print(", next instruction would be at ");
+			out.println(toHexString(currentIP));
+			return false;
+		}
 		// check for standard break conditions
 		if (firstBreakPointC != null)
 			breakCondCheck();
@@ -3048,6 +3214,10 @@ public class SSAEmul extends Emulator
 							pars = "[r".concat(toDecString(reg0)).concat("]");
 							mn = new Mnemonic(tempIP, "stlchk   ", pars, isJumpDest);
 							break;
+						case 0xFF & SSADef.I_JMPTAB:
+							pars = "r".concat(toDecString(reg0)).concat(",").concat(toDecString(iPar1)).concat(",").concat(toDecString(iPar2));
+							mn = new Mnemonic(tempIP, "jmptab   ", pars, isJumpDest);
+							break;
 						default:
 							out.print("unknown opcode: ");
 							out.print(opcode);
@@ -21,6 +21,7 @@ package sjc.osio.sun;
 import sjc.compbase.StringList;
 import sjc.osio.BinWriter;
 import sjc.osio.OsIO;
+import sjc.osio.ParallelTask;
 import sjc.osio.TextPrinter;
 
 import java.io.*;
@@ -29,7 +30,8 @@ import java.io.*;
  * SunOS: operating system interface implementation for Sun Java runtime environment
  *
  * @author S. Frenz
- * @version 100513 adopted changed OsIO
+ * @version 261018 added support for parallel tasks
+ * version 100513 adopted changed OsIO
  * version 100422 adopted changed StreamTextPrinter and added constructor to set stdOut stream
  * version 090916 Exclude files starting with a "."
  * version 090311 added getTimeInfo
@@ -40,6 +42,7 @@ public class SunOS extends OsIO
 {
 	private StringList result;
 	private final OutputStream stdOut;
+	private final ThreadedTasks tasks = new ThreadedTasks();
 	
 	public SunOS(OutputStream streamAsStdOut)
 	{
@@ -99,6 +102,26 @@ public class SunOS extends OsIO
 		return System.nanoTime();
 	}
 	
+	public boolean supportsParallelTasks()
+	{
+		return true;
+	}
+	
+	public void runParallel(ParallelTask[] parallelTasks, int count)
+	{
+		tasks.runParallel(parallelTasks, count);
+	}
+	
+	public void enterExclusive()
+	{
+		tasks.enterExclusive();
+	}
+	
+	public void leaveExclusive()
+	{
+		tasks.leaveExclusive();
+	}
+	
 	private void appendDir(File dir, boolean recurse)
 	{
 		File[] entries;
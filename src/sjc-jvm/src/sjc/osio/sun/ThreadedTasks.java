@@ -0,0 +1,97 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.osio.sun;
+
+import sjc.osio.ParallelTask;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ThreadedTasks: thread based execution of ParallelTasks for OsIO implementations on the Java runtime
+ *
+ * @version 261018 initial version
+ */
+
+public class ThreadedTasks
+{
+	private final ReentrantLock exclusive = new ReentrantLock();
+	
+	public void runParallel(ParallelTask[] tasks, int count)
+	{
+		Thread[] threads;
+		final Throwable[] failed = new Throwable[1];
+		int i;
+		
+		if (count == 1)
+		{ //no need to start a thread
+			tasks[0].run();
+			return;
+		}
+		threads = new Thread[count];
+		for (i = 0; i < count; i++)
+		{
+			final ParallelTask task = tasks[i];
+			threads[i] = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					try
+					{
+						task.run();
+					}
+					catch (Throwable t)
+					{
+						synchronized (failed)
+						{
+							if (failed[0] == null)
+								failed[0] = t;
+						}
+					}
+				}
+			}, "sjc-worker-" + i);
+			threads[i].start();
+		}
+		for (i = 0; i < count; i++)
+		{
+			while (true)
+				try
+				{
+					threads[i].join();
+					break;
+				}
+				catch (InterruptedException e)
+				{
+					//retry, all workers have to be finished before we return
+				}
+		}
+		if (failed[0] instanceof RuntimeException)
+			throw (RuntimeException) failed[0];
+		if (failed[0] instanceof Error)
+			throw (Error) failed[0];
+	}
+	
+	public void enterExclusive()
+	{
+		exclusive.lock();
+	}
+	
+	public void leaveExclusive()
+	{
+		exclusive.unlock();
+	}
+}
@@ -27,7 +27,8 @@ import java.io.IOException;
  * ChkSSA: check created SSA-binaries
  *
  * @author S. Frenz
- * @version 120305 removed unused variables
+ * @version 261018 added I_JMPTAB
+ * version 120305 removed unused variables
  * version 101101 adopted changed of genDeref
  * version 090717 added I_STKCHK
  * version 090207 added copyright notice
@@ -306,6 +307,7 @@ public class ChkSSA
 							checkRegType(reg0, -1);
 							break;
 						case 0xFF & SSADef.I_STKCHK:
+						case 0xFF & SSADef.I_JMPTAB:
 							checkRead(reg0);
 							break;
 						default:
@@ -27,7 +27,8 @@ import java.io.IOException;
  * DisSSA: disassemble created SSA-binaries to human-readable text
  *
  * @author S. Frenz
- * @version 101101 adopted change of genDeref
+ * @version 261018 added I_JMPTAB
+ * version 101101 adopted change of genDeref
  * version 090717 added I_STKCHK
  * version 090207 added copyright notice
  * version 081021 adopted change of genComp, genReadIO and genWriteIO
@@ -269,6 +270,9 @@ public class DisSSA
 					case 0xFF & SSADef.I_STKCHK:
 						printReg("stkchk", param);
 						break;
+					case 0xFF & SSADef.I_JMPTAB:
+						printRegImmIPar("jmptab", param);
+						break;
 					case 0xFF & SSADef.I_JUMP:
 						printJump(param);
 						break;
@@ -42,7 +42,8 @@ import java.util.TreeSet;
  * Emulate: main window and main user interface for emulation with JavaGUI
  *
  * @author S. Frenz, P. Schmidt
- * @version 100412 made use of generic utility classes of jdk1.5
+ * @version 261018 use run of emulator in normal mode
+ * version 100412 made use of generic utility classes of jdk1.5
  * version 100206 optimized drawChar
  * version 091005 changed displayed title to "ssaEmulator"
  * version 090303 adopted changed osio package sjc.structure and integrated GUIConsole
@@ -701,19 +702,15 @@ public class Emulate extends JFrame implements ActionListener, MouseListener, Ke
 		 */
 		private void runNormal()
 		{
-			ENDLESS:
 			while (true)
 			{
-				for (int a = 0; a < instPerRun; a++)
+				if (!emulator.run(instPerRun))
 				{
-					if (!emulator.step(true))
-					{
-						updateButtons(MODE_ERROR);
-						break ENDLESS;
-					}
-					if (!isRunning())
-						break ENDLESS;
+					updateButtons(MODE_ERROR);
+					break;
 				}
+				if (!isRunning())
+					break;
 				Thread.yield();
 			}
 		}
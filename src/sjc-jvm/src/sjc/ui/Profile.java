@@ -0,0 +1,133 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.ui;
+
+import sjc.emulation.*;
+import sjc.osio.TextPrinter;
+import sjc.osio.sun.SunOS;
+
+/**
+ * Profile: run a raw_out-file in the emulator and write profiling results
+ *
+ * @version 261018 initial version
+ */
+
+public class Profile implements BreakPointListener
+{
+	private boolean stopped;
+	
+	public void breakPointOccurred(Condition c)
+	{
+		stopped = true;
+	}
+	
+	public void proceedAfterStep()
+	{
+	}
+	
+	public void endlessLoopDetected()
+	{
+		stopped = true;
+	}
+	
+	public static void main(String[] args)
+	{
+		SunOS os = new SunOS(System.out);
+		TextPrinter v = os.getNewFilePrinter(null), out;
+		String imageFile = null, codeInfoFile = null, foldedFile = "profile.folded", reportFile = null;
+		long maxSteps = Long.MAX_VALUE;
+		int i, limit = 30;
+		byte[] data, info;
+		Emulator emul;
+		SourceMap map = null;
+		Profiler prof;
+		Profile listener = new Profile();
+		boolean success;
+		
+		if (args == null || args.length < 1)
+		{
+			v.println("Profile for images generated by SC with target ssa");
+			v.println("Usage: Profile image [-c codeinfo] [-n maxSteps] [-f foldedout] [-r reportout] [-l limit]");
+			v.println("  -c  code info written by SC option \"-D code FILE\", add \"-Q\" for source lines");
+			v.println("  -n  maximum number of instructions to emulate");
+			v.println("  -f  file for folded call stacks, default profile.folded");
+			v.println("  -r  file for report of hot methods and blocks, default standard out");
+			v.println("  -l  number of entries in report lists, default 30");
+			return;
+		}
+		for (i = 0; i < args.length; i++)
+		{
+			if (args[i].equals("-c") && i + 1 < args.length)
+				codeInfoFile = args[++i];
+			else if (args[i].equals("-n") && i + 1 < args.length)
+				maxSteps = Long.parseLong(args[++i]);
+			else if (args[i].equals("-f") && i + 1 < args.length)
+				foldedFile = args[++i];
+			else if (args[i].equals("-r") && i + 1 < args.length)
+				reportFile = args[++i];
+			else if (args[i].equals("-l") && i + 1 < args.length)
+				limit = Integer.parseInt(args[++i]);
+			else if (imageFile == null)
+				imageFile = args[i];
+			else
+			{
+				v.print("invalid parameter: ");
+				v.println(args[i]);
+				return;
+			}
+		}
+		
+		if ((data = os.readFile(imageFile)) == null)
+		{
+			v.println("error reading image");
+			return;
+		}
+		if (codeInfoFile != null && ((info = os.readFile(codeInfoFile)) == null || !(map = new SourceMap()).init(info)))
+		{
+			v.println("error reading code info");
+			return;
+		}
+		emul = EmulFactory.getEmulator("ssa");
+		if (!emul.initFromRawOut(data, 32 * 1024 * 1024, v))
+			return;
+		emul.setBreakPointListener(listener);
+		prof = new Profiler(emul, map);
+		success = true;
+		while (success && !listener.stopped && prof.totalIns < maxSteps)
+			success = prof.run(maxSteps - prof.totalIns);
+		if (!success)
+			v.println("emulation stopped with error");
+		
+		if ((out = os.getNewFilePrinter(foldedFile)) == null)
+		{
+			v.println("error creating folded stack file");
+			return;
+		}
+		prof.writeFoldedStacks(out);
+		out.close();
+		if (reportFile == null)
+			prof.writeReport(v, limit);
+		else if ((out = os.getNewFilePrinter(reportFile)) != null)
+		{
+			prof.writeReport(out, limit);
+			out.close();
+		}
+		else
+			v.println("error creating report file");
+	}
+}
@@ -0,0 +1,37 @@
+package sjc.backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * MAGIC.copyMem and MAGIC.fillMem through the default byte loops of Architecture
+ */
+public class BlockMemTest
+{
+	private final static int[] EXPECTED = {
+			1, 8, 1, 8, 29, 36, 43, 50, 57, 64,
+			0x5A, 0x5A, 0x5A, 0x5A, 1, 1, 1, 0x5A, 0x5A, 0x5A, 0x5A, 0x5A, 7
+	};
+	
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void ssa32() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("blockmem", outDir, "-t", "ssa32"));
+	}
+	
+	@Test
+	public void ssa64() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("blockmem", outDir, "-t", "ssa64"));
+	}
+}
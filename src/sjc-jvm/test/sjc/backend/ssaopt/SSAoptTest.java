@@ -0,0 +1,52 @@
+package sjc.backend.ssaopt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Programs have to print the same values with and without the SSA optimizer
+ */
+public class SSAoptTest
+{
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void sameOutput32() throws IOException
+	{
+		compare("ssa32", "ssa32opt");
+	}
+	
+	@Test
+	public void sameOutput64() throws IOException
+	{
+		compare("ssa64", "ssa64opt");
+	}
+	
+	@Test
+	public void blockMemory() throws IOException
+	{
+		assertArrayEquals(CompileAndRun.compileAndRun("blockmem", outDir, "-t", "ssa32"), CompileAndRun.compileAndRun("blockmem", outDir, "-t", "ssa32opt"));
+	}
+	
+	private void compare(String plain, String optimized) throws IOException
+	{
+		byte[] plainImage = CompileAndRun.compile("optimizer", outDir, "-t", plain);
+		byte[] optimizedImage = CompileAndRun.compile("optimizer", outDir, "-t", optimized);
+		int[] expected = CompileAndRun.run(plainImage);
+		
+		assertFalse(Arrays.equals(plainImage, optimizedImage), "optimizer did not change the code");
+		assertEquals(23, expected.length);
+		assertArrayEquals(expected, CompileAndRun.run(optimizedImage));
+	}
+}
@@ -0,0 +1,95 @@
+package sjc.compbase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lookups through HashIndex have to find entries of one hash in insertion order,
+ * as the linear member lists did before
+ */
+public class HashIndexTest
+{
+	@Test
+	public void sameHashKeepsInsertionOrder()
+	{
+		HashIndex index = new HashIndex(0);
+		int i;
+		
+		for (i = 0; i < 5; i++)
+			index.add(42, "m" + i);
+		assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), lookup(index, 42));
+	}
+	
+	@Test
+	public void collidingHashesAreKeptApart()
+	{
+		HashIndex index = new HashIndex(0);
+		
+		index.add(3, "a0");
+		index.add(3 + 8, "b0"); //same bucket in the initial table
+		index.add(3, "a1");
+		index.add(3 + 16, "c0");
+		index.add(3 + 8, "b1");
+		assertEquals(List.of("a0", "a1"), lookup(index, 3));
+		assertEquals(List.of("b0", "b1"), lookup(index, 3 + 8));
+		assertEquals(List.of("c0"), lookup(index, 3 + 16));
+		assertEquals(List.of(), lookup(index, 4));
+	}
+	
+	@Test
+	public void growKeepsInsertionOrder()
+	{
+		HashIndex index = new HashIndex(0);
+		List<String> expected0 = new ArrayList<>(), expected1 = new ArrayList<>();
+		int i;
+		
+		for (i = 0; i < 200; i++)
+		{ //enough entries to grow the table several times
+			index.add(i % 7 * 8, "e" + i);
+			if (i % 7 == 0)
+				expected0.add("e" + i);
+			else if (i % 7 == 1)
+				expected1.add("e" + i);
+		}
+		assertEquals(expected0, lookup(index, 0));
+		assertEquals(expected1, lookup(index, 8));
+		for (i = 0; i < 7; i++)
+			assertEquals((200 - i + 6) / 7, lookup(index, i * 8).size());
+	}
+	
+	@Test
+	public void expectedCountSizesTable()
+	{
+		HashIndex index = new HashIndex(100);
+		int i;
+		
+		for (i = 0; i < 100; i++)
+			index.add(i, Integer.valueOf(i));
+		for (i = 0; i < 100; i++)
+			assertEquals(List.of(Integer.valueOf(i)), lookup(index, i));
+		assertNull(index.get(100)); //table of 128 entries, no wrap around
+	}
+	
+	@Test
+	public void stringHashDependsOnContent()
+	{
+		assertEquals(HashIndex.getHash(new String("value")), HashIndex.getHash("value"));
+		assertEquals(0, HashIndex.getHash("")); //empty string hashes to its length
+	}
+	
+	private static List<Object> lookup(HashIndex index, int hash)
+	{
+		List<Object> res = new ArrayList<>();
+		HashIndex.Entry entry;
+		
+		for (entry = index.get(hash); entry != null; entry = entry.next)
+			if (entry.hash == hash)
+				res.add(entry.obj);
+		return res;
+	}
+}
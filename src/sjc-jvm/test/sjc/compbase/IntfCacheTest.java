@@ -0,0 +1,36 @@
+package sjc.compbase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Conversions to interfaces through inline caches, each result is followed by the number
+ * of lookups in the runtime environment: a conversion looks up if the type differs from the
+ * one before at the same place or if it does not implement the interface, null needs no lookup
+ */
+public class IntfCacheTest
+{
+	private final static int[] EXPECTED = {40, 1, 4, 3, 12, 1, 3, 6};
+	
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void ssa32() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("intfcache", outDir, "-t", "ssa32"));
+	}
+	
+	@Test
+	public void ssa64() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("intfcache", outDir, "-t", "ssa64"));
+	}
+}
@@ -0,0 +1,37 @@
+package sjc.compbase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Overloaded and shadowed members found through the member indexes, expected values as with javac
+ */
+public class MemberLookupTest
+{
+	private final static int[] EXPECTED = {
+			1, 2, 3, 4, 5, 6, 7, 8, 9, 9251636,
+			10, 20, 2, 1, 1, 21, 21, 305, 401, 203, 305, 203
+	};
+	
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void ssa32() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("members", outDir, "-t", "ssa32"));
+	}
+	
+	@Test
+	public void ssa64() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("members", outDir, "-t", "ssa64"));
+	}
+}
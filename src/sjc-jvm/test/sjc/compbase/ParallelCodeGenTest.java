@@ -0,0 +1,58 @@
+package sjc.compbase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Code generation workers have to see the same compiler state as the main context,
+ * so images generated in parallel ("-#") are identical to sequentially generated ones
+ */
+public class ParallelCodeGenTest
+{
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void ia32() throws IOException
+	{
+		compare("-t", "ia32");
+	}
+	
+	@Test
+	public void ia32Checks() throws IOException
+	{
+		compare("-t", "ia32", "-b", "-n", "-r", "-Q", "-m");
+	}
+	
+	@Test
+	public void amd64() throws IOException
+	{
+		compare("-t", "amd64");
+	}
+	
+	@Test
+	public void amd64Checks() throws IOException
+	{
+		compare("-t", "amd64", "-b", "-n", "-r", "-Q", "-S", "5");
+	}
+	
+	private void compare(String... args) throws IOException
+	{
+		File seqDir = new File(outDir, "seq"), parDir = new File(outDir, "par");
+		String[] parArgs = new String[args.length + 2];
+		
+		assertTrue(seqDir.mkdirs() && parDir.mkdirs());
+		System.arraycopy(args, 0, parArgs, 0, args.length);
+		parArgs[args.length] = "-#";
+		parArgs[args.length + 1] = "4";
+		assertArrayEquals(CompileAndRun.compile("optimizer", seqDir, args), CompileAndRun.compile("optimizer", parDir, parArgs));
+	}
+}
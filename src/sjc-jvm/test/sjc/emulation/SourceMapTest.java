@@ -0,0 +1,105 @@
+package sjc.emulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.emulation.cond.MemoryBreak;
+import sjc.osio.sun.SunOS;
+import sjc.ui.CompileAndRun;
+
+/**
+ * Mapping of code addresses to source lines with the output of the code info writer
+ */
+public class SourceMapTest
+{
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void haltedInstructionMapsToLoopLine() throws IOException
+	{
+		File codeInfo = new File(outDir, "code.txt");
+		Emulator emul = CompileAndRun.runToHalt(CompileAndRun.compile("optimizer", outDir, "-t", "ssa32", "-D", "code", codeInfo.getPath()));
+		SourceMap map = new SourceMap();
+		SourceMap.MthdInfo mthd;
+		
+		assertTrue(map.init(Files.readAllBytes(codeInfo.toPath())));
+		mthd = map.getMthd(emul.getCurrentIP());
+		assertNotNull(mthd);
+		assertEquals("void Out.halt()", mthd.name);
+		assertEquals(18, mthd.line);
+		assertEquals(20, SourceMap.getLine(mthd, emul.getCurrentIP())); //while (true) in kernel/Out.java
+	}
+	
+	@Test
+	public void hintsStartAtExecutedInstructions() throws IOException
+	{
+		File codeInfo = new File(outDir, "code.txt");
+		byte[] image = CompileAndRun.compile("optimizer", outDir, "-t", "ssa32", "-D", "code", codeInfo.getPath());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Emulator emul = EmulFactory.getEmulator("ssa");
+		Set<Integer> executed = new HashSet<>();
+		SourceMap map = new SourceMap();
+		SourceMap.MthdInfo mthd;
+		int[] hints;
+		int i, steps = 0, line = 0;
+		
+		assertTrue(map.init(Files.readAllBytes(codeInfo.toPath())));
+		assertTrue(emul.initFromRawOut(image, 32 * 1024 * 1024, new SunOS(out).getNewFilePrinter(null)), out::toString);
+		emul.setBreakPointListener(new Ignore());
+		new MemoryBreak(0x1000004, AddressRange.RAM, false).addToEmulator(emul); //first value stored by kernel.Out.print
+		assertTrue(emul.run(1000000), out::toString);
+		mthd = map.getMthd(emul.getCurrentIP());
+		assertNotNull(mthd);
+		assertEquals("void Out.print(int)", mthd.name);
+		// leave the first call and record every instruction of the second one
+		while (steps++ < 100000 && inside(mthd, emul.getCurrentIP()))
+			assertTrue(emul.step(true));
+		while (steps++ < 100000 && !inside(mthd, emul.getCurrentIP()))
+			assertTrue(emul.step(true));
+		while (steps++ < 100000 && inside(mthd, emul.getCurrentIP()))
+		{
+			executed.add(emul.getCurrentIP());
+			assertTrue(SourceMap.getLine(mthd, emul.getCurrentIP()) >= line, "lines of straight code have to ascend");
+			line = SourceMap.getLine(mthd, emul.getCurrentIP());
+			assertTrue(emul.step(true));
+		}
+		assertEquals(15, line); //MAGIC.wMem32(RESULT_BASE, ++count) in kernel/Out.java
+		hints = mthd.lineInCodeOffset;
+		assertNotNull(hints);
+		assertEquals(6, hints.length);
+		for (i = 0; i < hints.length; i += 2)
+			assertTrue(executed.contains(mthd.start + hints[i]), "hint for line " + hints[i + 1] + " does not start at an instruction");
+	}
+	
+	private static boolean inside(SourceMap.MthdInfo mthd, int address)
+	{
+		return address >= mthd.start && address <= mthd.end;
+	}
+	
+	private static class Ignore implements BreakPointListener
+	{
+		public void breakPointOccurred(Condition c)
+		{
+		}
+		
+		public void proceedAfterStep()
+		{
+		}
+		
+		public void endlessLoopDetected()
+		{
+		}
+	}
+}
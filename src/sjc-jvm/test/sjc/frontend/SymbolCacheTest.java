@@ -0,0 +1,81 @@
+package sjc.frontend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Files with symbols in SScanner.symbolCache are not scanned again,
+ * the replayed symbols have to result in the same image as scanning the files
+ */
+public class SymbolCacheTest
+{
+	@TempDir
+	File outDir;
+	
+	@AfterEach
+	public void removeCache()
+	{
+		SScanner.symbolCache = null;
+	}
+	
+	@Test
+	public void replayedSymbols() throws IOException
+	{
+		ContentCache cache = new ContentCache();
+		byte[] scanned = compile("scanned");
+		int recorded;
+		
+		SScanner.symbolCache = cache;
+		assertArrayEquals(scanned, compile("recorded"));
+		recorded = cache.records.size();
+		assertTrue(recorded > 0);
+		assertEquals(0, cache.hits);
+		
+		assertArrayEquals(scanned, compile("replayed"));
+		assertEquals(recorded, cache.records.size());
+		assertEquals(recorded, cache.hits);
+	}
+	
+	private byte[] compile(String name) throws IOException
+	{
+		File dir = new File(outDir, name);
+		
+		assertTrue(dir.mkdirs());
+		return CompileAndRun.compile("optimizer", dir, "-t", "ia32");
+	}
+	
+	/**
+	 * SunOS reads a new array for each compilation, so the contents are the key here
+	 */
+	private static class ContentCache extends SScanCache
+	{
+		private final Map<String, SScanRecord> records = new HashMap<>();
+		private int hits;
+		
+		public SScanRecord get(byte[] data)
+		{
+			SScanRecord rec = records.get(new String(data, StandardCharsets.ISO_8859_1));
+			if (rec != null)
+				hits++;
+			return rec;
+		}
+		
+		public void put(byte[] data, SScanRecord rec)
+		{
+			records.put(new String(data, StandardCharsets.ISO_8859_1), rec);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package sjc.frontend.sjava;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Bound checks removed in counted for loops, remaining checks still have to catch
+ * accesses out of bounds (reported by the test runtime as 0xBAD followed by the index)
+ */
+public class BoundCheckTest
+{
+	private final static int BAD = 0xBAD;
+	private final static int[] EXPECTED_MAIN = {55, 27, 135, 0, 232, 118, -112};
+	
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void removedChecksKeepResults() throws IOException
+	{
+		assertArrayEquals(EXPECTED_MAIN, CompileAndRun.compileAndRun("bounds", outDir, "-t", "ssa32", "-b"));
+		assertArrayEquals(EXPECTED_MAIN, CompileAndRun.compileAndRun("bounds", outDir, "-t", "ssa64", "-b"));
+		assertArrayEquals(EXPECTED_MAIN, CompileAndRun.compileAndRun("bounds", outDir, "-t", "ssa32", "-B"));
+	}
+	
+	@Test
+	public void removedChecksAreReported()
+	{
+		String log = CompileAndRun.compileLog("bounds", outDir, "-t", "ssa32", "-b", "-v");
+		
+		assertTrue(log.contains("removed 1 bound checks in counted loops of int sum(int[])"), log);
+		assertTrue(log.contains("removed 1 bound checks in counted loops of int fill(int[])"), log);
+		assertTrue(log.contains("removed 3 bound checks in counted loops of int nested(int[][])"), log);
+		assertTrue(log.contains("removed 2 bound checks in counted loops of int bytes(byte[])"), log);
+		assertTrue(log.contains("removed 1 bound checks in counted loops of void otherIndex()"), log);
+		assertTrue(!log.contains("loops of void indexWritten()") && !log.contains("loops of void arrayWritten()"), log);
+	}
+	
+	@Test
+	public void writtenIndexKeepsCheck() throws IOException
+	{
+		assertArrayEquals(new int[]{1, 3, 5, BAD, 5}, run("kernel.Kernel.indexWritten"));
+	}
+	
+	@Test
+	public void writtenArrayKeepsCheck() throws IOException
+	{
+		assertArrayEquals(new int[]{0, 1, 2, BAD, 3}, run("kernel.Kernel.arrayWritten"));
+	}
+	
+	@Test
+	public void otherIndexKeepsCheck() throws IOException
+	{
+		assertArrayEquals(new int[]{0, 1, 2, 3, BAD, 4}, run("kernel.Kernel.otherIndex"));
+	}
+	
+	private int[] run(String entry) throws IOException
+	{
+		return CompileAndRun.compileAndRun("bounds", outDir, "-t", "ssa32", "-b", "-N", entry);
+	}
+}
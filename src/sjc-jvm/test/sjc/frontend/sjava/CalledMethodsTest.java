@@ -0,0 +1,50 @@
+package sjc.frontend.sjava;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sjc.ui.CompileAndRun;
+
+/**
+ * Methods called only from constantly dead code or from methods without code get no code,
+ * methods reached through an overriding method still do
+ */
+public class CalledMethodsTest
+{
+	private final static int[] EXPECTED = {10, 9};
+	
+	@TempDir
+	File outDir;
+	
+	@Test
+	public void calledMethodsKeepResults() throws IOException
+	{
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("reach", outDir, "-t", "ssa32"));
+		assertArrayEquals(EXPECTED, CompileAndRun.compileAndRun("reach", outDir, "-t", "ssa64"));
+	}
+	
+	@Test
+	public void uncalledMethodsAreSkipped()
+	{
+		String log = CompileAndRun.compileLog("reach", outDir, "-t", "ssa32", "-v");
+		
+		assertTrue(log.contains("skipping code for method int onlyFromDeadCode()"), log);
+		assertTrue(log.contains("skipping code for method int onlyFromUncalled()"), log);
+		assertTrue(log.contains("skipping code for method int uncalled()"), log);
+		assertTrue(!log.contains("method int side()") && !log.contains("method int area()") && !log.contains("method int twice(int)"), log);
+	}
+	
+	@Test
+	public void allMethodsKeepCode()
+	{
+		String log = CompileAndRun.compileLog("reach", outDir, "-t", "ssa32", "-v", "-G");
+		
+		assertTrue(!log.contains("skipping code for method"), log);
+	}
+}
@@ -0,0 +1,147 @@
+package sjc.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import sjc.compbase.Context;
+import sjc.emulation.BreakPointListener;
+import sjc.emulation.Condition;
+import sjc.emulation.EmulFactory;
+import sjc.emulation.Emulator;
+import sjc.osio.sun.ReflectionSymbols;
+import sjc.osio.sun.SunOS;
+import sjc.symbols.SymbolFactory;
+
+/**
+ * Compiles the test programs in testdata together with the minimal runtime in testdata/rt
+ * and runs them in the emulator. Programs report their results through kernel.Out.
+ */
+public class CompileAndRun
+{
+	public final static String TESTDATA = "testdata";
+	
+	private final static int MEMORY_SIZE = 32 * 1024 * 1024;
+	private final static int RESULT_BASE = 0x1000000;
+	private final static long MAX_STEPS = 200000000L;
+	
+	/**
+	 * Compiles a test program into a raw image
+	 *
+	 * @param program name of the directory in testdata containing the program
+	 * @param outDir  directory to write the image to
+	 * @param args    additional compiler arguments, for example the target architecture or debug writers
+	 * @return the content of the raw image
+	 */
+	public static byte[] compile(String program, File outDir, String... args) throws IOException
+	{
+		compileLog(program, outDir, args);
+		return Files.readAllBytes(new File(outDir, "raw_out.bin").toPath());
+	}
+	
+	/**
+	 * Compiles a test program into a raw image named raw_out.bin
+	 *
+	 * @see #compile(String, File, String...)
+	 * @return the output of the compiler
+	 */
+	public static String compileLog(String program, File outDir, String... args)
+	{
+		List<String> argv = new ArrayList<>();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Context ctx;
+		
+		argv.add(new File(TESTDATA, "rt").getPath());
+		argv.add(new File(TESTDATA, program).getPath());
+		argv.addAll(Arrays.asList(args));
+		argv.add("-o");
+		argv.add("raw");
+		argv.add("-O");
+		argv.add(new File(outDir, "raw_out.bin").getPath());
+		ctx = new Context(new SunOS(out));
+		SymbolFactory.preparedReflectionSymbols = new ReflectionSymbols();
+		assertEquals(0, ctx.compile(argv.toArray(new String[0]), "vJRE"), out::toString);
+		if (ctx.debugWriter != null)
+			ctx.writeSymInfo(); //only requested debug writers, no syminfo.txt in the working directory
+		return out.toString();
+	}
+	
+	/**
+	 * Runs a raw image in the SSA emulator until the program halts
+	 *
+	 * @param image the content of the raw image
+	 * @return the values printed by the program
+	 */
+	public static int[] run(byte[] image)
+	{
+		Emulator emul = runToHalt(image);
+		int[] res;
+		int i;
+		
+		res = new int[emul.read32(false, RESULT_BASE)];
+		for (i = 0; i < res.length; i++)
+			res[i] = emul.read32(false, RESULT_BASE + 4 + (i << 2));
+		return res;
+	}
+	
+	/**
+	 * Runs a raw image in the SSA emulator until the program halts
+	 *
+	 * @param image the content of the raw image
+	 * @return the emulator stopped in the endless loop of kernel.Out.halt
+	 */
+	public static Emulator runToHalt(byte[] image)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Emulator emul = EmulFactory.getEmulator("ssa");
+		Halt halt = new Halt();
+		long steps = 0;
+		
+		assertTrue(emul.initFromRawOut(image, MEMORY_SIZE, new SunOS(out).getNewFilePrinter(null)), out::toString);
+		emul.setBreakPointListener(halt);
+		while (!halt.stopped && steps < MAX_STEPS)
+		{
+			assertTrue(emul.run(1000000), out::toString);
+			steps += emul.lastRunSteps;
+		}
+		assertTrue(halt.stopped, "program did not halt");
+		return emul;
+	}
+	
+	/**
+	 * Compiles a test program and runs it in the emulator
+	 *
+	 * @see #compile(String, File, String...)
+	 * @see #run(byte[])
+	 */
+	public static int[] compileAndRun(String program, File outDir, String... args) throws IOException
+	{
+		return run(compile(program, outDir, args));
+	}
+	
+	private static class Halt implements BreakPointListener
+	{
+		private boolean stopped;
+		
+		public void breakPointOccurred(Condition c)
+		{
+			stopped = true;
+		}
+		
+		public void proceedAfterStep()
+		{
+		}
+		
+		public void endlessLoopDetected()
+		{
+			stopped = true;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package kernel;
+
+/**
+ * MAGIC.copyMem and MAGIC.fillMem with empty, unaligned and overlapping ranges
+ */
+public class Kernel
+{
+	public static void main()
+	{
+		int[] a = new int[10], b = new int[10];
+		byte[] c = new byte[13];
+		int i;
+		
+		for (i = 0; i < a.length; i++)
+			a[i] = i * 7 + 1;
+		MAGIC.copyMem(MAGIC.addr(b[0]), MAGIC.addr(a[0]), 40);
+		MAGIC.copyMem(MAGIC.addr(b[2]), MAGIC.addr(a[0]), 7);
+		MAGIC.copyMem(MAGIC.addr(b[9]), MAGIC.addr(a[0]), 0);
+		MAGIC.fillMem(MAGIC.addr(c[0]), (byte) 0x5A, 13);
+		MAGIC.fillMem(MAGIC.addr(c[3]), (byte) -1, 0);
+		MAGIC.fillMem(MAGIC.addr(c[4]), (byte) 1, 3);
+		MAGIC.fillMem(MAGIC.addr(c[12]), (byte) 7, 1);
+		for (i = 0; i < b.length; i++)
+			Out.print(b[i]);
+		for (i = 0; i < c.length; i++)
+			Out.print(c[i]);
+		Out.halt();
+	}
+}
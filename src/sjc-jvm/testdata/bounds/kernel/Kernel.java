@@ -0,0 +1,120 @@
+package kernel;
+
+/**
+ * Counted loops with and without removable bound checks, each entry method ends
+ * in Out.halt, accesses out of bounds end in DynamicRuntime.boundException
+ */
+public class Kernel
+{
+	private static int sum(int[] arr)
+	{
+		int i, s = 0;
+		
+		for (i = 0; i < arr.length; i++)
+			s += arr[i];
+		return s;
+	}
+	
+	private static int fill(int[] arr)
+	{
+		int i;
+		
+		for (i = 0; i < arr.length; i++)
+			arr[i] = i * 3;
+		return arr[arr.length - 1];
+	}
+	
+	private static int nested(int[][] m)
+	{
+		int i, j, s = 0;
+		int[] row;
+		
+		for (i = 0; i < m.length; i++)
+		{
+			row = m[i];
+			for (j = 1; j < row.length; j++)
+				s += row[j] * m[i][j - 1];
+		}
+		return s;
+	}
+	
+	private static int bytes(byte[] b)
+	{
+		int i, s = 0;
+		
+		for (i = 2; i < b.length; i++)
+		{
+			b[i] = (byte) (b[i - 1] + b[i - 2]);
+			s += b[i];
+		}
+		return s;
+	}
+	
+	public static void main()
+	{
+		int[] arr = new int[10];
+		int[][] m = new int[4][5];
+		byte[] b = new byte[12];
+		int i, j;
+		
+		for (i = 0; i < arr.length; i++)
+			arr[i] = i + 1;
+		Out.print(sum(arr));
+		Out.print(fill(arr));
+		Out.print(sum(arr));
+		Out.print(sum(new int[0]));
+		for (i = 0; i < m.length; i++)
+			for (j = 0; j < m[i].length; j++)
+				m[i][j] = i + j;
+		Out.print(nested(m));
+		b[0] = 1;
+		b[1] = 1;
+		Out.print(bytes(b));
+		Out.print(b[11]);
+		Out.halt();
+	}
+	
+	public static void indexWritten()
+	{
+		int[] arr = new int[5];
+		int i, s = 0;
+		
+		for (i = 0; i < arr.length; i++)
+		{
+			s += arr[i];
+			i++;
+			Out.print(i);
+			s += arr[i]; //index 5 in last iteration
+		}
+		Out.print(s);
+		Out.halt();
+	}
+	
+	public static void arrayWritten()
+	{
+		int[] arr = new int[6], shorter = new int[2];
+		int i;
+		
+		for (i = 0; i < arr.length; i++)
+		{
+			if (i == 3)
+				arr = shorter; //index 3 in this iteration
+			Out.print(arr[i] + i);
+		}
+		Out.halt();
+	}
+	
+	public static void otherIndex()
+	{
+		int[] arr = new int[4];
+		int i, s = 0;
+		
+		for (i = 0; i < arr.length; i++)
+		{
+			Out.print(i);
+			s += arr[i] + arr[i + 1]; //index 4 in last iteration
+		}
+		Out.print(s);
+		Out.halt();
+	}
+}
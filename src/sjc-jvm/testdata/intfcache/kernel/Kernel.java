@@ -0,0 +1,77 @@
+package kernel;
+
+import rte.DynamicRuntime;
+
+/**
+ * Conversions to an interface with inline caches, after each test the number of
+ * lookups in the runtime environment is printed
+ */
+public class Kernel
+{
+	private static int sumCast(Object[] objs, int rounds)
+	{
+		int r, i, s = 0;
+		Value v;
+		
+		for (r = 0; r < rounds; r++)
+			for (i = 0; i < objs.length; i++)
+			{
+				v = (Value) objs[i];
+				if (v != null)
+					s += v.get();
+			}
+		return s;
+	}
+	
+	private static int sumArray(Value[] vals, int rounds)
+	{
+		int r, i, s = 0;
+		
+		for (r = 0; r < rounds; r++)
+			for (i = 0; i < vals.length; i++)
+				s += vals[i].get();
+		return s;
+	}
+	
+	private static int count(Object[] objs, int rounds)
+	{
+		int r, i, c = 0;
+		
+		for (r = 0; r < rounds; r++)
+			for (i = 0; i < objs.length; i++)
+				if (objs[i] instanceof Value)
+					c++;
+		return c;
+	}
+	
+	private static void result(int value)
+	{
+		Out.print(value);
+		Out.print(DynamicRuntime.implLookups);
+		DynamicRuntime.implLookups = 0;
+	}
+	
+	public static void main()
+	{
+		Object[] same = new Object[4], mixed = new Object[4], others = new Object[2];
+		Value[] vals = new Value[3];
+		int i;
+		
+		for (i = 0; i < same.length; i++)
+			same[i] = new Two();
+		mixed[0] = new One();
+		mixed[1] = new Two();
+		mixed[2] = null;
+		mixed[3] = new One();
+		others[0] = new One();
+		others[1] = new Kernel();
+		for (i = 0; i < vals.length; i++)
+			vals[i] = new One();
+		DynamicRuntime.implLookups = 0;
+		result(sumCast(same, 5));
+		result(sumCast(mixed, 1));
+		result(sumArray(vals, 4));
+		result(count(others, 3));
+		Out.halt();
+	}
+}
@@ -0,0 +1,9 @@
+package kernel;
+
+public class One implements Value
+{
+	public int get()
+	{
+		return 1;
+	}
+}
@@ -0,0 +1,9 @@
+package kernel;
+
+public class Two extends One
+{
+	public int get()
+	{
+		return 2;
+	}
+}
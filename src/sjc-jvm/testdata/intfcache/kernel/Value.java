@@ -0,0 +1,6 @@
+package kernel;
+
+public interface Value
+{
+	public int get();
+}
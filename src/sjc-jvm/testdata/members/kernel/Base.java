@@ -0,0 +1,25 @@
+package kernel;
+
+/**
+ * Parent with members that are shadowed or overloaded in Derived
+ */
+public class Base
+{
+	public static int shared = 10;
+	public int value = 1;
+	
+	public int get()
+	{
+		return value;
+	}
+	
+	public int pick(int x)
+	{
+		return 100 + x;
+	}
+	
+	public int pick(long x)
+	{
+		return 200 + (int) x;
+	}
+}
@@ -0,0 +1,30 @@
+package kernel;
+
+/**
+ * Child shadowing a variable and overriding and overloading methods of Base
+ */
+public class Derived extends Base
+{
+	public static int shared = 20;
+	public int value = 2;
+	
+	public int get()
+	{
+		return value * 10 + super.get();
+	}
+	
+	public int pick(int x)
+	{
+		return 300 + x;
+	}
+	
+	public int pick(byte x)
+	{
+		return 400 + x;
+	}
+	
+	public int parentValue()
+	{
+		return ((Base) this).value;
+	}
+}
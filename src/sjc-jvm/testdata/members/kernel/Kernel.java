@@ -0,0 +1,97 @@
+package kernel;
+
+/**
+ * Program with many members of equal names and hashes, the member lookup has to find
+ * the same variables and methods as a search through the declaration lists
+ */
+public class Kernel
+{
+	private static int a = 1, b = 2, c = 3, d = 4, e = 5, f = 6, g = 7, h = 8;
+	private static int aa = 11, bb = 12, cc = 13, dd = 14, ee = 15, ff = 16, gg = 17, hh = 18;
+	private static int ab = 21, ba = 22, abc = 23, acb = 24, bac = 25, bca = 26, cab = 27, cba = 28;
+	
+	private static int over(int x)
+	{
+		return 1;
+	}
+	
+	private static int over(long x)
+	{
+		return 2;
+	}
+	
+	private static int over(short x)
+	{
+		return 3;
+	}
+	
+	private static int over(byte x)
+	{
+		return 4;
+	}
+	
+	private static int over(char x)
+	{
+		return 5;
+	}
+	
+	private static int over(int x, int y)
+	{
+		return 6;
+	}
+	
+	private static int over(long x, long y)
+	{
+		return 7;
+	}
+	
+	private static int over(int x, int y, int z)
+	{
+		return 8;
+	}
+	
+	private static int over()
+	{
+		return 9;
+	}
+	
+	private static int vars()
+	{
+		return a + b + c + d + e + f + g + h + (aa + bb + cc + dd + ee + ff + gg + hh) * 100
+				+ (ab + ba * 2 + abc * 3 + acb * 4 + bac * 5 + bca * 6 + cab * 7 + cba * 8) * 10000;
+	}
+	
+	public static void main()
+	{
+		byte by = 1;
+		short sh = 2;
+		char ch = 'c';
+		long lo = 3L;
+		Derived der = new Derived();
+		Base base = der;
+		
+		Out.print(over(1));
+		Out.print(over(lo));
+		Out.print(over(sh));
+		Out.print(over(by));
+		Out.print(over(ch));
+		Out.print(over(1, 2));
+		Out.print(over(lo, lo));
+		Out.print(over(1, 2, 3));
+		Out.print(over());
+		Out.print(vars());
+		Out.print(Base.shared);
+		Out.print(Derived.shared);
+		Out.print(der.value);
+		Out.print(base.value);
+		Out.print(der.parentValue());
+		Out.print(der.get());
+		Out.print(base.get());
+		Out.print(der.pick(5));
+		Out.print(der.pick(by));
+		Out.print(der.pick(lo));
+		Out.print(base.pick(5));
+		Out.print(base.pick(lo));
+		Out.halt();
+	}
+}
@@ -0,0 +1,159 @@
+package kernel;
+
+/**
+ * Program with constants, branches, loops, repeated expressions and side effects,
+ * the output has to be the same with and without optimizer
+ */
+public class Kernel
+{
+	private static int counter;
+	
+	private static int side()
+	{
+		return ++counter;
+	}
+	
+	private static int consts()
+	{
+		int a = 5, b = 7, c;
+		long l = 0x100000000L;
+		
+		c = a * b + (a << 3) - (b >> 1) + (a ^ b) + (a | b) + (a & b) + -a + ~b + 100 / 7 + 100 % 7;
+		if (c > 50)
+			c += 1000;
+		else
+			c -= 1000;
+		if (a == 5)
+			c += 1;
+		else
+			c += 2;
+		l = l * 3 + (l >>> 4) + (l >> 1);
+		return c + (int) l + (int) (l >>> 32) + (byte) (c * 7) + (short) (c * 300);
+	}
+	
+	private static int dense(int x)
+	{
+		switch (x)
+		{
+			case 0:
+				return 100;
+			case 1:
+				return 101;
+			case 2:
+			case 3:
+				return 103;
+			case 6:
+				x += 7;
+			case 7:
+				return 107 + x;
+			default:
+				return -1;
+		}
+	}
+	
+	private static int loops(int[] arr)
+	{
+		int i, j, s = 0, k = 3, q = 11;
+		
+		for (i = 0; i < arr.length; i++)
+			s += arr[i] * k + q;
+		for (i = 1; i < arr.length; i++)
+			arr[i] = arr[i - 1] + arr[i];
+		for (i = 0; i < arr.length; i++)
+		{
+			s += arr[i];
+			if (s > 1000)
+				s -= 999;
+		}
+		for (j = 0; j < arr.length; j++)
+			s ^= arr[j] * 5;
+		for (i = arr.length - 1; i >= 0; i--)
+			s = s * 3 + arr[i];
+		return s;
+	}
+	
+	private static int nested(int n)
+	{
+		int i, j, s = 0, a = 7, b = 13;
+		int[][] m = new int[n][n];
+		
+		for (i = 0; i < m.length; i++)
+			for (j = 0; j < m[i].length; j++)
+				m[i][j] = i * a + j * b;
+		for (i = 0; i < n; i++)
+			for (j = 0; j < n; j++)
+				s += m[i][j] * (i + 1);
+		return s;
+	}
+	
+	private static int types(byte[] b, char[] c, short[] sh, long[] l)
+	{
+		int i, s = 0;
+		
+		for (i = 0; i < b.length; i++)
+			b[i] = (byte) (i * 37);
+		for (i = 0; i < c.length; i++)
+			c[i] = (char) (i * 1000 + 60000);
+		for (i = 0; i < sh.length; i++)
+			sh[i] = (short) (i * -3000);
+		for (i = 0; i < l.length; i++)
+			l[i] = ((long) i << 33) + i;
+		for (i = 0; i < b.length; i++)
+			s += b[i];
+		for (i = 0; i < c.length; i++)
+			s += c[i];
+		for (i = 0; i < sh.length; i++)
+			s += sh[i];
+		for (i = 0; i < l.length; i++)
+			s += (int) (l[i] >>> 33) + (int) l[i];
+		return s;
+	}
+	
+	private static int arithmetic(int a, int b)
+	{
+		int s = 0, i;
+		
+		for (i = 1; i < 30; i++)
+			s += a / i + a % i - b / (i + 1) + (b % (i + 2));
+		return s + (a << 3) + (a >> 2) + (a >>> 5) + ((a << 31) >> 31);
+	}
+	
+	private static int cse(int a, int b)
+	{
+		int x = a * b + side();
+		int y = a * b + side();
+		
+		return x * 100 + y + (a * b) * (a * b);
+	}
+	
+	private static int conditions(int a, int b)
+	{
+		int r = a > 5 ? (a < 10 ? 1 : 2) : (a == 0 ? 3 : 4);
+		
+		if ((a > b && a != 3) || (b == 7 && !(a < 0)))
+			r += 10;
+		return r;
+	}
+	
+	public static void main()
+	{
+		int i;
+		int[] arr = new int[17];
+		
+		Out.print(consts());
+		for (i = -1; i < 9; i++)
+			Out.print(dense(i));
+		for (i = 0; i < arr.length; i++)
+			arr[i] = i * i - 20;
+		Out.print(loops(arr));
+		Out.print(nested(9));
+		Out.print(types(new byte[13], new char[7], new short[5], new long[6]));
+		Out.print(arithmetic(1000, -777));
+		Out.print(arithmetic(-123456, 987654));
+		Out.print(cse(6, 7));
+		for (i = -1; i < 12; i += 3)
+			Out.print(conditions(i, 7 - i));
+		Out.print(counter);
+		Out.halt();
+	}
+}
@@ -0,0 +1,42 @@
+package kernel;
+
+/**
+ * Program with methods that are only called from constantly dead code or from methods
+ * without callers, the compiler must not generate code for them
+ */
+public class Kernel
+{
+	private final static boolean TRACE = false;
+	
+	private static int onlyFromDeadCode()
+	{
+		return 1;
+	}
+	
+	private static int onlyFromUncalled()
+	{
+		return 2;
+	}
+	
+	private static int uncalled()
+	{
+		return onlyFromUncalled();
+	}
+	
+	private static int twice(int x)
+	{
+		return x + x;
+	}
+	
+	public static void main()
+	{
+		Shape shape = new Square(3);
+		int x = 5;
+		
+		if (TRACE)
+			x = onlyFromDeadCode();
+		Out.print(twice(x));
+		Out.print(shape.area());
+		Out.halt();
+	}
+}
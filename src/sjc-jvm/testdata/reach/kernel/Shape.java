@@ -0,0 +1,12 @@
+package kernel;
+
+/**
+ * Parent whose method is called, the code of the overriding method is needed as well
+ */
+public class Shape
+{
+	public int area()
+	{
+		return 0;
+	}
+}
@@ -0,0 +1,24 @@
+package kernel;
+
+/**
+ * Overrides Shape.area with a method that calls a helper only reachable through the override
+ */
+public class Square extends Shape
+{
+	private int side;
+	
+	public Square(int s)
+	{
+		side = s;
+	}
+	
+	private int side()
+	{
+		return side;
+	}
+	
+	public int area()
+	{
+		return side() * side();
+	}
+}
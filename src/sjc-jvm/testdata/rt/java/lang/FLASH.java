@@ -0,0 +1,7 @@
+package java.lang;
+
+@SJC.IgnoreUnit
+public class FLASH
+{
+
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package java.lang;
+
+@SJC.IgnoreUnit
+public class STRUCT
+{
+
+}
\ No newline at end of file
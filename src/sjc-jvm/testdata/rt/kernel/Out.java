@@ -0,0 +1,23 @@
+package kernel;
+
+/**
+ * Results of the emulator tests: a counter at RESULT_BASE followed by the printed values
+ */
+public class Out
+{
+	public final static int RESULT_BASE = 0x1000000;
+	
+	private static int count;
+	
+	public static void print(int value)
+	{
+		MAGIC.wMem32(RESULT_BASE + 4 + (count << 2), value);
+		MAGIC.wMem32(RESULT_BASE, ++count);
+	}
+	
+	public static void halt()
+	{
+		while (true)
+			;
+	}
+}
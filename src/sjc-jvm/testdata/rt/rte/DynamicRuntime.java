@@ -0,0 +1,119 @@
+package rte;
+
+/**
+ * Minimal runtime for the emulator tests, objects are bump allocated and never freed
+ */
+public class DynamicRuntime
+{
+	public final static int BOUND_EXCEPTION = 0xBAD;
+	
+	private static int nextFreeAddr = 0x800000;
+	
+	public static int implLookups; //counted for the tests of the inline caches
+	
+	public static Object newInstance(int scalarSize, int relocEntries, SClassDesc type)
+	{
+		int rs, size, i, addr;
+		Object me;
+		
+		rs = relocEntries * MAGIC.ptrSize;
+		scalarSize = (scalarSize + 3) & ~3;
+		size = rs + scalarSize;
+		addr = nextFreeAddr;
+		nextFreeAddr += size;
+		for (i = 0; i < size; i += 4)
+			MAGIC.wMem32(addr + i, 0);
+		me = MAGIC.cast2Obj(addr + rs);
+		MAGIC.assign(me._r_type, type);
+		MAGIC.assign(me._r_relocEntries, relocEntries);
+		MAGIC.assign(me._r_scalarSize, scalarSize);
+		return me;
+	}
+	
+	public static SArray newArray(int length, int arrDim, int entrySize, int stdType, Object unitType)
+	{
+		int scS, rlE;
+		SArray me;
+		
+		scS = MAGIC.getInstScalarSize("SArray");
+		rlE = MAGIC.getInstRelocEntries("SArray");
+		if (arrDim > 1 || entrySize < 0)
+			rlE += length;
+		else
+			scS += length * entrySize;
+		me = (SArray) newInstance(scS, rlE, (SClassDesc) MAGIC.clssDesc("SArray"));
+		MAGIC.assign(me.length, length);
+		MAGIC.assign(me._r_dim, arrDim);
+		MAGIC.assign(me._r_stdType, stdType);
+		MAGIC.assign(me._r_unitType, unitType);
+		return me;
+	}
+	
+	public static void newMultArray(SArray[] parent, int curLevel, int destLevel, int length, int arrDim, int entrySize, int stdType, Object unitType)
+	{
+		int i;
+		
+		if (curLevel + 1 < destLevel)
+		{
+			curLevel++;
+			for (i = 0; i < parent.length; i++)
+				newMultArray((SArray[]) ((Object) parent[i]), curLevel, destLevel, length, arrDim, entrySize, stdType, unitType);
+		}
+		else
+		{
+			destLevel = arrDim - curLevel;
+			for (i = 0; i < parent.length; i++)
+				parent[i] = newArray(length, destLevel, entrySize, stdType, unitType);
+		}
+	}
+	
+	public static boolean isInstance(Object o, SClassDesc dest, boolean asCast)
+	{
+		SClassDesc c;
+		
+		if (o == null)
+			return asCast;
+		for (c = o._r_type; c != null; c = c.parent)
+			if (c == dest)
+				return true;
+		if (asCast)
+			kernel.Out.halt();
+		return false;
+	}
+	
+	public static SIntfMap isImplementation(Object o, SIntfDesc dest, boolean asCast)
+	{
+		SIntfMap m;
+		
+		implLookups++;
+		if (o == null)
+			return null;
+		for (m = o._r_type.implementations; m != null; m = m.next)
+			if (m.owner == dest)
+				return m;
+		if (asCast)
+			kernel.Out.halt();
+		return null;
+	}
+	
+	public static boolean isArray(SArray o, int stdType, Object unitType, int arrDim, boolean asCast)
+	{
+		return true;
+	}
+	
+	public static void checkArrayStore(Object dest, SArray newEntry)
+	{
+	}
+	
+	public static void boundException(SArray arr, int index)
+	{
+		kernel.Out.print(BOUND_EXCEPTION);
+		kernel.Out.print(index);
+		kernel.Out.halt();
+	}
+	
+	public static void nullException()
+	{
+		kernel.Out.halt();
+	}
+}
@@ -0,0 +1,7 @@
+package rte;
+
+public class SArray
+{
+	public final int length = 0, _r_dim = 0, _r_stdType = 0;
+	public final Object _r_unitType = null;
+}
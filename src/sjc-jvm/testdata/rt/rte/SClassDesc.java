@@ -0,0 +1,7 @@
+package rte;
+
+public class SClassDesc
+{
+	public SClassDesc parent;
+	public SIntfMap implementations;
+}
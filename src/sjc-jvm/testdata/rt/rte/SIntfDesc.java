@@ -0,0 +1,6 @@
+package rte;
+
+public class SIntfDesc
+{
+
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package rte;
+
+public class SIntfMap
+{
+	public SIntfDesc owner;
+	public SIntfMap next;
+}
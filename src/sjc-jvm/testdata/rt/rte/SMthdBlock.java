@@ -0,0 +1,6 @@
+package rte;
+
+public class SMthdBlock
+{
+
+}
\ No newline at end of file
@@ -27,16 +27,19 @@ import sjc.backend.ssa.SSA;
 import sjc.backend.ssaopt.SSAopt;
 import sjc.backend.ssaopt.SSAopt2amd;
 import sjc.backend.x86.AMD64;
+import sjc.backend.x86.AMD64Opti;
 import sjc.backend.x86.IA32;
 import sjc.backend.x86.IA32Opti;
 import sjc.backend.x86.IA32RM;
+import sjc.compbase.StringList;
 import sjc.osio.TextPrinter;
 
 /**
  * ArchFactory: creation of architecture dependend backend
  *
  * @author S. Frenz
- * @version 160324 added MyVCPU2
+ * @version 261018 added getWorkerArchitecture, optimized SSA, AMD64Opti and ia32ra
+ * version 160324 added MyVCPU2
  * version 150831 added MyCPU
  * version 100923 added SSAopt2amd
  * version 100805 added ARM7
@@ -68,12 +71,16 @@ public class ArchFactory
 		v.println("  ia32      - 80386 Protected Mode 32 bit (default)");
 		IA32.printParameter(v);
 		v.println("  ia32opt   - 80386 Protected Mode 32 bit optimized");
+		v.println("  ia32ra    - 80386 Protected Mode 32 bit optimized with register allocation");
 		v.println("  ia32rm    - 80386 Real Mode 16 bit");
 		v.println("  amd64     - AMD64 Long Mode 64 bit");
 		AMD64.printParameter(v);
+		v.println("  amd64opt  - AMD64 Long Mode 64 bit optimized");
 		v.println("  ssa2amd64 - SSA optimized AMD64 (experimental)");
 		v.println("  ssa32     - Pseudo-SSA 32 bit");
 		v.println("  ssa64     - Pseudo-SSA 64 bit");
+		v.println("  ssa32opt  - Pseudo-SSA 32 bit optimized");
+		v.println("  ssa64opt  - Pseudo-SSA 64 bit optimized");
 		v.println("  atmega    - Atmel ATmega");
 		ATmega.printParameter(v);
 		v.println("  atmegaopt - optimized Atmel ATmega");
@@ -92,16 +99,24 @@ public class ArchFactory
 			return new IA32();
 		if (name.equals("ia32opt"))
 			return new IA32Opti();
+		if (name.equals("ia32ra"))
+			return new IA32Opti(true);
 		if (name.equals("ia32rm"))
 			return new IA32RM();
 		if (name.equals("amd64"))
 			return new AMD64();
+		if (name.equals("amd64opt"))
+			return new AMD64Opti();
 		if (name.equals("ssa2amd64"))
 			return new SSAopt(new SSAopt2amd(), 8);
 		if (name.equals("ssa32"))
 			return new SSA(4);
 		if (name.equals("ssa64"))
 			return new SSA(8);
+		if (name.equals("ssa32opt"))
+			return new SSAopt(4);
+		if (name.equals("ssa64opt"))
+			return new SSAopt(8);
 		if (name.equals("atmega"))
 			return new ATmega();
 		if (name.equals("atmegaopt"))
@@ -115,4 +130,19 @@ public class ArchFactory
 		v.println("unknown architecture");
 		return null;
 	}
+	
+	public static Architecture getWorkerArchitecture(String name, StringList parameters, TextPrinter v)
+	{
+		Architecture arch;
+		
+		if ((arch = getArchitecture(name, null, v)) == null)
+			return null;
+		while (parameters != null)
+		{ //apply all parameters given for the primary architecture in the same order
+			if (!arch.setParameter(parameters.str, v))
+				return null;
+			parameters = parameters.next;
+		}
+		return arch;
+	}
 }
@@ -27,7 +27,8 @@ import sjc.real.Real;
  * Architecture: abstract class to handle backend access
  *
  * @author S. Frenz
- * @version 160818 added supportsAsmTextInline
+ * @version 261018 added support for parallel code generation, jump tables and block memory instructions, line tables for all methods
+ * version 160818 added supportsAsmTextInline
  * version 151031 adopted changed buildAssemblerText concept
  * version 151026 added buildAssemblerText
  * version 150922 added inlineCodeOffset
@@ -143,6 +144,8 @@ public abstract class Architecture
 	public Real real;
 	public boolean needsAlignedVrbls;
 	public boolean supportsAsmTextInline;
+	public boolean supportsParallelCodeGen; //finalized code may be detached and copied later by the same instance
+	public boolean supportsJmpTable; //genJmpTable is implemented
 	
 	//call runtime method on given arithmetic operations
 	//  if used, highest bit will be set by user (resulting in ariCall[.]<0 for a specific baseType)
@@ -156,7 +159,7 @@ public abstract class Architecture
 	
 	private InstrList fixupCodeRefList, emptyList;
 	private boolean printedInlineExceed;
-	private int[] sourceLineOffsetTempArray;
+	private final LineTable lineTable = new LineTable();
 	
 	//interface to pass parameters to special architectures
 	public boolean setParameter(String parm, TextPrinter v)
@@ -287,6 +290,13 @@ public abstract class Architecture
 		fatalError("Please use programmed bound exception or disable checks for this architecture");
 	}
 	
+	//indexed jump for switch statements, only called if supportsJmpTable is set
+	//  jumps to dests[src-minVal] if src is inside the table, otherwise to defDest (src may be destroyed)
+	public void genJmpTable(int src, int minVal, Instruction[] dests, Instruction defDest)
+	{
+		fatalError("jump tables not supported by this architecture");
+	}
+	
 	//instructions to support exceptions (not implemented by all architectures)
 	//typical space reserved on stack requiring 7*relocOnStackBytes:
 	//  excOffset + 6*relocOnStackBytes: current throwable thrown
@@ -353,6 +363,38 @@ public abstract class Architecture
 		deallocRestoreReg(src2, 0, restore);
 	}
 	
+	//block memory instructions for MAGIC.copyMem/fillMem, optionally overwritten by a better implementation
+	//  default implementation is a byte loop, all parameter registers may be destroyed
+	public void genCopyMem(int dst, int src, int cnt)
+	{
+		Instruction loop = getUnlinkedInstruction(), done = getUnlinkedInstruction();
+		int val, restore;
+		restore = prepareFreeReg(dst, src, 0, StdTypes.T_BYTE);
+		val = allocReg();
+		appendInstruction(loop);
+		genCondJmp(done, genCompValToConstVal(cnt, 0, StdTypes.T_INT, Ops.C_LE));
+		genLoadVarVal(val, src, null, 0, StdTypes.T_BYTE);
+		genAssign(dst, val, StdTypes.T_BYTE);
+		genLoadVarAddr(src, src, null, 1);
+		genLoadVarAddr(dst, dst, null, 1);
+		genBinOpConstRi(cnt, cnt, 1, (Ops.S_ARI << 16) | Ops.A_MINUS, StdTypes.T_INT);
+		genJmp(loop);
+		appendInstruction(done);
+		deallocRestoreReg(val, 0, restore);
+	}
+	
+	public void genFillMem(int dst, int val, int cnt)
+	{
+		Instruction loop = getUnlinkedInstruction(), done = getUnlinkedInstruction();
+		appendInstruction(loop);
+		genCondJmp(done, genCompValToConstVal(cnt, 0, StdTypes.T_INT, Ops.C_LE));
+		genAssign(dst, val, StdTypes.T_BYTE);
+		genLoadVarAddr(dst, dst, null, 1);
+		genBinOpConstRi(cnt, cnt, 1, (Ops.S_ARI << 16) | Ops.A_MINUS, StdTypes.T_INT);
+		genJmp(loop);
+		appendInstruction(done);
+	}
+	
 	//special instructions for better inline coding support
 	public abstract void inlineVarOffset(int inlineMode, int objReg, Object loc, int offset, int baseValue);
 	
@@ -409,6 +451,11 @@ public abstract class Architecture
 	{
 	}
 	
+	//called after parallel code generation, implementing classes may add statistics of worker
+	public void mergeStatistics(Architecture worker)
+	{
+	}
+	
 	//optionally try to build assembler output
 	public String checkBuildAssembler(Context preInitCtx)
 	{
@@ -501,42 +548,20 @@ public abstract class Architecture
 	{
 		Instruction ins = firstInstr.next, last;
 		InstrList temp;
-		int i, lastOffset = -1, lastLine = 0, nextFreeIndex = 0;
-		boolean slhi = false;
-		int[] tmpArray;
+		int startOffset = offset, lastLine;
 		
 		//report destination if architecture needs absolute calls inside itself
 		finalizeInstructionAddresses(generatingMthd, firstInstr.next, loc, offset);
 		//attach assembler text to method if requested
 		if (ctx.buildAssemblerText)
 			attachMethodAssemblerText(generatingMthd, firstInstr.next);
-		//insert the bytes of all instructions
-		if (ctx.globalSourceLineHints || (generatingMthd.marker & Marks.K_SLHI) != 0)
-		{
-			slhi = true;
-			lastLine = generatingMthd.line;
-			if (sourceLineOffsetTempArray == null)
-				sourceLineOffsetTempArray = new int[60];
-		}
+		//insert the bytes of all instructions and record the line table
+		lineTable.startEncoding();
+		lineTable.add(0, lastLine = generatingMthd.line);
 		while (ins != null)
 		{
-			if (slhi && ins.token != null)
-			{ //add source hint
-				if (lastLine != ins.token.line)
-				{
-					if (lastOffset == offset && nextFreeIndex >= 2)
-						nextFreeIndex -= 2; //last hint has no code, overwrite it
-					else if (sourceLineOffsetTempArray.length < nextFreeIndex + 2)
-					{ //array is too small
-						tmpArray = new int[sourceLineOffsetTempArray.length * 2];
-						for (i = 0; i < nextFreeIndex; i++)
-							tmpArray[i] = sourceLineOffsetTempArray[i];
-						sourceLineOffsetTempArray = tmpArray;
-					}
-					sourceLineOffsetTempArray[nextFreeIndex++] = lastOffset = offset; //remember offset
-					sourceLineOffsetTempArray[nextFreeIndex++] = lastLine = ins.token.line; //remember line
-				}
-			}
+			if (ins.token != null && lastLine != ins.token.line)
+				lineTable.add(offset - startOffset, lastLine = ins.token.line); //add source hint
 			ins.iPar1 = offset; //iPar1 will not be used anymore, recycle it
 			mem.putByteArray(loc, offset, ins.code, ins.size); //copy code of current instruction
 			offset += ins.size; //increase offset by size of last instruction
@@ -544,12 +569,7 @@ public abstract class Architecture
 			last.next = nextFreeInstr; //recycle instruction
 			nextFreeInstr = last;
 		}
-		if (slhi && nextFreeIndex > 0)
-		{ //copy temporary array into method-array
-			generatingMthd.lineInCodeOffset = tmpArray = new int[nextFreeIndex];
-			for (i = 0; i < nextFreeIndex; i++)
-				tmpArray[i] = sourceLineOffsetTempArray[i];
-		}
+		generatingMthd.lineTable = lineTable.finishEncoding();
 		//reset lastInstr for next method
 		(lastInstr = firstInstr).next = null;
 		//replace the to be fixed up code-references
@@ -566,6 +586,39 @@ public abstract class Architecture
 		}
 	}
 	
+	public MthdCode detachMethodCode()
+	{ //needed only by parallel code generation, has to follow finalizeMethodCoding
+		MthdCode code = new MthdCode();
+		
+		code.arch = this;
+		code.first = firstInstr.next;
+		code.fixupCodeRefList = fixupCodeRefList;
+		code.size = curMthdSize;
+		(lastInstr = firstInstr).next = null;
+		fixupCodeRefList = null;
+		return code;
+	}
+	
+	public void attachMethodCode(MthdCode code)
+	{ //counterpart of detachMethodCode, has to be called on code.arch and followed by copyMethodCode
+		Instruction ins;
+		
+		if (firstInstr.next != null || fixupCodeRefList != null)
+		{
+			fatalError("attaching method code to non-empty instruction list");
+			return;
+		}
+		if ((ins = firstInstr.next = code.first) != null)
+		{
+			ins.prev = firstInstr;
+			while (ins.next != null)
+				ins = ins.next;
+			lastInstr = ins;
+		}
+		fixupCodeRefList = code.fixupCodeRefList;
+		curMthdSize = code.size;
+	}
+	
 	public void disposeMethodCode()
 	{ //needed only by multi-stage-optimizer
 		Instruction ins = firstInstr.next, last;
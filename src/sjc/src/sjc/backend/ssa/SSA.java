@@ -29,7 +29,8 @@ import sjc.compbase.StdTypes;
  * SSA: backend for artificial machine with "write once" register semantic
  *
  * @author S. Frenz
- * @version 110127 added I_ASSIGNcmplx and I_LOADcmplx instructions used by SSA-optimizer
+ * @version 261018 made mthdContainer accessible for SSAopt, added support for jump tables and block memory instructions
+ * version 110127 added I_ASSIGNcmplx and I_LOADcmplx instructions used by SSA-optimizer
  * version 101210 adopted changed Architecture
  * version 101102 fixed maximum size of instruction after extending I_DEREF
  * version 101101 adopted changed Architecture (extended I_DEREF)
@@ -97,7 +98,7 @@ public class SSA extends Architecture
 	private int nextAllocReg;
 	private SSAReg fReg, lReg, eReg; //first / last allocated and first empty register
 	private int blockInMthdID;
-	private Mthd mthdContainer;
+	protected Mthd mthdContainer;
 	
 	//initialization
 	public SSA(int iRB)
@@ -110,6 +111,7 @@ public class SSA extends Architecture
 		regClss = SSADef.R_CLSS;
 		regInst = SSADef.R_INST;
 		regBase = SSADef.R_BASE;
+		supportsJmpTable = true;
 	}
 	
 	public Instruction createNewInstruction()
@@ -418,7 +420,7 @@ public class SSA extends Architecture
 			ins(SSADef.I_NFREG);
 			curInlineLevel = blockInMthdID = 0;
 			mthdContainer = mthd;
-			
+		
 		}
 		else
 			curInlineLevel++;
@@ -824,12 +826,68 @@ public class SSA extends Architecture
 		ins(SSADef.I_IN, dst, src, 0, getTypeID(type), 0l, memLoc);
 	}
 	
+	public void genCopyMem(int dst, int src, int cnt)
+	{ //same byte loop as in Architecture, but registers must not be allocated inside the loop
+		Instruction loop = getUnlinkedInstruction(), done = getUnlinkedInstruction();
+		int zero, one, val, restoreZero, restoreOne, restoreVal;
+		restoreZero = prepareFreeReg(0, 0, 0, StdTypes.T_INT);
+		zero = allocReg();
+		restoreOne = prepareFreeReg(0, 0, 0, StdTypes.T_INT);
+		one = allocReg();
+		restoreVal = prepareFreeReg(0, 0, 0, StdTypes.T_BYTE);
+		val = allocReg();
+		genLoadConstVal(zero, 0, StdTypes.T_INT);
+		genLoadConstVal(one, 1, StdTypes.T_INT);
+		appendInstruction(loop);
+		genCondJmp(done, genComp(cnt, zero, StdTypes.T_INT, Ops.C_LE));
+		genLoadVarVal(val, src, null, 0, StdTypes.T_BYTE);
+		genAssign(dst, val, StdTypes.T_BYTE);
+		genLoadVarAddr(src, src, null, 1);
+		genLoadVarAddr(dst, dst, null, 1);
+		genBinOp(cnt, cnt, one, (Ops.S_ARI << 16) | Ops.A_MINUS, StdTypes.T_INT);
+		genJmp(loop);
+		appendInstruction(done);
+		deallocRestoreReg(val, 0, restoreVal);
+		deallocRestoreReg(one, 0, restoreOne);
+		deallocRestoreReg(zero, 0, restoreZero);
+	}
+	
+	public void genFillMem(int dst, int val, int cnt)
+	{ //same byte loop as in Architecture, but registers must not be allocated inside the loop
+		Instruction loop = getUnlinkedInstruction(), done = getUnlinkedInstruction();
+		int zero, one, restoreZero, restoreOne;
+		restoreZero = prepareFreeReg(0, 0, 0, StdTypes.T_INT);
+		zero = allocReg();
+		restoreOne = prepareFreeReg(0, 0, 0, StdTypes.T_INT);
+		one = allocReg();
+		genLoadConstVal(zero, 0, StdTypes.T_INT);
+		genLoadConstVal(one, 1, StdTypes.T_INT);
+		appendInstruction(loop);
+		genCondJmp(done, genComp(cnt, zero, StdTypes.T_INT, Ops.C_LE));
+		genAssign(dst, val, StdTypes.T_BYTE);
+		genLoadVarAddr(dst, dst, null, 1);
+		genBinOp(cnt, cnt, one, (Ops.S_ARI << 16) | Ops.A_MINUS, StdTypes.T_INT);
+		genJmp(loop);
+		appendInstruction(done);
+		deallocRestoreReg(one, 0, restoreOne);
+		deallocRestoreReg(zero, 0, restoreZero);
+	}
+	
 	public void genCheckBounds(int addr, int off, int checkToOffset, Instruction onSuccess)
 	{
 		ins(SSADef.I_BOUND, addr, off, 0, checkToOffset);
 		insJump(onSuccess, SSADef.CC_BO);
 	}
 	
+	public void genJmpTable(int src, int minVal, Instruction[] dests, Instruction defDest)
+	{
+		int i;
+		ins(SSADef.I_JMPTAB, src, 0, 0, minVal, 0l, dests.length);
+		for (i = 0; i < dests.length; i++)
+			insJump(dests[i], SSADef.CC_AL);
+		insJump(defDest, SSADef.CC_AL);
+	}
+	
 	public void genCheckStackExtreme(int maxValueReg, Instruction onSuccess)
 	{
 		ins(SSADef.I_STKCHK, maxValueReg);
@@ -1368,6 +1426,9 @@ public class SSA extends Architecture
 			case SSADef.I_STKCHK: //0x3B | IP_reg0;                                                   //insert special stack extreme check instructions, followed by CC_BO conditional jump
 				ctx.out.print("STKCHK");
 				break;
+			case SSADef.I_JMPTAB: //0x3C | IP_reg0 |                     IP_im_i | IP_para;           //indexed jump with reg0-im_i into the para following I_JUMPs
+				ctx.out.print("JMPTAB");
+				break;
 			case SSADef.I_ASSIGNcmplx: //complex assign instruction generated by optimizer
 				ctx.out.print("ASSIGNcmplx");
 				break;
@@ -22,7 +22,8 @@ package sjc.backend.ssa;
  * SSAdef: definition of registers, parameters and instruction opcodes for SSA
  *
  * @author S. Frenz
- * @version 110127 added I_ASSIGNcmplx and I_LOADcmplx instructions used by SSA-optimizer
+ * @version 261018 added I_JMPTAB
+ * version 110127 added I_ASSIGNcmplx and I_LOADcmplx instructions used by SSA-optimizer
  * version 101101 added third register to I_DEREF
  * version 090717 added I_STKCHK
  * version 090207 added copyright notice and cleaned up sugar
@@ -121,6 +122,7 @@ public class SSADef
 	public final static int I_TFUPD2 = 0x39 | IP_rela | IP_para;           //update an already existing try-catch-finally-block (part 2), always following I_TFUPD1
 	public final static int I_TFRESET = 0x3A | IP_reg0 | IP_rela;                     //reset a valid try-catch-finally-block to it's original state
 	public final static int I_STKCHK = 0x3B | IP_reg0;                                                   //insert special stack extreme check instructions, followed by CC_BO conditional jump
+	public final static int I_JMPTAB = 0x3C | IP_reg0 |                     IP_im_i | IP_para;           //indexed jump with reg0-im_i into the para following I_JUMPs, out of range values take the jump behind them
 	public final static int I_LOADcmplx = 0x40 | IP_reg0 | IP_reg1 | IP_size | IP_para;           //do a complex load (used by optimizer)
 	public final static int I_ASSIGNcmplx = 0x41 | IP_reg0 | IP_reg1 | IP_size | IP_para;           //do a complex assign (used by optimizer)
 	
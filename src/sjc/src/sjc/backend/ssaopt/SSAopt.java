@@ -20,7 +20,9 @@ package sjc.backend.ssaopt;
 
 import sjc.backend.Instruction;
 import sjc.backend.ssa.SSA;
+import sjc.backend.ssa.SSADef;
 import sjc.compbase.Context;
+import sjc.compbase.Marks;
 import sjc.compbase.Mthd;
 import sjc.memory.MemoryImage;
 
@@ -28,18 +30,45 @@ import sjc.memory.MemoryImage;
  * SSAopt: backend independent optimizer on SSA basis
  *
  * @author F. Hercher
- * @version 100923 initial version
+ * @version 261018 (Stefan) added control flow graph, dominator tree, constant folding, copy propagation, cse and dead code elimination, optimized SSA output without backend, skip methods with jump tables
+ * version 100923 initial version
  */
 
 public class SSAopt extends SSA
 {
-	private final SSAopt2bin Backend;
+	private final static int MAX_ROUNDS = 8; //maximum number of optimization rounds per method
+	private final static int HASH_SIZE = 64; //size of expression hash table, has to be power of 2
+	private final static int NEVER_KILLED = 0x7FFFFFFF;
+	
+	private final SSAopt2bin Backend; //null to output the optimized SSA instructions
+	
+	//method dependant analysis data
+	private SSAoptBlock[] blocks, rpo, dfsStack;
+	private int blockCnt, firstRPO;
+	private int[] loopStart, loopEnd; //ranges of backward jumps
+	private int loopCnt;
+	private int[] regDefCnt, regUseCnt, regAlloc, regKill;
+	private SSAoptInstruction[] regDef;
+	private boolean[] regKillOJmp;
+	private final SSAoptInstruction[] exprHash = new SSAoptInstruction[HASH_SIZE];
+	
+	//statistics
+	private int statMthds, statSkipped, statFolded, statBranches, statCopies, statCSE, statDead, statUnreachable;
+	
+	public SSAopt(int iRB)
+	{
+		this(null, iRB);
+	}
 	
 	public SSAopt(SSAopt2bin Backend, int iRB)
 	{
 		
 		super(iRB);
 		this.Backend = Backend;
+		blocks = new SSAoptBlock[16];
+		loopStart = new int[8];
+		loopEnd = new int[8];
+		allocRegArrays(64);
 	}
 	
 	/*
@@ -49,7 +78,7 @@ public class SSAopt extends SSA
 	public Instruction createNewInstruction()
 	{
 		
-		return new SSAoptInstruction(maxInstrCodeSize);
+		return new SSAoptInstruction(maxInstrCodeSize + 2); //for MAGIC.inline two additional bytes are required
 	}
 	
 	/**
@@ -62,7 +91,8 @@ public class SSAopt extends SSA
 	public void init(MemoryImage imem, int ilev, Context ictx)
 	{
 		super.init(imem, ilev, ictx);
-		Backend.doInit(imem, ilev, ictx);
+		if (Backend != null)
+			Backend.doInit(imem, ilev, ictx);
 	}
 	
 	/**
@@ -73,42 +103,942 @@ public class SSAopt extends SSA
 	 */
 	public Mthd prepareMethodCoding(Mthd mthd)
 	{
-		ctx.out.print("SSAopt prepareMethodCoding for: ");
-		ctx.out.println(mthd.name);
-		Backend.doPrepareMethod(mthd);
+		if (Backend != null)
+			Backend.doPrepareMethod(mthd);
 		return super.prepareMethodCoding(mthd);
 	}
 	
 	public int getMethodSize()
 	{
+		if (Backend == null)
+			return super.getMethodSize();
 		return Backend.doMethodSize();
 	}
 	
 	public void putRef(Object loc, int offset, Object ptr, int ptrOff)
 	{
-		Backend.doPutRef(loc, offset, ptr, ptrOff);
+		if (Backend == null)
+			super.putRef(loc, offset, ptr, ptrOff);
+		else
+			Backend.doPutRef(loc, offset, ptr, ptrOff);
 	}
 	
 	public void putCodeRef(Object loc, int offset, Object ptr, int ptrOff)
 	{
-		Backend.doPutCodeRef(loc, offset, ptr, ptrOff);
+		if (Backend == null)
+			super.putCodeRef(loc, offset, ptr, ptrOff);
+		else
+			Backend.doPutCodeRef(loc, offset, ptr, ptrOff);
 	}
 	
 	public void copyMethodCode(Mthd generatingMthd, Object loc, int offset)
 	{
-		ctx.out.print("SSAopt copyMethodCode for: ");
-		ctx.out.println(generatingMthd.name);
-		Backend.doCopyMethod(generatingMthd, loc, offset);
-		disposeMethodCode();
+		if (Backend == null)
+			super.copyMethodCode(generatingMthd, loc, offset);
+		else
+		{
+			Backend.doCopyMethod(generatingMthd, loc, offset);
+			disposeMethodCode();
+		}
 	}
 	
 	/**
-	 * add funny stuff here
+	 * glue logic for finalizeMethodCoding, the SSA instructions are optimized in optimize
 	 */
 	public void finalizeMethodCoding()
 	{
 		super.finalizeMethodCoding();
-		Backend.doEnumerate();
-		Backend.doFinalizeMethod();
+		if (Backend != null)
+		{
+			Backend.doEnumerate();
+			Backend.doFinalizeMethod();
+		}
+	}
+	
+	public void printStatistics()
+	{
+		ctx.out.print("SSA optimizer processed ");
+		ctx.out.print(statMthds);
+		ctx.out.print(" methods (");
+		ctx.out.print(statSkipped);
+		ctx.out.println(" skipped):");
+		ctx.out.print("  constant folding:       ");
+		ctx.out.print(statFolded);
+		ctx.out.print(" instructions, ");
+		ctx.out.print(statBranches);
+		ctx.out.println(" branches");
+		ctx.out.print("  copy propagation:       ");
+		ctx.out.print(statCopies);
+		ctx.out.println(" uses");
+		ctx.out.print("  common subexpressions:  ");
+		ctx.out.print(statCSE);
+		ctx.out.println(" instructions");
+		ctx.out.print("  dead code elimination:  ");
+		ctx.out.print(statDead);
+		ctx.out.print(" instructions, ");
+		ctx.out.print(statUnreachable);
+		ctx.out.println(" unreachable");
+	}
+	
+	/**
+	 * optimization pipeline, called after jump destinations are marked and before the instructions are coded
+	 *
+	 * @param Instruction first first instruction of the current method
+	 */
+	protected void optimize(Instruction first)
+	{
+		int round;
+		boolean changed;
+		
+		if ((mthdContainer.marker & Marks.K_NOPT) != 0)
+			return;
+		if (!isOptimizable((SSAoptInstruction) first))
+		{
+			statSkipped++;
+			return;
+		}
+		if (regCnt > regDef.length)
+			allocRegArrays(regCnt * 2);
+		for (round = 0; round < MAX_ROUNDS; round++)
+		{
+			//control flow and dominator tree have to be valid for all passes, constant folding may change branches
+			if (!buildFlowGraph((SSAoptInstruction) first))
+			{
+				if (round == 0)
+					statSkipped++;
+				return;
+			}
+			if (round == 0)
+				statMthds++;
+			analyzeRegisters((SSAoptInstruction) first);
+			if (changed = foldConstants((SSAoptInstruction) first))
+			{
+				if (!buildFlowGraph((SSAoptInstruction) first))
+					return;
+				analyzeRegisters((SSAoptInstruction) first);
+			}
+			if (propagateCopies((SSAoptInstruction) first))
+			{
+				changed = true;
+				analyzeRegisters((SSAoptInstruction) first);
+			}
+			if (eliminateCommonSubexpressions((SSAoptInstruction) first))
+			{
+				changed = true;
+				analyzeRegisters((SSAoptInstruction) first);
+			}
+			changed |= eliminateDeadCode((SSAoptInstruction) first);
+			if (!changed)
+				return;
+		}
+	}
+	
+	//methods with unknown register or control flow effects are not optimized
+	private boolean isOptimizable(SSAoptInstruction now)
+	{
+		while (now != null)
+		{
+			switch (now.type)
+			{
+				case I_MAGC:
+				case SSADef.I_IVOF:
+				case SSADef.I_TFBUILD:
+				case SSADef.I_TFUPD1:
+				case SSADef.I_TFUPD2:
+				case SSADef.I_TFRESET:
+				case SSADef.I_LOADcmplx:
+				case SSADef.I_ASSIGNcmplx:
+				case SSADef.I_JMPTAB:
+					return false;
+			}
+			now = (SSAoptInstruction) now.next;
+		}
+		return true;
+	}
+	
+	private void allocRegArrays(int size)
+	{
+		regDefCnt = new int[size];
+		regUseCnt = new int[size];
+		regAlloc = new int[size];
+		regKill = new int[size];
+		regDef = new SSAoptInstruction[size];
+		regKillOJmp = new boolean[size];
+	}
+	
+	//build basic blocks, reverse post order and dominator tree, returns false if control flow is not reducible
+	private boolean buildFlowGraph(SSAoptInstruction first)
+	{
+		SSAoptInstruction now;
+		SSAoptBlock block = null, succ;
+		SSAoptBlock[] tmp;
+		int i, j;
+		boolean newBlock = true, changed;
+		
+		//split instructions into basic blocks
+		blockCnt = loopCnt = 0;
+		for (now = first; now != null; now = (SSAoptInstruction) now.next)
+		{
+			if (newBlock || now.isDest)
+			{
+				if (blockCnt == blocks.length)
+				{
+					tmp = new SSAoptBlock[blockCnt * 2];
+					for (i = 0; i < blockCnt; i++)
+						tmp[i] = blocks[i];
+					blocks = tmp;
+				}
+				if ((block = blocks[blockCnt]) == null)
+					block = blocks[blockCnt] = new SSAoptBlock();
+				blockCnt++;
+				block.reset(now);
+				newBlock = false;
+			}
+			now.block = block;
+			block.last = now;
+			if (now.type == SSADef.I_JUMP || now.type == SSADef.I_LEAVE)
+				newBlock = true;
+			if (now.type == SSADef.I_JUMP && now.jDest.instrNr <= now.instrNr)
+				addLoop(now.jDest.instrNr, now.instrNr);
+		}
+		//enter edges
+		for (i = 0; i < blockCnt; i++)
+		{
+			block = blocks[i];
+			now = block.last;
+			if (now.type == SSADef.I_JUMP)
+			{
+				block.succ2 = ((SSAoptInstruction) now.jDest).block;
+				if (now.iPar1 != SSADef.CC_AL && i + 1 < blockCnt)
+					block.succ1 = blocks[i + 1];
+			}
+			else if (now.type != SSADef.I_LEAVE && i + 1 < blockCnt)
+				block.succ1 = blocks[i + 1];
+			if (block.succ1 != null)
+				block.succ1.addPred(block);
+			if (block.succ2 != null && block.succ2 != block.succ1)
+				block.succ2.addPred(block);
+		}
+		//get reverse post order with iterative depth first search
+		if (dfsStack == null || dfsStack.length < blockCnt)
+		{
+			dfsStack = new SSAoptBlock[blocks.length];
+			rpo = new SSAoptBlock[blocks.length];
+		}
+		firstRPO = blockCnt;
+		dfsStack[0] = blocks[0];
+		blocks[0].state = 1;
+		j = 1;
+		while (j > 0)
+		{
+			block = dfsStack[j - 1];
+			if (block.state == 1)
+			{
+				block.state = 2;
+				succ = block.succ1;
+			}
+			else if (block.state == 2)
+			{
+				block.state = 3;
+				succ = block.succ2;
+			}
+			else
+			{
+				j--;
+				rpo[block.rpoNr = --firstRPO] = block;
+				continue;
+			}
+			if (succ != null && succ.state == 0)
+			{
+				succ.state = 1;
+				dfsStack[j++] = succ;
+			}
+		}
+		//get immediate dominators (Cooper, Harvey, Kennedy)
+		blocks[0].idom = blocks[0];
+		do
+		{
+			changed = false;
+			for (i = firstRPO + 1; i < blockCnt; i++)
+			{
+				block = rpo[i];
+				succ = null; //new immediate dominator
+				for (j = 0; j < block.predCnt; j++)
+					if (block.preds[j].idom != null)
+						succ = succ == null ? block.preds[j] : intersect(block.preds[j], succ);
+				if (block.idom != succ)
+				{
+					block.idom = succ;
+					changed = true;
+				}
+			}
+		} while (changed);
+		//all retreating edges have to be back edges and all loops have to be nested properly
+		for (i = firstRPO; i < blockCnt; i++)
+		{
+			block = rpo[i];
+			if ((succ = block.succ1) != null && succ.rpoNr <= block.rpoNr && !succ.dominates(block))
+				return false;
+			if ((succ = block.succ2) != null && succ.rpoNr <= block.rpoNr && !succ.dominates(block))
+				return false;
+		}
+		for (i = 0; i < loopCnt; i++)
+			for (j = 0; j < loopCnt; j++)
+				if (loopStart[i] < loopStart[j] && loopStart[j] <= loopEnd[i] && loopEnd[i] < loopEnd[j])
+					return false;
+		return true;
+	}
+	
+	private SSAoptBlock intersect(SSAoptBlock b1, SSAoptBlock b2)
+	{
+		while (b1 != b2)
+		{
+			while (b1.rpoNr > b2.rpoNr)
+				b1 = b1.idom;
+			while (b2.rpoNr > b1.rpoNr)
+				b2 = b2.idom;
+		}
+		return b1;
+	}
+	
+	private void addLoop(int start, int end)
+	{
+		int[] tmpStart, tmpEnd;
+		int i;
+		
+		if (loopCnt == loopStart.length)
+		{
+			tmpStart = new int[loopCnt * 2];
+			tmpEnd = new int[loopCnt * 2];
+			for (i = 0; i < loopCnt; i++)
+			{
+				tmpStart[i] = loopStart[i];
+				tmpEnd[i] = loopEnd[i];
+			}
+			loopStart = tmpStart;
+			loopEnd = tmpEnd;
+		}
+		loopStart[loopCnt] = start;
+		loopEnd[loopCnt++] = end;
+	}
+	
+	//check if the instruction at pos def can not be executed again after reaching position after
+	private boolean noLoopAround(int def, int after)
+	{
+		int i;
+		
+		for (i = 0; i < loopCnt; i++)
+			if (loopStart[i] <= def && loopEnd[i] >= after)
+				return false;
+		return true;
+	}
+	
+	private boolean dominates(SSAoptInstruction dom, SSAoptInstruction ins)
+	{
+		if (dom.block.rpoNr < 0 || ins.block.rpoNr < 0)
+			return false;
+		if (dom.block == ins.block)
+			return dom.instrNr < ins.instrNr;
+		return dom.block.dominates(ins.block);
+	}
+	
+	//count definitions and uses of all general purpose registers and get their linear life range
+	private void analyzeRegisters(SSAoptInstruction now)
+	{
+		int i;
+		
+		for (i = 0; i < regCnt; i++)
+		{
+			regDefCnt[i] = regUseCnt[i] = 0;
+			regAlloc[i] = -1;
+			regKill[i] = NEVER_KILLED;
+			regDef[i] = null;
+			regKillOJmp[i] = false;
+		}
+		while (now != null)
+		{
+			switch (now.type)
+			{
+				case SSADef.I_ALLOCREG:
+					if (isGPR(now.reg0) && regAlloc[now.reg0] < 0)
+						regAlloc[now.reg0] = now.instrNr;
+					break;
+				case SSADef.I_KILLREG:
+					if (isGPR(now.reg0))
+						regKill[now.reg0] = now.instrNr;
+					break;
+				case SSADef.I_KILLOJMP:
+					if (isGPR(now.reg0))
+						regKillOJmp[now.reg0] = true;
+					break;
+				default:
+					if (writesReg0(now.type) && isGPR(now.reg0))
+					{
+						regDefCnt[now.reg0]++;
+						regDef[now.reg0] = now;
+					}
+					if (readsReg0(now.type) && isGPR(now.reg0))
+						regUseCnt[now.reg0]++;
+					if (readsReg1(now.type) && isGPR(now.reg1))
+						regUseCnt[now.reg1]++;
+					if (readsReg2(now.type) && isGPR(now.reg2))
+						regUseCnt[now.reg2]++;
+			}
+			now = (SSAoptInstruction) now.next;
+		}
+	}
+	
+	//register has a single definition whose execution is not repeated before position after
+	private boolean isStableAt(int reg, int after)
+	{
+		return isGPR(reg) && regDefCnt[reg] == 1 && !regKillOJmp[reg] && regDef[reg].block.rpoNr >= 0 && noLoopAround(regDef[reg].instrNr, after);
+	}
+	
+	//register is alive at least in the range of the other register
+	private boolean outlives(int reg, int inner, int innerAlloc)
+	{
+		return regAlloc[reg] >= 0 && regAlloc[reg] < innerAlloc && regKill[reg] >= regKill[inner];
+	}
+	
+	private boolean isConst(int reg)
+	{
+		SSAoptInstruction def;
+		
+		if (!isGPR(reg) || regDefCnt[reg] != 1)
+			return false;
+		def = regDef[reg];
+		switch (def.type)
+		{
+			case SSADef.I_LOADim_i:
+				return def.iPar1 >= 1 && def.iPar1 <= 4;
+			case SSADef.I_LOADim_l:
+				return def.iPar1 == 8;
+		}
+		return false;
+	}
+	
+	private long getConst(int reg)
+	{
+		SSAoptInstruction def = regDef[reg];
+		
+		if (def.type == SSADef.I_LOADim_l)
+			return def.lPar;
+		return normalize(def.iPar2, def.iPar1);
+	}
+	
+	private static long normalize(long value, int size)
+	{
+		switch (size)
+		{
+			case 1:
+				return (byte) value;
+			case 2:
+				return (short) value;
+			case 3:
+				return (char) value;
+			case 4:
+				return (int) value;
+		}
+		return value;
+	}
+	
+	private static boolean isIntSize(int size)
+	{
+		return (size >= 1 && size <= 4) || size == 8;
+	}
+	
+	private void setConst(SSAoptInstruction ins, int size, long value)
+	{
+		if (size == 8)
+		{
+			ins.type = SSADef.I_LOADim_l;
+			ins.lPar = value;
+			ins.iPar2 = 0;
+		}
+		else
+		{
+			ins.type = SSADef.I_LOADim_i;
+			ins.iPar2 = (int) value;
+			ins.lPar = 0l;
+		}
+		ins.iPar1 = size;
+		ins.reg1 = ins.reg2 = 0;
+		statFolded++;
+	}
+	
+	//replace operations on constants by their result and decide comparisons of constants
+	private boolean foldConstants(SSAoptInstruction now)
+	{
+		boolean changed = false;
+		long a, b;
+		
+		while (now != null)
+		{
+			switch (now.type)
+			{
+				case SSADef.I_AND:
+				case SSADef.I_XOR:
+				case SSADef.I_OR:
+				case SSADef.I_ADD:
+				case SSADef.I_SUB:
+				case SSADef.I_MUL:
+				case SSADef.I_DIV:
+				case SSADef.I_MOD:
+				case SSADef.I_SHL:
+				case SSADef.I_SHRL:
+				case SSADef.I_SHRA:
+					if ((now.iPar1 == 4 || now.iPar1 == 8) && isConst(now.reg1) && isConst(now.reg2))
+					{
+						a = getConst(now.reg1);
+						b = getConst(now.reg2);
+						if ((now.type != SSADef.I_DIV && now.type != SSADef.I_MOD) || b != 0l)
+						{
+							setConst(now, now.iPar1, calcBinOp(now.type, a, b, now.iPar1 == 8));
+							changed = true;
+						}
+					}
+					break;
+				case SSADef.I_NOT:
+				case SSADef.I_NEG:
+					if ((now.iPar1 == 4 || now.iPar1 == 8) && isConst(now.reg1))
+					{
+						a = getConst(now.reg1);
+						setConst(now, now.iPar1, normalize(now.type == SSADef.I_NOT ? ~a : -a, now.iPar1));
+						changed = true;
+					}
+					break;
+				case SSADef.I_CONV:
+					if (isIntSize(now.iPar1) && isIntSize(now.iPar2) && isConst(now.reg1))
+					{
+						setConst(now, now.iPar1, normalize(getConst(now.reg1), now.iPar1));
+						changed = true;
+					}
+					else if (now.iPar1 == -1 && now.iPar2 == 4 && relocBytes == 4 && isConst(now.reg1))
+					{ //absolute address
+						now.type = SSADef.I_LOADim_p;
+						now.iPar1 = (int) getConst(now.reg1);
+						now.iPar2 = now.reg1 = 0;
+						statFolded++;
+						changed = true;
+					}
+					break;
+				case SSADef.I_COPY:
+					if (isIntSize(now.iPar1) && isConst(now.reg1))
+					{
+						setConst(now, now.iPar1, getConst(now.reg1));
+						changed = true;
+					}
+					break;
+				case SSADef.I_CMP:
+					if (isIntSize(now.iPar1) && isConst(now.reg0) && isConst(now.reg1))
+						changed |= foldBranch(now, getConst(now.reg0), getConst(now.reg1));
+					break;
+			}
+			now = (SSAoptInstruction) now.next;
+		}
+		return changed;
+	}
+	
+	private static long calcBinOp(int type, long a, long b, boolean isLong)
+	{
+		long res;
+		
+		switch (type)
+		{
+			case SSADef.I_AND:
+				res = a & b;
+				break;
+			case SSADef.I_XOR:
+				res = a ^ b;
+				break;
+			case SSADef.I_OR:
+				res = a | b;
+				break;
+			case SSADef.I_ADD:
+				res = a + b;
+				break;
+			case SSADef.I_SUB:
+				res = a - b;
+				break;
+			case SSADef.I_MUL:
+				res = a * b;
+				break;
+			case SSADef.I_DIV:
+				res = isLong ? a / b : (long) ((int) a / (int) b);
+				break;
+			case SSADef.I_MOD:
+				res = isLong ? a % b : (long) ((int) a % (int) b);
+				break;
+			case SSADef.I_SHL:
+				res = isLong ? a << (int) b : (long) ((int) a << (int) b);
+				break;
+			case SSADef.I_SHRL:
+				res = isLong ? a >>> (int) b : (long) ((int) a >>> (int) b);
+				break;
+			default: //SSADef.I_SHRA
+				res = isLong ? a >> (int) b : (long) ((int) a >> (int) b);
+		}
+		return isLong ? res : (long) (int) res;
+	}
+	
+	//decide the only conditional jump reading the flags of a compare with constant values
+	private boolean foldBranch(SSAoptInstruction cmp, long a, long b)
+	{
+		SSAoptInstruction jump, now;
+		boolean taken;
+		
+		jump = (SSAoptInstruction) cmp.next;
+		while (jump != null && !jump.isDest && (jump.type == I_NONE || jump.type == SSADef.I_KILLREG || jump.type == SSADef.I_KILLOJMP || jump.type == SSADef.I_FLOWHINT))
+			jump = (SSAoptInstruction) jump.next;
+		if (jump == null || jump.isDest || jump.type != SSADef.I_JUMP || jump.iPar1 == SSADef.CC_AL)
+			return false;
+		for (now = (SSAoptInstruction) jump.next; now != null; now = (SSAoptInstruction) now.next)
+		{
+			if (now.type == SSADef.I_CMP || now.type == SSADef.I_BOUND || now.type == SSADef.I_STKCHK)
+				break; //flags are set again
+			if (now.type == SSADef.I_JUMP && now.iPar1 != SSADef.CC_AL)
+				return false; //flags of compare may be used again
+		}
+		switch (jump.iPar1)
+		{
+			case SSADef.CC_LW:
+				taken = a < b;
+				break;
+			case SSADef.CC_LE:
+				taken = a <= b;
+				break;
+			case SSADef.CC_EQ:
+				taken = a == b;
+				break;
+			case SSADef.CC_GE:
+				taken = a >= b;
+				break;
+			case SSADef.CC_GT:
+				taken = a > b;
+				break;
+			case SSADef.CC_NE:
+				taken = a != b;
+				break;
+			case SSADef.CC_BO:
+				if (cmp.iPar1 != 4)
+					return false;
+				taken = a >= 0l && a < b;
+				break;
+			default:
+				return false;
+		}
+		if (taken)
+			jump.iPar1 = SSADef.CC_AL;
+		else
+			kill(jump);
+		kill(cmp);
+		statBranches++;
+		return true;
+	}
+	
+	//replace uses of copied registers by the source register if the source is still alive and unchanged
+	private boolean propagateCopies(SSAoptInstruction first)
+	{
+		SSAoptInstruction now, use;
+		int dst, src;
+		boolean changed = false;
+		
+		for (now = first; now != null; now = (SSAoptInstruction) now.next)
+		{
+			if (now.type != SSADef.I_COPY || now.block.rpoNr < 0)
+				continue;
+			dst = now.reg0;
+			src = now.reg1;
+			if (!isGPR(dst) || regDefCnt[dst] != 1 || regUseCnt[dst] == 0 || !isStableAt(src, now.instrNr) || !outlives(src, dst, regAlloc[dst]) || !dominates(regDef[src], now))
+				continue;
+			for (use = (SSAoptInstruction) now.next; use != null && use.instrNr < regKill[dst]; use = (SSAoptInstruction) use.next)
+			{
+				if (use.type != I_NONE && dominates(now, use) && replaceUse(use, dst, src))
+				{
+					statCopies++;
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+	
+	private boolean replaceUse(SSAoptInstruction ins, int old, int now)
+	{
+		boolean replaced = false;
+		
+		if (readsReg0(ins.type) && ins.reg0 == old)
+		{
+			ins.reg0 = now;
+			replaced = true;
+		}
+		if (readsReg1(ins.type) && ins.reg1 == old)
+		{
+			ins.reg1 = now;
+			replaced = true;
+		}
+		if (readsReg2(ins.type) && ins.reg2 == old)
+		{
+			ins.reg2 = now;
+			replaced = true;
+		}
+		return replaced;
+	}
+	
+	//replace recalculation of a dominating pure expression by a copy of its result
+	private boolean eliminateCommonSubexpressions(SSAoptInstruction now)
+	{
+		SSAoptInstruction cmp;
+		int key, i;
+		boolean changed = false;
+		
+		for (i = 0; i < HASH_SIZE; i++)
+			exprHash[i] = null;
+		while (now != null)
+		{
+			if (now.block.rpoNr >= 0 && isGPR(now.reg0) && isCSECandidate(now))
+			{
+				key = (now.type * 31 + now.reg1 * 17 + now.reg2 * 7 + now.iPar1 + now.iPar2) & (HASH_SIZE - 1);
+				for (cmp = exprHash[key]; cmp != null; cmp = cmp.nextSame)
+				{
+					if (cmp.type == now.type && cmp.reg1 == now.reg1 && cmp.reg2 == now.reg2 && cmp.iPar1 == now.iPar1 && cmp.iPar2 == now.iPar2 && cmp.type != I_NONE && isGPR(cmp.reg0) && regDefCnt[cmp.reg0] == 1 && !regKillOJmp[cmp.reg0] && regAlloc[cmp.reg0] >= 0 && regAlloc[cmp.reg0] < now.instrNr && now.instrNr < regKill[cmp.reg0] && dominates(cmp, now) && noLoopAround(cmp.instrNr, now.instrNr))
+					{
+						now.iPar1 = getResultSize(now);
+						now.type = SSADef.I_COPY;
+						now.reg1 = cmp.reg0;
+						now.reg2 = now.iPar2 = 0;
+						statCSE++;
+						changed = true;
+						break;
+					}
+				}
+				if (now.type != SSADef.I_COPY)
+				{
+					now.nextSame = exprHash[key];
+					exprHash[key] = now;
+				}
+			}
+			now = (SSAoptInstruction) now.next;
+		}
+		return changed;
+	}
+	
+	//operation without side effects whose operands have a single value at this point
+	private boolean isCSECandidate(SSAoptInstruction ins)
+	{
+		switch (ins.type)
+		{
+			case SSADef.I_AND:
+			case SSADef.I_XOR:
+			case SSADef.I_OR:
+			case SSADef.I_ADD:
+			case SSADef.I_SUB:
+			case SSADef.I_MUL:
+			case SSADef.I_DIV:
+			case SSADef.I_MOD:
+			case SSADef.I_SHL:
+			case SSADef.I_SHRL:
+			case SSADef.I_SHRA:
+			case SSADef.I_DEREF:
+				return isStableAt(ins.reg1, ins.instrNr) && isStableAt(ins.reg2, ins.instrNr);
+			case SSADef.I_LOADaddr:
+			case SSADef.I_CONV:
+			case SSADef.I_NOT:
+			case SSADef.I_NEG:
+			case SSADef.I_BINV:
+				return isStableAt(ins.reg1, ins.instrNr);
+		}
+		return false;
+	}
+	
+	private static int getResultSize(SSAoptInstruction ins)
+	{
+		switch (ins.type)
+		{
+			case SSADef.I_BINV:
+				return 1;
+			case SSADef.I_LOADaddr:
+			case SSADef.I_DEREF:
+				return -1;
+		}
+		return ins.iPar1;
+	}
+	
+	//remove unreachable instructions and calculations whose results are never used
+	private boolean eliminateDeadCode(SSAoptInstruction first)
+	{
+		SSAoptInstruction now, last = null;
+		boolean changed = false;
+		
+		for (now = first; now != null; now = (SSAoptInstruction) now.next)
+		{
+			last = now;
+			if (now.block.rpoNr < 0 && now.type != I_NONE && now.type != SSADef.I_MARKER && now.type != SSADef.I_LEAVE && now.refMthd == null)
+			{
+				kill(now);
+				statUnreachable++;
+				changed = true;
+			}
+		}
+		//backward scan to remove chains of unused calculations at once
+		for (now = last; now != null; now = (SSAoptInstruction) now.prev)
+		{
+			if (isGPR(now.reg0) && regUseCnt[now.reg0] == 0 && isRemovable(now))
+			{
+				if (readsReg1(now.type) && isGPR(now.reg1))
+					regUseCnt[now.reg1]--;
+				if (readsReg2(now.type) && isGPR(now.reg2))
+					regUseCnt[now.reg2]--;
+				kill(now);
+				statDead++;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+	
+	private boolean isRemovable(SSAoptInstruction ins)
+	{
+		switch (ins.type)
+		{
+			case SSADef.I_DIV:
+			case SSADef.I_MOD:
+				return isConst(ins.reg2) && getConst(ins.reg2) != 0l; //division by zero has to be kept
+			case SSADef.I_LOADim_i:
+			case SSADef.I_LOADim_l:
+			case SSADef.I_LOADim_p:
+			case SSADef.I_LOADnp:
+			case SSADef.I_LOADaddr:
+			case SSADef.I_CONV:
+			case SSADef.I_COPY:
+			case SSADef.I_AND:
+			case SSADef.I_XOR:
+			case SSADef.I_OR:
+			case SSADef.I_ADD:
+			case SSADef.I_SUB:
+			case SSADef.I_MUL:
+			case SSADef.I_SHL:
+			case SSADef.I_SHRL:
+			case SSADef.I_SHRA:
+			case SSADef.I_NOT:
+			case SSADef.I_NEG:
+			case SSADef.I_BINV:
+			case SSADef.I_DEREF:
+				return true;
+		}
+		return false;
+	}
+	
+	private boolean isGPR(int reg)
+	{
+		return reg >= SSADef.R_GPRS && reg < regCnt;
+	}
+	
+	private static boolean writesReg0(int type)
+	{
+		switch (type)
+		{
+			case SSADef.I_LOADim_i:
+			case SSADef.I_LOADim_l:
+			case SSADef.I_LOADim_p:
+			case SSADef.I_LOADnp:
+			case SSADef.I_LOADaddr:
+			case SSADef.I_LOADval:
+			case SSADef.I_CONV:
+			case SSADef.I_COPY:
+			case SSADef.I_POP:
+			case SSADef.I_AND:
+			case SSADef.I_XOR:
+			case SSADef.I_OR:
+			case SSADef.I_ADD:
+			case SSADef.I_SUB:
+			case SSADef.I_MUL:
+			case SSADef.I_DIV:
+			case SSADef.I_MOD:
+			case SSADef.I_SHL:
+			case SSADef.I_SHRL:
+			case SSADef.I_SHRA:
+			case SSADef.I_NOT:
+			case SSADef.I_NEG:
+			case SSADef.I_BINV:
+			case SSADef.I_DEREF:
+			case SSADef.I_MOVEMAP:
+			case SSADef.I_IN:
+				return true;
+		}
+		return false;
+	}
+	
+	private static boolean readsReg0(int type)
+	{
+		switch (type)
+		{
+			case SSADef.I_PUSH:
+			case SSADef.I_ASSIGN:
+			case SSADef.I_INCmem:
+			case SSADef.I_DECmem:
+			case SSADef.I_CALL:
+			case SSADef.I_CALLind:
+			case SSADef.I_CMP:
+			case SSADef.I_OUT:
+			case SSADef.I_BOUND:
+			case SSADef.I_STKCHK:
+				return true;
+		}
+		return false;
+	}
+	
+	private static boolean readsReg1(int type)
+	{
+		switch (type)
+		{
+			case SSADef.I_LOADaddr:
+			case SSADef.I_LOADval:
+			case SSADef.I_CONV:
+			case SSADef.I_COPY:
+			case SSADef.I_ASSIGN:
+			case SSADef.I_AND:
+			case SSADef.I_XOR:
+			case SSADef.I_OR:
+			case SSADef.I_ADD:
+			case SSADef.I_SUB:
+			case SSADef.I_MUL:
+			case SSADef.I_DIV:
+			case SSADef.I_MOD:
+			case SSADef.I_SHL:
+			case SSADef.I_SHRL:
+			case SSADef.I_SHRA:
+			case SSADef.I_NOT:
+			case SSADef.I_NEG:
+			case SSADef.I_BINV:
+			case SSADef.I_CMP:
+			case SSADef.I_OUT:
+			case SSADef.I_IN:
+			case SSADef.I_BOUND:
+			case SSADef.I_DEREF:
+				return true;
+		}
+		return false;
+	}
+	
+	private static boolean readsReg2(int type)
+	{
+		switch (type)
+		{
+			case SSADef.I_AND:
+			case SSADef.I_XOR:
+			case SSADef.I_OR:
+			case SSADef.I_ADD:
+			case SSADef.I_SUB:
+			case SSADef.I_MUL:
+			case SSADef.I_DIV:
+			case SSADef.I_MOD:
+			case SSADef.I_SHL:
+			case SSADef.I_SHRL:
+			case SSADef.I_SHRA:
+			case SSADef.I_DEREF:
+				return true;
+		}
+		return false;
 	}
-}
\ No newline at end of file
+}
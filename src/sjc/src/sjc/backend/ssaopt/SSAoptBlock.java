@@ -0,0 +1,74 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.backend.ssaopt;
+
+/**
+ * SSAoptBlock: basic block in the control flow graph of the SSA optimizer
+ *
+ * @version 261018 initial version
+ */
+
+public class SSAoptBlock
+{
+	public SSAoptInstruction first, last;
+	public SSAoptBlock succ1, succ2; //fall through and jump destination
+	public SSAoptBlock[] preds;
+	public int predCnt;
+	public SSAoptBlock idom; //immediate dominator, entry block dominates itself
+	public int rpoNr; //number in reverse post order, -1 if not reachable
+	public int state; //used during depth first search
+	
+	public SSAoptBlock()
+	{
+		preds = new SSAoptBlock[4];
+	}
+	
+	public void reset(SSAoptInstruction start)
+	{
+		first = last = start;
+		succ1 = succ2 = idom = null;
+		predCnt = state = 0;
+		rpoNr = -1;
+	}
+	
+	public void addPred(SSAoptBlock pred)
+	{
+		SSAoptBlock[] tmp;
+		int i;
+		
+		if (predCnt == preds.length)
+		{
+			tmp = new SSAoptBlock[predCnt * 2];
+			for (i = 0; i < predCnt; i++)
+				tmp[i] = preds[i];
+			preds = tmp;
+		}
+		preds[predCnt++] = pred;
+	}
+	
+	public boolean dominates(SSAoptBlock other)
+	{
+		while (other != this)
+		{
+			if (other.idom == other || other.idom == null)
+				return false; //reached entry block or unreachable block
+			other = other.idom;
+		}
+		return true;
+	}
+}
@@ -24,12 +24,15 @@ import sjc.backend.Instruction;
  * SSAoptInstruction: extended instruction for SSA optimizer
  *
  * @author F. Hercher
- * @version 100923 initial version
+ * @version 261018 added block and nextSame used by optimizer passes
+ * version 100923 initial version
  */
 
 public class SSAoptInstruction extends Instruction
 {
 	public boolean moved;
+	public SSAoptBlock block; //basic block containing this instruction
+	public SSAoptInstruction nextSame; //next instruction with the same expression key
 	
 	public SSAoptInstruction(int maxInstrSize)
 	{
@@ -42,5 +45,7 @@ public class SSAoptInstruction extends Instruction
 		
 		super.cleanup();
 		moved = false;
+		block = null;
+		nextSame = null;
 	}
 }
@@ -27,7 +27,8 @@ import sjc.osio.TextPrinter;
  * AMD64: architecture implementation for 64 bit long mode AMD64/EM64T processors
  *
  * @author S. Frenz
- * @version 110223 removed debug code
+ * @version 261018 added support for parallel code generation and jump tables, separated coding of instructions and added PUSHmem and ORmemimm for optimizer, strength reduction of constant multiplications
+ * version 110223 removed debug code
  * version 110222 fixed MOVSX* and MOVZX* instructions for 16 bit register
  * version 110219 fixed MOVSX* and MOVZX* instructions for 16 bit register
  * version 110218 fixed ADDmemimm instruction
@@ -167,6 +168,8 @@ public class AMD64 extends X86Base
 		fullIPChangeBytes = 4;
 		patchedAddPrefix = 0x48;
 		mPtr = REX | RS_E;
+		supportsParallelCodeGen = true;
+		supportsJmpTable = true;
 	}
 	
 	public boolean setParameter(String parm, TextPrinter v)
@@ -1543,6 +1546,13 @@ public class AMD64 extends X86Base
 							case Ops.A_MINUS:
 								ins(I_SUBregimm, dst, 0, 0, val);
 								break;
+							case Ops.A_MUL:
+								if (!genMulConst(dst, val))
+								{
+									super.genBinOpConstRi(dstR, src1R, val, op, type);
+									return;
+								}
+								break;
 							default:
 								super.genBinOpConstRi(dstR, src1R, val, op, type);
 								return;
@@ -1575,6 +1585,23 @@ public class AMD64 extends X86Base
 		super.genBinOpConstRi(dstR, src1R, val, op, type);
 	}
 	
+	//replace multiplication by a power of two with shl, returns false if not possible
+	private boolean genMulConst(int reg, int val)
+	{
+		int shift = 0;
+		
+		if (val <= 0 || (val & (val - 1)) != 0)
+			return false;
+		while (val > 1)
+		{
+			val >>>= 1;
+			shift++;
+		}
+		if (shift != 0)
+			ins(I_SHLregimm, reg, 0, 0, shift);
+		return true;
+	}
+	
 	public void genUnaOp(int dstR, int srcR, int op, int type)
 	{
 		int dst;
@@ -1687,12 +1714,12 @@ public class AMD64 extends X86Base
 		if ((clssReg = getReg(1, clssReg, StdTypes.T_PTR, false)) == 0)
 			return;
 		if (ctx.codeStart == 0)
-			ins(I_CALLmem, clssReg, 0, off);
+			ins(I_CALLmem, clssReg, 0, off, 0, 0l, parSize);
 		else
 		{
 			ins(I_MOVregmem, REX | R_EAX, clssReg, off);
 			ins(I_LEAregmem, REX | R_EAX, REX | R_EAX, ctx.codeStart);
-			ins(I_CALLreg, REX | R_EAX);
+			ins(I_CALLreg, REX | R_EAX, 0, 0, 0, 0l, parSize);
 		}
 	}
 	
@@ -1705,7 +1732,7 @@ public class AMD64 extends X86Base
 		ins(I_MOVindexed, REX | R_EAX, REX | R_EDI); //mov rax,[rdi+rax]
 		if (ctx.codeStart != 0)
 			ins(I_LEAregmem, REX | R_EAX, REX | R_EAX, ctx.codeStart);
-		ins(I_CALLreg, REX | R_EAX);
+		ins(I_CALLreg, REX | R_EAX, 0, 0, 0, 0l, parSize);
 	}
 	
 	public void genCallConst(Mthd mthd, int parSize)
@@ -1821,7 +1848,7 @@ public class AMD64 extends X86Base
 	
 	public void genLoadDerefAddr(int destReg, int objReg, int ind, int baseOffset, int entrySize)
 	{
-		int tmp, tmpRst, indReg;
+		int indReg;
 		if ((destReg = getReg(1, destReg, StdTypes.T_PTR, true)) == 0 || (objReg = getReg(1, objReg, StdTypes.T_PTR, false)) == 0 || (indReg = getReg(1, ind, StdTypes.T_INT, false)) == 0)
 			return;
 		if (entrySize < 0)
@@ -1840,11 +1867,7 @@ public class AMD64 extends X86Base
 				ins(I_LEAarray, destReg, indReg, baseOffset, 0, 0l, entrySize);
 				break;
 			default:
-				tmpRst = prepareFreeReg(ind, 0, 0, StdTypes.T_INT);
-				tmp = allocReg();
-				genLoadConstVal(tmp, entrySize, StdTypes.T_INT);
-				genBinOp(ind, ind, tmp, (Ops.S_ARI << 16) | Ops.A_MUL, StdTypes.T_INT);
-				deallocRestoreReg(tmp, 0, tmpRst);
+				genBinOpConstRi(ind, ind, entrySize, (Ops.S_ARI << 16) | Ops.A_MUL, StdTypes.T_INT);
 				if (destReg != objReg)
 					ins(I_MOVregreg, destReg, objReg);
 				if (baseOffset != 0)
@@ -1853,6 +1876,39 @@ public class AMD64 extends X86Base
 		}
 	}
 	
+	public void genJmpTable(int src, int minVal, Instruction[] dests, Instruction defDest)
+	{
+		Instruction anchor, table;
+		int reg;
+		
+		if (usedRegs != src || (reg = getReg(1, src, StdTypes.T_INT, false)) == 0)
+		{ //src has to be the only allocated register
+			fatalError(ERR_INVREG_GENJMPTABLE);
+			return;
+		}
+		if (reg == R_EBX)
+		{ //ebx is needed for the address of the table
+			ins(I_MOVregreg, R_EAX, R_EBX);
+			reg = R_EAX;
+		}
+		if (minVal != 0)
+			ins(I_SUBregimm, reg, 0, 0, minVal);
+		else
+			ins(I_MOVregreg, reg, reg); //clear upper half of 64 bit register
+		ins(I_CMPregimm, reg, 0, 0, dests.length);
+		insJump(defDest, SC_AE);
+		//get address of selected entry and jump relative to it
+		ins(I_PUSHip);
+		appendInstruction(anchor = getUnlinkedInstruction());
+		ins(I_POPreg, REX | R_EBX);
+		insPatchedAdd(0, anchor, table = getUnlinkedInstruction());
+		ins(I_LEAarray, REX | R_EBX, reg, 0, 0, 0l, 4);
+		ins(I_MOVSXDregmem, REX | reg, REX | R_EBX);
+		ins(I_ADDregreg, REX | R_EBX, REX | reg);
+		ins(I_JMPreg, REX | R_EBX);
+		insJmpTableEntries(table, dests);
+	}
+	
 	public void genMoveToPrimary(int srcR, int type)
 	{
 		int reg;
@@ -2169,15 +2225,27 @@ public class AMD64 extends X86Base
 	protected Instruction ins(int type, int reg0, int reg1, int disp, int imm, long immL, int par)
 	{
 		Instruction i;
+		
+		//get a new instruction and insert it
+		i = getUnlinkedInstruction();
+		i.type = type;
+		appendInstruction(i);
+		code(i, type, reg0, reg1, disp, imm, immL, par);
+		return i;
+	}
+	
+	protected void code(Instruction i, int type, int reg0, int reg1, int disp, int imm, long immL, int par)
+	{
 		int tmp;
 		int wordflag = 0, prefix;
 		boolean sizeprefix = false, rex0, rex1, nrg0, nrg1;
 		
-		//get a new instruction and insert ist
-		i = getUnlinkedInstruction();
-		appendInstruction(i);
+		//if instruction has a refObj, it is already coded
+		if (i.refMthd != null)
+			return;
 		//get parameters and remember them
-		i.type = type;
+		if (type <= 0)
+			return; //not a "real" instruction that has to be coded
 		i.reg0 = reg0;
 		i.reg1 = reg1;
 		i.iPar1 = disp;
@@ -2313,11 +2381,21 @@ public class AMD64 extends X86Base
 				putPrefix(i, sizeprefix, false, false, nrg0);
 				i.putByte(0x58 | (reg0 >>> 4));
 				break;
+			case I_PUSHmem: //only used in optimizer
+				putPrefix(i, false, false, false, nrg0);
+				i.putByte(0xFF);
+				putMem(i, 0x60, reg0, disp);
+				break;
 			case I_CALLreg:
 				putPrefix(i, false, false, nrg0, false);
 				i.putByte(0xFF);
 				i.putByte(0xD0 | (reg0 >>> 4));
 				break;
+			case I_JMPreg:
+				putPrefix(i, false, false, false, nrg0);
+				i.putByte(0xFF);
+				i.putByte(0xE0 | (reg0 >>> 4));
+				break;
 			case I_CALLmem:
 				putPrefix(i, false, false, nrg0, false);
 				i.putByte(0xFF);
@@ -2442,6 +2520,10 @@ public class AMD64 extends X86Base
 				i.putByte(0x08 | wordflag);
 				putMem(i, reg1, reg0, disp);
 				break;
+			case I_ORmemimm: //only used in optimizer
+				putPrefix(i, false, par == 8, false, nrg0);
+				codeAriMemImm(i, 0x10, reg0, disp, imm, par);
+				break;
 			case I_ORregmem: //only used in optimizer
 				putPrefix(i, sizeprefix, rex0, nrg0, nrg1);
 				i.putByte(0x0A | wordflag);
@@ -2785,10 +2867,7 @@ public class AMD64 extends X86Base
 				break;
 			default:
 				fatalError(ERR_INVINS_CODE);
-				return null;
 		}
-		//everything ok
-		return i;
 	}
 	
 	private void codeAriRegImm(Instruction i, int code, boolean sizeprefix, int wordflag, int reg0, boolean rex0, boolean nrg0, int imm)
@@ -0,0 +1,1145 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.backend.x86;
+
+import sjc.backend.Architecture;
+import sjc.backend.Instruction;
+import sjc.compbase.Marks;
+import sjc.compbase.Mthd;
+import sjc.compbase.StdTypes;
+
+/**
+ * AMD64Opti: architecture implementation for optimized 64 bit long mode AMD64/EM64T processors
+ *
+ * @version 261018 initial version based on IA32Opti
+ */
+
+public class AMD64Opti extends AMD64
+{
+	//register masks for calls: rax, rcx, rdx, rbx and r8..r15 are destroyed, rsp, rbp, rsi and rdi are read
+	//calls through register or memory may be native calls with parameters in rdi, rsi, rdx, rcx, r8 and r9
+	private final static int CALL_DESTROYS = 0xFF0F << 16;
+	private final static int CALL_READS = 0x00F0;
+	private final static int CALL_READS_NATIVE = 0x0306;
+	
+	//statistics
+	private int statMthds, statBytesBefore, statBytesAfter, statInstr, statJumps;
+	
+	public void finalizeInstructions(Instruction first)
+	{
+		Instruction now;
+		boolean redo;
+		int jumps = 0;
+		
+		if ((mthdContainer.marker & Marks.K_NOPT) == 0)
+		{ //get size of unoptimized code for statistics
+			statMthds++;
+			now = first;
+			while (now != null)
+			{
+				switch (now.type)
+				{
+					case I_JUMP:
+						jumps++;
+						break;
+					case I_NONE:
+					case I_ADDpatched:
+					case I_IHELPER:
+					case I_STEXreg:
+					case I_JTENTRY:
+						break;
+					default:
+						if (now.type > 0 && now.refMthd == null)
+						{
+							now.size = 0;
+							code(now, now.type, now.reg0, now.reg1, now.iPar1, now.iPar2, now.lPar, now.iPar3);
+						}
+						statBytesBefore += now.size;
+						statInstr++;
+				}
+				now = now.next;
+			}
+		}
+		//optimize
+		optimize(first); //will also print the code if requested
+		//code instructions
+		now = first;
+		while (now != null)
+		{
+			switch (now.type)
+			{
+				case I_JUMP:
+					jumps--; //jump still existing
+					break;
+				case I_NONE:
+				case I_ADDpatched:
+				case I_IHELPER:
+				case I_JTENTRY:
+					break;
+				case I_STEXreg:
+					fixStackExtremeAdd(now);
+					break;
+				default:
+					if (now.type > 0 && now.refMthd == null)
+					{
+						now.size = 0;
+						code(now, now.type, now.reg0, now.reg1, now.iPar1, now.iPar2, now.lPar, now.iPar3);
+					}
+					if ((mthdContainer.marker & Marks.K_NOPT) == 0)
+					{
+						statBytesAfter += now.size;
+						statInstr--;
+					}
+			}
+			now = now.next;
+		}
+		if ((mthdContainer.marker & Marks.K_NOPT) == 0)
+			statJumps += jumps;
+		//fix jumps
+		do
+		{
+			now = first;
+			redo = false;
+			while (now != null)
+			{
+				if (now.type == I_JUMP)
+					redo |= fixJump(now);
+				else if (now.type == I_ADDpatched)
+				{
+					redo |= fixAdd(now);
+					now = now.next; //skip I_IHELPER
+				}
+				else if (now.type == I_JTENTRY)
+					fixJmpTableEntry(now);
+				now = now.next;
+			}
+		} while (redo);
+		//print final disassembly if requested
+		if ((mthdContainer.marker & Marks.K_PRCD) != 0 || ctx.printCode)
+			printCode(ctx.out, first, "postOpt", false);
+	}
+	
+	public void printStatistics()
+	{
+		ctx.out.print("AMD64 optimizer processed ");
+		ctx.out.print(statMthds);
+		ctx.out.println(" methods:");
+		ctx.out.print("  instruction bytes:      ");
+		ctx.out.print(statBytesBefore);
+		ctx.out.print(" b before, ");
+		ctx.out.print(statBytesAfter);
+		ctx.out.print(" b after (saved ");
+		ctx.out.print(statBytesBefore - statBytesAfter);
+		ctx.out.println(" b)");
+		ctx.out.print("  removed instructions:   ");
+		ctx.out.print(statInstr);
+		ctx.out.print(" plus ");
+		ctx.out.print(statJumps);
+		ctx.out.println(" jumps");
+	}
+	
+	public void mergeStatistics(Architecture worker)
+	{
+		AMD64Opti other = (AMD64Opti) worker;
+		
+		statMthds += other.statMthds;
+		statBytesBefore += other.statBytesBefore;
+		statBytesAfter += other.statBytesAfter;
+		statInstr += other.statInstr;
+		statJumps += other.statJumps;
+		other.statMthds = other.statBytesBefore = other.statBytesAfter = other.statInstr = other.statJumps = 0;
+	}
+	
+	public void insPatchedCall(Mthd refMthd, int par)
+	{
+		Instruction i;
+		
+		//get a new instruction and insert it
+		appendInstruction(i = getUnlinkedInstruction());
+		i.type = I_CALLimm;
+		i.refMthd = refMthd;
+		//code instruction
+		i.putByte(0xE8);
+		i.size += fullIPChangeBytes;
+		addToCodeRefFixupList(i, 1);
+		i.reg2 = CALL_DESTROYS | CALL_READS;
+		i.iPar3 = par;
+	}
+	
+	protected Instruction ins(int type, int reg0, int reg1, int disp, int imm, long immL, int par)
+	{
+		Instruction i;
+		
+		//get a new instruction and insert it, coding is done in finalizeInstructions
+		i = getUnlinkedInstruction();
+		appendInstruction(i);
+		set(i, type, reg0, reg1, disp, imm, immL, par);
+		return i;
+	}
+	
+	private int regBit(int r)
+	{
+		return ((r >>> 4) & 0x07) | ((r >>> 5) & 0x08); //R8..R15 are marked by NRG
+	}
+	
+	private int readReg(int r)
+	{
+		if (r == 0)
+			return 0;
+		return 0x00000001 << regBit(r);
+	}
+	
+	private int writeReg(int r)
+	{
+		if (r == 0)
+			return 0;
+		if ((r & RS_E) != RS_E) //8 and 16 bit writes keep the remaining bits of the register
+			return 0x00010001 << regBit(r);
+		return 0x00010000 << regBit(r);
+	}
+	
+	private boolean isRead(Instruction i, int r)
+	{
+		if (r == 0)
+			return false;
+		return (i.reg2 & (0x00000001 << regBit(r))) != 0;
+	}
+	
+	private boolean isWrite(Instruction i, int r)
+	{
+		if (r == 0)
+			return false;
+		return (i.reg2 & (0x00010000 << regBit(r))) != 0;
+	}
+	
+	private boolean sameReg(int r1, int r2)
+	{
+		return r1 != 0 && r2 != 0 && regBit(r1) == regBit(r2);
+	}
+	
+	private int getRegSize(int r)
+	{
+		switch (r & RS_E)
+		{
+			case RS_L:
+				return 1;
+			case RS_X:
+				return 2;
+		}
+		return (r & REX) != 0 ? 8 : 4;
+	}
+	
+	private boolean isRegisterFixed(Instruction i)
+	{
+		switch (i.type)
+		{
+			case I_OUTreg:
+			case I_INreg:
+			case I_SHLmemreg:
+			case I_SHRmemreg:
+			case I_SARmemreg:
+			case I_SHLregmem:
+			case I_SHRregmem:
+			case I_SARregmem:
+			case I_CALLreg:
+			case I_CALLmem:
+			case I_IMULreg:
+			case I_IDIVreg:
+			case I_SHLregreg:
+			case I_SHRregreg:
+			case I_SARregreg:
+			case I_SHLregimm:
+			case I_SHRregimm:
+			case I_SARregimm:
+			case I_CBW:
+			case I_CWD:
+			case I_CDQ:
+			case I_CQO:
+			case I_CDQE:
+			case I_XCHGregreg:
+			case I_LEAarray:
+			case I_MOVindexed:
+			case I_ADDpatched:
+			case I_STEXreg:
+			case I_JMPreg:
+				return true;
+		}
+		return false;
+	}
+	
+	private void set(Instruction i, int type, int reg0, int reg1, int disp, int imm, long immL, int par)
+	{
+		if (i.refMthd != null)
+		{
+			fatalError("instruction to be set has refMthd!=null");
+			return;
+		}
+		switch (i.type = type)
+		{
+			//standard instructions
+			case I_MOVregreg:
+			case I_MOVregmem:
+			case I_MOVSXregreg:
+			case I_MOVSXregmem:
+			case I_MOVZXregreg:
+			case I_MOVZXregmem:
+			case I_MOVSXDregreg:
+			case I_MOVSXDregmem:
+			case I_LEAregmem:
+				i.reg2 = writeReg(reg0) | readReg(reg1);
+				break;
+			case I_MOVmemreg:
+			case I_ADDmemreg:
+			case I_SUBmemreg:
+			case I_ANDmemreg:
+			case I_XORmemreg:
+			case I_ORmemreg:
+			case I_CMPmemreg:
+			case I_CMPregreg:
+			case I_CMPregmem:
+				i.reg2 = readReg(reg0) | readReg(reg1);
+				break;
+			case I_OUTreg:
+				i.reg2 = readReg(R_EDX) | readReg(R_EAX);
+				break;
+			case I_INreg:
+				i.reg2 = readReg(R_EDX) | writeReg(reg0);
+				break;
+			case I_MOVregimm:
+			case I_MOVregimmL:
+				i.reg2 = writeReg(reg0);
+				break;
+			case I_MOVmemimm:
+			case I_PUSHmem:
+			case I_ADDmemimm:
+			case I_SUBmemimm:
+			case I_ANDmemimm:
+			case I_XORmemimm:
+			case I_ORmemimm:
+			case I_INCmem:
+			case I_DECmem:
+			case I_CMPregimm:
+			case I_CMPmemimm:
+				i.reg2 = readReg(reg0);
+				break;
+			case I_SHLmemreg:
+			case I_SHRmemreg:
+			case I_SARmemreg:
+				i.reg2 = readReg(reg0) | readReg(R_ECX);
+				break;
+			case I_SHLregmem:
+			case I_SHRregmem:
+			case I_SARregmem:
+				i.reg2 = -1;
+				break;
+			case I_CALLreg:
+			case I_CALLmem:
+				i.reg2 = CALL_DESTROYS | CALL_READS | CALL_READS_NATIVE | readReg(reg0);
+				break;
+			case I_JMPreg:
+				i.reg2 = 0x0000FFFF; //destinations of jump table are not known, treat as "reading all registers"
+				break;
+			case I_PUSHreg:
+				i.reg2 = readReg(reg0) | writeReg(R_ESP) | readReg(R_ESP);
+				break;
+			case I_PUSHimm:
+			case I_PUSHip:
+			case I_PUSHF:
+			case I_POPF:
+				i.reg2 = writeReg(R_ESP) | readReg(R_ESP);
+				break;
+			case I_POPreg:
+				i.reg2 = writeReg(reg0) | readReg(R_ESP) | writeReg(R_ESP);
+				break;
+			case I_RETimm:
+				switch (curMthd.retRegType)
+				{
+					case 0:
+						i.reg2 = 0;
+						break;
+					case StdTypes.T_BOOL:
+					case StdTypes.T_BYTE:
+					case StdTypes.T_SHRT:
+					case StdTypes.T_CHAR:
+					case StdTypes.T_INT:
+					case StdTypes.T_LONG:
+					case StdTypes.T_PTR:
+						i.reg2 = readReg(R_EAX);
+						break;
+					case StdTypes.T_DPTR:
+						i.reg2 = readReg(R_EAX) | readReg(R_EDX);
+						break;
+					case StdTypes.T_FLT:
+					case StdTypes.T_DBL:
+						i.reg2 = 0; //result is on fpu-stack
+						break;
+					default:
+						fatalError("invalid return-type");
+						break;
+				}
+				i.reg2 |= readReg(R_ESP) | writeReg(R_ESP);
+				break;
+			case I_IRET:
+				i.reg2 = readReg(R_ESP) | writeReg(R_ESP);
+				break;
+			case I_ADDregreg:
+			case I_SUBregreg:
+			case I_ANDregreg:
+			case I_ORregreg:
+			case I_ADDregmem:
+			case I_SUBregmem:
+			case I_ANDregmem:
+			case I_XORregmem:
+			case I_ORregmem:
+			case I_LEAarray: //will result in lea reg0,[reg0+reg1*par+disp] (only for pointers!)
+			case I_MOVindexed: //will result in mov reg0,[reg0+reg1] (only for pointers!)
+				i.reg2 = writeReg(reg0) | readReg(reg0) | readReg(reg1);
+				break;
+			case I_XORregreg:
+				if (reg0 == reg1)
+					i.reg2 = writeReg(reg0);
+				else
+					i.reg2 = writeReg(reg0) | readReg(reg0) | readReg(reg1);
+				break;
+			case I_ADDregimm:
+			case I_SUBregimm:
+			case I_ANDregimm:
+			case I_XORregimm:
+			case I_ORregimm:
+			case I_SHLregimm:
+			case I_SHRregimm:
+			case I_SARregimm:
+			case I_NEGreg:
+			case I_NOTreg:
+			case I_STEXreg:
+				i.reg2 = writeReg(reg0) | readReg(reg0);
+				break;
+			case I_IMULreg:
+				i.reg2 = writeReg(R_EAX) | writeReg(R_EDX) | readReg(R_EAX) | readReg(reg0);
+				break;
+			case I_IDIVreg:
+				i.reg2 = writeReg(R_EAX) | writeReg(R_EDX) | readReg(R_EAX) | readReg(R_EDX) | readReg(reg0);
+				break;
+			case I_XCHGregreg:
+				i.reg2 = writeReg(reg0) | writeReg(reg1) | readReg(reg0) | readReg(reg1);
+				break;
+			case I_SHLregreg:
+			case I_SHRregreg:
+			case I_SARregreg:
+				i.reg2 = writeReg(reg0) | readReg(reg0) | readReg(R_ECX);
+				break;
+			case I_CBW:
+				i.reg2 = writeReg(R_AX) | readReg(R_EAX);
+				break;
+			case I_CWD:
+				i.reg2 = writeReg(R_DX) | readReg(R_EAX);
+				break;
+			case I_CDQ:
+			case I_CQO:
+				i.reg2 = writeReg(R_EDX) | readReg(R_EAX);
+				break;
+			case I_CDQE:
+				i.reg2 = writeReg(R_EAX) | readReg(R_EAX);
+				break;
+			case I_BOUNDEXC:
+			case I_RETMSEXC:
+			case I_MARKER:
+				i.reg2 = 0;
+				break;
+			//floating point instructions
+			case I_FLDmem:
+			case I_FSTPmem:
+			case I_FILDmem:
+			case I_FISTTPmem:
+				i.reg2 = readReg(reg0);
+				break;
+			case I_FCHS:
+			case I_FADDP:
+			case I_FSUBP:
+			case I_FMULP:
+			case I_FDIVP:
+			case I_FDUP:
+			case I_FXCH:
+			case I_FFREE:
+			case I_FINCSTP:
+			case I_FCOMIP:
+				i.reg2 = 0;
+				break;
+			default:
+				fatalError("invalid instruction type for ins(.)");
+				return;
+		}
+		i.reg0 = reg0;
+		i.reg1 = reg1;
+		i.iPar1 = disp;
+		i.iPar2 = imm;
+		i.lPar = immL;
+		i.iPar3 = par;
+	}
+	
+	private void set(Instruction i, int type, int reg0, int reg1, int disp, int imm, int par)
+	{
+		set(i, type, reg0, reg1, disp, imm, 0l, par);
+	}
+	
+	//code optimization
+	private void optimize(Instruction first)
+	{
+		Instruction now, tmp, tmp2;
+		int size, loopCnt = 0;
+		boolean redo = true;
+		
+		if ((mthdContainer.marker & Marks.K_NOPT) != 0)
+			return; //optimizations prohibited
+		
+		while (redo)
+		{
+			//print disassembly if wanted
+			if ((mthdContainer.marker & Marks.K_PRCD) != 0 || ctx.printCode)
+			{
+				ctx.out.print("//preOpt before optimizing loop ");
+				ctx.out.println(++loopCnt);
+				printCode(ctx.out, first, "preOpt", false);
+			}
+			
+			redo = false;
+			//try to eliminate jumps and reset jump destination marks
+			now = first;
+			while (now != null)
+			{
+				if (now.type == I_JUMP && isUntilNextRealIns(now.next, now.jDest))
+				{ //do not jump to next instruction
+					kill(now);
+					redo = true;
+				}
+				now.isDest = false;
+				now = now.next;
+			}
+			//locate jump-destinations
+			now = first;
+			while (now != null)
+			{
+				if (now.type == I_JUMP || now.type == I_ADDpatched || now.type == I_IHELPER || now.type == I_JTENTRY)
+					now.jDest.isDest = true;
+				now = now.next;
+			}
+			//try to eliminate effectless opcodes
+			now = first;
+			while (now != null)
+			{
+				if (now.type != I_NONE)
+				{
+					if (effectlessWrite(now))
+					{
+						kill(now);
+						redo = true;
+					}
+					else if (now.type == I_POPreg && (tmp = searchCorrespPush(now)) != null && tryReplacePushPop(tmp, now))
+						redo = true;
+				}
+				now = now.next;
+			}
+			//try to merge opcodes
+			now = first;
+			while (now != null)
+			{
+				switch (now.type)
+				{
+					case I_MOVregimm:
+						if ((tmp = searchCorrespReadAfter(now, now.reg0, false)) == null || hasReadAfter(tmp, now.reg0))
+							break;
+						switch (tmp.type)
+						{
+							case I_MOVmemreg:
+								if (sameReg(tmp.reg1, now.reg0) && !sameReg(tmp.reg0, now.reg0))
+								{
+									//immediate of MOVmemimm is sign extended, value of MOVregimm is zero extended
+									if ((size = getRegSize(tmp.reg1)) <= getRegSize(now.reg0) || (size == 8 && getRegSize(now.reg0) == 4 && now.iPar2 >= 0))
+									{
+										set(tmp, I_MOVmemimm, tmp.reg0, 0, tmp.iPar1, now.iPar2, size);
+										kill(now);
+										redo = true;
+									}
+								}
+								else if (sameReg(tmp.reg0, now.reg0) && !sameReg(tmp.reg1, now.reg0) && getRegSize(now.reg0) == 4 && now.iPar2 >= 0 && (long) tmp.iPar1 + (long) now.iPar2 <= 0x7FFFFFFFl)
+								{ //absolute addresses are sign extended, too
+									set(tmp, I_MOVmemreg, 0, tmp.reg1, tmp.iPar1 + now.iPar2, 0, 0);
+									kill(now);
+									redo = true;
+								}
+								break;
+							case I_MOVregreg:
+							case I_ADDregreg:
+							case I_SUBregreg:
+							case I_ANDregreg:
+							case I_XORregreg:
+							case I_ORregreg:
+							case I_CMPregreg:
+								if (tmp.reg1 != now.reg0 || sameReg(tmp.reg0, now.reg0))
+									break;
+								set(tmp, (tmp.type & ~IM_P1) | I_imm1, tmp.reg0, 0, 0, now.iPar2, 0);
+								kill(now);
+								redo = true;
+								break;
+							case I_SHLregreg:
+							case I_SHRregreg:
+							case I_SARregreg:
+								if (!sameReg(now.reg0, R_ECX) || sameReg(tmp.reg0, R_ECX))
+									break;
+								set(tmp, (tmp.type & ~IM_P1) | I_imm1, tmp.reg0, 0, 0, now.iPar2 & 0xFF, 0);
+								kill(now);
+								redo = true;
+								break;
+							case I_PUSHreg:
+								//push sign extends the immediate, so only positive values are pushed identically
+								if (getRegSize(now.reg0) != 4 || (tmp.reg0 & RS_E) != RS_E || now.iPar2 < 0)
+									break;
+								set(tmp, I_PUSHimm, 0, 0, 0, now.iPar2, 0);
+								kill(now);
+								redo = true;
+								break;
+						}
+						break;
+					case I_MOVregmem:
+						if (searchCorrespReadAfter(now, now.reg1, false) == null && (tmp = searchCorrespImmWriteBefore(now, now.reg1)) != null && tmp.type == I_MOVregreg && tmp.reg0 == now.reg1 && getRegSize(tmp.reg0) == 8 && getRegSize(tmp.reg1) == 8)
+						{
+							set(now, I_MOVregmem, now.reg0, tmp.reg1, now.iPar1, 0, 0);
+							redo = true;
+						}
+						break;
+					case I_MOVregreg:
+						if (now.reg0 == now.reg1)
+						{
+							if (getRegSize(now.reg0) != 4)
+							{ //32 bit moves clear the upper half of the register and are not effectless
+								kill(now);
+								redo = true;
+							}
+						}
+						else if (getRegSize(now.reg0) == getRegSize(now.reg1) && (tmp = searchCorrespImmWriteBefore(now, now.reg1)) != null && tmp.reg0 == now.reg1)
+							switch (tmp.type)
+							{
+								case I_MOVregreg:
+								case I_MOVregmem:
+								case I_MOVregimm:
+									//tmp is mov reg,*
+									if ((tmp2 = searchCorrespReadAfter(now, now.reg1, true)) == null)
+									{
+										//no read after now => replace destination of tmp and remove now
+										if (tmp.type == I_MOVregimm && getRegSize(now.reg0) == 8)
+											break; //there is no sign extending mov-immediate
+										set(tmp, tmp.type, now.reg0, tmp.reg1, tmp.iPar1, tmp.iPar2, tmp.iPar3);
+										kill(now);
+										redo = true;
+									}
+									else if (!tmp2.isDest && tmp2.type > 0 && tmp2.refMthd == null && !isRegisterFixed(tmp2) && !isWrite(tmp2, now.reg1) && isExactUse(tmp2, now.reg1) && searchCorrespReadAfter(tmp2, now.reg1, true) == null && searchCorrespWriteBefore(tmp2, now.reg0) == now)
+									{
+										//tmp is mov reg1,*; now is mov reg2,reg1; tmp2 is read of reg1
+										//after tmp2 there is no access to reg1
+										//=> replace destination of tmp, remove now and change register of tmp2
+										if (tmp.type == I_MOVregimm && getRegSize(now.reg0) == 8)
+											break; //there is no sign extending mov-immediate
+										if (tmp2.reg0 == tmp.reg0)
+											tmp2.reg0 = now.reg0;
+										if (tmp2.reg1 == tmp.reg0)
+											tmp2.reg1 = now.reg0;
+										set(tmp, tmp.type, now.reg0, tmp.reg1, tmp.iPar1, tmp.iPar2, tmp.iPar3);
+										set(tmp2, tmp2.type, tmp2.reg0, tmp2.reg1, tmp2.iPar1, tmp2.iPar2, tmp2.lPar, tmp2.iPar3);
+										kill(now);
+										redo = true;
+									}
+									//else: no optimization strategy available
+									break;
+							}
+						break;
+					case I_PUSHreg:
+						if ((now.reg0 & RS_E) != RS_E || (tmp = searchCorrespImmWriteBefore(now, now.reg0)) == null || hasReadAfter(now, now.reg0))
+							break;
+						switch (tmp.type)
+						{
+							case I_POPreg:
+								if ((tmp.reg0 & RS_E) != RS_E || !sameReg(tmp.reg0, now.reg0))
+									break;
+								kill(now);
+								kill(tmp);
+								redo = true;
+								break;
+							case I_MOVregimm:
+								if (getRegSize(tmp.reg0) != 4 || tmp.iPar2 < 0)
+									break;
+								set(tmp, I_PUSHimm, 0, 0, 0, tmp.iPar2, 0);
+								kill(now);
+								redo = true;
+								break;
+							case I_MOVregmem:
+								if (getRegSize(tmp.reg0) != 8 || sameReg(tmp.reg1, R_ESP))
+									break;
+								set(now, I_PUSHmem, tmp.reg1, 0, tmp.iPar1, 0, 0);
+								kill(tmp);
+								redo = true;
+								break;
+							case I_XORregreg:
+								if (tmp.reg0 != tmp.reg1 || (tmp2 = nextRealIns(now)) == null || tmp2.type == I_JUMP)
+									break; //keep flags for following jump
+								set(now, I_PUSHimm, 0, 0, 0, 0, 0);
+								kill(tmp);
+								redo = true;
+								break;
+						}
+						break;
+					case I_INCmem:
+					case I_DECmem:
+						if ((tmp = searchCorrespImmWriteBefore(now, now.reg0)) == null || tmp.type != I_LEAregmem || tmp.reg0 != now.reg0 || !isFullAddress(tmp) || hasReadAfter(now, now.reg0))
+							break;
+						set(now, now.type, tmp.reg1, 0, tmp.iPar1 + now.iPar1, 0, now.iPar3);
+						kill(tmp);
+						redo = true;
+						break;
+					case I_ADDregimm:
+					case I_SUBregimm:
+					case I_ANDregimm:
+					case I_XORregimm:
+					case I_ORregimm:
+						if (tryMergeAriImm(now))
+							redo = true;
+						break;
+					case I_ADDregreg:
+					case I_SUBregreg:
+					case I_ANDregreg:
+					case I_CMPregreg:
+						if (tryMergeAriReg(now))
+							redo = true;
+						break;
+					case I_XORregreg:
+					case I_ORregreg:
+						if (now.reg0 != now.reg1 && tryMergeAriReg(now))
+							redo = true;
+						break;
+					case I_LEAregmem:
+						if (!isFullAddress(now) || (tmp = searchCorrespReadAfter(now, now.reg0, false)) == null || mayBeWritten(now, tmp, now.reg1) != null || hasReadAfter(tmp, now.reg0))
+							break;
+						switch (tmp.type)
+						{
+							case I_MOVmemreg:
+								if (tmp.reg0 == now.reg0 && !sameReg(tmp.reg1, now.reg0))
+								{
+									set(tmp, I_MOVmemreg, now.reg1, tmp.reg1, now.iPar1 + tmp.iPar1, 0, 0);
+									kill(now);
+									redo = true;
+								}
+								break;
+							case I_MOVregmem:
+							case I_MOVSXregmem:
+							case I_MOVZXregmem:
+								if (tmp.reg1 == now.reg0)
+								{
+									set(tmp, tmp.type, tmp.reg0, now.reg1, now.iPar1 + tmp.iPar1, 0, tmp.iPar3);
+									kill(now);
+									redo = true;
+								}
+								break;
+							case I_MOVmemimm:
+							case I_ADDmemimm:
+							case I_SUBmemimm:
+							case I_ANDmemimm:
+							case I_XORmemimm:
+							case I_ORmemimm:
+							case I_INCmem:
+							case I_DECmem:
+								if (tmp.reg0 == now.reg0 && validMemImm(now.reg1, tmp.iPar3))
+								{
+									set(tmp, tmp.type, now.reg1, 0, now.iPar1 + tmp.iPar1, tmp.iPar2, tmp.iPar3);
+									kill(now);
+									redo = true;
+								}
+								break;
+							case I_LEAregmem:
+								if (tmp.reg0 == now.reg0 && tmp.reg1 == now.reg0)
+								{
+									set(tmp, I_LEAregmem, now.reg0, now.reg1, now.iPar1 + tmp.iPar1, 0, 0);
+									kill(now);
+									redo = true;
+								}
+								break;
+							case I_FLDmem:
+							case I_FILDmem:
+							case I_FSTPmem:
+							case I_FISTTPmem:
+								if (tmp.reg0 == now.reg0)
+								{
+									set(tmp, tmp.type, now.reg1, 0, now.iPar1 + tmp.iPar1, 0, tmp.iPar3);
+									kill(now);
+									redo = true;
+								}
+								break;
+						}
+						break;
+					case I_FXCH:
+						if (now.prev != null && now.prev.type == I_FLDmem && (tmp = now.prev.prev) != null && tmp.type == I_FLDmem && !now.isDest && !now.prev.isDest)
+						{
+							//found sequence: fld(1) ; fld(2) ; fxch
+							//convert to: nop ; fld(2) ; fld(1)
+							set(now, I_FLDmem, tmp.reg0, 0, tmp.iPar1, 0, tmp.iPar3);
+							kill(tmp);
+							redo = true;
+						}
+						break;
+				}
+				now = now.next;
+			}
+		}
+	}
+	
+	private boolean isFullAddress(Instruction lea)
+	{
+		//lea with 32 bit base register is coded with address size prefix and must not be merged into 64 bit address
+		return (lea.reg0 & (REX | RS_E)) == (REX | RS_E) && (lea.reg1 & REX) != 0;
+	}
+	
+	private boolean validMemImm(int base, int size)
+	{
+		//16 bit memory-immediate-instructions with new registers as base would get prefixes in wrong order
+		return size != 2 || (base & NRG) == 0;
+	}
+	
+	private boolean isExactUse(Instruction i, int reg)
+	{
+		//all accesses to reg in i have to use the same size to allow renaming
+		if (sameReg(i.reg0, reg) && i.reg0 != reg)
+			return false;
+		if (sameReg(i.reg1, reg) && i.reg1 != reg)
+			return false;
+		return true;
+	}
+	
+	private boolean tryMergeAriReg(Instruction now)
+	{
+		Instruction tmp;
+		int destType = (now.type & ~IM_P1) | I_mem1;
+		
+		if ((tmp = searchCorrespImmWriteBefore(now, now.reg1)) == null || tmp.type != I_MOVregmem || tmp.reg0 != now.reg1 || sameReg(now.reg0, now.reg1) || hasReadAfter(now, now.reg1))
+			return false;
+		set(now, destType, now.reg0, tmp.reg1, tmp.iPar1, 0, 0);
+		kill(tmp);
+		return true;
+	}
+	
+	private boolean tryMergeAriImm(Instruction now)
+	{
+		Instruction tmp1, tmp2;
+		int destType = (now.type & ~IM_P0) | I_mem0;
+		boolean flag;
+		
+		if ((tmp1 = searchCorrespImmWriteBefore(now, now.reg0)) == null || tmp1.type != I_MOVregmem || (tmp2 = nextRealIns(now)) == null || tmp2.isDest)
+			return false;
+		if (tmp2.type != I_MOVmemreg || tmp1.reg0 != tmp2.reg1 || tmp1.reg0 != now.reg0 || tmp1.reg1 != tmp2.reg0 || tmp1.iPar1 != tmp2.iPar1 || sameReg(tmp1.reg1, now.reg0) || !validMemImm(tmp1.reg1, getRegSize(now.reg0)))
+			return false;
+		flag = hasReadAfter(tmp2, now.reg0);
+		set(now, destType, tmp1.reg1, 0, tmp1.iPar1, now.iPar2, getRegSize(now.reg0));
+		if (flag)
+			set(tmp2, tmp1.type, tmp1.reg0, tmp1.reg1, tmp1.iPar1, tmp1.iPar2, tmp1.iPar3);
+		else
+			kill(tmp2);
+		kill(tmp1);
+		return true;
+	}
+	
+	private Instruction nextRealIns(Instruction i)
+	{
+		i = i.next;
+		while (i != null && i.type == I_NONE && !i.isDest)
+			i = i.next;
+		return i;
+	}
+	
+	private Instruction searchCorrespPush(Instruction now)
+	{
+		int popCnt = 0;
+		
+		while (now != null)
+		{
+			if (now.isDest || now.type < 0)
+				return null;
+			switch (now.type)
+			{
+				case I_CALLimm:
+				case I_CALLreg:
+				case I_CALLmem:
+					popCnt += now.iPar3 >>> 3;
+					break;
+				case I_PUSHreg:
+				case I_PUSHimm:
+				case I_PUSHmem:
+				case I_PUSHip:
+					if (--popCnt <= 0)
+					{
+						if (popCnt == 0)
+							return now;
+						return null;
+					}
+					break;
+				case I_POPreg:
+					popCnt++;
+					break;
+				default:
+					if (isRead(now, R_ESP) || isWrite(now, R_ESP))
+						return null;
+			}
+			now = now.prev;
+		}
+		return null;
+	}
+	
+	private boolean tryReplacePushPop(Instruction push, Instruction pop)
+	{
+		Instruction writer;
+		
+		if ((pop.reg0 & RS_E) != RS_E)
+			return false;
+		switch (push.type)
+		{
+			case I_PUSHreg:
+				if (!sameReg(push.reg0, pop.reg0) || (push.reg0 & RS_E) != RS_E)
+					break;
+				if ((writer = mayBeWritten(push, pop, pop.reg0)) == null)
+				{ //no writer between push and pop
+					kill(pop);
+					kill(push);
+					return true;
+				}
+				switch (writer.type)
+				{ //try to replace
+					case I_CALLreg:
+					case I_CALLmem:
+					case I_CALLimm:
+						if (hasReadAfter(writer, pop.reg0) || (writer = searchCorrespWriteBefore(push, push.reg0)) == null || writer.type != I_LEAregmem || !sameReg(writer.reg0, push.reg0) || (writer.reg0 & RS_E) != RS_E || (!sameReg(writer.reg1, R_EBP) && !sameReg(writer.reg1, R_ESI) && !sameReg(writer.reg1, R_EDI)))
+							break;
+						kill(push);
+						set(pop, I_LEAregmem, writer.reg0, writer.reg1, writer.iPar1, writer.iPar2, writer.iPar3);
+						//lea will be removed in next optimize-run if not needed anymore
+						return true;
+				}
+				break;
+			case I_PUSHimm:
+				if (push.iPar2 < 0)
+					break; //push sign extends, mov to 32 bit register zero extends
+				set(pop, I_MOVregimm, pop.reg0 & ~REX, 0, 0, push.iPar2, 0);
+				kill(push);
+				return true;
+		}
+		return false;
+	}
+	
+	private Instruction searchCorrespImmWriteBefore(Instruction i, int reg)
+	{
+		if (i.isDest || i.type < 0)
+			return null;
+		i = i.prev;
+		while (i != null)
+		{
+			if (i.isDest || i.type < 0)
+				return null;
+			switch (i.type)
+			{
+				case I_NONE:
+					break;
+				case I_CALLimm:
+				case I_CALLreg:
+				case I_CALLmem:
+					return null;
+				default:
+					if (isWrite(i, reg))
+						return i;
+					return null;
+			}
+			i = i.prev;
+		}
+		return null;
+	}
+	
+	private Instruction searchCorrespWriteBefore(Instruction i, int reg)
+	{
+		if (i.isDest || i.type < 0)
+			return null;
+		i = i.prev;
+		while (i != null)
+		{
+			if (i.isDest || i.type < 0)
+				return null;
+			switch (i.type)
+			{
+				case I_NONE:
+					break;
+				case I_CALLimm:
+				case I_CALLreg:
+				case I_CALLmem:
+					return null;
+				default:
+					if (isWrite(i, reg))
+						return i;
+			}
+			i = i.prev;
+		}
+		return null;
+	}
+	
+	private Instruction searchCorrespReadAfter(Instruction i, int reg, boolean objOnBreaker)
+	{
+		i = i.next;
+		while (i != null)
+		{
+			if (i.isDest)
+				return objOnBreaker ? i : null;
+			switch (i.type)
+			{
+				case I_NONE:
+					break;
+				case I_JUMP: //call not needed as instruction after call has isDest==true
+				case I_MAGC:
+					return objOnBreaker ? i : null;
+				default:
+					if (isRead(i, reg))
+						return i;
+					if (isWrite(i, reg))
+						return null;
+			}
+			i = i.next;
+		}
+		return null;
+	}
+	
+	private int hasReadAfterCalls;
+	
+	private boolean hasReadAfter(Instruction i, int reg)
+	{
+		hasReadAfterCalls = 0;
+		return hasReadAfterRecursive(i, reg);
+	}
+	
+	private boolean hasReadAfterRecursive(Instruction i, int reg)
+	{
+		if (++hasReadAfterCalls > 100)
+			return true; //limit too deep analysis
+		i = i.next;
+		while (i != null)
+		{
+			switch (i.type)
+			{
+				case I_JUMP:
+					//don't follow backward jumps, on conditional jumps also check following instructions
+					if (i.jDest.instrNr <= i.instrNr || (i.iPar1 != 0 && hasReadAfterRecursive(i, reg)))
+						return true;
+					//follow the jump
+					i = i.jDest;
+					break;
+				case I_MAGC:
+				case I_ADDpatched:
+				case I_IHELPER:
+					//treat magic and patched instructions as "reading all registers"
+					return true;
+				default:
+					//check read/write
+					if (isRead(i, reg))
+						return true;
+					if (isWrite(i, reg))
+						return false;
+					//check next instruction
+					i = i.next;
+			}
+		}
+		return false;
+	}
+	
+	private boolean effectlessWrite(Instruction now)
+	{
+		int regMask;
+		
+		regMask = now.reg2 >>> 16;
+		if (now.isDest || now.type < 0 || regMask == 0)
+			return false;
+		switch (now.type)
+		{ //only instructions not modifying the flags may be removed, flags may be used by a following jump
+			case I_MOVregreg:
+			case I_MOVregmem:
+			case I_MOVregimm:
+			case I_MOVregimmL:
+			case I_MOVSXregreg:
+			case I_MOVSXregmem:
+			case I_MOVZXregreg:
+			case I_MOVZXregmem:
+			case I_MOVSXDregreg:
+			case I_MOVSXDregmem:
+			case I_LEAregmem:
+			case I_LEAarray:
+			case I_MOVindexed:
+				break;
+			default:
+				return false;
+		}
+		now = now.next;
+		while (now != null)
+		{
+			if ((now.reg2 & regMask) != 0 || now.isDest || now.type < 0)
+				return false;
+			switch (now.type)
+			{
+				case I_ADDpatched:
+				case I_IHELPER:
+				case I_RETimm:
+				case I_IRET:
+					return false;
+				case I_CALLimm:
+				case I_CALLreg:
+				case I_CALLmem:
+					return true;
+			}
+			regMask &= ~now.reg2 >>> 16;
+			if (regMask == 0)
+				return true;
+			now = now.next;
+		}
+		return true;
+	}
+	
+	private Instruction mayBeWritten(Instruction now, Instruction end, int reg)
+	{
+		if (now.isDest || now.type < 0)
+			return now;
+		switch (now.type)
+		{
+			case I_RETimm:
+			case I_IRET:
+				return now;
+		}
+		now = now.next;
+		while (now != end)
+		{
+			if (isWrite(now, reg) || now.isDest || now.type < 0)
+				return now;
+			switch (now.type)
+			{
+				case I_RETimm:
+				case I_IRET:
+				case I_ADDpatched:
+					return now;
+			}
+			now = now.next;
+		}
+		return null;
+	}
+}
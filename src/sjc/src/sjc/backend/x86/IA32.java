@@ -29,7 +29,8 @@ import sjc.osio.TextPrinter;
  * IA32: architecture implementation for 32 bit protected mode IA32 processors
  *
  * @author S. Frenz
- * @version 240408 fixed float-to-long conversion register bug
+ * @version 261018 added support for parallel code generation and jump tables, strength reduction of constant multiplications
+ * version 240408 fixed float-to-long conversion register bug
  * version 151108 fixed optimized encoding of I_MOVmemreg for EAX-register
  * version 101210 adopted changed Architecture
  * version 101125 added support for native callback epilog style
@@ -134,6 +135,8 @@ public class IA32 extends X86Base
 		rBase = R_EBP;
 		fullIPChangeBytes = 4;
 		mPtr = RS_E;
+		supportsParallelCodeGen = true;
+		supportsJmpTable = true;
 	}
 	
 	public boolean setParameter(String parm, TextPrinter v)
@@ -1549,6 +1552,13 @@ public class IA32 extends X86Base
 							case Ops.A_MINUS:
 								ins(I_SUBregimm, dst, 0, 0, val);
 								break;
+							case Ops.A_MUL:
+								if (!genMulConst(dst, val))
+								{
+									super.genBinOpConstRi(dstR, src1R, val, op, type);
+									return;
+								}
+								break;
 							default:
 								super.genBinOpConstRi(dstR, src1R, val, op, type);
 								return;
@@ -1601,6 +1611,35 @@ public class IA32 extends X86Base
 		super.genBinOpConstRi(dstR, src1R, val, op, type);
 	}
 	
+	//replace multiplication by a constant with lea and shl, returns false if not possible
+	private boolean genMulConst(int reg, int val)
+	{
+		int shift = 0;
+		
+		if (val <= 0)
+			return false;
+		while ((val & 1) == 0)
+		{
+			val >>>= 1;
+			shift++;
+		}
+		switch (val)
+		{
+			case 1:
+				break;
+			case 3:
+			case 5:
+			case 9:
+				ins(I_LEAarray, reg, reg, 0, 0, val - 1); //lea reg,[reg+reg*(val-1)]
+				break;
+			default:
+				return false;
+		}
+		if (shift != 0)
+			ins(I_SHLregimm, reg, 0, 0, shift);
+		return true;
+	}
+	
 	public void genUnaOp(int dstR, int srcR, int op, int type)
 	{
 		int dst, dst2;
@@ -1891,7 +1930,7 @@ public class IA32 extends X86Base
 	
 	public void genLoadDerefAddr(int destReg, int objReg, int ind, int baseOffset, int entrySize)
 	{
-		int tmp, tmpRst, indReg;
+		int indReg;
 		if ((destReg = getReg(1, destReg, StdTypes.T_PTR, true)) == 0 || (objReg = getReg(1, objReg, StdTypes.T_PTR, false)) == 0 || (indReg = getReg(1, ind, StdTypes.T_INT, false)) == 0)
 			return;
 		if (entrySize < 0)
@@ -1910,11 +1949,7 @@ public class IA32 extends X86Base
 				ins(I_LEAarray, destReg, indReg, baseOffset, 0, entrySize);
 				break;
 			default:
-				tmpRst = prepareFreeReg(ind, 0, 0, StdTypes.T_INT);
-				tmp = allocReg();
-				genLoadConstVal(tmp, entrySize, StdTypes.T_INT);
-				genBinOp(ind, ind, tmp, (Ops.S_ARI << 16) | Ops.A_MUL, StdTypes.T_INT);
-				deallocRestoreReg(tmp, 0, tmpRst);
+				genBinOpConstRi(ind, ind, entrySize, (Ops.S_ARI << 16) | Ops.A_MUL, StdTypes.T_INT);
 				if (destReg != objReg)
 					ins(I_MOVregreg, destReg, objReg);
 				if (baseOffset != 0)
@@ -1923,6 +1958,36 @@ public class IA32 extends X86Base
 		}
 	}
 	
+	public void genJmpTable(int src, int minVal, Instruction[] dests, Instruction defDest)
+	{
+		Instruction anchor, table;
+		int reg;
+		
+		if (usedRegs != src || (reg = getReg(1, src, StdTypes.T_INT, false)) == 0)
+		{ //src has to be the only allocated register
+			fatalError(ERR_INVREG_GENJMPTABLE);
+			return;
+		}
+		if (reg == R_EBX)
+		{ //ebx is needed for the address of the table
+			ins(I_MOVregreg, R_EAX, R_EBX);
+			reg = R_EAX;
+		}
+		if (minVal != 0)
+			ins(I_SUBregimm, reg, 0, 0, minVal);
+		ins(I_CMPregimm, reg, 0, 0, dests.length);
+		insJump(defDest, SC_AE);
+		//get address of selected entry and jump relative to it
+		ins(I_PUSHip);
+		appendInstruction(anchor = getUnlinkedInstruction());
+		ins(I_POPreg, R_EBX);
+		insPatchedAdd(0, anchor, table = getUnlinkedInstruction());
+		ins(I_LEAarray, R_EBX, reg, 0, 0, 4);
+		ins(I_ADDregmem, R_EBX, R_EBX);
+		ins(I_JMPreg, R_EBX);
+		insJmpTableEntries(table, dests);
+	}
+	
 	public void genMoveToPrimary(int srcR, int type)
 	{
 		int reg;
@@ -2238,6 +2303,10 @@ public class IA32 extends X86Base
 				i.putByte(0xFF);
 				i.putByte(0xD0 | (reg0 >>> 4));
 				return;
+			case I_JMPreg:
+				i.putByte(0xFF);
+				i.putByte(0xE0 | (reg0 >>> 4));
+				return;
 			case I_CALLmem:
 				i.putByte(0xFF);
 				putMem(i, 0x20, reg0, disp);
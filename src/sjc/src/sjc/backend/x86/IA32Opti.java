@@ -27,7 +27,8 @@ import sjc.compbase.StdTypes;
  * IA32Opti: architecture implementation for optimized 32 bit protected mode IA32 processors
  *
  * @author S. Frenz
- * @version 190322 fixed multi-lea-movmemreg offset calculation
+ * @version 261018 added support for jump tables, loop analysis in hasReadAfter, multiple use lea merging, hoisting of loop invariant loads and register allocation
+ * version 190322 fixed multi-lea-movmemreg offset calculation
  * version 151026 adopted changed X86Base
  * version 101224 added MOVZXregreg
  * version 100115 adopted changed error reporting
@@ -69,6 +70,34 @@ import sjc.compbase.StdTypes;
 
 public class IA32Opti extends IA32
 {
+	private final static int MAX_BACKJUMPS = 16;
+	private final static int[] HOIST_REGS = {R_EAX, R_EBX, R_ECX, R_EDX};
+	
+	private final static int MAX_ALLOC_SLOTS = 64;
+	private final static int[] ALLOC_REGS = {R_EBX, R_ECX, R_EDX, R_EAX, R_ESI, R_EDI};
+	private final static int MIN_ALLOC_WEIGHT = 2, MIN_SAVED_REG_WEIGHT = 8;
+	
+	private final boolean allocRegs;
+	private int flowHintId;
+	
+	//state of the register allocation
+	private int allocSlotCnt;
+	private final int[] allocOff = new int[MAX_ALLOC_SLOTS], allocCnt = new int[MAX_ALLOC_SLOTS];
+	private final int[] allocWeight = new int[MAX_ALLOC_SLOTS], allocReg = new int[MAX_ALLOC_SLOTS];
+	private final int[] allocRegMask = new int[MAX_ALLOC_SLOTS], allocOrder = new int[MAX_ALLOC_SLOTS];
+	private final Instruction[] allocStart = new Instruction[MAX_ALLOC_SLOTS], allocEnd = new Instruction[MAX_ALLOC_SLOTS];
+	private final boolean[] allocZero = new boolean[MAX_ALLOC_SLOTS];
+	
+	public IA32Opti()
+	{
+		this(false);
+	}
+	
+	public IA32Opti(boolean iAllocRegs)
+	{
+		allocRegs = iAllocRegs;
+	}
+	
 	public void finalizeInstructions(Instruction first)
 	{
 		Instruction now;
@@ -76,6 +105,9 @@ public class IA32Opti extends IA32
 		
 		//optimize
 		optimize(first); //will also print the code if requested
+		//keep local variables in registers if requested
+		if (allocRegs && (mthdContainer.marker & Marks.K_NOPT) == 0)
+			allocateRegisters(first);
 		//code instructions
 		now = first;
 		while (now != null)
@@ -85,6 +117,7 @@ public class IA32Opti extends IA32
 				case I_JUMP:
 				case I_ADDpatched:
 				case I_IHELPER:
+				case I_JTENTRY:
 					break;
 				case I_STEXreg:
 					fixStackExtremeAdd(now);
@@ -108,6 +141,8 @@ public class IA32Opti extends IA32
 					redo |= fixAdd(now);
 					now = now.next; //skip I_IHELPER
 				}
+				else if (now.type == I_JTENTRY)
+					fixJmpTableEntry(now);
 				now = now.next;
 			}
 		} while (redo);
@@ -133,6 +168,25 @@ public class IA32Opti extends IA32
 		i.iPar3 = par;
 	}
 	
+	public int insertFlowHint(int hint, int id)
+	{
+		Instruction i;
+		
+		switch (hint)
+		{
+			case F_BLOCKSTART:
+				return ++flowHintId;
+			case F_LOOPSTART:
+			case F_LOOPEND:
+				//remember loop boundaries in an empty instruction, used in hoistLoopInvariants
+				appendInstruction(i = getUnlinkedInstruction());
+				i.iPar1 = hint;
+				i.iPar2 = id;
+				break;
+		}
+		return id;
+	}
+	
 	private int readReg(int r)
 	{
 		if (r == 0)
@@ -208,6 +262,7 @@ public class IA32Opti extends IA32
 			case I_SAHF:
 			case I_ADDpatched:
 			case I_STEXreg:
+			case I_JMPreg:
 				return true;
 		}
 		return false;
@@ -265,6 +320,9 @@ public class IA32Opti extends IA32
 			case I_CALLmem:
 				i.reg2 = writeReg(R_EAX) | writeReg(R_EDX) | writeReg(R_EBX) | writeReg(R_ECX) | readReg(reg0) | readReg(R_ESI) | readReg(R_EDI) | readReg(R_ESP) | readReg(R_EBP);
 				break;
+			case I_JMPreg:
+				i.reg2 = 0x0000FFFF; //destinations of jump table are not known, treat as "reading all registers"
+				break;
 			case I_PUSHreg:
 				i.reg2 = readReg(reg0) | writeReg(R_ESP) | readReg(R_ESP);
 				break;
@@ -475,7 +533,7 @@ public class IA32Opti extends IA32
 			now = first;
 			while (now != null)
 			{
-				if (now.type == I_JUMP)
+				if (now.type == I_JUMP || now.type == I_JTENTRY)
 					now.jDest.isDest = true;
 				now = now.next;
 			}
@@ -553,7 +611,7 @@ public class IA32Opti extends IA32
 						}
 						break;
 					case I_MOVregmem:
-						if ((now.reg0 & RS_E) == RS_E && searchCorrespReadAfter(now, now.reg1, false) == null && (tmp = searchCorrespImmWriteBefore(now, now.reg1)) != null && tmp.type == I_MOVregreg)
+						if ((now.reg0 & RS_E) == RS_E && (now.reg0 == now.reg1 || searchCorrespReadAfter(now, now.reg1, false) == null) && (tmp = searchCorrespImmWriteBefore(now, now.reg1)) != null && tmp.type == I_MOVregreg)
 						{
 							set(now, I_MOVregmem, now.reg0, tmp.reg1, now.iPar1, 0, 0);
 							redo = true;
@@ -760,6 +818,11 @@ public class IA32Opti extends IA32
 						}
 						break;
 					case I_LEAregmem:
+						if (tryMergeLeaMem(now))
+						{
+							redo = true;
+							break;
+						}
 						if ((tmp = searchCorrespReadAfter(now, now.reg0, false)) == null || mayBeWritten(now, tmp, now.reg1) != null || hasReadAfter(tmp, now.reg0))
 							break;
 						switch (tmp.type)
@@ -832,6 +895,9 @@ public class IA32Opti extends IA32
 				}
 				now = now.next;
 			}
+			//move invariant loads out of loops if nothing else is left to do
+			if (!redo && hoistLoopInvariants(first))
+				redo = true;
 		}
 	}
 	
@@ -847,6 +913,94 @@ public class IA32Opti extends IA32
 		return true;
 	}
 	
+	private boolean tryMergeLeaMem(Instruction lea)
+	{
+		Instruction now, last = null;
+		boolean overwritten = false;
+		
+		//check all reads of the calculated address up to the next write
+		now = lea.next;
+		while (now != null && !now.isDest && now.type != I_JUMP && now.type != I_MAGC)
+		{
+			if (isRead(now, lea.reg0))
+			{
+				if (getMemBaseOfLeaUse(now, lea.reg0) == 0)
+					return false;
+				last = now;
+			}
+			if (isWrite(now, lea.reg0))
+			{
+				overwritten = true;
+				break;
+			}
+			if (isWrite(now, lea.reg1))
+				return false;
+			now = now.next;
+		}
+		if (last == null || (!overwritten && hasReadAfter(last, lea.reg0)))
+			return false;
+		//use the address of the lea directly in all accesses
+		now = lea;
+		do
+		{
+			now = now.next;
+			switch (getMemBaseOfLeaUse(now, lea.reg0))
+			{
+				case 1:
+					set(now, now.type, lea.reg1, now.reg1, now.iPar1 + lea.iPar1, now.iPar2, now.iPar3);
+					break;
+				case 2:
+					set(now, now.type, now.reg0, lea.reg1, now.iPar1 + lea.iPar1, now.iPar2, now.iPar3);
+					break;
+			}
+		} while (now != last);
+		kill(lea);
+		return true;
+	}
+	
+	//returns 1 if reg is only read as memory base in reg0, 2 if only read as memory base in reg1, 0 otherwise
+	private int getMemBaseOfLeaUse(Instruction i, int reg)
+	{
+		switch (i.type)
+		{
+			case I_MOVmemreg:
+			case I_MOVmemimm:
+			case I_ADDmemimm:
+			case I_SUBmemimm:
+			case I_ANDmemimm:
+			case I_XORmemimm:
+			case I_ORmemimm:
+			case I_INCmem:
+			case I_DECmem:
+			case I_CMPmemimm:
+			case I_PUSHmem:
+			case I_FLDmem:
+			case I_FSTPmem:
+			case I_FILDmem:
+			case I_FISTPmem:
+				if (i.reg0 == reg && readReg(i.reg1) != readReg(reg))
+					return 1;
+				break;
+			case I_MOVregmem:
+			case I_MOVSXregmem:
+			case I_MOVZXregmem:
+			case I_LEAregmem:
+				if (i.reg1 == reg)
+					return 2;
+				break;
+			case I_ADDregmem:
+			case I_SUBregmem:
+			case I_ANDregmem:
+			case I_XORregmem:
+			case I_ORregmem:
+			case I_CMPregmem:
+				if (i.reg1 == reg && readReg(i.reg0) != readReg(reg))
+					return 2;
+				break;
+		}
+		return 0;
+	}
+	
 	private boolean tryMergeAriImm(Instruction now)
 	{
 		Instruction tmp1, tmp2;
@@ -1019,16 +1173,19 @@ public class IA32Opti extends IA32
 		return null;
 	}
 	
-	private int hasReadAfterCalls;
+	private int hasReadAfterCalls, followedBackJumpCnt;
+	private final int[] followedBackJumps = new int[MAX_BACKJUMPS];
 	
 	private boolean hasReadAfter(Instruction i, int reg)
 	{
-		hasReadAfterCalls = 0;
+		hasReadAfterCalls = followedBackJumpCnt = 0;
 		return hasReadAfterRecursive(i, reg);
 	}
 	
 	private boolean hasReadAfterRecursive(Instruction i, int reg)
 	{
+		int j;
+		
 		if (++hasReadAfterCalls > 100)
 			return true; //limit too deep analysis
 		i = i.next;
@@ -1037,8 +1194,25 @@ public class IA32Opti extends IA32
 			switch (i.type)
 			{
 				case I_JUMP:
-					//don't follow backward jumps, on conditional jumps also check following instructions
-					if (i.jDest.instrNr <= i.instrNr || (i.iPar1 != 0 && hasReadAfterRecursive(i, reg)))
+					if (i.jDest.instrNr <= i.instrNr)
+					{
+						//follow each backward jump only once, its destination is checked completely on the first visit
+						for (j = 0; j < followedBackJumpCnt; j++)
+							if (followedBackJumps[j] == i.instrNr)
+								break;
+						if (j < followedBackJumpCnt)
+						{
+							if (i.iPar1 == 0)
+								return false;
+							i = i.next;
+							break;
+						}
+						if (followedBackJumpCnt == MAX_BACKJUMPS)
+							return true; //limit too deep analysis
+						followedBackJumps[followedBackJumpCnt++] = i.instrNr;
+					}
+					//on conditional jumps also check following instructions
+					if (i.iPar1 != 0 && hasReadAfterRecursive(i, reg))
 						return true;
 					//follow the jump
 					i = i.jDest;
@@ -1123,4 +1297,678 @@ public class IA32Opti extends IA32
 		}
 		return null;
 	}
+	
+	//loop invariant code motion
+	private boolean hoistLoopInvariants(Instruction first)
+	{
+		Instruction now, end;
+		boolean hoisted = false;
+		
+		//addresses of local variables may not be taken, otherwise they could be written anywhere
+		now = first;
+		while (now != null)
+		{
+			if (now.type == I_MAGC || (now.type == I_LEAregmem && now.reg1 == R_EBP) || ((now.type & IM_P1) == I_reg1 && now.reg1 == R_EBP))
+				return false;
+			now = now.next;
+		}
+		//try each loop, the outer ones first
+		enumerateFrom(first);
+		now = first;
+		while (now != null)
+		{
+			if (now.type == I_NONE && now.iPar1 == F_LOOPSTART)
+			{
+				end = now.next;
+				while (end != null && (end.type != I_NONE || end.iPar1 != F_LOOPEND || end.iPar2 != now.iPar2))
+					end = end.next;
+				if (end != null && hoistLoopInvariant(first, now, end))
+				{
+					enumerateFrom(first);
+					hoisted = true;
+				}
+			}
+			now = now.next;
+		}
+		return hoisted;
+	}
+	
+	private boolean hoistLoopInvariant(Instruction first, Instruction start, Instruction end)
+	{
+		Instruction now, entry, load = null;
+		int used = 0, reg = 0, i, cnt, bestCnt = 0, offset, type;
+		
+		//get the instruction the loop is entered with, skip a jump to the loop condition
+		entry = start;
+		now = start.prev;
+		while (now != null && now.type == I_NONE && !now.isDest)
+			now = now.prev;
+		if (now != null && now.type == I_JUMP && now.iPar1 == 0 && !now.isDest && isInLoop(now.jDest, start, end))
+			entry = now;
+		//check instructions in the loop
+		now = start.next;
+		while (now != end)
+		{
+			switch (now.type)
+			{
+				case I_MAGC:
+				case I_CALLimm:
+				case I_CALLreg:
+				case I_CALLmem:
+				case I_JMPreg:
+				case I_JTENTRY:
+				case I_ADDpatched:
+				case I_IHELPER:
+				case I_PUSHip:
+				case I_PUSHA:
+				case I_POPA:
+				case I_IRET:
+				case I_STEXreg:
+					return false;
+			}
+			if (isWrite(now, R_EBP))
+				return false; //inlined method with its own stack frame
+			used |= now.reg2 | (now.reg2 >>> 16);
+			now = now.next;
+		}
+		//the loop may not be entered from anywhere else
+		now = first;
+		while (now != null)
+		{
+			if (now == start)
+				now = end;
+			else if (now != entry && now.type != I_NONE && now.jDest != null && isInLoop(now.jDest, start, end))
+				return false;
+			now = now.next;
+		}
+		//get a register that is neither used in the loop nor read after it
+		for (i = 0; i < HOIST_REGS.length; i++)
+			if ((used & readReg(HOIST_REGS[i])) == 0 && !isReadAfterLoop(start, end, HOIST_REGS[i]))
+			{
+				reg = HOIST_REGS[i];
+				break;
+			}
+		if (reg == 0)
+			return false;
+		//get the invariant local variable that is loaded most often
+		now = start.next;
+		while (now != end)
+		{
+			if (getRegTypeOfLocalLoad(now) != 0 && (cnt = countLocalLoads(start, end, now.iPar1)) > bestCnt && !isLocalWritten(start, end, now.iPar1))
+			{
+				load = now;
+				bestCnt = cnt;
+			}
+			now = now.next;
+		}
+		if (load == null)
+			return false;
+		//load the variable in front of the loop and replace the loads inside the loop by register accesses
+		offset = load.iPar1;
+		set(insertAfter(entry.prev), I_MOVregmem, reg, R_EBP, offset, 0, 0);
+		now = start.next;
+		while (now != end)
+		{
+			if (now.iPar1 == offset)
+				switch (type = getRegTypeOfLocalLoad(now))
+				{
+					case 0:
+						break;
+					case I_PUSHreg:
+						set(now, I_PUSHreg, reg, 0, 0, 0, 0);
+						break;
+					case I_CMPregimm:
+						set(now, I_CMPregimm, reg, 0, 0, now.iPar2, 0);
+						break;
+					default:
+						set(now, type, now.reg0, reg, 0, 0, 0);
+				}
+			now = now.next;
+		}
+		return true;
+	}
+	
+	private boolean isInLoop(Instruction i, Instruction start, Instruction end)
+	{
+		return i.instrNr > start.instrNr && i.instrNr < end.instrNr;
+	}
+	
+	private boolean isReadAfterLoop(Instruction start, Instruction end, int reg)
+	{
+		Instruction now;
+		
+		if (hasReadAfter(end, reg))
+			return true;
+		now = start.next;
+		while (now != end)
+		{
+			if (now.type == I_JUMP && !isInLoop(now.jDest, start, end) && hasReadAfter(now.jDest.prev, reg))
+				return true;
+			now = now.next;
+		}
+		return false;
+	}
+	
+	//returns the type of the instruction replacing a dword load of a local variable, 0 if i is no such load
+	private int getRegTypeOfLocalLoad(Instruction i)
+	{
+		switch (i.type)
+		{
+			case I_MOVregmem:
+			case I_ADDregmem:
+			case I_SUBregmem:
+			case I_ANDregmem:
+			case I_XORregmem:
+			case I_ORregmem:
+			case I_CMPregmem:
+				if (i.reg1 == R_EBP && (i.reg0 & RS_E) == RS_E)
+					return (i.type & ~IM_P1) | I_reg1;
+				break;
+			case I_PUSHmem:
+				if (i.reg0 == R_EBP)
+					return I_PUSHreg;
+				break;
+			case I_CMPmemimm:
+				if (i.reg0 == R_EBP && i.iPar3 == 4)
+					return I_CMPregimm;
+				break;
+		}
+		return 0;
+	}
+	
+	private int countLocalLoads(Instruction start, Instruction end, int offset)
+	{
+		int cnt = 0;
+		
+		start = start.next;
+		while (start != end)
+		{
+			if (start.iPar1 == offset && getRegTypeOfLocalLoad(start) != 0)
+				cnt++;
+			start = start.next;
+		}
+		return cnt;
+	}
+	
+	private boolean isLocalWritten(Instruction start, Instruction end, int offset)
+	{
+		start = start.next;
+		while (start != end)
+		{
+			//writes may be up to 8 bytes wide
+			if ((start.type & IM_P0) == I_mem0 && start.reg0 == R_EBP && start.iPar1 > offset - 8 && start.iPar1 < offset + 4)
+				switch (start.type)
+				{
+					case I_PUSHmem:
+					case I_CMPmemimm:
+					case I_FLDmem:
+					case I_FILDmem:
+					case I_FLDCWmem:
+						break; //only reading
+					default:
+						return true;
+				}
+			start = start.next;
+		}
+		return false;
+	}
+	
+	private void enumerateFrom(Instruction first)
+	{
+		int nr = first.instrNr;
+		
+		while (first != null)
+		{
+			first.instrNr = nr++;
+			first = first.next;
+		}
+	}
+	
+	private Instruction insertAfter(Instruction pos)
+	{
+		Instruction i;
+		
+		i = getUnlinkedInstruction();
+		i.prev = pos;
+		i.next = pos.next;
+		if (pos.next != null)
+			pos.next.prev = i;
+		pos.next = i;
+		return i;
+	}
+	
+	private Instruction getNextReal(Instruction i)
+	{
+		while (i != null && i.type == I_NONE)
+			i = i.next;
+		return i;
+	}
+	
+	//linear scan register allocation for dword local variables and parameters
+	private void allocateRegisters(Instruction first)
+	{
+		Instruction body, now, ins;
+		int i, j, k, slot, reg, start, weight, cnt = 0, used = 0;
+		int[] saveOff;
+		
+		if ((body = getPrologEnd(first)) == null)
+			return;
+		enumerateFrom(first);
+		if (!collectAllocSlots(body))
+			return;
+		//intervals and the registers that are possible for each variable
+		now = body.next;
+		while (now != null)
+		{
+			used |= now.reg2;
+			now = now.next;
+		}
+		for (i = 0; i < allocSlotCnt; i++)
+		{
+			allocReg[i] = -1;
+			allocRegMask[i] = 0;
+			if (allocCnt[i] <= 0 || allocWeight[i] < MIN_ALLOC_WEIGHT)
+				continue;
+			//parameters and local variables that may be read before written are live from the beginning
+			if (allocOff[i] > 0 || (allocZero[i] = !isWrittenFirst(body, i)))
+				allocStart[i] = body.next;
+			extendAllocInterval(first, i);
+			if ((allocRegMask[i] = getAllocRegMask(i, used)) == 0)
+				continue;
+			//sort the variables by the start of their intervals
+			for (j = cnt; j > 0 && allocStart[allocOrder[j - 1]].instrNr > allocStart[i].instrNr; j--)
+				allocOrder[j] = allocOrder[j - 1];
+			allocOrder[j] = i;
+			cnt++;
+		}
+		//assign registers, on conflicts the variable with the lowest weight is spilled
+		for (i = 0; i < cnt; i++)
+		{
+			slot = allocOrder[i];
+			start = allocStart[slot].instrNr;
+			reg = -1;
+			weight = allocWeight[slot];
+			for (k = 0; k < ALLOC_REGS.length; k++)
+				if ((allocRegMask[slot] & (1 << k)) != 0)
+				{
+					if ((j = getAllocRegOwner(k, start)) < 0)
+					{
+						reg = k;
+						break;
+					}
+					if (allocWeight[j] < weight)
+					{
+						reg = k;
+						weight = allocWeight[j];
+					}
+				}
+			if (reg < 0)
+				continue;
+			if ((j = getAllocRegOwner(reg, start)) >= 0)
+				allocReg[j] = -1;
+			allocReg[slot] = reg;
+		}
+		//replace the memory accesses by register accesses
+		now = body.next;
+		while (now != null)
+		{
+			if ((k = getAllocType(now)) != 0 && (slot = getAllocSlot(now.iPar1, false)) >= 0 && allocReg[slot] >= 0)
+			{
+				reg = ALLOC_REGS[allocReg[slot]];
+				if ((now.type & IM_P0) == I_mem0)
+					set(now, k, reg, now.reg1, 0, now.iPar2, 0);
+				else
+					set(now, k, now.reg0, reg, 0, 0, 0);
+			}
+			now = now.next;
+		}
+		//load parameters and save callee saved registers in the slot of their first variable
+		saveOff = new int[ALLOC_REGS.length];
+		ins = body;
+		for (i = 0; i < allocSlotCnt; i++)
+			if ((k = allocReg[i]) >= 0)
+			{
+				if (allocOff[i] > 0)
+					set(ins = insertAfter(ins), I_MOVregmem, ALLOC_REGS[k], R_EBP, allocOff[i], 0, 0);
+				else
+				{
+					if (isCalleeSaved(ALLOC_REGS[k]) && saveOff[k] == 0)
+					{
+						saveOff[k] = allocOff[i];
+						set(ins = insertAfter(ins), I_MOVmemreg, R_EBP, ALLOC_REGS[k], allocOff[i], 0, 0);
+					}
+					//the prolog initializes local variables with zero
+					if (allocZero[i])
+						set(ins = insertAfter(ins), I_XORregreg, ALLOC_REGS[k], ALLOC_REGS[k], 0, 0, 0);
+				}
+			}
+		//restore callee saved registers in front of each epilog
+		now = body.next;
+		while (now != null)
+		{
+			if (now.type == I_POPreg && now.reg0 == R_EBP)
+			{
+				//jumps to the epilog have to reach the restore, so the pop is moved behind it
+				ins = null;
+				for (k = 0; k < ALLOC_REGS.length; k++)
+					if (saveOff[k] != 0)
+					{
+						if (ins == null)
+						{
+							set(insertAfter(now), I_POPreg, R_EBP, 0, 0, 0, 0);
+							ins = now;
+						}
+						else
+							ins = insertAfter(ins);
+						set(ins, I_MOVregmem, ALLOC_REGS[k], R_EBP, saveOff[k], 0, 0);
+					}
+				if (ins != null)
+					now = ins.next;
+			}
+			now = now.next;
+		}
+	}
+	
+	//returns the last instruction of the prolog setting up the stack frame
+	private Instruction getPrologEnd(Instruction first)
+	{
+		Instruction now, last;
+		int pushes;
+		
+		if ((now = getNextReal(first)) == null || now.type != I_PUSHreg || now.reg0 != R_EBP)
+			return null;
+		if ((now = getNextReal(now.next)) == null || now.type != I_MOVregreg || now.reg0 != R_EBP || now.reg1 != R_ESP)
+			return null;
+		//skip the initialization of local variables
+		last = now;
+		pushes = mthdContainer.varSize >>> 2;
+		while (pushes > 0)
+		{
+			if ((now = now.next) == null)
+				return null;
+			switch (now.type)
+			{
+				case I_NONE:
+				case I_XORregreg:
+					break;
+				case I_PUSHreg:
+				case I_PUSHimm:
+					last = now;
+					pushes--;
+					break;
+				default:
+					return null;
+			}
+		}
+		return last;
+	}
+	
+	private boolean collectAllocSlots(Instruction body)
+	{
+		Instruction now, next;
+		int[] loopDepth;
+		int depth = 0, i, j;
+		
+		//get the nesting depth of loops
+		now = body;
+		while (now.next != null)
+		{
+			now = now.next;
+			now.isDest = false;
+		}
+		loopDepth = new int[now.instrNr - body.instrNr + 2];
+		now = body.next;
+		while (now != null)
+		{
+			if (now.type == I_JUMP)
+			{
+				now.jDest.isDest = true;
+				if (now.jDest.instrNr <= now.instrNr && now.jDest.instrNr > body.instrNr)
+				{
+					loopDepth[now.jDest.instrNr - body.instrNr]++;
+					loopDepth[now.instrNr - body.instrNr + 1]--;
+				}
+			}
+			now = now.next;
+		}
+		//get all accesses to the stack frame
+		allocSlotCnt = 0;
+		now = body.next;
+		while (now != null)
+		{
+			depth += loopDepth[now.instrNr - body.instrNr];
+			switch (now.type)
+			{
+				case I_NONE:
+				case I_JUMP:
+				case I_CALLimm:
+				case I_CALLreg:
+					break;
+				case I_CALLmem:
+					if (now.reg0 == R_EBP)
+						return false;
+					break;
+				case I_MAGC:
+				case I_JMPreg:
+				case I_JTENTRY:
+				case I_ADDpatched:
+				case I_IHELPER:
+				case I_PUSHip:
+				case I_PUSHA:
+				case I_POPA:
+				case I_IRET:
+				case I_STEXreg:
+					return false;
+				default:
+					if (isWrite(now, R_EBP))
+					{
+						//only the epilog may change the frame pointer, otherwise there is an inlined method
+						if (now.type != I_POPreg || (next = getNextReal(now.next)) == null || next.type != I_RETimm)
+							return false;
+					}
+					else if (isRead(now, R_EBP) && !addAllocAccess(now, depth))
+						return false;
+			}
+			now = now.next;
+		}
+		//variables have to be disjoint, otherwise they are accessed in different sizes
+		for (i = 0; i < allocSlotCnt; i++)
+			for (j = 0; j < allocSlotCnt; j++)
+				if (i != j && allocOff[i] > allocOff[j] - 4 && allocOff[i] < allocOff[j] + 4)
+					allocCnt[i] = -1;
+		return true;
+	}
+	
+	private boolean addAllocAccess(Instruction i, int depth)
+	{
+		int slot;
+		
+		//only accesses relative to the frame pointer are possible, otherwise the address of a variable is taken
+		if ((i.type & IM_P0) == I_mem0)
+		{
+			if (i.reg0 != R_EBP || i.reg1 == R_EBP)
+				return false;
+		}
+		else if ((i.type & IM_P1) != I_mem1 || i.reg1 != R_EBP || i.reg0 == R_EBP || i.type == I_LEAregmem)
+			return false;
+		if ((slot = getAllocSlot(i.iPar1, true)) < 0)
+			return false;
+		if (getAllocType(i) == 0)
+		{
+			//accesses may be up to 8 bytes wide
+			allocCnt[slot] = -1;
+			if ((slot = getAllocSlot(i.iPar1 + 4, true)) < 0)
+				return false;
+			allocCnt[slot] = -1;
+		}
+		else if (allocCnt[slot] >= 0)
+		{
+			if (allocCnt[slot]++ == 0)
+				allocStart[slot] = i;
+			allocEnd[slot] = i;
+			allocWeight[slot] += 1 << (3 * (depth < 4 ? depth : 4));
+		}
+		return true;
+	}
+	
+	private int getAllocSlot(int off, boolean create)
+	{
+		int i;
+		
+		for (i = 0; i < allocSlotCnt; i++)
+			if (allocOff[i] == off)
+				return i;
+		if (!create || allocSlotCnt == MAX_ALLOC_SLOTS)
+			return -1;
+		allocOff[i] = off;
+		allocCnt[i] = allocWeight[i] = allocRegMask[i] = 0;
+		allocZero[i] = false;
+		allocStart[i] = allocEnd[i] = null;
+		return allocSlotCnt++;
+	}
+	
+	//returns the type of the instruction replacing a dword access to a variable, 0 if i is no such access
+	private int getAllocType(Instruction i)
+	{
+		switch (i.type)
+		{
+			case I_MOVregmem:
+			case I_ADDregmem:
+			case I_SUBregmem:
+			case I_ANDregmem:
+			case I_XORregmem:
+			case I_ORregmem:
+			case I_CMPregmem:
+				if (i.reg1 == R_EBP && (i.reg0 & RS_E) == RS_E)
+					return (i.type & ~IM_P1) | I_reg1;
+				break;
+			case I_MOVmemreg:
+				if (i.reg0 == R_EBP && (i.reg1 & RS_E) == RS_E)
+					return I_MOVregreg;
+				break;
+			case I_MOVmemimm:
+			case I_ADDmemimm:
+			case I_SUBmemimm:
+			case I_ANDmemimm:
+			case I_XORmemimm:
+			case I_ORmemimm:
+			case I_CMPmemimm:
+			case I_INCmem:
+			case I_DECmem:
+				if (i.reg0 == R_EBP && i.iPar3 == 4)
+					return (i.type & ~IM_P0) | I_reg0;
+				break;
+			case I_PUSHmem:
+				if (i.reg0 == R_EBP)
+					return I_PUSHreg;
+				break;
+		}
+		return 0;
+	}
+	
+	//checks if a local variable is written before any jump, otherwise the initial value may be read
+	private boolean isWrittenFirst(Instruction body, int slot)
+	{
+		Instruction now;
+		
+		now = body.next;
+		while (now != allocStart[slot])
+		{
+			if (now.isDest || now.type == I_JUMP)
+				return false;
+			now = now.next;
+		}
+		return !now.isDest && (now.type == I_MOVmemreg || now.type == I_MOVmemimm);
+	}
+	
+	//extend the interval over each loop it overlaps, as the value has to survive the whole loop
+	private void extendAllocInterval(Instruction first, int slot)
+	{
+		Instruction now;
+		boolean redo = true;
+		
+		while (redo)
+		{
+			redo = false;
+			now = first;
+			while (now != null)
+			{
+				if (now.type == I_JUMP && now.jDest.instrNr <= now.instrNr && now.instrNr >= allocStart[slot].instrNr && now.jDest.instrNr <= allocEnd[slot].instrNr)
+				{
+					if (now.jDest.instrNr < allocStart[slot].instrNr)
+					{
+						allocStart[slot] = now.jDest;
+						redo = true;
+					}
+					if (now.instrNr > allocEnd[slot].instrNr)
+					{
+						allocEnd[slot] = now;
+						redo = true;
+					}
+				}
+				now = now.next;
+			}
+		}
+	}
+	
+	//returns the mask of registers neither used in the interval nor live across it
+	private int getAllocRegMask(int slot, int usedInMthd)
+	{
+		Instruction now, end = allocEnd[slot].next;
+		int used = 0, mask = 0, k, reg;
+		
+		now = allocStart[slot];
+		while (now != end)
+		{
+			used |= now.reg2;
+			now = now.next;
+		}
+		for (k = 0; k < ALLOC_REGS.length; k++)
+		{
+			reg = ALLOC_REGS[k];
+			if (isCalleeSaved(reg))
+			{
+				//the register of the caller is saved in the slot of the variable, so only locals are possible
+				if (allocOff[slot] > 0 || allocWeight[slot] < MIN_SAVED_REG_WEIGHT || ((usedInMthd | (usedInMthd >>> 16)) & readReg(reg)) != 0)
+					continue;
+			}
+			else if (((used | (used >>> 16)) & readReg(reg)) != 0 || isLiveInAllocInterval(slot, reg))
+				continue;
+			mask |= 1 << k;
+		}
+		return mask;
+	}
+	
+	private boolean isLiveInAllocInterval(int slot, int reg)
+	{
+		Instruction now, end = allocEnd[slot].next;
+		
+		//check each entry into the interval
+		now = allocStart[slot];
+		if (hasReadAfter(now.prev, reg))
+			return true;
+		while (now != end)
+		{
+			if (now.isDest && hasReadAfter(now.prev, reg))
+				return true;
+			now = now.next;
+		}
+		return false;
+	}
+	
+	//returns the slot holding the register at the given instruction, -1 if the register is free
+	private int getAllocRegOwner(int reg, int instrNr)
+	{
+		int i;
+		
+		for (i = 0; i < allocSlotCnt; i++)
+			if (allocReg[i] == reg && allocEnd[i].instrNr >= instrNr)
+				return i;
+		return -1;
+	}
+	
+	private boolean isCalleeSaved(int reg)
+	{
+		return reg == R_ESI || reg == R_EDI;
+	}
 }
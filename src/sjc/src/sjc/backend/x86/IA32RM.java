@@ -28,7 +28,8 @@ import sjc.compbase.StdTypes;
  * IA32RM: architecture implementation for 32 bit protected mode IA32 processors
  *
  * @author S. Frenz
- * @version 110609 fixed entrySize check in genLoadDerefAddr
+ * @version 261018 added support for parallel code generation
+ * version 110609 fixed entrySize check in genLoadDerefAddr
  * version 101210 adopted changed Architecture
  * version 101101 adopted changed Architecture
  * version 101027 fixed sign handling for logical bitshift of byte and short values
@@ -95,6 +96,7 @@ public class IA32RM extends X86Base
 		rBase = R_BP;
 		fullIPChangeBytes = 2;
 		mPtr = RS_X;
+		supportsParallelCodeGen = true;
 	}
 	
 	//references are treated as normal short values
@@ -29,7 +29,8 @@ import sjc.osio.TextPrinter;
  * X86Base: instructions for x86-architectures
  *
  * @author S. Frenz
- * @version 160201 added pointer naming for plain addresses in asmMode
+ * @version 261018 added jump table support and string instructions for block memory access
+ * version 160201 added pointer naming for plain addresses in asmMode
  * version 151226 added more optimization for jump encoding
  * version 151108 adopted changed buildAssemblerText concept
  * version 151026 added support for assembler output
@@ -189,6 +190,7 @@ public abstract class X86Base extends Architecture
 	protected final static int I_FNSTCW = 0x4100;
 	protected final static int I_FLDCW = 0x4200;
 	protected final static int I_FWAIT = 0x4300;
+	protected final static int I_JMP = 0x4400;
 	//special 64 bit instructions
 	protected final static int I_MOVSXD = 0x5000;
 	protected final static int I_CBW = 0x5100;
@@ -227,6 +229,7 @@ public abstract class X86Base extends Architecture
 	protected final static int I_PUSHimm = I_PUSH | I_imm0;
 	protected final static int I_POPreg = I_POP | I_reg0;
 	protected final static int I_CALLreg = I_CALL | I_reg0;
+	protected final static int I_JMPreg = I_JMP | I_reg0;
 	protected final static int I_CALLmem = I_CALL | I_mem0;
 	protected final static int I_CALLimm = I_CALL | I_imm0;
 	protected final static int I_RETimm = I_RET | I_imm0;
@@ -320,6 +323,7 @@ public abstract class X86Base extends Architecture
 	protected final static int I_PUSHip = 0xFFF8;
 	protected final static int I_STEXreg = 0xFFF9;
 	protected final static int I_POPdummy = 0xFFFA; //POPdummy is used only in IA32 and equals "POP ECX"
+	protected final static int I_JTENTRY = 0xFFFB; //entry of jump table, contains offset relative to itself
 	
 	//helper for the register coding
 	protected final static int RS_L = 0x1; //AL, BL, ...
@@ -356,6 +360,7 @@ public abstract class X86Base extends Architecture
 	protected final static String ERR_CONDJUMP_FIXJUMP = "conditional jump with unsupported condition";
 	protected final static String ERR_INVINS_CODE = "invalid instruction type for code(.)";
 	protected final static String ERR_INVGLOBADDRREG = "invalid register for address";
+	protected final static String ERR_INVREG_GENJMPTABLE = "invalid register allocation for jump table";
 	
 	//special jumps for internal use
 	protected final static int SC_BE = 101; //below or equal
@@ -613,6 +618,9 @@ public abstract class X86Base extends Architecture
 					case I_STEXreg:
 						redo |= fixStackExtremeAdd(now);
 						break;
+					case I_JTENTRY:
+						fixJmpTableEntry(now);
+						break;
 				}
 				now = now.next;
 			}
@@ -869,6 +877,102 @@ public abstract class X86Base extends Architecture
 		}
 	}
 	
+	public void genCopyMem(int dst, int src, int cnt)
+	{
+		Instruction done;
+		int rC = mPtr | R_CX;
+		
+		if (relocBytes == 2)
+		{ //real mode uses the default byte loop
+			super.genCopyMem(dst, src, cnt);
+			return;
+		}
+		done = getUnlinkedInstruction();
+		genCondJmp(done, genCompValToConstVal(cnt, 0, StdTypes.T_INT, Ops.C_LE));
+		if ((dst = getReg(1, dst, StdTypes.T_PTR, false)) == 0 || (src = getReg(1, src, StdTypes.T_PTR, false)) == 0 || (cnt = getReg(1, cnt, StdTypes.T_PTR, false)) == 0)
+			return;
+		//string instructions need fixed registers, parameters may be in any of them
+		ins(I_PUSHreg, rInst);
+		ins(I_PUSHreg, rClss);
+		ins(I_PUSHreg, rC);
+		ins(I_PUSHreg, dst);
+		ins(I_PUSHreg, src);
+		ins(I_PUSHreg, cnt);
+		ins(I_POPreg, rC);
+		ins(I_POPreg, rInst);
+		ins(I_POPreg, rClss);
+		//copy dwords first, then the remaining bytes
+		ins(I_PUSHreg, rC);
+		ins(I_SHRregimm, R_ECX, 0, 0, 2);
+		insBytes(0xF3, 0xA5, -1); //rep movsd
+		ins(I_POPreg, rC);
+		ins(I_ANDregimm, R_ECX, 0, 0, 3);
+		insBytes(0xF3, 0xA4, -1); //rep movsb
+		ins(I_POPreg, rC);
+		ins(I_POPreg, rClss);
+		ins(I_POPreg, rInst);
+		appendInstruction(done);
+	}
+	
+	public void genFillMem(int dst, int val, int cnt)
+	{
+		Instruction done, pattern;
+		int rA = mPtr | R_AX, rC = mPtr | R_CX;
+		
+		if (relocBytes == 2)
+		{ //real mode uses the default byte loop
+			super.genFillMem(dst, val, cnt);
+			return;
+		}
+		done = getUnlinkedInstruction();
+		genCondJmp(done, genCompValToConstVal(cnt, 0, StdTypes.T_INT, Ops.C_LE));
+		if ((dst = getReg(1, dst, StdTypes.T_PTR, false)) == 0 || (val = getReg(1, val, StdTypes.T_PTR, false)) == 0 || (cnt = getReg(1, cnt, StdTypes.T_PTR, false)) == 0)
+			return;
+		//string instructions need fixed registers, parameters may be in any of them
+		ins(I_PUSHreg, rClss);
+		ins(I_PUSHreg, rA);
+		ins(I_PUSHreg, rC);
+		ins(I_PUSHreg, dst);
+		ins(I_PUSHreg, val);
+		ins(I_PUSHreg, cnt);
+		ins(I_POPreg, rC);
+		ins(I_POPreg, rA);
+		ins(I_POPreg, rClss);
+		//replicate the byte value to all bytes of eax
+		insBytes(0x0F, 0xB6, 0xC0); //movzx eax,al
+		appendInstruction(pattern = getUnlinkedInstruction());
+		pattern.type = I_MAGC;
+		pattern.putByte(0x69); //imul eax,eax,0x01010101
+		pattern.putByte(0xC0);
+		pattern.putByte(0x01);
+		pattern.putByte(0x01);
+		pattern.putByte(0x01);
+		pattern.putByte(0x01);
+		//fill dwords first, then the remaining bytes
+		ins(I_PUSHreg, rC);
+		ins(I_SHRregimm, R_ECX, 0, 0, 2);
+		insBytes(0xF3, 0xAB, -1); //rep stosd
+		ins(I_POPreg, rC);
+		ins(I_ANDregimm, R_ECX, 0, 0, 3);
+		insBytes(0xF3, 0xAA, -1); //rep stosb
+		ins(I_POPreg, rC);
+		ins(I_POPreg, rA);
+		ins(I_POPreg, rClss);
+		appendInstruction(done);
+	}
+	
+	private void insBytes(int b0, int b1, int b2)
+	{
+		Instruction i;
+		
+		appendInstruction(i = getUnlinkedInstruction());
+		i.type = I_MAGC;
+		i.putByte(b0);
+		i.putByte(b1);
+		if (b2 >= 0)
+			i.putByte(b2);
+	}
+	
 	public void genThrowFrameBuild(int globalAddrReg, Instruction dest, int throwBlockOffset)
 	{
 		Instruction relaDummy;
@@ -1121,6 +1225,62 @@ public abstract class X86Base extends Architecture
 		return false;
 	}
 	
+	//append one table entry for each destination, first entry is given to enable patched adds before
+	protected void insJmpTableEntries(Instruction table, Instruction[] dests)
+	{
+		int n;
+		
+		for (n = 0; n < dests.length; n++)
+		{
+			if (n > 0)
+				table = getUnlinkedInstruction();
+			appendInstruction(table);
+			table.type = I_JTENTRY;
+			table.size = 4;
+			table.jDest = dests[n];
+			dests[n].isDest = true;
+		}
+	}
+	
+	protected void fixJmpTableEntry(Instruction me)
+	{ //size of entries is constant, redo is triggered by changes of other instructions
+		int relative = 0;
+		Instruction dummy, dest;
+		
+		if ((dest = me.jDest) == null)
+		{
+			fatalError(ERR_JUMPDESTINIT_FIXJUMP);
+			return;
+		}
+		if (me.instrNr >= dest.instrNr)
+		{ //get destination before us
+			dummy = me;
+			while (dummy != dest)
+			{
+				if ((dummy = dummy.prev) == null)
+				{
+					fatalError(ERR_JUMPDESTNOTFOUND_FIXJUMP);
+					return;
+				}
+				relative -= dummy.size;
+			}
+		}
+		else
+		{ //get destination behind us
+			dummy = me;
+			while (dummy != dest)
+			{
+				relative += dummy.size;
+				if ((dummy = dummy.next) == null)
+				{
+					fatalError(ERR_JUMPDESTNOTFOUND_FIXJUMP);
+					return;
+				}
+			}
+		}
+		me.replaceInt(0, relative);
+	}
+	
 	protected boolean fixAdd(Instruction me)
 	{
 		int oldSize = me.size, relative = 0, i, byteAdd = 0;
@@ -1567,6 +1727,19 @@ public abstract class X86Base extends Architecture
 				else
 					v.print("PUSHIP");
 				break;
+			case I_JTENTRY:
+				if (asmMode)
+				{
+					v.print("dd ");
+					printJumpDest(v, i.jDest);
+					v.print("-$");
+				}
+				else
+				{
+					v.print("JTENTRY to i");
+					v.print(i.jDest.instrNr);
+				}
+				break;
 			default:
 				reg1 = i.reg1; //may be replaced for fixed second operand instructions
 				switch (i.type & IM_OP)
@@ -1611,6 +1784,9 @@ public abstract class X86Base extends Architecture
 					case I_CALL:
 						v.print("CALL ");
 						break;
+					case I_JMP:
+						v.print("JMP ");
+						break;
 					case I_RET:
 						v.print("RET ");
 						if (i.iPar2 == 0)
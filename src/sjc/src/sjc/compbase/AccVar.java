@@ -22,7 +22,8 @@ package sjc.compbase;
  * AccVar: platform and language independent variable that may be accessed in any way
  *
  * @author S. Frenz
- * @version 140507 added support for MM_REFTOFLASH
+ * @version 261018 added writeCount and bitset based write state
+ * version 140507 added support for MM_REFTOFLASH
  * version 120227 cleaned up "package sjc." typo
  * version 100504 added getInitExpr
  * version 100428 removed structAsReference case
@@ -83,6 +84,9 @@ public abstract class AccVar extends Token
 	//required fields for interface-checks, overloading and code-generation
 	public int minSize, relOff, location; //varPos is offset for scalars and relocs
 	public int modifier; //modifier of variable
+	public int writeCount; //number of resolved write accesses, used to check loop invariance
+	public VrblState writeState; //write state of method while resolving, null if contained in modifier
+	public int writeStateIndex; //index of this variable in writeState
 	//note: for inline-arrays varPos contains offset of length field,
 	//   the real array offset is defined through instScalarSize of containing unit
 	
@@ -93,6 +97,28 @@ public abstract class AccVar extends Token
 		location = L_NOTRDY;
 	}
 	
+	public boolean isWritten()
+	{
+		if (writeState != null)
+			return writeState.isWritten(writeStateIndex);
+		return (modifier & Modifier.MF_ISWRITTEN) != 0;
+	}
+	
+	public boolean isMaybeWritten()
+	{
+		if (writeState != null)
+			return writeState.isMaybeWritten(writeStateIndex);
+		return (modifier & (Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN)) != 0;
+	}
+	
+	public void setWritten()
+	{
+		if (writeState != null)
+			writeState.setWritten(writeStateIndex);
+		else
+			modifier |= Modifier.MF_ISWRITTEN;
+	}
+	
 	public boolean enterSize(int loc, Context ctx)
 	{
 		int mod;
@@ -0,0 +1,67 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.compbase;
+
+import sjc.osio.ParallelTask;
+import sjc.osio.TextBuffer;
+
+/**
+ * CodeGenWorker: generate code for a list of methods in a separate context
+ *
+ * @version 261018 initial version
+ */
+
+public class CodeGenWorker extends ParallelTask
+{
+	private final static int INITSIZE = 64;
+	
+	public final Context ctx;
+	public final TextBuffer wOut;
+	private Mthd[] mthds;
+	private int mthdCnt;
+	
+	public CodeGenWorker(Context ic, TextBuffer io)
+	{
+		ctx = ic;
+		wOut = io;
+		mthds = new Mthd[INITSIZE];
+	}
+	
+	public void addMthd(Mthd mthd)
+	{
+		Mthd[] tmp;
+		int i;
+		
+		if (mthdCnt == mthds.length)
+		{
+			tmp = new Mthd[mthdCnt * 2];
+			for (i = 0; i < mthdCnt; i++)
+				tmp[i] = mthds[i];
+			mthds = tmp;
+		}
+		mthds[mthdCnt++] = mthd;
+	}
+	
+	public void run()
+	{
+		int i;
+		
+		for (i = 0; i < mthdCnt && !ctx.err; i++)
+			mthds[i].preGenOutput(ctx);
+	}
+}
@@ -29,12 +29,14 @@ import sjc.frontend.FrontAdmin;
 import sjc.memory.BootableImage;
 import sjc.memory.MemoryImage;
 import sjc.osio.OsIO;
+import sjc.osio.TextBuffer;
 import sjc.osio.TextPrinter;
 import sjc.osio.TextReader;
 import sjc.output.OutputFactory;
 import sjc.output.OutputFormat;
 import sjc.real.EmulReal;
 import sjc.real.NativeReal;
+import sjc.real.Real;
 import sjc.relations.RelationManager;
 import sjc.symbols.SymbolFactory;
 import sjc.symbols.SymbolInformer;
@@ -104,6 +106,8 @@ public class Context
 	public int langStrVal, langStrCnt; //index/offset in langString;
 	public int rteSClassParent, rteSClassImpl; //index in rteSClassDesc
 	public int rteSIntfParents; //index in rteSIntfDesc
+	public int rteSClassDepth, rteSClassDisplay, rteSClassIntfMaps, rteSIntfId; //optional, only for class displays
+	public int intfIdCount; //last interface id assigned for class displays
 	public int rteSClassInstScalarSize, rteSClassInstRelocTableEntries, rteSClassInstIndirScalarSize; //only for alternateNewObj
 	public int rteSArrayLength, rteSArrayDim, rteSArrayStd, rteSArrayExt; //offsets/index in rteSArray
 	public int indirScalarSizeOff, indirScalarAddrOff;
@@ -114,8 +118,9 @@ public class Context
 	public CtxBasedConfig config;
 	public AddrList freeAddrLists;
 	
-	public int stringCount, stringChars, stringMemBytes;
+	public int stringCount, stringChars, stringMemBytes, stringSharedCount, stringSharedBytes;
 	public int mthdCount, mthdCodeSize;
+	public int devirtCallCount; //dynamic calls bound statically or inlined
 	
 	public DataBlockList sourceBlocks, codeBlocks;
 	
@@ -136,7 +141,152 @@ public class Context
 	private String compressorName;
 	private Compressor compressor;
 	private String compiledFiledListname;
-	private VrblStateList emptyVrblStateList;
+	private VrblState emptyVrblState;
+	private String archName;
+	private StringList archParameters, lastArchParameter;
+	private int codeGenThreads = 1;
+	private boolean codeGenWorker; //set in contexts of parallel code generation workers
+	private ExStr[] stringHash; //interned string literals, see getInternedString
+	
+	private final static int STRING_HASH_SIZE = 512; //must be power of 2
+	
+	private void copyToCodeGenWorker(Context w)
+	{ //copy everything needed for code generation, keep in order of the declarations above so a new field is not forgotten
+		//out, osio and arch are created per worker
+		w.imgOut = imgOut;
+		w.symGen = symGen;
+		w.relations = relations;
+		w.fa = fa;
+		w.mem = mem;
+		w.bootMem = bootMem;
+		w.embedded = embedded;
+		w.embConstRAM = embConstRAM;
+		w.leanRTE = leanRTE;
+		w.dynaMem = dynaMem;
+		w.indirScalars = indirScalars;
+		w.noSyncCalls = noSyncCalls;
+		w.noThrowFrames = noThrowFrames;
+		w.noInlineMthdObj = noInlineMthdObj;
+		w.verbose = verbose;
+		//debugCode and printCode disable parallel code generation, errors are collected per worker
+		w.ramLoc = ramLoc;
+		w.ramInitLoc = ramInitLoc;
+		w.ramSize = ramSize;
+		w.ramOffset = ramOffset;
+		w.constMemorySize = constMemorySize;
+		w.maxStmtAutoInline = maxStmtAutoInline;
+		w.alignBlockMask = alignBlockMask;
+		w.debugPrefix = debugPrefix;
+		w.assignCall = assignCall;
+		w.assignHeapCall = assignHeapCall;
+		w.doBoundCheck = doBoundCheck;
+		w.runtimeBound = runtimeBound;
+		w.doArrayStoreCheck = doArrayStoreCheck;
+		w.runtimeNull = runtimeNull;
+		w.byteString = byteString;
+		w.genAllUnitDesc = genAllUnitDesc;
+		w.genAllMthds = genAllMthds;
+		w.genIntfParents = genIntfParents;
+		w.globalProfiling = globalProfiling;
+		w.profilerUsed = profilerUsed;
+		w.globalStackExtreme = globalStackExtreme;
+		w.globalAssert = globalAssert;
+		w.stackExtremeUsed = stackExtremeUsed;
+		w.globalSourceLineHints = globalSourceLineHints;
+		w.throwUsed = throwUsed;
+		w.syncUsed = syncUsed;
+		w.arrayDeepCopyUsed = arrayDeepCopyUsed;
+		w.assertUsed = assertUsed;
+		w.explicitTypeConversion = explicitTypeConversion;
+		w.alternateObjNew = alternateObjNew;
+		w.buildAssemblerText = buildAssemblerText;
+		//resolving is done, flags for recompilation and instance conversion are not needed
+		w.root = root;
+		w.rte = rte;
+		w.defUnits = defUnits;
+		w.langRoot = langRoot;
+		w.startMethod = startMethod;
+		w.startUnit = startUnit;
+		w.startMthd = startMthd;
+		w.langString = langString;
+		w.rteSArray = rteSArray;
+		w.rteSClassDesc = rteSClassDesc;
+		w.rteSIntfDesc = rteSIntfDesc;
+		w.rteSIntfMap = rteSIntfMap;
+		w.rteSMthdBlock = rteSMthdBlock;
+		w.rteDynamicRuntime = rteDynamicRuntime;
+		w.rteDynamicAri = rteDynamicAri;
+		w.structClass = structClass;
+		w.flashClass = flashClass;
+		w.excThrowable = excThrowable;
+		w.excChecked = excChecked;
+		w.rteSIMowner = rteSIMowner;
+		w.rteSIMnext = rteSIMnext;
+		w.rteDRNewInstMd = rteDRNewInstMd;
+		w.rteDRNewArrayMd = rteDRNewArrayMd;
+		w.rteDRNewMultArrayMd = rteDRNewMultArrayMd;
+		w.rteDRIsInstMd = rteDRIsInstMd;
+		w.rteDRIsImplMd = rteDRIsImplMd;
+		w.rteDRIsArrayMd = rteDRIsArrayMd;
+		w.rteDRCheckArrayStoreMd = rteDRCheckArrayStoreMd;
+		w.rteDRAssignMd = rteDRAssignMd;
+		w.rteDRBoundExcMd = rteDRBoundExcMd;
+		w.rteDRNullExcMd = rteDRNullExcMd;
+		w.rteDABinAriCallMds = rteDABinAriCallMds;
+		w.rteDAUnaAriCallMds = rteDAUnaAriCallMds;
+		w.rteDRProfilerMd = rteDRProfilerMd;
+		w.rteDRStackExtremeErrMd = rteDRStackExtremeErrMd;
+		w.rteDoThrowMd = rteDoThrowMd;
+		w.rteDoSyncMd = rteDoSyncMd;
+		w.rteArrayDeepCopyMd = rteArrayDeepCopyMd;
+		w.rteAssertFailedMd = rteAssertFailedMd;
+		w.staticInitMthds = staticInitMthds;
+		w.staticInitDone = staticInitDone;
+		//constant objects are built already
+		w.rteThrowFrame = rteThrowFrame;
+		w.rteStackExtreme = rteStackExtreme;
+		w.langStrVal = langStrVal;
+		w.langStrCnt = langStrCnt;
+		w.rteSClassParent = rteSClassParent;
+		w.rteSClassImpl = rteSClassImpl;
+		w.rteSIntfParents = rteSIntfParents;
+		w.rteSClassDepth = rteSClassDepth;
+		w.rteSClassDisplay = rteSClassDisplay;
+		w.rteSClassIntfMaps = rteSClassIntfMaps;
+		w.rteSIntfId = rteSIntfId;
+		w.intfIdCount = intfIdCount;
+		w.rteSClassInstScalarSize = rteSClassInstScalarSize;
+		w.rteSClassInstRelocTableEntries = rteSClassInstRelocTableEntries;
+		w.rteSClassInstIndirScalarSize = rteSClassInstIndirScalarSize;
+		w.rteSArrayLength = rteSArrayLength;
+		w.rteSArrayDim = rteSArrayDim;
+		w.rteSArrayStd = rteSArrayStd;
+		w.rteSArrayExt = rteSArrayExt;
+		w.indirScalarSizeOff = indirScalarSizeOff;
+		w.indirScalarAddrOff = indirScalarAddrOff;
+		//debug writers are used by the main context only
+		w.clssType = clssType;
+		w.intfType = intfType;
+		w.stringType = stringType;
+		w.objectType = objectType;
+		w.boolType = boolType;
+		w.intType = intType;
+		w.config = config;
+		//address lists are allocated per worker, statistics are merged after code generation
+		w.sourceBlocks = sourceBlocks;
+		w.codeBlocks = codeBlocks;
+		w.compressedImage = compressedImage;
+		w.compressedRelocateOption = compressedRelocateOption;
+		w.unitList = unitList;
+		w.lastUnit = lastUnit;
+		//compression, image header and parameter handling are done by the main context
+		w.fileList = fileList;
+		w.ramStart = ramStart;
+		w.relocateOption = relocateOption;
+		w.codeStart = codeStart;
+		//inlineLevels is passed to the architecture of the worker
+		w.memSize = memSize;
+	}
 	
 	public Context(OsIO iOS)
 	{
@@ -465,10 +615,21 @@ public class Context
 			out.print("(t6) ");
 			t6 = osio.getTimeInfo();
 		}
+		if (verbose || timing)
+			out.println("Analysing overridden methods...");
+		analyseOverriding();
 		if (verbose || timing)
 			out.println("Check environment-structure of languages...");
 		if (!fa.checkLangEnvironment())
 			return 6; //output already done
+		//all roots are known now, decide which methods need code
+		markCalledMthds();
+		ulist = unitList;
+		while (ulist != null)
+		{
+			ulist.unit.markCodeMthds(this);
+			ulist = ulist.next;
+		}
 		if (timing)
 		{
 			out.print("(t7) ");
@@ -523,6 +684,11 @@ public class Context
 		if (verbose || timing)
 			out.println("Filling descriptors, generating code...");
 		mem.alignBlock(alignBlockMask);
+		if (codeGenThreads > 1 && !preGenOutput())
+		{
+			out.println("There were errors");
+			return 8;
+		}
 		ulist = unitList;
 		while (ulist != null)
 		{
@@ -618,7 +784,16 @@ public class Context
 		out.print(mthdCount);
 		out.print(" methods and ");
 		out.print(stringCount);
-		out.println(" strings.");
+		out.print(" strings");
+		if (stringSharedCount > 0)
+		{
+			out.print(" (");
+			out.print(stringSharedCount);
+			out.print(" duplicates shared, saved ");
+			printSize(stringSharedBytes, false);
+			out.print(")");
+		}
+		out.println(".");
 		out.print("Included ");
 		printSize(mthdCodeSize, false);
 		out.print(" code and ");
@@ -633,6 +808,12 @@ public class Context
 			out.print(" image");
 		}
 		out.println(".");
+		if (devirtCallCount > 0)
+		{
+			out.print("Devirtualized ");
+			out.print(devirtCallCount);
+			out.println(" calls.");
+		}
 		if (embedded)
 		{
 			out.print("Embedded mode with ");
@@ -741,6 +922,171 @@ public class Context
 		return memSize;
 	}
 	
+	public boolean genInlineOutput(Mthd inline)
+	{
+		boolean done = false;
+		
+		if (codeGenWorker)
+			osio.enterExclusive(); //statements of inlined methods are shared between all workers
+		if (!inline.inGenOutput)
+		{
+			inline.genInlineOutput(this);
+			done = true;
+		}
+		if (codeGenWorker)
+			osio.leaveExclusive();
+		return done;
+	}
+	
+	private void markCalledMthds()
+	{ //methods called by a method needing code need code, too, repeat until no further method is marked
+		UnitList ulist;
+		MthdList called;
+		Mthd mthd;
+		boolean changed = true;
+		
+		while (changed)
+		{
+			changed = false;
+			ulist = unitList;
+			while (ulist != null)
+			{
+				mthd = ulist.unit.mthds;
+				while (mthd != null)
+				{
+					if (mthd.calledMthds != null && needsCode(mthd))
+					{
+						called = mthd.calledMthds;
+						mthd.calledMthds = null;
+						while (called != null)
+						{
+							called.mthd.modifier |= Modifier.MA_ACCSSD;
+							called = called.next;
+						}
+						changed = true;
+					}
+					mthd = mthd.nextMthd;
+				}
+				ulist = ulist.next;
+			}
+		}
+	}
+	
+	private static boolean needsCode(Mthd mthd)
+	{ //same condition as in Clss.markCodeMthds, a method overriding an accessed one needs code, too
+		if ((mthd.modifier & Modifier.M_NDCODE) != 0)
+			return true;
+		while (mthd != null)
+		{
+			if ((mthd.modifier & Modifier.MA_ACCSSD) != 0)
+				return true;
+			mthd = mthd.ovldMthd;
+		}
+		return false;
+	}
+	
+	private void analyseOverriding()
+	{ //enter each overriding unit in all methods it overrides, the whole program is known here
+		UnitList ulist, overriding;
+		Mthd mthd, ovld;
+		
+		ulist = unitList;
+		while (ulist != null)
+		{
+			mthd = ulist.unit.mthds;
+			while (mthd != null)
+			{
+				ovld = mthd.ovldMthd;
+				while (ovld != null)
+				{
+					(overriding = new UnitList(ulist.unit)).next = ovld.overridingUnits;
+					ovld.overridingUnits = overriding;
+					ovld = ovld.ovldMthd;
+				}
+				//overloaded methods may still be inlined where the call is bound statically
+				if ((mthd.modifier & Modifier.M_OVERLD) != 0 && mthd.stmtCnt <= maxStmtAutoInline && (mthd.modifier & (Modifier.M_ABSTR | Modifier.M_NAT | Modifier.M_HSCALL)) == 0 && (mthd.marker & (Marks.K_FINL | Marks.K_NINL)) == 0 && (ulist.unit.modifier & Modifier.M_INDIR) == 0)
+					mthd.autoInlineBound = true;
+				mthd = mthd.nextMthd;
+			}
+			ulist = ulist.next;
+		}
+	}
+	
+	private boolean preGenOutput()
+	{
+		CodeGenWorker[] workers;
+		CodeGenWorker worker;
+		UnitList ulist;
+		Mthd mthd;
+		int i, cnt = 0;
+		
+		if (!osio.supportsParallelTasks() || !arch.supportsParallelCodeGen || printCode || debugCode)
+		{
+			if (verbose)
+				out.println("Parallel code generation not supported in current configuration");
+			return true;
+		}
+		if (verbose || timing)
+		{
+			out.print("Generating code in ");
+			out.print(codeGenThreads);
+			out.println(" threads...");
+		}
+		//create workers with their own context and architecture
+		workers = new CodeGenWorker[codeGenThreads];
+		for (i = 0; i < codeGenThreads; i++)
+			if ((workers[i] = createCodeGenWorker()) == null)
+				return false;
+		//distribute methods round robin in unit order, allocation and copying is done later in the same order
+		ulist = unitList;
+		while (ulist != null)
+		{
+			mthd = ulist.unit.mthds;
+			while (mthd != null)
+			{
+				if (mthd.mayPreGenOutput(this))
+					workers[cnt++ % codeGenThreads].addMthd(mthd);
+				mthd = mthd.nextMthd;
+			}
+			ulist = ulist.next;
+		}
+		osio.runParallel(workers, codeGenThreads);
+		//collect results, architectures of workers are used in main context for copying of the generated code
+		for (i = 0; i < codeGenThreads; i++)
+		{
+			worker = workers[i];
+			if (worker.wOut.used > 0)
+				out.print(worker.wOut.toString());
+			err |= worker.ctx.err;
+			mthdCount += worker.ctx.mthdCount;
+			devirtCallCount += worker.ctx.devirtCallCount;
+			mthdCodeSize += worker.ctx.mthdCodeSize;
+			arch.mergeStatistics(worker.ctx.arch);
+			worker.ctx.arch.ctx = this;
+		}
+		return !err;
+	}
+	
+	private CodeGenWorker createCodeGenWorker()
+	{
+		Context w;
+		TextBuffer wOut = new TextBuffer();
+		
+		w = new Context(osio);
+		w.out = wOut;
+		w.codeGenWorker = true;
+		if ((w.arch = ArchFactory.getWorkerArchitecture(archName, archParameters, wOut)) == null)
+		{
+			out.println("Could not create architecture for code generation worker");
+			return null;
+		}
+		copyToCodeGenWorker(w);
+		w.arch.init(mem, inlineLevels, w);
+		if (w.arch.real == null)
+			w.arch.real = prefereNativeReal ? (Real) new NativeReal() : (Real) new EmulReal();
+		return new CodeGenWorker(w, wOut);
+	}
+	
 	protected boolean beforeUnitResolving()
 	{
 		return true;
@@ -1169,6 +1515,8 @@ public class Context
 							ArchFactory.printKnownArchitectures(out);
 							return false;
 						}
+						archName = argv[curPar];
+						archParameters = lastArchParameter = null;
 						break;
 					case 'T':
 						argv[curPar++] = null; //get next parameter, too
@@ -1184,6 +1532,22 @@ public class Context
 						}
 						if (!arch.setParameter(argv[curPar], out))
 							return false;
+						lastArchParameter = new StringList(lastArchParameter, argv[curPar]);
+						if (archParameters == null)
+							archParameters = lastArchParameter;
+						break;
+					case '#':
+						argv[curPar++] = null; //get next parameter, too
+						if (curPar == argv.length)
+						{
+							out.println("Missing parameter for \"-#\"");
+							return false;
+						}
+						if ((codeGenThreads = parseInt(argv[curPar])) < 1)
+						{
+							out.println("Invalid number in parameter for \"-#\"");
+							return false;
+						}
 						break;
 					case 'o':
 						argv[curPar++] = null; //get next parameter, too
@@ -1321,7 +1685,7 @@ public class Context
 		out.println(" -d         create binary debug output for each method");
 		out.println(" -D DW FILE debug writer DW with FILE (sym is default)");
 		out.println(" -q         enable relation manager to watch relations");
-		out.println(" -Q         enable global source line hint integrating");
+		out.println(" -Q         include line tables of all methods in symbols");
 		out.println(" -W         print all method's instructions if possible");
 		out.println(" -F         insert calls to runtime-profiler at each method");
 		out.println(" -f         do not generate code for throw-frames (no catch)");
@@ -1333,6 +1697,7 @@ public class Context
 		out.println(" -p PREF    naming prefix for all debug files to be written");
 		out.println(" -I LEVL    specify maximum level of method inlining (def==3)");
 		out.println(" -S AMNT    maximum statement amount for auto-inline (def==0)");
+		out.println(" -# THRD    number of threads generating method code (def==1)");
 		out.println(" -s SIZE    specify maximum size of memory image to SIZE");
 		out.println(" -s 0       do not use image, allocate in bootstrap mode");
 		out.println(" -e ADDR    embedded mode, set static vars' RAM address");
@@ -1739,6 +2104,26 @@ public class Context
 		v.println();
 	}
 	
+	public ExStr getInternedString(ExStr str)
+	{
+		ExStr cmp;
+		int hash;
+		
+		if (stringHash == null)
+			stringHash = new ExStr[STRING_HASH_SIZE];
+		hash = HashIndex.getHash(str.value) & (STRING_HASH_SIZE - 1);
+		cmp = stringHash[hash];
+		while (cmp != null)
+		{
+			if (cmp.inFlash == str.inFlash && cmp.value.equals(str.value))
+				return cmp;
+			cmp = cmp.nextInterned;
+		}
+		str.nextInterned = stringHash[hash];
+		stringHash[hash] = str;
+		return str;
+	}
+	
 	public Object allocateString(String what)
 	{
 		int off, len, tmp, destOff = 0;
@@ -1836,6 +2221,22 @@ public class Context
 		return arrayObj;
 	}
 	
+	public Object allocateByteArray(byte[] array)
+	{
+		Object arrayObj = null;
+		
+		if (array != null)
+		{
+			if ((arrayObj = mem.allocateArray(array.length, 1, 1, StdTypes.T_BYTE, null)) == null)
+				return null;
+			if (indirScalars)
+				mem.putByteArray(mem.getIndirScalarObject(arrayObj), rteSArray.instIndirScalarTableSize, array, array.length);
+			else
+				mem.putByteArray(arrayObj, rteSArray.instScalarTableSize, array, array.length);
+		}
+		return arrayObj;
+	}
+	
 	public Object allocateMultiArray(int curDim, FilledParam sizes, int entrySize, int stdType, Object extTypeLoc)
 	{
 		int i, max, arrOff;
@@ -1919,197 +2320,53 @@ public class Context
 		return sign * ret;
 	}
 	
-	private VrblStateList getVrblCopy(Vrbl singleVrbl)
+	public VrblState copyVrblState(Mthd mthd)
 	{
-		VrblStateList ret;
-		if (emptyVrblStateList == null)
-			ret = new VrblStateList();
+		VrblState ret;
+		if (emptyVrblState == null)
+			ret = new VrblState();
 		else
 		{
-			ret = emptyVrblStateList;
-			emptyVrblStateList = emptyVrblStateList.next;
+			ret = emptyVrblState;
+			emptyVrblState = emptyVrblState.next;
 			ret.next = null;
+			ret.reset();
 		}
-		ret.vrbl = singleVrbl;
-		ret.modCopy = singleVrbl.modifier;
+		ret.copy(mthd.getWriteState());
 		return ret;
 	}
 	
-	public VrblStateList copyVrblListState(Vrbl vrblList1, VrblList vrblList2)
+	public void recycleVrblState(VrblState state)
 	{
-		VrblStateList ret = null, last = null;
-		Vrbl test;
-		while (vrblList1 != null || vrblList2 != null)
+		if (state != null)
 		{
-			if (vrblList1 != null)
-			{
-				test = vrblList1;
-				vrblList1 = vrblList1.nextVrbl;
-			}
-			else
-			{
-				test = vrblList2.vrbl;
-				vrblList2 = vrblList2.next;
-			}
-			if (last == null)
-				ret = last = getVrblCopy(test);
-			else
-			{
-				last.next = getVrblCopy(test);
-				last = last.next;
-			}
+			state.next = emptyVrblState;
+			emptyVrblState = state;
 		}
-		return ret;
 	}
 	
-	public void recycleVrblStatelist(VrblStateList list)
+	public void setVrblState(Mthd mthd, VrblState destState)
 	{
-		VrblStateList tmp;
-		while (list != null)
-		{
-			tmp = list.next;
-			list.vrbl = null;
-			list.next = emptyVrblStateList;
-			emptyVrblStateList = list;
-			list = tmp;
-		}
+		mthd.getWriteState().copy(destState);
 	}
 	
-	public void setVrblListState(Vrbl vars1, VrblList vars2, VrblStateList destState)
+	public void setVrblStatePotential(Mthd mthd, VrblState preState)
 	{
-		Vrbl test;
-		while (vars1 != null || vars2 != null)
-		{
-			if (vars1 != null)
-			{
-				test = vars1;
-				vars1 = vars1.nextVrbl;
-			}
-			else
-			{
-				test = vars2.vrbl;
-				vars2 = vars2.next;
-			}
-			test.modifier &= ~(Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN);
-			if (destState != null && test == destState.vrbl)
-			{
-				test.modifier |= destState.modCopy & (Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN);
-				destState = destState.next;
-			}
-		}
+		mthd.getWriteState().setPotential(preState);
 	}
 	
-	private void setMayBeWrittenIfIsWrittenAndClearIsWritten(Vrbl var)
+	public void setVrblStateSure(Mthd mthd, VrblState sureState)
 	{
-		if ((var.modifier & Modifier.MF_ISWRITTEN) != 0)
-			var.modifier |= Modifier.MF_MAYBEWRITTEN;
-		var.modifier &= ~Modifier.MF_ISWRITTEN;
+		mthd.getWriteState().setSure(sureState);
 	}
 	
-	public void setVrblStatePotential(Vrbl vars1, VrblList vars2, VrblStateList preState)
+	public void setVrblStateCombined(Mthd mthd, VrblState otherState)
 	{
-		Vrbl test;
-		while (vars1 != null || vars2 != null)
-		{
-			if (vars1 != null)
-			{
-				test = vars1;
-				vars1 = vars1.nextVrbl;
-			}
-			else
-			{
-				test = vars2.vrbl;
-				vars2 = vars2.next;
-			}
-			if (preState != null && test == preState.vrbl)
-			{
-				if ((preState.modCopy & Modifier.MF_ISWRITTEN) == 0)
-					setMayBeWrittenIfIsWrittenAndClearIsWritten(test);
-				preState = preState.next;
-			}
-			else
-				setMayBeWrittenIfIsWrittenAndClearIsWritten(test);
-		}
-	}
-	
-	public void setVrblStateSure(Vrbl vars1, VrblList vars2, VrblStateList sureState)
-	{
-		Vrbl test;
-		while (vars1 != null || vars2 != null)
-		{
-			if (vars1 != null)
-			{
-				test = vars1;
-				vars1 = vars1.nextVrbl;
-			}
-			else
-			{
-				test = vars2.vrbl;
-				vars2 = vars2.next;
-			}
-			if (sureState != null && test == sureState.vrbl)
-			{
-				if ((sureState.modCopy & Modifier.MF_ISWRITTEN) != 0)
-					test.modifier |= Modifier.MF_ISWRITTEN;
-				sureState = sureState.next;
-			}
-		}
-	}
-	
-	public void setVrblStateCombined(Vrbl vars1, VrblList vars2, VrblStateList otherState)
-	{
-		Vrbl test;
-		while (vars1 != null || vars2 != null)
-		{
-			if (vars1 != null)
-			{
-				test = vars1;
-				vars1 = vars1.nextVrbl;
-			}
-			else
-			{
-				test = vars2.vrbl;
-				vars2 = vars2.next;
-			}
-			if (otherState != null && test == otherState.vrbl)
-			{
-				if (((test.modifier & Modifier.MF_ISWRITTEN) == 0) || ((otherState.modCopy & Modifier.MF_ISWRITTEN) == 0))
-				{
-					//not both have "iswritten" set
-					if (((test.modifier | otherState.modCopy) & (Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN)) != 0)
-					{
-						//at least one has at least "maybe" set
-						test.modifier = (test.modifier & ~Modifier.MF_ISWRITTEN) | Modifier.MF_MAYBEWRITTEN;
-					}
-				}
-				otherState = otherState.next;
-			}
-			else
-				setMayBeWrittenIfIsWrittenAndClearIsWritten(test);
-		}
+		mthd.getWriteState().combine(otherState);
 	}
 	
-	public void mergeVrblListState(VrblStateList soFar, Vrbl toMerge1, VrblList toMerge2)
+	public void mergeVrblState(VrblState soFar, Mthd mthd)
 	{
-		Vrbl test;
-		while (toMerge1 != null || toMerge2 != null)
-		{
-			if (toMerge1 != null)
-			{
-				test = toMerge1;
-				toMerge1 = toMerge1.nextVrbl;
-			}
-			else
-			{
-				test = toMerge2.vrbl;
-				toMerge2 = toMerge2.next;
-			}
-			if (soFar != null && soFar.vrbl == test)
-			{
-				if (((test.modifier | soFar.modCopy) & (Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN)) != 0)
-					soFar.modCopy |= Modifier.MF_MAYBEWRITTEN;
-				soFar.modCopy &= test.modifier & Modifier.MF_ISWRITTEN;
-			}
-		}
+		soFar.combine(mthd.getWriteState());
 	}
 }
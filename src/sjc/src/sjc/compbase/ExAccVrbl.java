@@ -22,7 +22,8 @@ package sjc.compbase;
  * ExAccVrbl: expression referring to a memory-variable
  *
  * @author S. Frenz
- * @version 181016 optimized and fixed genOutputAddr with outer variable
+ * @version 261018 counting write accesses, bitset based write state
+ * version 181016 optimized and fixed genOutputAddr with outer variable
  * version 140507 added support for RefToFlash
  * version 140124 added more support for local / param variables pointing to flash memory
  * version 120504 completed support for struct references
@@ -111,9 +112,10 @@ public abstract class ExAccVrbl extends Expr
 	
 	public boolean canGenAddr(Unit unitContext, boolean allowSpecialWriteAccess, int resolveFlags, Context ctx)
 	{
-		if (isThis || constType > 0 || constObject || dest == null || (dest.location == AccVar.L_STRUCT && dest.type.typeSpecial != TypeRef.S_NOSPECIAL) || (!allowSpecialWriteAccess && (dest.modifier & Modifier.M_FIN) != 0 && ((resolveFlags & RF_INSIDE_LOOP) != 0 || (dest.modifier & (Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN)) != 0)))
+		if (isThis || constType > 0 || constObject || dest == null || (dest.location == AccVar.L_STRUCT && dest.type.typeSpecial != TypeRef.S_NOSPECIAL) || (!allowSpecialWriteAccess && (dest.modifier & Modifier.M_FIN) != 0 && ((resolveFlags & RF_INSIDE_LOOP) != 0 || dest.isMaybeWritten())))
 			return false;
-		dest.modifier |= Modifier.MF_ISWRITTEN;
+		dest.setWritten();
+		dest.writeCount++;
 		return true;
 	}
 	
@@ -18,11 +18,14 @@
 
 package sjc.compbase;
 
+import sjc.backend.Instruction;
+
 /**
  * ExConv: basix routines to support conversion and typecheck of objects
  *
  * @author S. Frenz
- * @version 101210 adopted changed Architecture
+ * @version 261018 added inline caches for conversions to interfaces
+ * version 101210 adopted changed Architecture
  * version 101015 adopted changed Expr
  * version 100429 added check for genIntfParents if interface arrays are converted
  * version 100426 made class non-abstract and methods public to support special conversions
@@ -54,6 +57,8 @@ public class ExCheckType extends Expr
 	protected UnitList runtimeClass;
 	private UnitList importedClass;
 	private TypeRef dstType;
+	private Unit cacheUnit; //unit containing the inline cache, null if no cache is used
+	private int cacheNo; //number of inline cache inside cacheUnit
 	
 	public ExCheckType(int fid, int il, int ic)
 	{
@@ -111,6 +116,11 @@ public class ExCheckType extends Expr
 			if ((dstUnit.modifier & Modifier.M_INDIR) != 0)
 			{
 				checkMode = C_ISIMPL;
+				if (!ctx.dynaMem && !ctx.embedded && cacheUnit == null && !unitContext.offsetsAssigned && (unitContext.modifier & Modifier.M_INDIR) == 0)
+				{ //reserve inline cache in descriptor of current unit, space is assigned in assignOffsets
+					cacheUnit = unitContext;
+					cacheNo = unitContext.intfCacheCnt++;
+				}
 			}
 			else
 				checkMode = C_ISINST;
@@ -127,7 +137,70 @@ public class ExCheckType extends Expr
 	
 	public void genIsType(int dst, int src, boolean asCast, Context ctx)
 	{
-		genIsType(dst, src, asCast, dstType, checkMode, runtimeClass, importedClass, ctx);
+		if (cacheUnit != null)
+			genIsImplCached(dst, src, asCast, ctx);
+		else
+			genIsType(dst, src, asCast, dstType, checkMode, runtimeClass, importedClass, ctx);
+	}
+	
+	private void genIsImplCached(int dst, int src, boolean asCast, Context ctx)
+	{
+		int callRestore, tmpRestore, tmp, condHnd, off, typeOff = -ctx.arch.relocBytes;
+		Object cacheLoc = cacheUnit.outputLocation;
+		Instruction lookup, isNull, found;
+		
+		//cache contains type of last converted object and its map: both are static in this memory model
+		off = cacheUnit.intfCacheOff + cacheNo * 2 * ctx.arch.relocBytes;
+		lookup = ctx.arch.getUnlinkedInstruction();
+		isNull = ctx.arch.getUnlinkedInstruction();
+		found = ctx.arch.getUnlinkedInstruction();
+		callRestore = ctx.arch.ensureFreeRegs(dst, src, 0, 0); //these registers are handled by hand
+		tmpRestore = ctx.arch.prepareFreeReg(dst, src, 0, StdTypes.T_PTR);
+		tmp = ctx.arch.allocReg();
+		ctx.arch.genPush(src, StdTypes.T_PTR); //object is needed for result and lookup, src is destroyed
+		condHnd = ctx.arch.genCompPtrToNull(src, Ops.C_EQ);
+		ctx.arch.genCondJmp(isNull, condHnd);
+		//compare type of object with cached type, a hit needs a valid map
+		ctx.arch.genLoadVarVal(src, src, null, typeOff, StdTypes.T_PTR);
+		ctx.arch.genLoadVarVal(tmp, 0, cacheLoc, off, StdTypes.T_PTR);
+		condHnd = ctx.arch.genComp(src, tmp, StdTypes.T_PTR, Ops.C_NE);
+		ctx.arch.genCondJmp(lookup, condHnd);
+		ctx.arch.genLoadVarVal(tmp, 0, cacheLoc, off + ctx.arch.relocBytes, StdTypes.T_PTR);
+		condHnd = ctx.arch.genCompPtrToNull(tmp, Ops.C_NE);
+		ctx.arch.genCondJmp(found, condHnd);
+		//cache miss: enter type with cleared map, ask runtime environment and enter the map found
+		ctx.arch.appendInstruction(lookup);
+		ctx.arch.genLoadConstVal(tmp, 0, StdTypes.T_PTR);
+		ctx.arch.genStoreVarVal(0, cacheLoc, off + ctx.arch.relocBytes, tmp, StdTypes.T_PTR); //clear map before type is changed
+		ctx.arch.genStoreVarVal(0, cacheLoc, off, src, StdTypes.T_PTR);
+		ctx.arch.genPop(src, StdTypes.T_PTR);
+		ctx.arch.genPush(src, StdTypes.T_PTR);
+		ctx.arch.genPush(src, StdTypes.T_PTR);
+		ctx.arch.genLoadConstUnitContext(tmp, dstType.qid.unitDest.outputLocation);
+		ctx.arch.genPush(tmp, StdTypes.T_PTR);
+		ctx.arch.genPushConstVal(asCast ? 1 : 0, StdTypes.T_BOOL);
+		ctx.arch.genCallConst(ctx.rteDRIsImplMd, ctx.rteDRIsImplMd.parSize);
+		ctx.arch.genMoveFromPrimary(tmp, StdTypes.T_PTR);
+		ctx.arch.genStoreVarVal(0, cacheLoc, off + ctx.arch.relocBytes, tmp, StdTypes.T_PTR);
+		ctx.arch.genJmp(found);
+		//null is converted without lookup
+		ctx.arch.appendInstruction(isNull);
+		ctx.arch.genLoadConstVal(tmp, 0, StdTypes.T_PTR);
+		//map is in tmp, object is on stack
+		ctx.arch.appendInstruction(found);
+		if (asCast)
+		{
+			ctx.arch.genMoveToPrimary(tmp, StdTypes.T_PTR);
+			ctx.arch.genMoveIntfMapFromPrimary(dst); //move map to secondary reg for use
+			ctx.arch.genPop(dst, StdTypes.T_PTR);
+		}
+		else
+		{
+			ctx.arch.genDup(dst, tmp, StdTypes.T_PTR); //map for check
+			ctx.arch.genPop(tmp, StdTypes.T_PTR); //object not of interest
+		}
+		ctx.arch.deallocRestoreReg(tmp, dst, tmpRestore);
+		ctx.arch.deallocRestoreReg(0, 0, callRestore);
 	}
 	
 	public static void genIsType(int dst, int src, boolean asCast, TypeRef dstType, int checkMode, UnitList runtimeClass, UnitList importedClass, Context ctx)
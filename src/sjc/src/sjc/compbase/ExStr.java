@@ -24,7 +24,8 @@ import sjc.debug.CodePrinter;
  * ExStr: constant string expression
  *
  * @author S. Frenz
- * @version 120925 added support for code printer
+ * @version 261018 share objects of identical strings
+ * version 120925 added support for code printer
  * version 101015 adopted changed Expr
  * version 100312 added support for flash objects
  * version 100114 reorganized constant object handling
@@ -54,6 +55,8 @@ import sjc.debug.CodePrinter;
 public class ExStr extends ExConstInitObj
 {
 	public String value;
+	protected ExStr nextInterned; //next string with same hash, see Context.getInternedString
+	private int memBytes; //bytes allocated for this string
 	
 	public ExStr(String is, int fid, int il, int ic)
 	{
@@ -98,16 +101,24 @@ public class ExStr extends ExConstInitObj
 	
 	public boolean generateObject(Context ctx, boolean doFlash)
 	{
+		ExStr first;
 		int memoryHint;
 		
 		if (inFlash != doFlash)
 			return true;
+		if ((first = ctx.getInternedString(this)) != this)
+		{ //identical string already generated, share its object
+			outputLocation = first.outputLocation;
+			ctx.stringSharedCount++;
+			ctx.stringSharedBytes += first.memBytes;
+			return true;
+		}
 		memoryHint = ctx.mem.getCurrentAllocAmountHint();
 		ctx.stringCount++;
 		ctx.stringChars += value.length();
 		if ((outputLocation = ctx.allocateString(value)) == null)
 			return false;
-		ctx.stringMemBytes += ctx.mem.getCurrentAllocAmountHint() - memoryHint;
+		ctx.stringMemBytes += memBytes = ctx.mem.getCurrentAllocAmountHint() - memoryHint;
 		return true;
 	}
 	
@@ -0,0 +1,107 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.compbase;
+
+/**
+ * HashIndex: hash index for objects of a linear list, entries of one hash keep insertion order
+ *
+ * @version 261018 initial version
+ */
+
+public class HashIndex
+{
+	public static class Entry
+	{
+		public Object obj;
+		public int hash;
+		public Entry next;
+	}
+	
+	private Entry[] table;
+	private int mask, count;
+	
+	public HashIndex(int expectedCount)
+	{
+		int size = 8;
+		while (size < expectedCount)
+			size = size << 1;
+		table = new Entry[size];
+		mask = size - 1;
+	}
+	
+	public static int getHash(String str)
+	{
+		int i, len = str.length(), hash = len;
+		
+		for (i = 0; i < len; i++)
+			hash = hash * 31 + str.charAt(i);
+		return hash;
+	}
+	
+	public Entry get(int hash)
+	{
+		return table[hash & mask];
+	}
+	
+	public void add(int hash, Object obj)
+	{
+		Entry entry = new Entry(), last;
+		
+		entry.obj = obj;
+		entry.hash = hash;
+		if ((last = table[hash & mask]) == null)
+			table[hash & mask] = entry;
+		else
+		{
+			while (last.next != null)
+				last = last.next;
+			last.next = entry;
+		}
+		if (++count > table.length * 2)
+			grow();
+	}
+	
+	private void grow()
+	{
+		Entry[] old = table;
+		Entry entry, next, last;
+		int i, index;
+		
+		table = new Entry[old.length << 1];
+		mask = table.length - 1;
+		for (i = 0; i < old.length; i++)
+		{ //re-insert in order to keep insertion order for each hash
+			entry = old[i];
+			while (entry != null)
+			{
+				next = entry.next;
+				entry.next = null;
+				index = entry.hash & mask;
+				if ((last = table[index]) == null)
+					table[index] = entry;
+				else
+				{
+					while (last.next != null)
+						last = last.next;
+					last.next = entry;
+				}
+				entry = next;
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.compbase;
+
+/**
+ * LineTable: compact assignment of source lines to code offsets of a method
+ * each entry is the unsigned LEB128 encoded code offset delta followed by the
+ * signed LEB128 encoded line delta, both relative to the previous entry which
+ * starts at offset 0 (first byte of code) and line 0
+ *
+ * @version 261018 initial version
+ */
+
+public class LineTable
+{
+	public int offset, line; //current entry while decoding
+	private byte[] buf = new byte[64];
+	private int used, pendingOffset, pendingLine, lastOffset, lastLine;
+	private boolean pending;
+	private byte[] table;
+	private int pos;
+	
+	public void startEncoding()
+	{
+		used = lastOffset = lastLine = 0;
+		pending = false;
+	}
+	
+	public void add(int codeOffset, int codeLine)
+	{
+		if (pending && pendingOffset == codeOffset)
+		{ //last entry has no code, overwrite it
+			pendingLine = codeLine;
+			return;
+		}
+		flush();
+		pendingOffset = codeOffset;
+		pendingLine = codeLine;
+		pending = true;
+	}
+	
+	public byte[] finishEncoding()
+	{
+		byte[] res;
+		int i;
+		
+		flush();
+		if (used == 0)
+			return null;
+		res = new byte[used];
+		for (i = 0; i < used; i++)
+			res[i] = buf[i];
+		return res;
+	}
+	
+	public void startDecoding(byte[] table)
+	{
+		this.table = table;
+		pos = offset = line = 0;
+	}
+	
+	public boolean next()
+	{
+		int value, shift;
+		byte b;
+		
+		if (table == null || pos >= table.length)
+			return false;
+		value = shift = 0;
+		do
+		{
+			b = table[pos++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		offset += value;
+		value = shift = 0;
+		do
+		{
+			b = table[pos++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		if (shift < 32 && (b & 0x40) != 0)
+			value |= -1 << shift; //sign extension
+		line += value;
+		return true;
+	}
+	
+	public static int getEntryCount(byte[] table)
+	{
+		int i, cnt = 0;
+		
+		if (table != null)
+			for (i = 0; i < table.length; i++)
+				if ((table[i] & 0x80) == 0)
+					cnt++; //each entry consists of two LEB128 values
+		return cnt >>> 1;
+	}
+	
+	private void flush()
+	{
+		if (!pending)
+			return;
+		pending = false;
+		if (used > 0 && pendingLine == lastLine)
+			return; //line did not change, previous entry covers the code
+		if (buf.length < used + 10)
+			grow();
+		appendUnsigned(pendingOffset - lastOffset);
+		appendSigned(pendingLine - lastLine);
+		lastOffset = pendingOffset;
+		lastLine = pendingLine;
+	}
+	
+	private void grow()
+	{
+		byte[] newBuf = new byte[buf.length * 2];
+		int i;
+		
+		for (i = 0; i < used; i++)
+			newBuf[i] = buf[i];
+		buf = newBuf;
+	}
+	
+	private void appendUnsigned(int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			buf[used++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[used++] = (byte) value;
+	}
+	
+	private void appendSigned(int value)
+	{
+		while (value < -64 || value > 63)
+		{
+			buf[used++] = (byte) ((value & 0x7F) | 0x80);
+			value >>= 7;
+		}
+		buf[used++] = (byte) (value & 0x7F);
+	}
+}
@@ -18,6 +18,7 @@
 
 package sjc.compbase;
 
+import sjc.backend.MthdCode;
 import sjc.debug.CodePrinter;
 import sjc.osio.TextPrinter;
 
@@ -25,7 +26,8 @@ import sjc.osio.TextPrinter;
  * Mthd: platform and language independent functionality of methods to be called
  *
  * @author S. Frenz
- * @version 151031 added support for assembler attaching
+ * @version 261018 added support for parallel code generation, added tracking of interface implementations and overriding units, added writeState, replaced lineInCodeOffset by lineTable, added calledMthds
+ * version 151031 added support for assembler attaching
  * version 120923 added support for code printer
  * version 100929 added support for implicit base type conversions in calls
  * version 100902 added isOverloadedBy, optimized checkParamConversions
@@ -78,6 +80,7 @@ public abstract class Mthd extends Token
 	public Param param;
 	public Vrbl vars; //changes during resolving, always containing current var-view
 	public VrblList checkInitVars; //usually null, set to unwritten unit vars for constructor
+	public VrblState writeState; //current write state of tracked vars and checkInitVars while resolving
 	public Mthd nextMthd;
 	public Unit owner;
 	public int modifier, marker; //marker is initialized to 0
@@ -87,14 +90,21 @@ public abstract class Mthd extends Token
 	public Mthd redirect; //will be null if the method is not redirected
 	public Vrbl nativeAddress; //will be null if method if not native
 	public QualIDList throwsList; //will be null if method does not throw anything
+	public Mthd intfImpl; //only for interface methods: implementing method, null if not implemented
+	public boolean intfImplMultiple; //only for interface methods: set if there are different implementing methods
+	public UnitList overridingUnits; //units containing a method overriding this one, set after offsets are assigned
+	public boolean autoInlineBound; //overloaded but auto-inlineable at call sites that are bound statically
+	public MthdList calledMthds; //methods called by this one, marked as accessed once this method needs code
 	//required fields for interface-checks, overloading and code-generation
 	public int parSize, parCnt, varSize, retRegType, codeSize, stmtCnt;
 	public boolean inGenOutput;
 	public Object outputLocation;
 	//required fields for line-number information
-	public int[] lineInCodeOffset;
+	public byte[] lineTable; //see LineTable for encoding
 	//required field for attached assembler output
 	public String asmCode;
+	//required field for parallel code generation, contains finalized but not yet copied code
+	public MthdCode preGenCode;
 	
 	private AddrList fixupList;
 	protected boolean isResolved;
@@ -117,6 +127,17 @@ public abstract class Mthd extends Token
 	
 	public abstract void genInlineOutput(Context ctx);
 	
+	public boolean mayPreGenOutput(Context ctx)
+	{
+		return false;
+	} //has to be overwritten if code may be generated independently of allocation and other methods
+	
+	public void preGenOutput(Context ctx)
+	{
+		ctx.out.println("Invalid call to Mthd.preGenOutput");
+		ctx.err = true;
+	}
+	
 	public void printCode(CodePrinter prnt)
 	{
 		prnt.reportError(this, "method does not support code printing");
@@ -184,13 +205,34 @@ public abstract class Mthd extends Token
 		return -1; //different param-count
 	}
 	
+	public void addCalledMthd(Mthd called)
+	{
+		MthdList list = calledMthds;
+		
+		while (list != null)
+		{
+			if (list.mthd == called)
+				return;
+			list = list.next;
+		}
+		(list = new MthdList(called)).next = calledMthds;
+		calledMthds = list;
+	}
+	
+	public VrblState getWriteState()
+	{
+		if (writeState == null)
+			writeState = new VrblState();
+		return writeState;
+	}
+	
 	public boolean checkVarWriteState(Token checkPosition, Context ctx)
 	{
 		VrblList vrblList = owner.writeCheckFinalVars;
 		boolean all = true;
 		while (vrblList != null)
 		{
-			if ((vrblList.vrbl.modifier & Modifier.MF_ISWRITTEN) == 0)
+			if (!vrblList.vrbl.isWritten())
 			{
 				if (!all)
 					ctx.out.println(); //already printed a variable
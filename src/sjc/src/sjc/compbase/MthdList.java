@@ -1,5 +1,4 @@
-/* Copyright (C) 2007, 2008, 2009 Stefan Frenz
- *
+/*
  * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
  *
  * SJC is free software: you can redistribute it and/or modify
@@ -19,15 +18,18 @@
 package sjc.compbase;
 
 /**
- * VrblStateList: linear list of variables (independent of Vrbl.nextVrbl) with modCopy field
+ * MthdList: linear list of methods
  *
- * @author S. Frenz
- * @version 091109 initial version
+ * @version 261018 initial version
  */
 
-public class VrblStateList
+public class MthdList
 {
-	public Vrbl vrbl;
-	public int modCopy;
-	public VrblStateList next;
+	public Mthd mthd;
+	public MthdList next;
+	
+	public MthdList(Mthd im)
+	{
+		mthd = im;
+	}
 }
@@ -24,7 +24,8 @@ import sjc.osio.TextPrinter;
  * Pack: nameservice directory
  *
  * @author S. Frenz
- * @version 120227 cleaned up "package sjc." typo
+ * @version 261018 added hash indexes for units and sub-packages
+ * version 120227 cleaned up "package sjc." typo
  * version 110512 re-invented NamedObject
  * version 101231 removed never used reference to NamedObject
  * version 101219 added reference to NamedObject
@@ -48,6 +49,9 @@ public class Pack
 	public NamedObject objs;
 	
 	private QualID qidOfThis;
+	private HashIndex unitIndex, packIndex; //created on first insertion, contain all units / sub-packages
+	private Unit lastUnit;
+	private Pack lastPack;
 	
 	public Pack(String in, Pack ip)
 	{
@@ -80,49 +84,42 @@ public class Pack
 	
 	public Pack searchSubPackage(String what)
 	{
-		Pack sub;
+		HashIndex.Entry entry;
+		int hash;
 		
-		sub = subPacks;
-		while (sub != null)
+		if (packIndex == null)
+			return null;
+		hash = HashIndex.getHash(what);
+		entry = packIndex.get(hash);
+		while (entry != null)
 		{
-			if (sub.name.equals(what))
-				return sub;
-			sub = sub.nextPack;
+			if (entry.hash == hash && ((Pack) entry.obj).name.equals(what))
+				return (Pack) entry.obj;
+			entry = entry.next;
 		}
 		return null;
 	}
 	
 	public Pack searchSubPackage(StringList what, boolean createIfNew)
 	{
-		Pack sub = subPacks, last = null;
-		boolean found = false;
+		Pack sub;
 		
-		while (sub != null)
-		{
-			last = sub;
-			if (sub.name.equals(what.str))
-			{
-				found = true;
-				break;
-			}
-			sub = sub.nextPack;
-		}
-		if (!found)
+		if ((sub = searchSubPackage(what.str)) == null)
 		{
 			if (!createIfNew)
 				return null; //not found
 			if (searchUnit(what.str) != null)
 				return null; //class with this name already exists
-			if (last != null)
+			sub = new Pack(what.str, this);
+			if (lastPack == null)
 			{
-				last.nextPack = new Pack(what.str, this);
-				sub = last.nextPack;
-			}
-			else
-			{
-				sub = new Pack(what.str, this);
 				subPacks = sub;
+				packIndex = new HashIndex(0);
 			}
+			else
+				lastPack.nextPack = sub;
+			lastPack = sub;
+			packIndex.add(HashIndex.getHash(sub.name), sub);
 		}
 		if (what.next == null)
 			return sub; //found everything
@@ -132,84 +129,58 @@ public class Pack
 	
 	public Unit searchUnit(String what)
 	{
-		Unit u;
+		HashIndex.Entry entry;
+		int hash;
 		
-		u = units;
-		while (u != null)
+		if (unitIndex == null)
+			return null;
+		hash = HashIndex.getHash(what);
+		entry = unitIndex.get(hash);
+		while (entry != null)
 		{
-			if (u.name.equals(what))
-				return u;
-			u = u.nextUnit;
+			if (entry.hash == hash && ((Unit) entry.obj).name.equals(what))
+				return (Unit) entry.obj;
+			entry = entry.next;
 		}
 		return null; //name not found
 	}
 	
 	public Unit searchUnit(StringList what)
 	{
-		Pack sub = subPacks;
-		Unit u, res;
-		StringList cur;
+		Pack sub;
+		Unit res;
 		
 		if (what.next == null)
 			return searchUnit(what.str); //no subpackage left, search units
 		//subpackages existing
-		if (what.next != null)
-			while (sub != null)
-			{ //search subpackage
-				if (sub.name.equals(what.str))
-					return sub.searchUnit(what.next);
-				sub = sub.nextPack;
-			}
+		if ((sub = searchSubPackage(what.str)) != null)
+			return sub.searchUnit(what.next);
 		//try to find inner unit
-		u = units;
-		while (u != null)
+		res = searchUnit(what.str);
+		while (res != null && (what = what.next) != null)
 		{
-			res = u;
-			cur = what;
-			while (res != null)
-			{
-				if (cur.str.equals(res.name))
-				{ //found current inner unit
-					if ((cur = cur.next) == null)
-						return res; //found all
-					res = res.innerUnits; //get next level
-				}
-				else
-					res = res.nextUnit; //try next inner unit
-			}
-			u = u.nextUnit; //try next unit
+			res = res.innerUnits; //get next level
+			while (res != null && !what.str.equals(res.name))
+				res = res.nextUnit; //try next inner unit
 		}
-		//nothing found
-		return null;
+		return res;
 	}
 	
 	public boolean addUnit(Unit c)
 	{
-		Unit u;
-		Pack sub = subPacks;
-		
-		while (sub != null)
-		{
-			if (sub.name.equals(c.name))
-				return false; //package with this name already exists
-			sub = sub.nextPack;
-		}
-		if (units == null)
+		if (searchSubPackage(c.name) != null)
+			return false; //package with this name already exists
+		if (searchUnit(c.name) != null)
+			return false; //name already entered
+		if (lastUnit == null)
 		{
 			units = c;
-			return true;
-		}
-		u = units;
-		while (u.nextUnit != null)
-		{ //search entered units except last one
-			if (u.name.equals(c.name))
-				return false; //name already entered
-			u = u.nextUnit;
+			unitIndex = new HashIndex(0);
 		}
-		//compare last one, enter if not equal
-		if (u.name.equals(c.name))
-			return false; //name already entered
-		u.nextUnit = c;
+		else
+			lastUnit.nextUnit = c;
+		lastUnit = c;
+		unitIndex.add(HashIndex.getHash(c.name), c);
 		return true;
 	}
 	
@@ -26,7 +26,8 @@ import sjc.relations.RelationElement;
  * Unit: basic abstraction for a class or interface
  *
  * @author S. Frenz
- * @version 161212 added printNameWithOuter with delimiter
+ * @version 261018 added hash indexes for variables and methods, added intfId for class displays, added markCodeMthds, added inline caches for conversions to interfaces
+ * version 161212 added printNameWithOuter with delimiter
  * version 151108 added allocation debug hint
  * version 121020 added getSourceType
  * version 120228 added support for validateModifier
@@ -116,9 +117,13 @@ public abstract class Unit extends Token
 	public int clssRelocTableEntries, clssScalarTableSize;
 	public int instRelocTableEntries, instScalarTableSize, instIndirScalarTableSize;
 	public int indirMthdTableEntries;
+	public int intfId; //id of interface in class displays, 0 if not assigned
+	public int intfCacheCnt, intfCacheOff; //inline caches for conversions to interfaces inside descriptor
 	public RelationElement myRelations;
 	
 	private QualID qidOfThis;
+	private HashIndex vrblIndex, mthdIndex; //built on first search after members are fixed
+	private int nameHash;
 	
 	public Unit(int fid, int il, int ic)
 	{
@@ -136,8 +141,19 @@ public abstract class Unit extends Token
 	
 	public abstract Unit searchUnitInView(StringList name, boolean isRecursion);
 	
+	//vars and mthds may be indexed only if they will not be changed anymore
+	protected boolean hasFixedMembers()
+	{
+		return false;
+	}
+	
 	public abstract boolean assignOffsets(boolean doClssOff, Context ctx);
 	
+	public void markCodeMthds(Context ctx)
+	{
+		//default: no methods with code
+	}
+	
 	public abstract boolean genDescriptor(Context ctx);
 	
 	public abstract IndirUnitMapList enterInheritableReferences(Object objLoc, IndirUnitMapList lastIntf, Context ctx);
@@ -281,16 +297,41 @@ public abstract class Unit extends Token
 		return Modifier.MA_PACP;
 	}
 	
+	public int getNameHash()
+	{
+		if (nameHash == 0)
+			nameHash = HashIndex.getHash(name);
+		return nameHash;
+	}
+	
 	public Vrbl searchVariable(String cmp, Context ctx)
 	{
-		Vrbl me = vars, res = null;
+		Vrbl me, res = null;
 		QualIDList extsList;
+		HashIndex index;
+		HashIndex.Entry entry;
+		int hash;
 		
-		while (me != null)
+		if ((index = getVrblIndex()) != null)
 		{
-			if (me.name.equals(cmp))
-				return me;
-			me = me.nextVrbl;
+			hash = HashIndex.getHash(cmp);
+			entry = index.get(hash);
+			while (entry != null)
+			{
+				if (entry.hash == hash && ((Vrbl) entry.obj).name.equals(cmp))
+					return (Vrbl) entry.obj;
+				entry = entry.next;
+			}
+		}
+		else
+		{
+			me = vars;
+			while (me != null)
+			{
+				if (me.name.equals(cmp))
+					return me;
+				me = me.nextVrbl;
+			}
 		}
 		if (extsID != null)
 		{
@@ -318,13 +359,31 @@ public abstract class Unit extends Token
 	
 	public Mthd searchMethod(Mthd cmp, Context ctx)
 	{
-		Mthd me = mthds;
+		Mthd me;
+		HashIndex index;
+		HashIndex.Entry entry;
+		int hash;
 		
-		while (me != null)
+		if ((index = getMthdIndex()) != null)
 		{
-			if (me.matches(cmp, ctx))
-				return me;
-			me = me.nextMthd;
+			hash = getMthdHash(cmp);
+			entry = index.get(hash);
+			while (entry != null)
+			{
+				if (entry.hash == hash && ((Mthd) entry.obj).matches(cmp, ctx))
+					return (Mthd) entry.obj;
+				entry = entry.next;
+			}
+		}
+		else
+		{
+			me = mthds;
+			while (me != null)
+			{
+				if (me.matches(cmp, ctx))
+					return me;
+				me = me.nextMthd;
+			}
 		}
 		if (extsID == null)
 			return null;
@@ -333,6 +392,54 @@ public abstract class Unit extends Token
 		return extsID.unitDest.searchMethod(cmp, ctx);
 	}
 	
+	public HashIndex getVrblIndex()
+	{
+		if (vrblIndex == null && hasFixedMembers())
+			buildMemberIndexes();
+		return vrblIndex;
+	}
+	
+	public HashIndex getMthdIndex()
+	{
+		if (mthdIndex == null && hasFixedMembers())
+			buildMemberIndexes();
+		return mthdIndex;
+	}
+	
+	private void buildMemberIndexes()
+	{
+		Vrbl var;
+		Mthd mthd;
+		int cnt = 0;
+		
+		for (var = vars; var != null; var = var.nextVrbl)
+			cnt++;
+		vrblIndex = new HashIndex(cnt);
+		for (var = vars; var != null; var = var.nextVrbl)
+			vrblIndex.add(HashIndex.getHash(var.name), var);
+		cnt = 0;
+		for (mthd = mthds; mthd != null; mthd = mthd.nextMthd)
+			cnt++;
+		mthdIndex = new HashIndex(cnt);
+		for (mthd = mthds; mthd != null; mthd = mthd.nextMthd)
+			mthdIndex.add(getMthdHash(mthd), mthd);
+	}
+	
+	public static int getMthdHash(String name, int parCnt)
+	{
+		return HashIndex.getHash(name) + parCnt; //methods with same name but different parameter count are distinguished
+	}
+	
+	private static int getMthdHash(Mthd mthd)
+	{
+		Param par;
+		int parCnt = 0;
+		
+		for (par = mthd.param; par != null; par = par.nextParam)
+			parCnt++;
+		return getMthdHash(mthd.name, parCnt);
+	}
+	
 	protected boolean allocateDescriptor(int scalarSize, int relocEntries, Object typeLoc, Context ctx)
 	{
 		//check if already prepared
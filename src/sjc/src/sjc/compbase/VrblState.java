@@ -0,0 +1,146 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.compbase;
+
+/**
+ * VrblState: definite and possible assignment state of the variables of a method as dense bitsets
+ *
+ * @version 261018 initial version
+ */
+
+public class VrblState
+{
+	public VrblState next; //used for recycling
+	private int[] written = new int[2], maybeWritten = new int[2];
+	private int cnt; //number of valid bits, bits beyond are always zero inside words in use
+	
+	private static int getWordCount(int bits)
+	{
+		return (bits + 31) >>> 5;
+	}
+	
+	private void resize(int newCnt)
+	{
+		int i, oldWords = getWordCount(cnt), newWords = getWordCount(newCnt);
+		int[] newWritten, newMaybe;
+		if (newWords > written.length)
+		{
+			i = written.length << 1;
+			if (i < newWords)
+				i = newWords;
+			newWritten = new int[i];
+			newMaybe = new int[i];
+			for (i = 0; i < oldWords; i++)
+			{
+				newWritten[i] = written[i];
+				newMaybe[i] = maybeWritten[i];
+			}
+			written = newWritten;
+			maybeWritten = newMaybe;
+		}
+		for (i = oldWords; i < newWords; i++)
+			written[i] = maybeWritten[i] = 0;
+		cnt = newCnt;
+	}
+	
+	public void reset()
+	{
+		cnt = 0;
+	}
+	
+	public void add(AccVar var)
+	{
+		int index = cnt, mask = 1 << (index & 31);
+		resize(cnt + 1);
+		if ((var.modifier & Modifier.MF_ISWRITTEN) != 0)
+			written[index >>> 5] |= mask;
+		if ((var.modifier & Modifier.MF_MAYBEWRITTEN) != 0)
+			maybeWritten[index >>> 5] |= mask;
+		var.writeState = this;
+		var.writeStateIndex = index;
+	}
+	
+	public boolean isWritten(int index)
+	{
+		return (written[index >>> 5] & (1 << (index & 31))) != 0;
+	}
+	
+	public boolean isMaybeWritten(int index)
+	{
+		return ((written[index >>> 5] | maybeWritten[index >>> 5]) & (1 << (index & 31))) != 0;
+	}
+	
+	public void setWritten(int index)
+	{
+		written[index >>> 5] |= 1 << (index & 31);
+	}
+	
+	public void copy(VrblState src)
+	{
+		int i, srcWords, words;
+		if (src.cnt > cnt)
+			resize(src.cnt);
+		srcWords = getWordCount(src.cnt);
+		words = getWordCount(cnt);
+		for (i = 0; i < srcWords; i++)
+		{
+			written[i] = src.written[i];
+			maybeWritten[i] = src.maybeWritten[i];
+		}
+		for (; i < words; i++)
+			written[i] = maybeWritten[i] = 0;
+	}
+	
+	public void setPotential(VrblState preState)
+	{
+		int i, pre, preWords = preState != null ? getWordCount(preState.cnt) : 0, words = getWordCount(cnt);
+		for (i = 0; i < words; i++)
+		{
+			pre = i < preWords ? preState.written[i] : 0;
+			maybeWritten[i] |= written[i] & ~pre;
+			written[i] &= pre;
+		}
+	}
+	
+	public void setSure(VrblState sureState)
+	{
+		int i, sureWords = getWordCount(sureState.cnt), words = getWordCount(cnt);
+		if (sureWords > words)
+			sureWords = words;
+		for (i = 0; i < sureWords; i++)
+			written[i] |= sureState.written[i];
+	}
+	
+	public void combine(VrblState other)
+	{
+		int i, both, otherWritten, otherMaybe, otherWords = getWordCount(other.cnt), words = getWordCount(cnt);
+		for (i = 0; i < words; i++)
+		{
+			if (i < otherWords)
+			{
+				otherWritten = other.written[i];
+				otherMaybe = other.maybeWritten[i];
+			}
+			else
+				otherWritten = otherMaybe = 0;
+			both = written[i] & otherWritten;
+			maybeWritten[i] |= (written[i] | otherWritten | otherMaybe) & ~both;
+			written[i] = both;
+		}
+	}
+}
@@ -25,7 +25,8 @@ import sjc.osio.TextPrinter;
  * CodeInfo: symbol information writer containing code information
  *
  * @author S. Frenz
- * @version 120326 added closing of printer
+ * @version 261018 adopted LineTable, source line hints relative to the first code byte
+ * version 120326 added closing of printer
  * version 100331 adopted changed DebugWriter
  * version 100115 adopted codeStart-movement
  * version 091105 initial version
@@ -35,6 +36,7 @@ public class CodeInfo extends DebugWriter
 {
 	protected TextPrinter finalOut;
 	protected Context ctx;
+	private final LineTable lineTable = new LineTable();
 	
 	public CodeInfo(String filename, Context ic)
 	{
@@ -142,15 +144,18 @@ public class CodeInfo extends DebugWriter
 		finalOut.print("line: ");
 		finalOut.println(mthd.line);
 		
-		if (mthd.lineInCodeOffset != null)
+		if (mthd.lineTable != null)
 		{
 			finalOut.print("slhi:");
-			for (i = 0; i < mthd.lineInCodeOffset.length; i++)
+			lineTable.startDecoding(mthd.lineTable);
+			for (i = 0; lineTable.next(); i++)
 			{
-				if (i > 0 && (i & 7) == 0)
+				if (i > 0 && (i & 3) == 0)
 					finalOut.println();
 				finalOut.print(' ');
-				finalOut.print(mthd.lineInCodeOffset[i]);
+				finalOut.print(lineTable.offset);
+				finalOut.print(' ');
+				finalOut.print(lineTable.line);
 			}
 			finalOut.println();
 		}
@@ -25,7 +25,8 @@ import sjc.osio.TextPrinter;
  * DebugFactory: creation of debug-writers
  *
  * @author S. Frenz
- * @version 160324 added support for AsmOutVCpu2
+ * @version 261018 added PerfMap and ElfSym
+ * version 160324 added support for AsmOutVCpu2
  * version 151108 added support for AssemblerDebugWriter
  * version 130328 added Dwarf
  * version 120923 added CodePrinterJava
@@ -51,6 +52,8 @@ public class DebugFactory
 		v.println(" size     - size info writer");
 		v.println(" java     - java source out");
 		v.println(" sym      - syminfo writer");
+		v.println(" perf     - perf map writer");
+		v.println(" elf      - ELF symbol table for given ELF file");
 		v.println(" x86asm   - x86 debug lister");
 		v.println(" vcpu2asm - vCPU2 debug lister");
 	}
@@ -78,6 +81,10 @@ public class DebugFactory
 			return new CodePrinterJava(filename, ctx);
 		if (name.equals("gcc"))
 			return new GccInfo(filename, ctx);
+		if (name.equals("perf"))
+			return new PerfMap(filename, ctx);
+		if (name.equals("elf"))
+			return new ElfSym(filename, ctx);
 		return null;
 	}
 	
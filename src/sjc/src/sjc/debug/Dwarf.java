@@ -26,7 +26,8 @@ import sjc.osio.TextBuffer;
  * Dwarf: dwarf-debug info
  *
  * @author S. Frenz, T. Schmitt
- * @version 151026 fixed type conversion
+ * @version 261018 using line tables of all methods, fixed first line, line decrements and sequence end
+ * version 151026 fixed type conversion
  * version 140426 removed non-working variables (reset to 130406)
  * version 130508 added support for static non-final variables
  * version 130406 fixed line numbers, now using full qualified unit names, added base types
@@ -580,6 +581,7 @@ public class Dwarf extends DebugWriter
 	private final Section str;
 	private final Section aranges;
 	private final Section line;
+	private final LineTable lineTable = new LineTable();
 	private int abbrevCnt, cuHeaderStartInfo, cuLineStart;
 	
 	//abbreviation numbers
@@ -778,7 +780,7 @@ public class Dwarf extends DebugWriter
     abbrev.appendTwoBytes(DW_AT_location, DW_FORM_data4);
     abbrev.appendTwoBytes(DW_AT_type, DW_FORM_ref_addr);
     abbrev.appendTwoBytes(0, 0);
-    
+
     //create base types in dummy compilation unit
     cuHeaderStartInfo=info.usedBytes; //remember start of compilation unit header
     info.appendInt(0); //dummy-length, has to be replaced at end of unit
@@ -861,8 +863,6 @@ public class Dwarf extends DebugWriter
 	
 	public void startImageInfo(boolean isDecompressor)
 	{
-		if (!ctx.globalSourceLineHints)
-			ctx.out.println("dwarf: slhi not globally enabled, use \"-Q\" to get line number infos");
 	}
 	
 	public void finalizeImageInfo()
@@ -1139,7 +1139,7 @@ public class Dwarf extends DebugWriter
 			info.appendByte(0); //end of method data
 			
 			//enter values/offsets in line (see dwarf line program spec)
-			if (mthd.lineInCodeOffset != null)
+			if (mthd.lineTable != null)
 			{
 				line.appendByte(DW_LNS_set_file);
 				line.appendUnsignedLEB128(1);
@@ -1149,15 +1149,14 @@ public class Dwarf extends DebugWriter
 				line.appendInt(codeStart);
 				line.appendByte(DW_LNS_set_prologue_end);
 				int lastOffset = 0;
-				int lastLine = 0;
-				for (int i = 0; i < mthd.lineInCodeOffset.length; i += 2)
+				int lastLine = 1; //initial value of the line register
+				lineTable.startDecoding(mthd.lineTable);
+				while (lineTable.next())
 				{
-					int curOffset = mthd.lineInCodeOffset[i];
-					int curLine = mthd.lineInCodeOffset[i + 1];
-					int incOffset = curOffset - lastOffset;
-					int incLine = curLine - lastLine;
+					int incOffset = lineTable.offset - lastOffset;
+					int incLine = lineTable.line - lastLine;
 					int special = (incLine - LINE_BASE) + (LINE_RANGE * incOffset) + STD_FILELINE_OPCODE_LEN.length;
-					if (incLine < LINE_RANGE && special <= 255)
+					if (incLine >= LINE_BASE && incLine < LINE_BASE + LINE_RANGE && special <= 255)
 						line.appendByte(special); //encode as special
 					else
 					{ //encoding explicitly
@@ -1167,9 +1166,11 @@ public class Dwarf extends DebugWriter
 						line.appendUnsignedLEB128(incOffset);
 						line.appendByte(DW_LNS_copy);
 					}
-					lastOffset = curOffset;
-					lastLine = curLine;
+					lastOffset = lineTable.offset;
+					lastLine = lineTable.line;
 				}
+				line.appendByte(DW_LNS_advance_pc); //sequence ends behind the last byte of the method
+				line.appendUnsignedLEB128(mthd.codeSize - lastOffset);
 				line.appendByte(0); //escape sequence for DW_LNE_*
 				line.appendUnsignedLEB128(1 + 0);
 				line.appendByte(DW_LNE_end_sequence);
@@ -0,0 +1,200 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.debug;
+
+import sjc.compbase.Context;
+import sjc.osio.BinWriter;
+
+/**
+ * ElfSym: appends a symbol table with all methods to an already written 32 bit ELF executable
+ *
+ * @version 261018 initial version
+ */
+
+public class ElfSym extends MthdInfo
+{
+	private final static int EHDR_PHOFF = 28, EHDR_SHOFF = 32, EHDR_PHENTSIZE = 42, EHDR_PHNUM = 44;
+	private final static int EHDR_SHENTSIZE = 46, EHDR_SHNUM = 48, EHDR_SHSTRNDX = 50;
+	private final static int PT_LOAD = 1;
+	private final static int SHT_PROGBITS = 1, SHT_SYMTAB = 2, SHT_STRTAB = 3;
+	private final static int SHDR_SIZE = 40, SYM_SIZE = 16, SECTION_COUNT = 5;
+	private final static int STT_FUNC_GLOBAL = 0x12, TEXT_SECTION = 1;
+	private final static String SH_STR_TAB = "\0.text\0.symtab\0.strtab\0.shstrtab\0";
+	private final static int NAME_TEXT = 1, NAME_SYMTAB = 7, NAME_STRTAB = 15, NAME_SHSTRTAB = 23;
+	
+	private final String filename;
+	private final Context ctx;
+	private int memBase, memSize;
+	
+	public ElfSym(String filename, Context ic)
+	{
+		super(ic);
+		this.filename = filename;
+		ctx = ic;
+	}
+	
+	public void globalMemoryInfo(int baseAddress, int memBlockLen)
+	{
+		memBase = baseAddress;
+		memSize = memBlockLen;
+	}
+	
+	public void finalizeImageInfo()
+	{
+		byte[] elf, out;
+		MthdList mthd;
+		int i, phOff, phEntSize, phNum, textOff = -1, symCnt = 1, strSize = 1, symOff, strOff, shStrOff, shOff, sym, str;
+		
+		if ((elf = ctx.osio.readFile(filename)) == null || elf.length < 52 || elf[0] != 0x7F || elf[1] != 'E' || elf[2] != 'L' || elf[3] != 'F')
+		{
+			error("is not an ELF file");
+			return;
+		}
+		if (elf[4] != 1 || elf[5] != 1)
+		{
+			error("is not a little endian 32 bit ELF file");
+			return;
+		}
+		if (getShort(elf, EHDR_SHNUM) != 0)
+		{
+			error("already contains sections");
+			return;
+		}
+		//find the file offset of the image by its loaded segment
+		phOff = getInt(elf, EHDR_PHOFF);
+		phEntSize = getShort(elf, EHDR_PHENTSIZE);
+		phNum = getShort(elf, EHDR_PHNUM);
+		for (i = 0; i < phNum && phOff + (i + 1) * phEntSize <= elf.length; i++)
+		{
+			int ph = phOff + i * phEntSize, vAddr = getInt(elf, ph + 8);
+			if (getInt(elf, ph) == PT_LOAD && memBase >= vAddr && memBase + memSize <= vAddr + getInt(elf, ph + 16))
+			{
+				textOff = getInt(elf, ph + 4) + memBase - vAddr;
+				break;
+			}
+		}
+		if (textOff < 0)
+		{
+			error("does not contain the image in a loaded segment");
+			return;
+		}
+		//get size of symbol and string table
+		mthd = firstMthd;
+		while (mthd != null)
+		{
+			if (mthd.codeSize > 0)
+			{
+				symCnt++;
+				strSize += mthd.qualifiedName.length() + 1;
+			}
+			mthd = mthd.nextMthd;
+		}
+		//layout of appended data: symtab, strtab, shstrtab, section headers
+		symOff = (elf.length + 3) & ~3;
+		strOff = symOff + symCnt * SYM_SIZE;
+		shStrOff = strOff + strSize;
+		shOff = (shStrOff + SH_STR_TAB.length() + 3) & ~3;
+		out = new byte[shOff + SECTION_COUNT * SHDR_SIZE];
+		for (i = 0; i < elf.length; i++)
+			out[i] = elf[i];
+		//enter symbols, first symbol and first string are empty
+		sym = symOff + SYM_SIZE;
+		str = strOff + 1;
+		mthd = firstMthd;
+		while (mthd != null)
+		{
+			if (mthd.codeSize > 0)
+			{
+				putInt(out, sym, str - strOff);
+				putInt(out, sym + 4, mthd.codeStart);
+				putInt(out, sym + 8, mthd.codeSize);
+				out[sym + 12] = (byte) STT_FUNC_GLOBAL;
+				putShort(out, sym + 14, TEXT_SECTION);
+				sym += SYM_SIZE;
+				for (i = 0; i < mthd.qualifiedName.length(); i++)
+					out[str++] = (byte) mthd.qualifiedName.charAt(i);
+				str++;
+			}
+			mthd = mthd.nextMthd;
+		}
+		for (i = 0; i < SH_STR_TAB.length(); i++)
+			out[shStrOff + i] = (byte) SH_STR_TAB.charAt(i);
+		//enter section headers, first one is empty
+		putSectionHeader(out, shOff + SHDR_SIZE, NAME_TEXT, SHT_PROGBITS, 7, memBase, textOff, memSize, 0, 0, 4, 0);
+		putSectionHeader(out, shOff + 2 * SHDR_SIZE, NAME_SYMTAB, SHT_SYMTAB, 0, 0, symOff, symCnt * SYM_SIZE, 3, 1, 4, SYM_SIZE);
+		putSectionHeader(out, shOff + 3 * SHDR_SIZE, NAME_STRTAB, SHT_STRTAB, 0, 0, strOff, strSize, 0, 0, 1, 0);
+		putSectionHeader(out, shOff + 4 * SHDR_SIZE, NAME_SHSTRTAB, SHT_STRTAB, 0, 0, shStrOff, SH_STR_TAB.length(), 0, 0, 1, 0);
+		//let the ELF header point to the section headers
+		putInt(out, EHDR_SHOFF, shOff);
+		putShort(out, EHDR_SHENTSIZE, SHDR_SIZE);
+		putShort(out, EHDR_SHNUM, SECTION_COUNT);
+		putShort(out, EHDR_SHSTRNDX, SECTION_COUNT - 1);
+		//replace file
+		BinWriter bin = ctx.osio.getNewBinWriter();
+		if (bin == null || !bin.open(filename) || !bin.write(out, 0, out.length))
+		{
+			error("could not be written");
+			return;
+		}
+		bin.close();
+	}
+	
+	private void error(String msg)
+	{
+		ctx.out.print("ELF symbol writer: file ");
+		ctx.out.print(filename);
+		ctx.out.print(' ');
+		ctx.out.println(msg);
+	}
+	
+	private static void putSectionHeader(byte[] dest, int pos, int name, int type, int flags, int addr, int offset, int size, int link, int info, int align, int entSize)
+	{
+		putInt(dest, pos, name);
+		putInt(dest, pos + 4, type);
+		putInt(dest, pos + 8, flags);
+		putInt(dest, pos + 12, addr);
+		putInt(dest, pos + 16, offset);
+		putInt(dest, pos + 20, size);
+		putInt(dest, pos + 24, link);
+		putInt(dest, pos + 28, info);
+		putInt(dest, pos + 32, align);
+		putInt(dest, pos + 36, entSize);
+	}
+	
+	private static int getShort(byte[] src, int pos)
+	{
+		return (src[pos] & 0xFF) | ((src[pos + 1] & 0xFF) << 8);
+	}
+	
+	private static int getInt(byte[] src, int pos)
+	{
+		return getShort(src, pos) | (getShort(src, pos + 2) << 16);
+	}
+	
+	private static void putShort(byte[] dest, int pos, int value)
+	{
+		dest[pos] = (byte) value;
+		dest[pos + 1] = (byte) (value >>> 8);
+	}
+	
+	private static void putInt(byte[] dest, int pos, int value)
+	{
+		putShort(dest, pos, value);
+		putShort(dest, pos + 2, value >>> 16);
+	}
+}
@@ -26,7 +26,8 @@ import sjc.osio.TextPrinter;
  * MthdInfo: symbol information writer containing method information
  *
  * @author S. Frenz
- * @version 130329 fixed codeStart
+ * @version 261018 added qualified name and constructor without text file
+ * version 130329 fixed codeStart
  * version 120227 cleaned up "package sjc." typo
  * version 100928 fixed access to Context.mem
  * version 100331 adopted changed DebugWriter
@@ -46,24 +47,29 @@ public class MthdInfo extends DebugWriter
 	protected TextPrinter finalOut;
 	protected TextBuffer myBuffer;
 	protected MthdList firstMthd, lastMthd;
-	private String currentUnit;
+	private String currentUnit, currentUnitQualified;
 	private boolean unitIsIndir;
 	private final Context ctx;
 	
 	protected static class MthdList
 	{
-		protected String unit, nameWithPar, namePlain;
+		protected String unit, nameWithPar, namePlain, qualifiedName;
 		protected int addr, codeStart, codeSize;
 		protected MthdList nextMthd;
 	}
 	
 	public MthdInfo(String filename, Context ic)
 	{
+		this(ic);
 		if ((finalOut = ic.osio.getNewFilePrinter(filename)) == null)
 		{
 			ic.out.println("current system does not support writing to text files");
 			finalOut = ic.out;
 		}
+	}
+	
+	protected MthdInfo(Context ic)
+	{
 		ctx = ic;
 		myBuffer = new TextBuffer();
 	}
@@ -127,6 +133,7 @@ public class MthdInfo extends DebugWriter
 				myBuffer.print('.');
 			}
 			unit.printNameWithOuter(myBuffer);
+			currentUnitQualified = myBuffer.toString();
 			myBuffer.replace('.', '_');
 			currentUnit = myBuffer.toString();
 		}
@@ -171,6 +178,7 @@ public class MthdInfo extends DebugWriter
 			now.unit = currentUnit;
 			myBuffer.reset();
 			mthd.printNamePar(myBuffer);
+			now.qualifiedName = currentUnitQualified.concat(".").concat(myBuffer.toString());
 			//replace array dimension
 			myBuffer.replace('[', '_');
 			myBuffer.replace(']', '_');
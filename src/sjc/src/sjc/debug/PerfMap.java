@@ -0,0 +1,54 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.debug;
+
+import sjc.compbase.Context;
+
+/**
+ * PerfMap: method map in the format of perf-PID.map files read by Linux perf
+ *
+ * @version 261018 initial version
+ */
+
+public class PerfMap extends MthdInfo
+{
+	public PerfMap(String filename, Context ic)
+	{
+		super(filename, ic);
+	}
+	
+	public void finalizeImageInfo()
+	{
+		MthdList mthd = firstMthd;
+		
+		//one line per method: start address and size in hex followed by the name
+		while (mthd != null)
+		{
+			if (mthd.codeSize > 0)
+			{
+				finalOut.printHexFix(mthd.codeStart, 8);
+				finalOut.print(' ');
+				finalOut.printHexFix(mthd.codeSize, 8);
+				finalOut.print(' ');
+				finalOut.println(mthd.qualifiedName);
+			}
+			mthd = mthd.nextMthd;
+		}
+		finalOut.close();
+	}
+}
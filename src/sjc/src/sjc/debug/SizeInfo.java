@@ -25,7 +25,8 @@ import sjc.osio.TextPrinter;
  * SizeInfo: symbol information writer containing size information
  *
  * @author S. Frenz
- * @version 120326 added closing of printer
+ * @version 261018 added size of line tables
+ * version 120326 added closing of printer
  * version 110616 initial version
  */
 
@@ -34,7 +35,7 @@ public class SizeInfo extends DebugWriter
 	private TextPrinter finalOut;
 	private final Context ctx;
 	private Unit currentUnit;
-	private int currentUnitMthdSize;
+	private int currentUnitMthdSize, currentUnitLineSize;
 	
 	public SizeInfo(String filename, Context ic)
 	{
@@ -78,7 +79,7 @@ public class SizeInfo extends DebugWriter
 	public void startUnit(String type, Unit unit)
 	{
 		currentUnit = unit;
-		currentUnitMthdSize = 0;
+		currentUnitMthdSize = currentUnitLineSize = 0;
 		if (unit.pack != null)
 			unit.pack.printFullQID(finalOut);
 		finalOut.print(';');
@@ -131,6 +132,8 @@ public class SizeInfo extends DebugWriter
 		finalOut.print(';');
 		finalOut.println(mthd.codeSize);
 		currentUnitMthdSize += mthd.codeSize;
+		if (mthd.lineTable != null)
+			currentUnitLineSize += mthd.lineTable.length;
 	}
 	
 	public void endMethodList()
@@ -181,6 +184,12 @@ public class SizeInfo extends DebugWriter
 		currentUnit.printNameWithOuter(finalOut);
 		finalOut.print(";$CODE;");
 		finalOut.println(currentUnitMthdSize);
+		if (currentUnit.pack != null)
+			currentUnit.pack.printFullQID(finalOut);
+		finalOut.print(';');
+		currentUnit.printNameWithOuter(finalOut);
+		finalOut.print(";$LINE;");
+		finalOut.println(currentUnitLineSize);
 		currentUnit = null;
 	}
 }
@@ -29,7 +29,8 @@ import sjc.osio.TextPrinter;
  * FrontAdmin: handling of language dependend frontend
  *
  * @author S. Frenz
- * @version 160818 moved enterStartupInfo to Context and therefore also moved startUnit and startMthd there
+ * @version 261018 added optional support for class displays
+ * version 160818 moved enterStartupInfo to Context and therefore also moved startUnit and startMthd there
  * version 150907 added precheckLangEnvironment
  * version 120228 cleaned up "import sjc." typo
  * version 120227 cleaned up "package sjc." typo
@@ -403,6 +404,11 @@ public class FrontAdmin
 		}
 		if (ctx.genIntfParents)
 			error |= (ctx.rteSIntfParents = checkVrbl(ctx.rteSIntfDesc, "parents", true)) == AccVar.INV_RELOFF;
+		//class displays are optional, the runtime decides if they are generated
+		ctx.rteSClassDepth = checkVrbl(ctx.rteSClassDesc, "depth", false);
+		ctx.rteSClassDisplay = checkVrbl(ctx.rteSClassDesc, "display", false);
+		ctx.rteSClassIntfMaps = checkVrbl(ctx.rteSClassDesc, "intfMaps", false);
+		ctx.rteSIntfId = checkVrbl(ctx.rteSIntfDesc, "id", false);
 		error |= (ctx.rteSIMowner = checkVrbl(ctx.rteSIntfMap, "owner", true)) == AccVar.INV_RELOFF;
 		error |= (ctx.rteSIMnext = checkVrbl(ctx.rteSIntfMap, "next", true)) == AccVar.INV_RELOFF;
 		error |= (ctx.rteSArrayLength = checkVrbl(ctx.rteSArray, "length", true)) == AccVar.INV_RELOFF;
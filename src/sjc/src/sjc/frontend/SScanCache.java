@@ -0,0 +1,32 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.frontend;
+
+/**
+ * SScanCache: keeps the symbols of scanned files for hosts compiling unchanged sources repeatedly
+ *
+ * @version 261018 initial version
+ */
+
+public abstract class SScanCache
+{
+	//the data of a file is the key, a host has to pass the same array again only if the contents did not change
+	public abstract SScanRecord get(byte[] data);
+	
+	public abstract void put(byte[] data, SScanRecord rec);
+}
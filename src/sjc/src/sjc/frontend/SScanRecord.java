@@ -0,0 +1,61 @@
+/*
+ * This file is part of SJC, the Small Java Compiler written by Stefan Frenz.
+ *
+ * SJC is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SJC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SJC. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package sjc.frontend;
+
+/**
+ * SScanRecord: symbols delivered by SScanner for one file, replayed instead of scanning the file again
+ *
+ * @version 261018 initial version
+ */
+
+public class SScanRecord
+{
+	protected SScanSym[] syms; //copies of the next symbol after each step of the scanner
+	protected int cnt;
+	protected boolean archDependent; //contains floating point values built by the architecture
+	
+	protected SScanRecord()
+	{
+		syms = new SScanSym[256];
+	}
+	
+	protected void add(SScanSym sym)
+	{
+		SScanSym[] old;
+		SScanSym copy;
+		int i;
+		
+		if (cnt == syms.length)
+		{
+			old = syms;
+			syms = new SScanSym[cnt << 1];
+			for (i = 0; i < cnt; i++)
+				syms[i] = old[i];
+		}
+		syms[cnt++] = copy = new SScanSym();
+		copy.type = sym.type;
+		copy.par = sym.par;
+		copy.syline = sym.syline;
+		copy.sycol = sym.sycol;
+		copy.sypos = sym.sypos;
+		copy.syposE = sym.syposE;
+		copy.intBuf = sym.intBuf;
+		copy.longBuf = sym.longBuf;
+		copy.strBuf = sym.strBuf;
+	}
+}
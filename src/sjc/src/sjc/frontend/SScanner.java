@@ -26,7 +26,8 @@ import sjc.osio.TextReader;
  * SScanner: scanner for the SJava-language
  *
  * @author S. Frenz
- * @version 121017 allowed '$' for names
+ * @version 261018 added replay of symbols kept in symbolCache
+ * version 121017 allowed '$' for names
  * version 120227 cleaned up "package sjc." typo
  * version 110328 added check for int overflow
  * version 101203 added workaround for zero floating points with multiple zeros (avoid octal numbers here)
@@ -182,6 +183,8 @@ public class SScanner
 	private final static int CCT_BASEOP2 = 4; //'(', ')', '*', '+', ',', '-', '.', '/'
 	private final static int CCT_BASEOP3 = 5; //':', ';', '<', '=', '>', '?'
 	
+	public static SScanCache symbolCache; //set by hosts compiling unchanged sources repeatedly
+	
 	public SScanSym nxtSym, lahSym; //next and lookahead symbol
 	public int endOfLastSymbol; //position of end of last symbol in file
 	private Context ctx; //calling java-compiler
@@ -192,6 +195,8 @@ public class SScanner
 	private SScanSym l2aSym; //look-2-ahead symbol for internal recognition of identifier
 	private final char[] chrBuf;
 	private int bufLen;
+	private SScanRecord record, replay; //symbols of the current file recorded for or replayed from symbolCache
+	private int replayPos;
 	
 	public SScanner()
 	{
@@ -208,18 +213,67 @@ public class SScanner
 		curFID = fid;
 		ctx = ic;
 		v = ctx.out;
+		record = null;
+		if (replay != null)
+		{ //symbols of the last file were replayed, use own ones again
+			nxtSym = new SScanSym();
+			lahSym = new SScanSym();
+			replay = null;
+		}
+		if (symbolCache != null && (replay = symbolCache.get(r.data)) != null)
+		{
+			replayPos = 0;
+			nxtSym = replay.syms[0];
+			lahSym = replay.syms[replay.cnt > 1 ? 1 : 0];
+			endOfLastSymbol = 0;
+			return;
+		}
 		nxtSym.type = RES;
 		nxtSym.par = RES;
 		lahSym.type = RES;
 		lahSym.par = RES;
 		l2aSym.type = RES;
 		l2aSym.par = RES;
-		next(); //initialize internal look-2-ahead
-		next(); //initialize lookahead
-		next(); //initialize next
+		if (symbolCache != null)
+			record = new SScanRecord();
+		scanNext(); //initialize internal look-2-ahead
+		scanNext(); //initialize lookahead
+		scanNext(); //initialize next
+		if (record != null)
+			record.add(nxtSym);
 	}
 	
 	public boolean next()
+	{
+		boolean res;
+		
+		if (replay != null)
+		{ //recorded symbols always end with S_EOF
+			endOfLastSymbol = nxtSym.syposE;
+			if (nxtSym.type == S_EOF)
+				return false;
+			nxtSym = replay.syms[++replayPos];
+			lahSym = replay.syms[replayPos + 1 < replay.cnt ? replayPos + 1 : replayPos];
+			return nxtSym.type != S_EOF;
+		}
+		if (record == null || nxtSym.type <= 0)
+			return scanNext();
+		res = scanNext();
+		record.add(nxtSym);
+		return res;
+	}
+	
+	/**
+	 * Called by the parser after the current file, keeps its symbols in symbolCache if it was parsed successfully
+	 */
+	public void done(boolean success)
+	{
+		if (record != null && success && nxtSym.type == S_EOF && !record.archDependent)
+			symbolCache.put(r.data, record);
+		record = null;
+	}
+	
+	private boolean scanNext()
 	{
 		SScanSym dumSym;
 		
@@ -1257,6 +1311,8 @@ public class SScanner
 			return false;
 		}
 		//everything ok, set up floating point number
+		if (record != null)
+			record.archDependent = true;
 		if (useFloat)
 		{
 			l2aSym.par = T_FLT;
@@ -25,7 +25,8 @@ import sjc.debug.DebugWriter;
  * Clss: class-dependent part of java-units
  *
  * @author S. Frenz
- * @version 190417 added support for explicit null-initialization for non-final static struct
+ * @version 261018 added hash index for referenced units, added generation of class displays, record implementations of interface methods, moved decision about method code to markCodeMthds, added space for inline caches
+ * version 190417 added support for explicit null-initialization for non-final static struct
  * version 190322 added const struct scalar handling to support non-final static struct initialization
  * version 151108 added allocation debug hint
  * version 121020 added owner to $outer-variable of inner class
@@ -157,6 +158,8 @@ public class Clss extends JUnit
 	//required fields for resolving
 	public IndirUnitMapList implemented;
 	public UnitList referenced;
+	private HashIndex referencedIndex; //contains all entries of referenced
+	private UnitList lastReferenced;
 	
 	protected Clss(QualID ip, QualIDList ii, int imod, int imark, int fid, int il, int ic)
 	{
@@ -774,38 +777,41 @@ public class Clss extends JUnit
 	
 	public UnitList getRefUnit(Unit refUnit, boolean insert)
 	{
-		UnitList check, last;
+		UnitList check;
+		HashIndex.Entry entry;
+		int hash;
 		
 		//check if imported by parent
 		if (extsID != null && (check = extsID.unitDest.getRefUnit(refUnit, false)) != null)
 			return check; //found
 		//check if imported by us
-		check = referenced;
-		last = null;
-		//search if already imported
-		while (check != null)
-		{
-			if (check.unit == refUnit)
-				return check;
-			last = check;
-			check = check.next;
+		hash = refUnit.getNameHash();
+		if (referencedIndex != null)
+		{ //search if already imported
+			entry = referencedIndex.get(hash);
+			while (entry != null)
+			{
+				if ((check = (UnitList) entry.obj).unit == refUnit)
+					return check;
+				entry = entry.next;
+			}
 		}
 		//not found
 		if (!insert)
 			return null; //we shall not insert
 		//insert in list and allocate space in relocs
 		refUnit.modifier |= Modifier.MA_ACCSSD;
-		if (last == null)
+		check = new UnitList(refUnit);
+		if (lastReferenced == null)
 		{
-			referenced = new UnitList(refUnit);
-			last = referenced;
+			referenced = check;
+			referencedIndex = new HashIndex(0);
 		}
 		else
-		{
-			last.next = new UnitList(refUnit);
-			last = last.next;
-		}
-		return last;
+			lastReferenced.next = check;
+		lastReferenced = check;
+		referencedIndex.add(hash, check);
+		return check;
 	}
 	
 	public boolean assignOffsets(boolean doClssOff, Context ctx)
@@ -813,7 +819,7 @@ public class Clss extends JUnit
 		Unit parent = null;
 		boolean doInstOff = true;
 		Vrbl checkVrbl, inlArrVrbl = null;
-		Mthd checkMthd, omthd;
+		Mthd checkMthd;
 		UnitList imported;
 		int offTmp;
 		int mthdPtrCnt = ctx.dynaMem ? 2 : 1; //additionally need to remember owner of method in dynamic environment
@@ -906,40 +912,6 @@ public class Clss extends JUnit
 			{
 				if ((checkMthd.modifier & Modifier.M_NAT) == 0)
 				{
-					if ((checkMthd.modifier & Modifier.M_ABSTR) == 0)
-					{
-						omthd = checkMthd;
-						if (ctx.genAllMthds)
-							checkMthd.modifier |= Modifier.M_NDCODE;
-						else
-							while (omthd != null)
-							{
-								if ((omthd.modifier & Modifier.MA_ACCSSD) != 0)
-								{
-									checkMthd.modifier |= Modifier.M_NDCODE;
-									break;
-								}
-								omthd = omthd.ovldMthd;
-							}
-						if ((checkMthd.modifier & Modifier.M_NDCODE) == 0)
-						{
-							if (ctx.debugCode)
-								checkMthd.modifier |= Modifier.M_NDCODE;
-							if (ctx.verbose)
-							{
-								checkMthd.printPos(ctx, ctx.debugCode ? "would skip" : "skipping");
-								ctx.out.print(" code for method ");
-								checkMthd.printSig(ctx.out);
-								ctx.out.print(" in ");
-								if (pack != null)
-								{
-									pack.printFullQID(ctx.out);
-									ctx.out.print('.');
-								}
-								ctx.out.println(name);
-							}
-						}
-					}
 					if (checkMthd.ovldMthd == null || checkMthd.ovldMthd.relOff == 0)
 					{
 						if (ctx.dynaMem || (checkMthd.modifier & Modifier.M_NDDESC) != 0)
@@ -1078,6 +1050,15 @@ public class Clss extends JUnit
 		}
 		if (doClssOff)
 		{
+			//inline caches for conversions to interfaces are placed behind the statics, each with type and map
+			if (intfCacheCnt != 0)
+			{
+				modifier |= Modifier.MA_ACCSSD;
+				offTmp = ctx.arch.relocBytes - 1;
+				statScalarTableSize = (statScalarTableSize + offTmp) & ~offTmp;
+				intfCacheOff = statScalarTableSize;
+				statScalarTableSize += intfCacheCnt * 2 * ctx.arch.relocBytes;
+			}
 			//if there were statics, align class-scalars to stack-alignment
 			if (statScalarTableSize != 0)
 				clssScalarTableSize = (clssScalarTableSize + ctx.arch.stackClearBits) & ~ctx.arch.stackClearBits;
@@ -1100,6 +1081,51 @@ public class Clss extends JUnit
 		return true;
 	}
 	
+	public void markCodeMthds(Context ctx)
+	{
+		Mthd checkMthd, omthd;
+		
+		checkMthd = mthds;
+		while (checkMthd != null)
+		{
+			if ((checkMthd.modifier & (Modifier.M_NAT | Modifier.M_ABSTR)) == 0)
+			{
+				omthd = checkMthd;
+				if (ctx.genAllMthds)
+					checkMthd.modifier |= Modifier.M_NDCODE;
+				else
+					while (omthd != null)
+					{
+						if ((omthd.modifier & Modifier.MA_ACCSSD) != 0)
+						{
+							checkMthd.modifier |= Modifier.M_NDCODE;
+							break;
+						}
+						omthd = omthd.ovldMthd;
+					}
+				if ((checkMthd.modifier & Modifier.M_NDCODE) == 0)
+				{
+					if (ctx.debugCode)
+						checkMthd.modifier |= Modifier.M_NDCODE;
+					if (ctx.verbose)
+					{
+						checkMthd.printPos(ctx, ctx.debugCode ? "would skip" : "skipping");
+						ctx.out.print(" code for method ");
+						checkMthd.printSig(ctx.out);
+						ctx.out.print(" in ");
+						if (pack != null)
+						{
+							pack.printFullQID(ctx.out);
+							ctx.out.print('.');
+						}
+						ctx.out.println(name);
+					}
+				}
+			}
+			checkMthd = checkMthd.nextMthd;
+		}
+	}
+	
 	public boolean genDescriptor(Context ctx)
 	{
 		Vrbl checkVrbl;
@@ -1144,6 +1170,7 @@ public class Clss extends JUnit
 		//clss* will not be changed anymore, fix stat*
 		if (!ctx.embedded)
 		{
+			intfCacheOff += clssScalarTableSize;
 			checkVrbl = vars;
 			while (checkVrbl != null)
 			{
@@ -1234,6 +1261,8 @@ public class Clss extends JUnit
 		{
 			ctx.arch.putRef(outputLocation, ctx.rteSClassParent, extsID.unitDest.outputLocation, 0);
 		}
+		//enter display and interface map table if supported by runtime
+		genDisplayOutput(ctx);
 		//enter size if required
 		if (ctx.alternateObjNew)
 		{
@@ -1526,6 +1555,10 @@ public class Clss extends JUnit
 				else
 				{
 					me.map[checkMthd.relOff] = destMthd;
+					if (checkMthd.intfImpl == null)
+						checkMthd.intfImpl = destMthd;
+					else if (checkMthd.intfImpl != destMthd)
+						checkMthd.intfImplMultiple = true;
 					destMthd.modifier |= Modifier.MA_ACCSSD | Modifier.M_NDDESC | Modifier.MA_INTFMD;
 					switch (checkMthd.modifier & (Modifier.M_PUB | Modifier.M_PROT | Modifier.M_PACP))
 					{
@@ -1571,6 +1604,91 @@ public class Clss extends JUnit
 		return false;
 	}
 	
+	private void genDisplayOutput(Context ctx)
+	{
+		Unit chkUnit;
+		IndirUnitMapList chkIntf;
+		Object lastLoc, tmp;
+		Object[] maps;
+		int depth = 0, maxId = 0, tmpOff, i;
+		
+		tmpOff = -(ctx.rteSArray.instRelocTableEntries + 1) * ctx.arch.relocBytes;
+		//count descriptors up to the root, units without own descriptor share the one of their parent
+		lastLoc = outputLocation;
+		chkUnit = extsID != null ? extsID.unitDest : null;
+		while (chkUnit != null && chkUnit.outputLocation != null)
+		{
+			if (chkUnit.outputLocation != lastLoc)
+				depth++;
+			lastLoc = chkUnit.outputLocation;
+			chkUnit = chkUnit.extsID != null ? chkUnit.extsID.unitDest : null;
+		}
+		if (ctx.rteSClassDepth != AccVar.INV_RELOFF)
+			ctx.mem.putInt(outputLocation, ctx.rteSClassDepth, depth);
+		//display contains the ancestor of each depth, the class itself is the last entry
+		if (ctx.rteSClassDisplay != AccVar.INV_RELOFF)
+		{
+			tmp = ctx.mem.allocateArray(depth + 1, 1, -1, 0, ctx.rteSArray.outputLocation);
+			ctx.arch.putRef(outputLocation, ctx.rteSClassDisplay, tmp, 0);
+			ctx.arch.putRef(tmp, tmpOff - depth * ctx.arch.relocBytes, outputLocation, 0);
+			lastLoc = outputLocation;
+			i = depth;
+			chkUnit = extsID != null ? extsID.unitDest : null;
+			while (chkUnit != null && chkUnit.outputLocation != null)
+			{
+				if (chkUnit.outputLocation != lastLoc)
+					ctx.arch.putRef(tmp, tmpOff - --i * ctx.arch.relocBytes, chkUnit.outputLocation, 0);
+				lastLoc = chkUnit.outputLocation;
+				chkUnit = chkUnit.extsID != null ? chkUnit.extsID.unitDest : null;
+			}
+		}
+		//interface map table is indexed by interface id, id 0 is never assigned
+		if (ctx.rteSClassIntfMaps == AccVar.INV_RELOFF)
+			return;
+		chkUnit = this;
+		while (chkUnit instanceof Clss)
+		{
+			chkIntf = ((Clss) chkUnit).implemented;
+			while (chkIntf != null)
+			{
+				if (chkIntf.outputGenerated && chkIntf.intf.outputLocation != null)
+				{
+					if (chkIntf.intf.intfId == 0)
+					{
+						chkIntf.intf.intfId = ++ctx.intfIdCount;
+						if (ctx.rteSIntfId != AccVar.INV_RELOFF)
+							ctx.mem.putInt(chkIntf.intf.outputLocation, ctx.rteSIntfId, chkIntf.intf.intfId);
+					}
+					if (chkIntf.intf.intfId > maxId)
+						maxId = chkIntf.intf.intfId;
+				}
+				chkIntf = chkIntf.next;
+			}
+			chkUnit = chkUnit.extsID != null ? chkUnit.extsID.unitDest : null;
+		}
+		if (maxId == 0)
+			return; //no interfaces implemented, keep table null
+		//maps of the class itself hide the ones of its parents
+		maps = new Object[maxId + 1];
+		chkUnit = this;
+		while (chkUnit instanceof Clss)
+		{
+			chkIntf = ((Clss) chkUnit).implemented;
+			while (chkIntf != null)
+			{
+				if (chkIntf.outputGenerated && chkIntf.intf.intfId != 0 && maps[chkIntf.intf.intfId] == null)
+					maps[chkIntf.intf.intfId] = chkIntf.outputLocation;
+				chkIntf = chkIntf.next;
+			}
+			chkUnit = chkUnit.extsID != null ? chkUnit.extsID.unitDest : null;
+		}
+		tmp = ctx.mem.allocateArray(maxId + 1, 1, -1, 0, ctx.rteSArray.outputLocation);
+		ctx.arch.putRef(outputLocation, ctx.rteSClassIntfMaps, tmp, 0);
+		for (i = 1; i <= maxId; i++)
+			if (maps[i] != null)
+				ctx.arch.putRef(tmp, tmpOff - i * ctx.arch.relocBytes, maps[i], 0);
+	}
+	
 	private boolean genIntfOutput(IndirUnitMapList current, Context ctx)
 	{
 		int i, cnt, base;
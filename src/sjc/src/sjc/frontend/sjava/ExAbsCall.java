@@ -24,7 +24,8 @@ import sjc.compbase.*;
  * ExAbsCall: abstract expression with basic resolving for all types of calls
  *
  * @author S. Frenz
- * @version 120404 added extra parameter to beautify super visibility condition check, changed error message
+ * @version 261018 moved inlining to Context to support parallel code generation, use method index of units, added interface devirtualization, added call site devirtualization, skip methods only called from dead code or unneeded methods
+ * version 120404 added extra parameter to beautify super visibility condition check, changed error message
  * version 120402 added special visibility condition for super-call
  * version 110219 added support for native calls in embedded mode
  * version 101231 adopted changed Unit
@@ -90,6 +91,7 @@ public abstract class ExAbsCall extends Expr
 	protected Unit outerAccessStart; //used for access of outer units
 	protected boolean implContextSwitch;
 	private boolean callViaIntf;
+	private Unit receiverUnit; //static type of the called object, used for devirtualization
 	
 	protected ExAbsCall(int fid, int il, int ic)
 	{
@@ -154,6 +156,8 @@ public abstract class ExAbsCall extends Expr
 			if (!checkImplicitConverts(unitContext, ctx))
 				return false;
 		}
+		//methods found in outer units are called on the outer instance
+		receiverUnit = dest.owner.isParent(inUnit, ctx) ? inUnit : dest.owner;
 		//check modifiers
 		if (((inMthd.modifier & Modifier.M_STAT) != 0) && (dest.modifier & Modifier.M_STAT) == 0)
 		{
@@ -169,7 +173,16 @@ public abstract class ExAbsCall extends Expr
 		}
 		if ((accessLevel = unitContext.minimumAccessLevel(dest, dest.name, dest.owner, dest.modifier, inUnit == unitContext || partOfSuper, ctx)) == Modifier.M_ERROR)
 			return false;
-		dest.modifier |= accessLevel | Modifier.MA_ACCSSD;
+		dest.modifier |= accessLevel;
+		//calls in constantly dead code are never generated and do not need the method,
+		//calls in other methods need it only if the calling method needs code (see Context.markCalledMthds)
+		if ((resolveFlags & RF_DEAD_CODE) == 0)
+		{
+			if (ctx.genAllMthds || ctx.debugCode || mthdContext == mthdContext.owner.initStat || mthdContext == mthdContext.owner.initDyna)
+				dest.modifier |= Modifier.MA_ACCSSD;
+			else
+				mthdContext.addCalledMthd(dest);
+		}
 		omthd = dest.ovldMthd;
 		while (omthd != null)
 		{
@@ -191,9 +204,11 @@ public abstract class ExAbsCall extends Expr
 	private Mthd searchCalledMethod(Unit inUnit, boolean asConstr, boolean allowBaseTypeConv, String mthdName, FilledParam par, Context ctx)
 	{
 		Mthd mthd, dest = null;
-		int parCnt = 0, cur, best = -1, found = 0, curLevel = 0;
+		int parCnt = 0, cur, best = -1, found = 0, curLevel = 0, hash;
 		FilledParam tmpPar;
 		Unit curClass = inUnit, lastInner = inUnit;
+		HashIndex index;
+		HashIndex.Entry entry = null;
 		
 		if (asConstr && (inUnit.modifier & Modifier.M_INDIR) != 0)
 		{
@@ -206,9 +221,13 @@ public abstract class ExAbsCall extends Expr
 			parCnt++;
 			tmpPar = tmpPar.nextParam;
 		}
-		mthd = inUnit.mthds;
+		hash = Unit.getMthdHash(mthdName, parCnt);
 		do
 		{
+			if ((index = curClass.getMthdIndex()) != null)
+				mthd = (entry = index.get(hash)) != null ? (Mthd) entry.obj : null; //check only methods with matching hash
+			else
+				mthd = curClass.mthds; //no index, check all methods
 			while (mthd != null)
 			{
 				if (asConstr == mthd.isConstructor //check only if method/constructor,
@@ -233,17 +252,20 @@ public abstract class ExAbsCall extends Expr
 						}
 					}
 				}
-				mthd = mthd.nextMthd;
+				if (index != null)
+					mthd = (entry = entry.next) != null ? (Mthd) entry.obj : null;
+				else
+					mthd = mthd.nextMthd;
 			}
 			if (dest != null && (dest.modifier & Modifier.M_STAT) != 0)
 				break; //terminate search: found static destination
 			if (curClass.extsID != null)
 			{ //switch to parent
-				mthd = (curClass = curClass.extsID.unitDest).mthds;
+				curClass = curClass.extsID.unitDest;
 			}
 			else if (lastInner.outerUnit != null && found == 0)
 			{ //switch to last known class and switch to outer, if not method found so far
-				mthd = (lastInner = curClass = lastInner.outerUnit).mthds;
+				lastInner = curClass = lastInner.outerUnit;
 				curLevel++;
 			}
 			else
@@ -370,7 +392,8 @@ public abstract class ExAbsCall extends Expr
 	protected void genOutputCall(int reg, int obj, Context ctx)
 	{ //called from ExDeref and ExCall.genOutputVal (latter not for intf)
 		int type;
-		boolean forceInline;
+		boolean forceInline, bound;
+		Mthd impl;
 		
 		if ((dest.modifier & Modifier.M_NAT) != 0)
 		{ //call native method
@@ -387,13 +410,10 @@ public abstract class ExAbsCall extends Expr
 			{
 				ctx.arch.genLoadUnitContext(ctx.arch.regClss, dest.relOff + ctx.arch.relocBytes);
 			}
-			if ((forceInline = (dest.marker & Marks.K_FINL) != 0) && ctx.arch.mayInline() && !dest.inGenOutput)
+			bound = isMonomorphic(ctx);
+			if (!(forceInline = (dest.marker & Marks.K_FINL) != 0 || bound && dest.autoInlineBound) || !ctx.arch.mayInline() || !ctx.genInlineOutput(dest))
 			{
-				dest.genInlineOutput(ctx);
-			}
-			else
-			{
-				if (forceInline && ctx.noInlineMthdObj)
+				if (forceInline && ctx.noInlineMthdObj && (dest.marker & Marks.K_FINL) != 0)
 				{
 					printPos(ctx, "non-inline call of inline-marked method ");
 					dest.printNamePar(ctx.out);
@@ -401,11 +421,21 @@ public abstract class ExAbsCall extends Expr
 					ctx.err = true;
 					return;
 				}
-				if (!ctx.dynaMem && ((dest.modifier & (Modifier.M_STAT | Modifier.M_FIN | Modifier.M_PRIV)) != 0 || (dest.modifier & Modifier.M_OVERLD) == 0))
+				if (!ctx.dynaMem && bound)
 					ctx.arch.genCallConst(dest, dest.parSize);
 				else
+				{
 					ctx.arch.genCall(dest.relOff, ctx.arch.regClss, dest.parSize);
+					bound = false;
+				}
 			}
+			if (bound && (dest.modifier & (Modifier.M_STAT | Modifier.M_PRIV)) == 0 && !dest.isConstructor)
+				ctx.devirtCallCount++; //dynamic method called directly or inlined
+		}
+		else if (!ctx.dynaMem && (impl = dest.intfImpl) != null && !dest.intfImplMultiple && (impl.modifier & (Modifier.M_ABSTR | Modifier.M_NAT | Modifier.M_OVERLD)) == 0 && (impl.modifier & Modifier.M_NDCODE) != 0)
+		{ //call via interface-object with only one implementation that is not overloaded, bind statically
+			ctx.arch.genCallConst(impl, impl.parSize);
+			ctx.devirtCallCount++;
 		}
 		else
 		{ //call via interface-object (only from ExDeRef)
@@ -417,6 +447,24 @@ public abstract class ExAbsCall extends Expr
 		//else: no desired register existing => void method or result not interesting
 	}
 	
+	private boolean isMonomorphic(Context ctx)
+	{ //check if the called object may only reach dest, that is no unit overriding dest is receiverUnit or one of its children
+		UnitList overriding;
+		
+		if ((dest.modifier & (Modifier.M_STAT | Modifier.M_FIN | Modifier.M_PRIV)) != 0 || (dest.modifier & Modifier.M_OVERLD) == 0)
+			return true;
+		if ((dest.modifier & Modifier.M_ABSTR) != 0 || receiverUnit == null)
+			return false;
+		overriding = dest.overridingUnits;
+		while (overriding != null)
+		{
+			if (receiverUnit.isParent(overriding.unit, ctx))
+				return false;
+			overriding = overriding.next;
+		}
+		return true;
+	}
+	
 	private void loadOuterInstance(Context ctx)
 	{
 		int level = 0, reg;
@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * ExChoose: choosing expression
  *
  * @author S. Frenz
- * @version 120925 added support for code printer
+ * @version 261018 bitset based write state
+ * version 120925 added support for code printer
  * version 101015 adopted changed Expr
  * version 091111 added support for instance final-var-init
  * version 091109 rewriting of var's written state checks
@@ -66,24 +67,24 @@ public class ExChoose extends ExBin
 	public boolean resolve(Unit unitContext, Mthd mthdContext, int resolveFlags, TypeRef preferredType, Context ctx)
 	{
 		boolean trRes = false, faRes = false;
-		VrblStateList preState, trState;
+		VrblState preState, trState;
 		
 		//resolve left sub-expression
 		if (!le.resolve(unitContext, mthdContext, resolveFlags | RF_CHECKREAD, ctx.boolType, ctx))
 			return false; //left side always has impact on following code
 		
 		//resolve middle and right sub-expression
-		preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+		preState = ctx.copyVrblState(mthdContext);
 		trRes = ce.resolve(unitContext, mthdContext, resolveFlags | RF_CHECKREAD, preferredType, ctx);
-		trState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
-		ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+		trState = ctx.copyVrblState(mthdContext);
+		ctx.setVrblState(mthdContext, preState);
 		faRes = ri.resolve(unitContext, mthdContext, resolveFlags | RF_CHECKREAD, preferredType == null ? ce : preferredType, ctx);
 		if (le.calcConstantType(ctx) == StdTypes.T_INT)
 		{
 			if (le.getConstIntValue(ctx) == 1)
 			{
 				//SUN-Java warns: ri.flowWarn(ctx, ERR_UNREACHABLE_CODE);
-				ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, trState);
+				ctx.setVrblState(mthdContext, trState);
 			}
 			else
 			{
@@ -92,9 +93,9 @@ public class ExChoose extends ExBin
 			}
 		}
 		else
-			ctx.setVrblStateCombined(mthdContext.vars, mthdContext.checkInitVars, trState);
-		ctx.recycleVrblStatelist(trState);
-		ctx.recycleVrblStatelist(preState);
+			ctx.setVrblStateCombined(mthdContext, trState);
+		ctx.recycleVrblState(trState);
+		ctx.recycleVrblState(preState);
 		if (!trRes || !faRes)
 			return false;
 		
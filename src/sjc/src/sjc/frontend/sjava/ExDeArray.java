@@ -26,7 +26,8 @@ import sjc.debug.CodePrinter;
  * ExDeArray: array dereferenzation
  *
  * @author S. Frenz
- * @version 151019 fixed bound check for flash arrays
+ * @version 261018 added bound check elimination for counted loops
+ * version 151019 fixed bound check for flash arrays
  * version 120925 added support for code printer
  * version 120228 cleaned up "import sjc." typo
  * version 101210 adopted changed Architecture
@@ -75,6 +76,8 @@ public class ExDeArray extends Expr
 	protected Expr le, ind;
 	private UnitList runtimeClass;
 	private ExCheckType intfConv;
+	protected ExDeArray nextRangeAccess; //next access in list of counted loop
+	protected boolean skipBoundCheck; //index is proven to be inside bounds
 	
 	protected ExDeArray(int fid, int il, int ic)
 	{
@@ -96,6 +99,7 @@ public class ExDeArray extends Expr
 			preferredObjType.getTypeOf(preferredElemType);
 			preferredObjType.arrDim++;
 		}
+		skipBoundCheck = false;
 		if (!le.resolve(unitContext, mthdContext, resolveFlags | RF_CHECKREAD, preferredObjType, ctx))
 			return false;
 		if (le.arrDim < 1)
@@ -124,6 +128,8 @@ public class ExDeArray extends Expr
 				printPos(ctx, "need int-type in array-deref");
 				return false;
 			}
+			if (mthdContext instanceof JMthd && ((JMthd) mthdContext).curRangeLoop != null)
+				((JMthd) mthdContext).curRangeLoop.registerAccess(this);
 		}
 		getTypeOf(le); //get a copy, we will modify arrDim
 		arrDim--;
@@ -227,7 +233,7 @@ public class ExDeArray extends Expr
 				if (elem0Reg == 0)
 				{ //normal de-array
 					ind.genOutputVal(index, ctx);
-					if (ctx.doBoundCheck)
+					if (ctx.doBoundCheck && !skipBoundCheck)
 					{
 						excCheckDone = ctx.arch.getUnlinkedInstruction();
 						if (le.typeSpecial == TypeRef.S_FLASHINLARR || le.typeSpecial == TypeRef.S_FLASHREF)
@@ -25,7 +25,8 @@ import sjc.debug.CodePrinter;
  * ExPrePst: expression with pre- or post-operator
  *
  * @author S. Frenz
- * @version 120925 added support for code printer
+ * @version 261018 added isIncrementOf
+ * version 120925 added support for code printer
  * version 101015 adopted changed Expr
  * version 091005 adopted changed Expr
  * version 091001 adopted changed memory interface
@@ -61,6 +62,11 @@ public class ExPrePst extends Expr
 		pre = ipr;
 	}
 	
+	protected boolean isIncrementOf(AccVar var)
+	{
+		return op == ((Ops.S_PFX << 16) | Ops.P_INC) && ex instanceof ExVar && ((ExVar) ex).dest == var;
+	}
+	
 	public void printExpression(CodePrinter codePrnt)
 	{
 		codePrnt.exprPrePst(ex, op & 0xFFFF, pre);
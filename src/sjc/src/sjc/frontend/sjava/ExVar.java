@@ -25,7 +25,8 @@ import sjc.debug.CodePrinter;
  * ExVar: access to a variable
  *
  * @author S. Frenz
- * @version 190424 fixed outer-inner reference
+ * @version 261018 tracking of write state in bitset
+ * version 190424 fixed outer-inner reference
  * version 120925 added support for code printer
  * version 120227 cleaned up "package sjc." typo
  * version 110624 adopted changed Context
@@ -201,7 +202,7 @@ public class ExVar extends ExAccVrbl
 								return false;
 							}
 							//access of variable
-							if ((resolveFlags & RF_CHECKREAD) != 0 && (dest.modifier & Modifier.MF_ISWRITTEN) == 0)
+							if ((resolveFlags & RF_CHECKREAD) != 0 && !dest.isWritten())
 							{
 								printPos(ctx, NOTINITIALIZED1);
 								ctx.out.print(dest.name);
@@ -244,7 +245,7 @@ public class ExVar extends ExAccVrbl
 						return false;
 					qid.unitDest.modifier |= accessLevel;
 				}
-				
+			
 			}
 			else
 			{ //check unit-variable
@@ -310,7 +311,7 @@ public class ExVar extends ExAccVrbl
 		}
 		//else: local and parameter variable need not to be checked for access level
 		//check initialization
-		if (dest != null && (resolveFlags & RF_CHECKREAD) != 0 && (dest.modifier & Modifier.MF_ISWRITTEN) == 0)
+		if (dest != null && (resolveFlags & RF_CHECKREAD) != 0 && !dest.isWritten())
 		{
 			printPos(ctx, NOTINITIALIZED1);
 			ctx.out.print(dest.name);
@@ -18,6 +18,7 @@
 
 package sjc.frontend.sjava;
 
+import sjc.backend.Architecture;
 import sjc.backend.Instruction;
 import sjc.compbase.*;
 import sjc.debug.CodePrinter;
@@ -26,7 +27,8 @@ import sjc.debug.CodePrinter;
  * JMthd: java-specific behaviour of methods
  *
  * @author S. Frenz
- * @version 240320 added STRUCT test
+ * @version 261018 added support for parallel code generation, exclude methods inlined at bound call sites from parallel generation, report removed bound checks, bitset based write state
+ * version 240320 added STRUCT test
  * version 151108 added allocation debug hint
  * version 120923 added support for statement printer
  * version 120605 added check for invalid "final abstract" combination
@@ -112,6 +114,8 @@ public class JMthd extends Mthd
 	private boolean tryProfiling, tryStackExtreme;
 	private UnitList runtimeClass;
 	protected FilledAnno anno;
+	protected StFor curRangeLoop; //innermost counted loop during resolving
+	protected int removedBoundChecks;
 	
 	protected JMthd(String ii, int im, int fid, int il, int ic)
 	{
@@ -414,6 +418,7 @@ public class JMthd extends Mthd
 			ctx.syncUsed = true;
 		}
 		//resolve block (also sets varSize and MF_WRITTEN-flag)
+		removedBoundChecks = 0;
 		if (block != null)
 		{
 			if (((block.innerResolve(0, isConstructor, owner, this, ctx)) & Stmt.FA_ERROR) != 0)
@@ -425,6 +430,14 @@ public class JMthd extends Mthd
 				return false;
 			}
 		}
+		if (removedBoundChecks > 0 && ctx.verbose)
+		{
+			printPos(ctx, "removed ");
+			ctx.out.print(removedBoundChecks);
+			ctx.out.print(" bound checks in counted loops of ");
+			printSig(ctx.out);
+			ctx.out.println();
+		}
 		//check for optimizations and combination validity
 		if (isConstructor)
 		{
@@ -441,7 +454,7 @@ public class JMthd extends Mthd
 			vrblList = owner.writeCheckFinalVars;
 			while (vrblList != null)
 			{
-				if ((vrblList.vrbl.modifier & Modifier.MF_ISWRITTEN) == 0)
+				if (!vrblList.vrbl.isWritten())
 				{
 					printPos(ctx, "final variable ");
 					ctx.out.print(vrblList.vrbl.name);
@@ -549,9 +562,15 @@ public class JMthd extends Mthd
 		while (vrblList != null)
 		{
 			if (state)
+			{
+				vrblList.vrbl.writeState = null;
 				vrblList.vrbl.modifier |= Modifier.MF_ISWRITTEN;
+			}
 			else
+			{
 				vrblList.vrbl.modifier &= ~(Modifier.MF_ISWRITTEN | Modifier.MF_MAYBEWRITTEN);
+				getWriteState().add(vrblList.vrbl);
+			}
 			vrblList = vrblList.next;
 		}
 	}
@@ -571,8 +590,7 @@ public class JMthd extends Mthd
 	
 	public void genOutput(Context ctx)
 	{
-		int mthdID = 0;
-		VrblList inits;
+		Architecture arch;
 		Object obj;
 		
 		if (redirect != null)
@@ -593,41 +611,19 @@ public class JMthd extends Mthd
 				return;
 			}
 			inGenOutput = true;
-			ctx.arch.prepareMethodCoding(this);
-			if (tryStackExtreme && (marker & (Marks.K_NSPC | Marks.K_INTR)) == 0)
-				genStackExtremeCheck(ctx);
-			ctx.arch.codeProlog();
-			if (tryProfiling && (marker & Marks.K_NPRF) == 0)
-				genProfilingCall(mthdID = ctx.mem.getCurrentAllocAmountHint() + ctx.mem.getBaseAddress() + ctx.rteSMthdBlock.instRelocTableEntries * ctx.arch.relocBytes, 0, ctx); //generate call and remember method ID
-			if (isConstructor)
-			{ //to be initialized instance variables
-				inits = owner.instInitVars;
-				while (inits != null)
-				{
-					inits.vrbl.genInitCode(false, ctx); //zero variables already initialized by runtime environment
-					inits = inits.next;
-				}
-			}
-			if (block != null)
-				block.genOutput(ctx, isConstructor && (modifier & Modifier.M_EXINIT) != 0);
-			if (ctx.err)
-				return;
-			if (isConstructor && (modifier & Modifier.M_EXINIT) != 0)
-			{
-				ctx.arch.genMoveToPrimary(ctx.arch.regInst, StdTypes.T_PTR);
-				ctx.arch.genRestInstContext(); //restore saved instance context (done in block.genOutput)
+			if (preGenCode != null)
+			{ //code is already generated by a worker, copying has to be done by its architecture
+				arch = preGenCode.arch;
+				arch.attachMethodCode(preGenCode);
+				preGenCode = null;
 			}
-			if (tryProfiling && (marker & Marks.K_NPRF) == 0)
+			else
 			{
-				if (retRegType != 0)
-					ctx.arch.genSavePrimary(retRegType);
-				genProfilingCall(mthdID, 1, ctx); //generate call with already generated method id
-				if (retRegType != 0)
-					ctx.arch.genRestPrimary(retRegType);
+				if (!genCode(ctx))
+					return;
+				arch = ctx.arch;
 			}
-			ctx.arch.codeEpilog(null);
-			ctx.arch.finalizeMethodCoding();
-			codeSize = ctx.arch.getMethodSize();
+			codeSize = arch.getMethodSize();
 			//allocate space for method-block
 			if ((obj = ctx.mem.allocate(ctx.rteSMthdBlock.instScalarTableSize + codeSize, 0, ctx.rteSMthdBlock.instRelocTableEntries, ctx.leanRTE ? null : ctx.rteSMthdBlock.outputLocation)) == null)
 			{
@@ -637,13 +633,68 @@ public class JMthd extends Mthd
 			}
 			ctx.mem.allocationDebugHint(this);
 			//copy generated code and cleanup tokens
-			ctx.arch.copyMethodCode(this, obj, ctx.codeStart);
+			arch.copyMethodCode(this, obj, ctx.codeStart);
 			inGenOutput = false;
 		}
 		//everything done, check if we were referenced and enter valid output address
 		enterOutputAddr(obj, ctx);
 	}
 	
+	public boolean mayPreGenOutput(Context ctx)
+	{ //statements of inlineable methods are shared with the callers, profiling requires the final allocation address
+		return redirect == null && owner instanceof Clss && (owner.modifier & Modifier.M_STRUCT) == 0 && (modifier & Modifier.M_NDCODE) != 0 && (marker & Marks.K_FINL) == 0 && !autoInlineBound && (!tryProfiling || (marker & Marks.K_NPRF) != 0);
+	}
+	
+	public void preGenOutput(Context ctx)
+	{
+		inGenOutput = true;
+		if (genCode(ctx))
+			preGenCode = ctx.arch.detachMethodCode();
+		inGenOutput = false;
+	}
+	
+	private boolean genCode(Context ctx)
+	{
+		int mthdID = 0;
+		VrblList inits;
+		
+		ctx.arch.prepareMethodCoding(this);
+		if (tryStackExtreme && (marker & (Marks.K_NSPC | Marks.K_INTR)) == 0)
+			genStackExtremeCheck(ctx);
+		ctx.arch.codeProlog();
+		if (tryProfiling && (marker & Marks.K_NPRF) == 0)
+			genProfilingCall(mthdID = ctx.mem.getCurrentAllocAmountHint() + ctx.mem.getBaseAddress() + ctx.rteSMthdBlock.instRelocTableEntries * ctx.arch.relocBytes, 0, ctx); //generate call and remember method ID
+		if (isConstructor)
+		{ //to be initialized instance variables
+			inits = owner.instInitVars;
+			while (inits != null)
+			{
+				inits.vrbl.genInitCode(false, ctx); //zero variables already initialized by runtime environment
+				inits = inits.next;
+			}
+		}
+		if (block != null)
+			block.genOutput(ctx, isConstructor && (modifier & Modifier.M_EXINIT) != 0);
+		if (ctx.err)
+			return false;
+		if (isConstructor && (modifier & Modifier.M_EXINIT) != 0)
+		{
+			ctx.arch.genMoveToPrimary(ctx.arch.regInst, StdTypes.T_PTR);
+			ctx.arch.genRestInstContext(); //restore saved instance context (done in block.genOutput)
+		}
+		if (tryProfiling && (marker & Marks.K_NPRF) == 0)
+		{
+			if (retRegType != 0)
+				ctx.arch.genSavePrimary(retRegType);
+			genProfilingCall(mthdID, 1, ctx); //generate call with already generated method id
+			if (retRegType != 0)
+				ctx.arch.genRestPrimary(retRegType);
+		}
+		ctx.arch.codeEpilog(null);
+		ctx.arch.finalizeMethodCoding();
+		return !ctx.err;
+	}
+	
 	public void genInlineOutput(Context ctx)
 	{
 		Mthd outline;
@@ -24,7 +24,8 @@ import sjc.compbase.*;
  * JUnit: java-specific behaviour of units
  *
  * @author S. Frenz
- * @version 121020 added support for getSourceType
+ * @version 261018 added hasFixedMembers
+ * version 121020 added support for getSourceType
  * version 120501 got annotation check from Clss to do it before variable size checking
  * version 120228 cleaned up "import sjc." typo
  * version 120227 cleaned up "package sjc." typo
@@ -108,6 +109,11 @@ public abstract class JUnit extends Unit
 		return intfResolveState == R_SUCCESS;
 	}
 	
+	protected boolean hasFixedMembers()
+	{
+		return intfResolveState == R_SUCCESS;
+	}
+	
 	public QualIDList getImportList()
 	{
 		return impt;
@@ -28,7 +28,8 @@ import sjc.frontend.ExVal;
  * Magic: all the magic functionality used for system programming
  *
  * @author S. Frenz
- * @version 160818 added support for assembler text inling
+ * @version 261018 added copyMem and fillMem
+ * version 160818 added support for assembler text inling
  * version 150922 added support for inlineCodeAddress
  * version 121029 added error message for too many parameters in mthdOff-call
  * version 120925 added support for expression printer
@@ -161,6 +162,8 @@ public class Magic extends CtxBasedConfig
 	private final static int M_IGNORE = 46;
 	private final static int M_STOPCODE = 47;
 	private final static int M_ASSIGN = 48;
+	private final static int M_COPYMEM = 49;
+	private final static int M_FILLMEM = 50;
 	
 	private final static String ID_ASSIGNCALL = "assignCall";
 	private final static String ID_ASSIGNHEAPCALL = "assignHeapCall";
@@ -737,6 +740,18 @@ public class Magic extends CtxBasedConfig
 					return null;
 				call.magicType = M_ASSIGN;
 			}
+			else if (name.equals("copyMem"))
+			{
+				if (!resolveBlockMem(false, call, unitContext, mthdContext, resolveFlags, ctx))
+					return null;
+				call.magicType = M_COPYMEM;
+			}
+			else if (name.equals("fillMem"))
+			{
+				if (!resolveBlockMem(true, call, unitContext, mthdContext, resolveFlags, ctx))
+					return null;
+				call.magicType = M_FILLMEM;
+			}
 			else
 			{
 				ex.printPos(ctx, "unknown MAGIC-method ");
@@ -897,6 +912,12 @@ public class Magic extends CtxBasedConfig
 				case M_ASSIGN:
 					genAssign(call, ctx);
 					return;
+				case M_COPYMEM:
+					genOutputBlockMem(false, call, ctx);
+					return;
+				case M_FILLMEM:
+					genOutputBlockMem(true, call, ctx);
+					return;
 			}
 		//not a special call to MAGIC (was replaced in resolveX)
 		ex.genOutputVal(reg, ctx);
@@ -1820,6 +1841,58 @@ public class Magic extends CtxBasedConfig
 		return true;
 	}
 	
+	private boolean resolveBlockMem(boolean isFill, ExCall call, Unit unitContext, Mthd mthdContext, int resolveFlags, Context ctx)
+	{
+		FilledParam pa;
+		Expr paEx;
+		int i;
+		
+		//resolve all parameters: destination, source or value, byte count
+		pa = call.par;
+		for (i = 0; i < 3; i++)
+		{
+			if (pa == null)
+			{
+				call.printPos(ctx, "MAGIC.copyMem/fillMem needs three parameters");
+				return false;
+			}
+			paEx = pa.expr;
+			if (!paEx.resolve(unitContext, mthdContext, resolveFlags | Expr.RF_CHECKREAD, null, ctx))
+				return false;
+			if (i == 1 && isFill)
+			{
+				if (paEx.baseType != StdTypes.T_BYTE || paEx.arrDim > 0)
+				{
+					paEx.printPos(ctx, "MAGIC.fillMem needs byte value");
+					return false;
+				}
+			}
+			else if (i == 2)
+			{
+				if (!paEx.isIntType())
+				{
+					paEx.printPos(ctx, "MAGIC.copyMem/fillMem needs int value as byte count");
+					return false;
+				}
+			}
+			else if (!paEx.isIntType() && !(relocBytes == 2 && paEx.isShortType()) && !(relocBytes == 8 && paEx.isLongType()))
+			{
+				paEx.printPos(ctx, "MAGIC.copyMem/fillMem needs address of pointer size");
+				return false;
+			}
+			pa = pa.nextParam;
+		}
+		if (pa != null)
+		{
+			call.printPos(ctx, "MAGIC.copyMem/fillMem needs not more than three parameters");
+			return false;
+		}
+		//everything ok, set type
+		call.baseType = TypeRef.T_VOID;
+		call.effectType = Expr.EF_NORM;
+		return true;
+	}
+	
 	//internal genOutput-methods
 	private void genOutputInline(int type, ExCall call, Context ctx)
 	{
@@ -2147,6 +2220,46 @@ public class Magic extends CtxBasedConfig
 		ctx.arch.genLoadConstVal(reg, val, StdTypes.T_INT);
 	}
 	
+	private void genOutputBlockMem(boolean isFill, ExCall call, Context ctx)
+	{
+		FilledParam pa;
+		int dst, src, cnt, restoreDst, restoreSrc, restoreCnt;
+		
+		restoreDst = ctx.arch.prepareFreeReg(0, 0, 0, StdTypes.T_PTR);
+		dst = ctx.arch.allocReg();
+		genOutputAddr(dst, (pa = call.par).expr, ctx);
+		pa = pa.nextParam;
+		restoreSrc = ctx.arch.prepareFreeReg(dst, 0, 0, isFill ? StdTypes.T_BYTE : StdTypes.T_PTR);
+		src = ctx.arch.allocReg();
+		if (isFill)
+			pa.expr.genOutputVal(src, ctx);
+		else
+			genOutputAddr(src, pa.expr, ctx);
+		pa = pa.nextParam;
+		restoreCnt = ctx.arch.prepareFreeReg(dst, src, 0, StdTypes.T_INT);
+		cnt = ctx.arch.allocReg();
+		pa.expr.genOutputVal(cnt, ctx);
+		if (isFill)
+			ctx.arch.genFillMem(dst, src, cnt);
+		else
+			ctx.arch.genCopyMem(dst, src, cnt);
+		ctx.arch.deallocRestoreReg(cnt, 0, restoreCnt);
+		ctx.arch.deallocRestoreReg(src, 0, restoreSrc);
+		ctx.arch.deallocRestoreReg(dst, 0, restoreDst);
+	}
+	
+	private void genOutputAddr(int addr, Expr addrEx, Context ctx)
+	{
+		int addrType, addrVal, restore;
+		
+		addrType = addrEx.getRegType(ctx);
+		restore = ctx.arch.prepareFreeReg(0, 0, addr, addrType);
+		addrVal = ctx.arch.allocReg();
+		addrEx.genOutputVal(addrVal, ctx);
+		ctx.arch.genConvertVal(addr, addrVal, StdTypes.T_PTR, addrType);
+		ctx.arch.deallocRestoreReg(addrVal, addr, restore);
+	}
+	
 	private void genOutputBtsMem(boolean isIO, int type, ExCall call, Context ctx)
 	{
 		FilledParam pa;
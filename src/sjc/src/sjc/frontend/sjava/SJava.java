@@ -27,7 +27,8 @@ import sjc.osio.TextReader;
  * SJava: administration of the SJava-language and access to the SJava-routines
  *
  * @author S. Frenz
- * @version 121017 added ignore-unit-flag for struct and flash dummy units
+ * @version 261018 passed parse result to scanner to keep symbols of unchanged files
+ * version 121017 added ignore-unit-flag for struct and flash dummy units
  * version 120227 fixed implicit basetype var init conversion check, cleaned up "package sjc." typo
  * version 110705 made internally created units static
  * version 110624 fixed package of internally created units
@@ -154,6 +155,7 @@ public class SJava extends Language
 				ctx.out.println(" failed");
 				success = false;
 			}
+			s.done(success);
 		}
 		return success;
 	}
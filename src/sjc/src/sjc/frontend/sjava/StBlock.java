@@ -25,7 +25,8 @@ import sjc.debug.CodePrinter;
  * StBlock: block of statements
  *
  * @author S. Frenz
- * @version 121020 added support for "report block end" option in printBreakableStatement
+ * @version 261018 bitset based write state
+ * version 121020 added support for "report block end" option in printBreakableStatement
  * version 121017 added code printer support for labels
  * version 120923 added support for code printer
  * version 100504 adopted changed StBreakable, got this-/super-call checks from JMthd
@@ -92,7 +93,7 @@ public class StBlock extends StBreakable
 		Stmt stmt;
 		ExCall call;
 		Vrbl oldVars;
-		VrblStateList sure = null;
+		VrblState sure = null;
 		StExpr news;
 		
 		//remember block variable state
@@ -127,15 +128,15 @@ public class StBlock extends StBreakable
 			{
 				flowAnalysisBuffer &= ~FA_HAS_SHORTCUT;
 				if (sure == null)
-					sure = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+					sure = ctx.copyVrblState(mthdContext);
 			}
 			stmt = stmt.nextStmt;
 		}
 		//reset abbreviated variable-initializations
 		if (sure != null)
 		{
-			ctx.setVrblStatePotential(mthdContext.vars, mthdContext.checkInitVars, sure);
-			ctx.recycleVrblStatelist(sure);
+			ctx.setVrblStatePotential(mthdContext, sure);
+			ctx.recycleVrblState(sure);
 		}
 		//check if all variables are set if constructor
 		if (isOutestInConstr && mthdContext.checkInitVars != null && (flowCode & FA_NEXT_IS_UNREACHABLE) == 0 && !mthdContext.checkVarWriteState(mthdContext, ctx))
@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StFor: for-loop
  *
  * @author S. Frenz
- * @version 121029 added support for multiple init-/lupd-statements in call to code printer
+ * @version 261018 added bound check elimination for counted loops, bitset based write state
+ * version 121029 added support for multiple init-/lupd-statements in call to code printer
  * version 121017 added code printer support for labels
  * version 120923 added support for code printer
  * version 101015 adopted changed Expr
@@ -66,6 +67,9 @@ public class StFor extends StLoop
 	protected Stmt init, lupd;
 	protected Expr cond;
 	private Stmt[] furtherInit, furtherLupd;
+	private AccVar rangeIndex, rangeArray; //set for loops of the form "for (i=c; i<arr.length; i++)"
+	private StFor outerRangeLoop;
+	private ExDeArray rangeAccesses;
 	
 	protected StFor(StBreakable io, StringList ila, int fid, int il, int ic)
 	{
@@ -85,8 +89,9 @@ public class StFor extends StLoop
 	{
 		Stmt jel;
 		Vrbl oldVarState;
-		int oldLoopState = flowCode & FA_INSIDE_LOOP;
-		VrblStateList preState = null;
+		int oldLoopState = flowCode & FA_INSIDE_LOOP, indexWrites = 0, arrayWrites = 0;
+		VrblState preState = null;
+		JMthd rangeMthd = null;
 		
 		oldVarState = mthdContext.vars;
 		jel = init;
@@ -110,15 +115,30 @@ public class StFor extends StLoop
 			loStmt.flowWarn(ctx, ERR_UNREACHABLE_CODE);
 		
 		if (cond != null && (cond.calcConstantType(ctx) != StdTypes.T_INT || cond.getConstIntValue(ctx) != 1))
-			preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+			preState = ctx.copyVrblState(mthdContext);
 		
+		//collect accesses to the counted array while resolving the loop body
+		rangeAccesses = null;
+		if (mthdContext instanceof JMthd && checkRangeHead(ctx))
+		{
+			rangeMthd = (JMthd) mthdContext;
+			outerRangeLoop = rangeMthd.curRangeLoop;
+			rangeMthd.curRangeLoop = this;
+			indexWrites = rangeIndex.writeCount;
+			arrayWrites = rangeArray.writeCount;
+		}
 		flowCode |= FA_INSIDE_LOOP;
-		if (((flowCode = loStmt.resolve(flowCode, unitContext, mthdContext, ctx)) & FA_ERROR) != 0)
+		flowCode = loStmt.resolve(flowCode, unitContext, mthdContext, ctx);
+		if (rangeMthd != null)
+			rangeMthd.curRangeLoop = outerRangeLoop;
+		if ((flowCode & FA_ERROR) != 0)
 		{
 			if (preState != null)
-				ctx.recycleVrblStatelist(preState);
+				ctx.recycleVrblState(preState);
 			return FA_ERROR;
 		}
+		if (rangeMthd != null && (rangeIndex.writeCount != indexWrites || rangeArray.writeCount != arrayWrites))
+			rangeMthd = null; //index or array modified inside the loop body
 		if ((flowCode & FA_NEXT_IS_UNREACHABLE) != 0 && (flowAnalysisBuffer & FA_HAS_CONTINUE) == 0 && lupd != null)
 			lupd.flowWarn(ctx, ERR_UNREACHABLE_CODE);
 		
@@ -128,16 +148,19 @@ public class StFor extends StLoop
 			if ((jel.resolve(0, unitContext, mthdContext, ctx) & FA_ERROR) != 0)
 			{
 				if (preState != null)
-					ctx.recycleVrblStatelist(preState);
+					ctx.recycleVrblState(preState);
 				return FA_ERROR; //update-stmts may not change flow
 			}
 			jel = jel.nextStmt;
 		}
 		
+		if (rangeMthd != null && lupd.nextStmt == null && lupd instanceof StExpr && ((StExpr) lupd).ex instanceof ExPrePst && ((ExPrePst) ((StExpr) lupd).ex).isIncrementOf(rangeIndex))
+			removeBoundChecks(rangeMthd, ctx);
+		
 		if (preState != null)
 		{
-			ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
-			ctx.recycleVrblStatelist(preState);
+			ctx.setVrblState(mthdContext, preState);
+			ctx.recycleVrblState(preState);
 		}
 		
 		if ((cond == null || (cond.calcConstantType(ctx) == StdTypes.T_INT && cond.getConstIntValue(ctx) == 1)) && (flowAnalysisBuffer & FA_HAS_ENDBLOCK) == 0)
@@ -192,6 +215,67 @@ public class StFor extends StLoop
 		contDest = breakDest = null;
 	}
 	
+	protected void registerAccess(ExDeArray access)
+	{
+		if (access.le instanceof ExVar && ((ExVar) access.le).dest == rangeArray && access.le.typeSpecial == TypeRef.S_NOSPECIAL && access.ind instanceof ExVar && ((ExVar) access.ind).dest == rangeIndex)
+		{
+			access.nextRangeAccess = rangeAccesses;
+			rangeAccesses = access;
+		}
+		else if (outerRangeLoop != null)
+			outerRangeLoop.registerAccess(access);
+	}
+	
+	private boolean checkRangeHead(Context ctx)
+	{
+		ExBin bin;
+		ExDeRef len;
+		Expr start;
+		AccVar lenVar;
+		
+		rangeIndex = rangeArray = null;
+		//condition has to be "i<arr.length" with local int i and local array arr
+		if (!(cond instanceof ExBin) || (bin = (ExBin) cond).op != ((Ops.S_CMP << 16) | Ops.C_LW) || !(bin.le instanceof ExVar) || !bin.le.isIntType() || !(bin.ri instanceof ExDeRef))
+			return false;
+		len = (ExDeRef) bin.ri;
+		if (!(len.le instanceof ExVar) || len.le.arrDim < 1 || len.le.typeSpecial != TypeRef.S_NOSPECIAL || !(len.ri instanceof ExVar) || (lenVar = ((ExVar) len.ri).dest) == null || lenVar.owner != ctx.rteSArray || !lenVar.name.equals("length"))
+			return false;
+		rangeIndex = ((ExVar) bin.le).dest;
+		rangeArray = ((ExVar) len.le).dest;
+		if (rangeIndex == null || rangeArray == null || !isLocal(rangeIndex) || !isLocal(rangeArray))
+			return false;
+		//init has to set i to a constant not below zero
+		if (init == null || init.nextStmt != null || lupd == null)
+			return false;
+		if (init instanceof StVrbl && ((StVrbl) init).varList == rangeIndex)
+			start = ((StVrbl) init).varList.init;
+		else if (init instanceof StExpr && ((StExpr) init).ex instanceof ExBin && (bin = (ExBin) ((StExpr) init).ex).op == (Ops.S_ASN << 16) && bin.le instanceof ExVar && ((ExVar) bin.le).dest == rangeIndex)
+			start = bin.ri;
+		else
+			return false;
+		return start != null && start.calcConstantType(ctx) == StdTypes.T_INT && start.getConstIntValue(ctx) >= 0;
+	}
+	
+	private static boolean isLocal(AccVar var)
+	{
+		return var.location == AccVar.L_LOCAL || var.location == AccVar.L_PARAM;
+	}
+	
+	private void removeBoundChecks(JMthd mthd, Context ctx)
+	{
+		ExDeArray access = rangeAccesses;
+		
+		//0<=i<arr.length holds for all registered accesses as neither i nor arr is written inside the loop body
+		while (access != null)
+		{
+			access.skipBoundCheck = true;
+			if (ctx.doBoundCheck)
+				mthd.removedBoundChecks++;
+			access = access.nextRangeAccess;
+		}
+		rangeAccesses = null;
+	}
+	
 	private static Stmt[] getStmtArray(Stmt list)
 	{
 		Stmt[] arr = null;
@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StForEnh: enhanced for-loop of jdk1.5
  *
  * @author S. Frenz
- * @version 121017 added code printer support for labels
+ * @version 261018 tracking of write state in bitset
+ * version 121017 added code printer support for labels
  * version 120923 added support for code printer
  * version 101015 adopted changed Expr
  * version 100922 added F_LOOPEND
@@ -65,7 +66,7 @@ public class StForEnh extends StLoop
 		if ((var.resolve(0, unitContext, mthdContext, ctx) & FA_ERROR) != 0)
 			return FA_ERROR; //var-decl may not change flow
 		valOffset = var.varList.relOff;
-		var.varList.modifier |= Modifier.MF_ISWRITTEN; //treat variable are written
+		var.varList.setWritten(); //treat variable are written
 		iterDeArray = new ExDeArray(fileID, line, col);
 		iterDeArray.le = iter;
 		if (!iterDeArray.resolve(unitContext, mthdContext, getExprFromStmtFlowCode(flowCode) | Expr.RF_CHECKREAD, var.varList.type, ctx))
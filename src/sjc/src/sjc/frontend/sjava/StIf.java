@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StIf: if-statement
  *
  * @author S. Frenz
- * @version 120923 added support for code printer
+ * @version 261018 bitset based write state
+ * version 120923 added support for code printer
  * version 101015 adopted changed Expr
  * version 100925 immediate stop if trueBlock is not resolvable
  * version 091111 added support for instance final-var-init
@@ -68,7 +69,7 @@ public class StIf extends Stmt
 	protected int innerResolve(int flowCode, Unit unitContext, Mthd mthdContext, Context ctx)
 	{
 		int trRes = FA_NO_FLOWCHANGE, faRes = FA_NO_FLOWCHANGE;
-		VrblStateList preState, trState;
+		VrblState preState, trState;
 		int flowTrue = flowCode, flowFalse = flowCode, flowFilter = -1;
 		
 		if (!cond.resolve(unitContext, mthdContext, getExprFromStmtFlowCode(flowCode) | Expr.RF_CHECKREAD, null, ctx))
@@ -88,13 +89,13 @@ public class StIf extends Stmt
 				flowFilter = ~FA_DEAD_CODE; //filter dead code
 		}
 		
-		preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+		preState = ctx.copyVrblState(mthdContext);
 		if ((trRes = trStmt.resolve(flowTrue, unitContext, mthdContext, ctx)) == FA_ERROR)
 			return FA_ERROR;
 		if (faStmt != null)
 		{
-			trState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
-			ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+			trState = ctx.copyVrblState(mthdContext);
+			ctx.setVrblState(mthdContext, preState);
 			if ((faRes = faStmt.resolve(flowFalse, unitContext, mthdContext, ctx)) == FA_ERROR)
 				return FA_ERROR;
 			if (((trRes | faRes) & FA_NEXT_IS_UNREACHABLE) != 0)
@@ -102,24 +103,24 @@ public class StIf extends Stmt
 				if ((trRes & FA_NEXT_IS_UNREACHABLE) != 0)
 				{
 					if ((faRes & FA_NEXT_IS_UNREACHABLE) != 0)
-						ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+						ctx.setVrblState(mthdContext, preState);
 					//else: nothing to do if only faStmt is relevant
 				}
 				else
-					ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, trState);
+					ctx.setVrblState(mthdContext, trState);
 			}
 			else
-				ctx.setVrblStateCombined(mthdContext.vars, mthdContext.checkInitVars, trState);
-			ctx.recycleVrblStatelist(trState);
+				ctx.setVrblStateCombined(mthdContext, trState);
+			ctx.recycleVrblState(trState);
 		}
 		else
 		{ //there is no faStmt
 			if ((trRes & FA_NEXT_IS_UNREACHABLE) != 0)
-				ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+				ctx.setVrblState(mthdContext, preState);
 			else
-				ctx.setVrblStatePotential(mthdContext.vars, mthdContext.checkInitVars, preState);
+				ctx.setVrblStatePotential(mthdContext, preState);
 		}
-		ctx.recycleVrblStatelist(preState);
+		ctx.recycleVrblState(preState);
 		
 		return ((trRes & faRes & FA_NEXT_IS_UNREACHABLE) //flags both branches must have
 				| ((trRes | faRes) & ~FA_NEXT_IS_UNREACHABLE)) //all other flags one branch may have
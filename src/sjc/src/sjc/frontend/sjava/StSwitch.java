@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StSwitch: switch-case-statement
  *
  * @author S. Frenz
- * @version 150926 added test for unique case constants
+ * @version 261018 added jump tables and binary search for switch, bitset based write state
+ * version 150926 added test for unique case constants
  * version 121017 added code printer support for labels
  * version 120923 added support for code printer
  * version 101015 adopted changed Expr
@@ -69,6 +70,11 @@ public class StSwitch extends StBreakable
 	protected CondStmt caseConds;
 	private int constType;
 	
+	private final static int JT_MIN_CASES = 4; //minimum number of cases to use a jump table
+	private final static int JT_MAX_SPREAD = 3; //maximum number of table entries per case
+	private final static int BS_MIN_CASES = 8; //minimum number of cases to use binary search
+	private final static int BS_LEAF_CASES = 4; //maximum number of cases compared linearly in binary search
+	
 	protected StSwitch(StBreakable io, StringList ila, int fid, int il, int ic)
 	{
 		super(io, ila, fid, il, ic);
@@ -107,7 +113,7 @@ public class StSwitch extends StBreakable
 		CondStmt cases, cmp;
 		Vrbl oldVarState;
 		int singleRes = FA_NO_FLOWCHANGE, complRes = FA_NO_FLOWCHANGE;
-		VrblStateList preState, sure = null;
+		VrblState preState, sure = null;
 		
 		//remember variable state
 		oldVarState = mthdContext.vars;
@@ -140,7 +146,7 @@ public class StSwitch extends StBreakable
 		//resolve cases and statements
 		stmt = stmts;
 		cases = caseConds;
-		preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+		preState = ctx.copyVrblState(mthdContext);
 		while (stmt != null)
 		{
 			//handle case conditions if this is their place
@@ -150,7 +156,7 @@ public class StSwitch extends StBreakable
 				complRes |= flowAnalysisBuffer & FA_HAS_ENDBLOCK;
 				singleRes = flowAnalysisBuffer = flowCode;
 				//mark variables as potentially written
-				ctx.setVrblStatePotential(mthdContext.vars, mthdContext.checkInitVars, preState);
+				ctx.setVrblStatePotential(mthdContext, preState);
 				//resolve condition if case-statement
 				if (def != stmt)
 				{ //if def!=stmt, then cases!=null && cases.stmt==stmt
@@ -158,15 +164,15 @@ public class StSwitch extends StBreakable
 					if (!cases.cond.resolve(unitContext, mthdContext, getExprFromStmtFlowCode(flowCode) | Expr.RF_CHECKREAD, cond, ctx))
 					{
 						ctx.out.print(" in case-condition");
-						ctx.recycleVrblStatelist(preState);
-						ctx.recycleVrblStatelist(sure);
+						ctx.recycleVrblState(preState);
+						ctx.recycleVrblState(sure);
 						return FA_ERROR;
 					}
 					if (cases.cond.calcConstantType(ctx) != constType || cases.cond.baseType != cond.baseType)
 					{
 						printPos(ctx, "condition is not constant or has wrong type (must match switch expression)");
-						ctx.recycleVrblStatelist(preState);
-						ctx.recycleVrblStatelist(sure);
+						ctx.recycleVrblState(preState);
+						ctx.recycleVrblState(sure);
 						return FA_ERROR;
 					}
 					//set case-check to next case
@@ -177,8 +183,8 @@ public class StSwitch extends StBreakable
 			if (((singleRes = stmt.resolve(singleRes, unitContext, mthdContext, ctx)) & FA_ERROR) != 0)
 			{
 				ctx.out.print(" in switch-statement");
-				ctx.recycleVrblStatelist(preState);
-				ctx.recycleVrblStatelist(sure);
+				ctx.recycleVrblState(preState);
+				ctx.recycleVrblState(sure);
 				return FA_ERROR;
 			}
 			if ((flowAnalysisBuffer & FA_HAS_SHORTCUT) != 0 || ((singleRes & FA_NEXT_IS_UNREACHABLE) == 0 && stmt.nextStmt == null))
@@ -187,14 +193,14 @@ public class StSwitch extends StBreakable
 				if (def != null)
 				{
 					if (sure == null)
-						sure = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+						sure = ctx.copyVrblState(mthdContext);
 					else
-						ctx.mergeVrblListState(sure, mthdContext.vars, mthdContext.checkInitVars);
+						ctx.mergeVrblState(sure, mthdContext);
 				}
 			}
 			if ((singleRes & FA_NEXT_IS_UNREACHABLE) != 0)
 			{
-				ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+				ctx.setVrblState(mthdContext, preState);
 			}
 			//next statement
 			stmt = stmt.nextStmt;
@@ -206,11 +212,11 @@ public class StSwitch extends StBreakable
 		if ((complRes & FA_ERROR) != 0)
 			flowCode |= FA_ERROR;
 		//handle variable writing
-		ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
+		ctx.setVrblState(mthdContext, preState);
 		if (sure != null)
-			ctx.setVrblStateSure(mthdContext.vars, mthdContext.checkInitVars, sure);
-		ctx.recycleVrblStatelist(preState);
-		ctx.recycleVrblStatelist(sure);
+			ctx.setVrblStateSure(mthdContext, sure);
+		ctx.recycleVrblState(preState);
+		ctx.recycleVrblState(sure);
 		//check if case constants are unique
 		cases = caseConds;
 		while (cases != null)
@@ -241,38 +247,95 @@ public class StSwitch extends StBreakable
 	{
 		Stmt stmt;
 		CondStmt condstmt;
-		int reg, id, condHnd;
-		Instruction defIns = null;
+		CondStmt[] sorted = null;
+		long[] values = null;
+		Instruction[] table;
+		Instruction defIns = null, defDest;
+		long value;
+		int reg, oreg, restore, id, condHnd, count = 0, i, j;
+		boolean useTable = false;
 		
 		breakDest = ctx.arch.getUnlinkedInstruction();
 		id = ctx.arch.insertFlowHint(Architecture.F_BLOCKSTART, 0);
 		ctx.arch.insertFlowHint(Architecture.F_CONDSTART, id);
-		if (ctx.arch.prepareFreeReg(0, 0, 0, cond.baseType) != 0)
-		{ //should be 0 always
-			compErr(ctx, "no free reg at beginning of switch");
-			return;
-		}
-		reg = ctx.arch.allocReg();
-		cond.genOutputVal(reg, ctx);
-		ctx.arch.insertKillHint(reg);
 		condstmt = caseConds;
 		while (condstmt != null)
 		{
-			if (constType == StdTypes.T_INT)
-				condHnd = ctx.arch.genCompValToConstVal(reg, condstmt.cond.getConstIntValue(ctx), cond.baseType, Ops.C_EQ);
-			else
-				condHnd = ctx.arch.genCompValToConstDoubleOrLongVal(reg, condstmt.cond.getConstLongValue(ctx), false, Ops.C_EQ);
-			ctx.arch.genCondJmp(condstmt.stIns = ctx.arch.getUnlinkedInstruction(), condHnd);
+			condstmt.stIns = ctx.arch.getUnlinkedInstruction();
+			count++;
 			condstmt = condstmt.nextCondStmt;
 		}
-		ctx.arch.deallocRestoreReg(reg, 0, 0);
 		if (def != null)
-		{
-			defIns = ctx.arch.getUnlinkedInstruction();
-			ctx.arch.genJmp(defIns);
+			defDest = defIns = ctx.arch.getUnlinkedInstruction();
+		else
+			defDest = breakDest;
+		if (count >= BS_MIN_CASES || (count >= JT_MIN_CASES && constType == StdTypes.T_INT && ctx.arch.supportsJmpTable))
+		{ //get case constants sorted by value
+			sorted = new CondStmt[count];
+			values = new long[count];
+			condstmt = caseConds;
+			for (i = 0; i < count; i++)
+			{
+				value = constType == StdTypes.T_INT ? (long) condstmt.cond.getConstIntValue(ctx) : condstmt.cond.getConstLongValue(ctx);
+				for (j = i; j > 0 && values[j - 1] > value; j--)
+				{
+					values[j] = values[j - 1];
+					sorted[j] = sorted[j - 1];
+				}
+				values[j] = value;
+				sorted[j] = condstmt;
+				condstmt = condstmt.nextCondStmt;
+			}
+			useTable = constType == StdTypes.T_INT && ctx.arch.supportsJmpTable && count >= JT_MIN_CASES && values[count - 1] - values[0] < (long) count * JT_MAX_SPREAD;
+		}
+		if (ctx.arch.prepareFreeReg(0, 0, 0, sorted != null ? constType : cond.baseType) != 0)
+		{ //should be 0 always
+			compErr(ctx, "no free reg at beginning of switch");
+			return;
+		}
+		reg = ctx.arch.allocReg();
+		if (sorted != null && cond.baseType != constType)
+		{ //table and binary search work on int values
+			restore = ctx.arch.prepareFreeReg(0, 0, reg, cond.baseType);
+			oreg = ctx.arch.allocReg();
+			cond.genOutputVal(oreg, ctx);
+			ctx.arch.genConvertVal(reg, oreg, constType, cond.baseType);
+			ctx.arch.deallocRestoreReg(oreg, reg, restore);
+		}
+		else
+			cond.genOutputVal(reg, ctx);
+		if (useTable)
+		{ //dense cases, index into jump table
+			table = new Instruction[(int) (values[count - 1] - values[0]) + 1];
+			for (i = 0; i < table.length; i++)
+				table[i] = defDest;
+			for (i = 0; i < count; i++)
+				table[(int) (values[i] - values[0])] = sorted[i].stIns;
+			ctx.arch.insertKillHint(reg);
+			ctx.arch.genJmpTable(reg, (int) values[0], table, defDest);
+			ctx.arch.deallocRestoreReg(reg, 0, 0);
+		}
+		else if (sorted != null)
+		{ //many sparse cases, search in sorted constants
+			genBinarySearch(reg, sorted, values, 0, count - 1, defDest, ctx);
+			ctx.arch.deallocRestoreReg(reg, 0, 0);
 		}
 		else
-			ctx.arch.genJmp(breakDest);
+		{ //few cases, compare one after the other
+			ctx.arch.insertKillHint(reg);
+			condstmt = caseConds;
+			while (condstmt != null)
+			{
+				if (constType == StdTypes.T_INT)
+					condHnd = ctx.arch.genCompValToConstVal(reg, condstmt.cond.getConstIntValue(ctx), cond.baseType, Ops.C_EQ);
+				else
+					condHnd = ctx.arch.genCompValToConstDoubleOrLongVal(reg, condstmt.cond.getConstLongValue(ctx), false, Ops.C_EQ);
+				ctx.arch.genCondJmp(condstmt.stIns, condHnd);
+				condstmt = condstmt.nextCondStmt;
+			}
+			ctx.arch.deallocRestoreReg(reg, 0, 0);
+			ctx.arch.genJmp(defDest);
+		}
 		stmt = stmts;
 		condstmt = caseConds;
 		ctx.arch.insertFlowHint(Architecture.F_SWSBSTART, id);
@@ -293,4 +356,33 @@ public class StSwitch extends StBreakable
 		ctx.arch.insertFlowHint(Architecture.F_BLOCKEND, id);
 		breakDest = null;
 	}
+	
+	private void genBinarySearch(int reg, CondStmt[] sorted, long[] values, int from, int to, Instruction defDest, Context ctx)
+	{
+		Instruction upper;
+		int mid, condHnd;
+		
+		while (to - from >= BS_LEAF_CASES)
+		{ //split range, lower half is generated first, upper half follows at label
+			mid = (from + to + 1) >>> 1;
+			upper = ctx.arch.getUnlinkedInstruction();
+			condHnd = genCompCase(reg, values[mid], Ops.C_GE, ctx);
+			ctx.arch.genCondJmp(upper, condHnd);
+			genBinarySearch(reg, sorted, values, from, mid - 1, defDest, ctx);
+			ctx.arch.appendInstruction(upper);
+			from = mid;
+		}
+		//kill hint only in leafs, as register is needed again after the jumps inside the tree
+		ctx.arch.insertKillHint(reg);
+		for (; from <= to; from++)
+			ctx.arch.genCondJmp(sorted[from].stIns, genCompCase(reg, values[from], Ops.C_EQ, ctx));
+		ctx.arch.genJmp(defDest);
+	}
+	
+	private int genCompCase(int reg, long value, int cond, Context ctx)
+	{
+		if (constType == StdTypes.T_INT)
+			return ctx.arch.genCompValToConstVal(reg, (int) value, StdTypes.T_INT, cond);
+		return ctx.arch.genCompValToConstDoubleOrLongVal(reg, value, false, cond);
+	}
 }
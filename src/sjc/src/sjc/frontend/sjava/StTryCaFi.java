@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StTryCaFi: try-catch-finally block
  *
  * @author S. Frenz
- * @version 121020 fixed method hierarchy
+ * @version 261018 bitset based write state
+ * version 121020 fixed method hierarchy
  * version 121016 added support for code printer
  * version 121014 added dummy for code printer
  * version 100526 fixed register saving on cleanup
@@ -89,7 +90,7 @@ public class StTryCaFi extends StBlock
 		Vrbl var;
 		int singleRes, globalRes;
 		boolean allBlocksHaveNextUnreachable = false;
-		VrblStateList preState;
+		VrblState preState;
 		
 		//enter ourself in try-container of mthdContext, get exception frame offset
 		if (!(mthdContext instanceof JMthd))
@@ -146,7 +147,7 @@ public class StTryCaFi extends StBlock
 			curCatch = curCatch.nextCatchDecl;
 		}
 		//check blocks
-		preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+		preState = ctx.copyVrblState(mthdContext);
 		globalRes = (singleRes = tryBlock.resolve(flowCode, unitContext, mthdContext, ctx)) & FA_ERROR;
 		if ((singleRes & FA_NEXT_IS_UNREACHABLE) != 0)
 			allBlocksHaveNextUnreachable = true;
@@ -171,8 +172,8 @@ public class StTryCaFi extends StBlock
 		}
 		if (allBlocksHaveNextUnreachable)
 			globalRes |= FA_NEXT_IS_UNREACHABLE;
-		ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
-		ctx.recycleVrblStatelist(preState);
+		ctx.setVrblState(mthdContext, preState);
+		ctx.recycleVrblState(preState);
 		//restore exception container of mthdContext
 		dummyContainer = myContainer.nextTryCaFiBlock;
 		myContainer.nextTryCaFiBlock = mthd.freeTryFrames;
@@ -25,7 +25,8 @@ import sjc.debug.CodePrinter;
  * StVrbl: statement containing variable declaration
  *
  * @author S. Frenz
- * @version 120923 added support for code printer
+ * @version 261018 register variables for bitset based write state
+ * version 120923 added support for code printer
  * version 101015 adopted changed Expr
  * version 100826 added code for in-system compilation
  * version 100512 adopted changed JMthd
@@ -98,6 +99,7 @@ public class StVrbl extends Stmt
 				offset -= var.minSize; //scalar, take minimum size
 			offset &= ~ctx.arch.stackClearBits; //align inside stack
 			var.relOff = offset;
+			mthdContext.getWriteState().add(var);
 			if (var.init != null)
 			{
 				if (!var.init.resolve(unitContext, mthdContext, getExprFromStmtFlowCode(flowCode) | Expr.RF_CHECKREAD, var.type, ctx))
@@ -107,7 +109,7 @@ public class StVrbl extends Stmt
 				}
 				if (!SJava.checkVarInitType(var, (mthdContext.marker & Marks.K_EXPC) != 0, unitContext, ctx))
 					return FA_ERROR;
-				var.modifier |= Modifier.MF_ISWRITTEN; //initialized variables are written
+				var.setWritten(); //initialized variables are written
 			}
 			if (origLastNextVrbl != null)
 				last.nextVrbl = origLastNextVrbl; //restore previously changed nextVrbl
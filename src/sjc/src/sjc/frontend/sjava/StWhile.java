@@ -27,7 +27,8 @@ import sjc.debug.CodePrinter;
  * StWhile: while- and do-while-loop
  *
  * @author S. Frenz
- * @version 121017 added code printer support for labels
+ * @version 261018 bitset based write state
+ * version 121017 added code printer support for labels
  * version 120923 added support for code printer
  * version 101015 adopted changed Expr
  * version 100922 added F_LOOPEND
@@ -73,7 +74,7 @@ public class StWhile extends StLoop
 	protected int innerResolve(int flowCode, Unit unitContext, Mthd mthdContext, Context ctx)
 	{
 		int oldLoopState = flowCode & FA_INSIDE_LOOP;
-		VrblStateList preState = null;
+		VrblState preState = null;
 		
 		flowCode |= FA_INSIDE_LOOP;
 		if (inclusiveWhile)
@@ -87,12 +88,12 @@ public class StWhile extends StLoop
 			if (!cond.resolve(unitContext, mthdContext, getExprFromStmtFlowCode(flowCode) | (Expr.RF_CHECKREAD | Expr.RF_INSIDE_LOOP), null, ctx))
 				return FA_ERROR;
 			if (cond.calcConstantType(ctx) != StdTypes.T_INT || cond.getConstIntValue(ctx) != 1)
-				preState = ctx.copyVrblListState(mthdContext.vars, mthdContext.checkInitVars);
+				preState = ctx.copyVrblState(mthdContext);
 			flowCode = loStmt.resolve(flowCode, unitContext, mthdContext, ctx);
 			if (preState != null)
 			{
-				ctx.setVrblListState(mthdContext.vars, mthdContext.checkInitVars, preState);
-				ctx.recycleVrblStatelist(preState);
+				ctx.setVrblState(mthdContext, preState);
+				ctx.recycleVrblState(preState);
 			}
 		}
 		
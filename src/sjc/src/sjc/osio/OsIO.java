@@ -24,7 +24,8 @@ import sjc.compbase.StringList;
  * OsIO: interface to operating system input output routines
  *
  * @author S. Frenz
- * @version 100513 removed getNewTextReader
+ * @version 261018 added support for parallel tasks
+ * version 100513 removed getNewTextReader
  * version 100423 simplified checkMagicAccess
  * version 100421 added checkMagicAccess
  * version 090311 added getTimeInfo
@@ -49,4 +50,25 @@ public abstract class OsIO
 	{
 		return true;
 	} //has to be overwritten to enable controlled MAGIC-access
+	
+	public boolean supportsParallelTasks()
+	{
+		return false;
+	} //has to be overwritten if runParallel really uses more than one thread
+	
+	public void runParallel(ParallelTask[] tasks, int count)
+	{
+		int i;
+		
+		for (i = 0; i < count; i++)
+			tasks[i].run();
+	} //default: run all tasks one after another
+	
+	public void enterExclusive()
+	{
+	} //has to be overwritten if runParallel really uses more than one thread, lock has to be reentrant
+	
+	public void leaveExclusive()
+	{
+	} //counterpart of enterExclusive
 }
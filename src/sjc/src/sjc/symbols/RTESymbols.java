@@ -26,7 +26,8 @@ import sjc.osio.TextPrinter;
  * RawSymbols: generate output for all packages, append information at units and methods
  *
  * @author S. Frenz
- * @version 120227 cleaned up "package sjc." typo
+ * @version 261018 added compact lineTable, included only for methods with source line hints
+ * version 120227 cleaned up "package sjc." typo
  * version 101231 added noPackOuter, noClassMod and noClassPack options
  * version 101227 removed package list as it is not enough comprehensible
  * version 101226 added support for package list, adopted changed SymbolInformer
@@ -52,8 +53,9 @@ public class RTESymbols extends SymbolInformer
 	private TextBuffer myBuffer;
 	private int packNamePos, packOuterPos, packSubPacksPos, packNextPackPos, packUnitsPos;
 	private int unitNamePos, unitModifierPos, unitNextUnitPos, unitPackPos, unitMthdsPos;
-	private int mthdNameParPos, mthdModifierPos, mthdOwnerPos, mthdNextMthdPos, mthdLineInCodeOffsetPos;
-	private int addedUnitSize, addedMthdSize;
+	private int mthdNameParPos, mthdModifierPos, mthdOwnerPos, mthdNextMthdPos, mthdLineInCodeOffsetPos, mthdLineTablePos;
+	private int addedUnitSize, addedMthdSize, lineTableCnt, lineTableMem;
+	private LineTable lineTable;
 	private boolean noSLHI, noClassMod, noClassPack, noPackOuter;
 	
 	private final static String NOSLHI = "skipping source line information in RTESymbols (";
@@ -120,11 +122,16 @@ public class RTESymbols extends SymbolInformer
 		{
 			return false;
 		}
+		mthdLineTablePos = mthdLineInCodeOffsetPos = AccVar.INV_RELOFF;
 		if (noSLHI)
 		{
 			ctx.out.print(NOSLHI);
 			ctx.out.println("explicit off-option given)");
-			mthdLineInCodeOffsetPos = AccVar.INV_RELOFF;
+		}
+		else if (ctx.rteSMthdBlock.searchVariable("lineTable", ctx) != null)
+		{ //compact line table is preferred over offset/line pairs
+			if ((mthdLineTablePos = checkVrbl(ctx.rteSMthdBlock, "lineTable")) == AccVar.INV_RELOFF)
+				return false;
 		}
 		else if ((mthdLineInCodeOffsetPos = checkVrbl(ctx.rteSMthdBlock, "lineInCodeOffset")) == AccVar.INV_RELOFF)
 		{
@@ -135,9 +142,18 @@ public class RTESymbols extends SymbolInformer
 		addedUnitSize = (4 * ctx.arch.relocBytes + 4 + ctx.arch.allocClearBits) & ~ctx.arch.allocClearBits;
 		addedMthdSize = (2 * ctx.arch.relocBytes + 4 + ctx.arch.allocClearBits) & ~ctx.arch.allocClearBits;
 		//generate tree and enter root-object in static root-field
+		lineTableCnt = lineTableMem = 0;
 		if ((rootObj = genPackage(ctx.root, null)) == null)
 			return false;
 		ctx.arch.putRef(packUnit.outputLocation, rootVar.relOff, rootObj, 0);
+		if (lineTableCnt > 0)
+		{
+			ctx.out.print("line tables for ");
+			ctx.out.print(lineTableCnt);
+			ctx.out.print(" methods: ");
+			ctx.out.print(lineTableMem);
+			ctx.out.println(" b");
+		}
 		//everything done
 		return !ctx.err;
 	}
@@ -221,13 +237,35 @@ public class RTESymbols extends SymbolInformer
 				else
 					command = 0;
 				ctx.mem.putInt(mthd.outputLocation, mthdModifierPos, mthd.modifier | command);
-				if (mthdLineInCodeOffsetPos != AccVar.INV_RELOFF)
-				{
-					ctx.arch.putRef(mthd.outputLocation, mthdLineInCodeOffsetPos, ctx.allocateIntArray(mthd.lineInCodeOffset), 0);
+				if ((mthdLineTablePos != AccVar.INV_RELOFF || mthdLineInCodeOffsetPos != AccVar.INV_RELOFF) && mthd.lineTable != null && (ctx.globalSourceLineHints || (mthd.marker & Marks.K_SLHI) != 0))
+				{ //line tables are recorded for all methods, but only included if requested
+					int allocHint = ctx.mem.getCurrentAllocAmountHint();
+					if (mthdLineTablePos != AccVar.INV_RELOFF)
+						ctx.arch.putRef(mthd.outputLocation, mthdLineTablePos, ctx.allocateByteArray(mthd.lineTable), 0);
+					else if (mthdLineInCodeOffsetPos != AccVar.INV_RELOFF)
+						ctx.arch.putRef(mthd.outputLocation, mthdLineInCodeOffsetPos, ctx.allocateIntArray(getLineInCodeOffset(mthd.lineTable)), 0);
+					lineTableMem += ctx.mem.getCurrentAllocAmountHint() - allocHint;
+					lineTableCnt++;
 				}
 			}
 			mthd = mthd.nextMthd;
 		}
 		return firstMthdObj;
 	}
+	
+	private int[] getLineInCodeOffset(byte[] table)
+	{ //offset/line pairs with offsets relative to the method object
+		int[] res = new int[LineTable.getEntryCount(table) << 1];
+		int i = 0;
+		
+		if (lineTable == null)
+			lineTable = new LineTable();
+		lineTable.startDecoding(table);
+		while (lineTable.next())
+		{
+			res[i++] = ctx.codeStart + lineTable.offset;
+			res[i++] = lineTable.line;
+		}
+		return res;
+	}
 }